@@ -0,0 +1,58 @@
+package com.example.apimonitoring.archive;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * A sealed segment read back through a read-only memory mapping. Cursors decode the columns
+ * straight from the page cache, row by row, so reading a segment does not copy it onto the heap.
+ */
+public class ArchiveSegment {
+    
+    private final long endpointId;
+    private final LocalDate day;
+    private final SegmentCodec.Segment segment;
+    private final long fileSize;
+    
+    private ArchiveSegment(SegmentCodec.Segment segment, long fileSize) {
+        this.endpointId = segment.endpointId();
+        this.day = LocalDate.ofEpochDay(segment.epochDay());
+        this.segment = segment;
+        this.fileSize = fileSize;
+    }
+    
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // The mapping stays valid after the channel is closed
+            return new ArchiveSegment(SegmentCodec.read(buffer), channel.size());
+        }
+    }
+    
+    public long getEndpointId() {
+        return endpointId;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    public int getSize() {
+        return segment.size();
+    }
+    
+    /**
+     * @return a new cursor before the segment's first check
+     */
+    public SegmentCodec.Cursor cursor() {
+        return segment.cursor();
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+}
\ No newline at end of file
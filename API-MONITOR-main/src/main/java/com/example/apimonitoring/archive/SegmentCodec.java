@@ -0,0 +1,476 @@
+package com.example.apimonitoring.archive;
+
+import com.example.apimonitoring.model.FailureClass;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of an archive segment: a header (magic, version, endpoint id, epoch day, row
+ * count), six length-prefixed column blocks and a trailing CRC32 of everything before it.
+ * <ul>
+ * <li>timestamps: first value, first delta, then zigzag varint delta-of-deltas, which are close
+ * to zero for a steady probe interval and take one byte each</li>
+ * <li>latencies: each value (+1, so 0 means missing) XORed with the previous one, as a varint;
+ * neighbouring latencies share their high bits, so most rows need one or two bytes</li>
+ * <li>success flags: the first flag, then the lengths of alternating runs</li>
+ * <li>status codes: (code + 1, run length) pairs</li>
+ * <li>failure classes: (class code, run length) pairs</li>
+ * <li>error messages: a dictionary of distinct messages, then (dictionary id + 1, run length)
+ * pairs</li>
+ * </ul>
+ */
+public final class SegmentCodec {
+    
+    private static final int MAGIC = 0x48435331; // "HCS1"
+    private static final byte VERSION = 1;
+    
+    private SegmentCodec() {}
+    
+    public static byte[] encode(long endpointId, long epochDay, SegmentColumns columns) {
+        int size = columns.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + size * 4);
+        writeInt(out, MAGIC);
+        out.write(VERSION);
+        writeLong(out, endpointId);
+        writeLong(out, epochDay);
+        writeVarint(out, size);
+        
+        writeBlock(out, encodeTimestamps(columns));
+        writeBlock(out, encodeLatencies(columns));
+        writeBlock(out, encodeSuccesses(columns));
+        writeBlock(out, encodeStatusCodes(columns));
+        writeBlock(out, encodeFailureClasses(columns));
+        writeBlock(out, encodeErrors(columns));
+        
+        CRC32 crc = new CRC32();
+        byte[] body = out.toByteArray();
+        crc.update(body);
+        writeInt(out, (int) crc.getValue());
+        return out.toByteArray();
+    }
+    
+    /**
+     * Checks a segment's length, checksum and version. Its columns are not decoded here: the
+     * returned segment keeps them as slices of {@code source}, and its cursors decode them as they
+     * advance. The buffer's position is left unchanged.
+     *
+     * @throws IllegalStateException if the segment is truncated, corrupt or of an unknown version
+     */
+    public static Segment read(ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate();
+        if (buffer.remaining() < 4 + 1 + 8 + 8 + 1 + 4) {
+            throw new IllegalStateException("Archive segment too short");
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.slice(buffer.position(), buffer.remaining() - 4);
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IllegalStateException("Archive segment checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " archive segment");
+        }
+        
+        long endpointId = buffer.getLong();
+        long epochDay = buffer.getLong();
+        int size = (int) readVarint(buffer);
+        
+        ByteBuffer timestamps = block(buffer);
+        ByteBuffer latencies = block(buffer);
+        ByteBuffer successes = block(buffer);
+        ByteBuffer statusCodes = block(buffer);
+        ByteBuffer failureClasses = block(buffer);
+        ByteBuffer errors = block(buffer);
+        return new Segment(endpointId, epochDay, size, timestamps, latencies, successes, statusCodes,
+                failureClasses, errors);
+    }
+    
+    /**
+     * A checked segment whose column blocks are still encoded.
+     */
+    public static final class Segment {
+        
+        private final long endpointId;
+        private final long epochDay;
+        private final int size;
+        private final ByteBuffer timestamps;
+        private final ByteBuffer latencies;
+        private final ByteBuffer successes;
+        private final ByteBuffer statusCodes;
+        private final ByteBuffer failureClasses;
+        private final ByteBuffer errors;
+        
+        private Segment(long endpointId, long epochDay, int size, ByteBuffer timestamps, ByteBuffer latencies,
+                        ByteBuffer successes, ByteBuffer statusCodes, ByteBuffer failureClasses, ByteBuffer errors) {
+            this.endpointId = endpointId;
+            this.epochDay = epochDay;
+            this.size = size;
+            this.timestamps = timestamps;
+            this.latencies = latencies;
+            this.successes = successes;
+            this.statusCodes = statusCodes;
+            this.failureClasses = failureClasses;
+            this.errors = errors;
+        }
+        
+        public long endpointId() {
+            return endpointId;
+        }
+        
+        public long epochDay() {
+            return epochDay;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        /**
+         * @return a new cursor before the first row
+         */
+        public Cursor cursor() {
+            return new Cursor(this);
+        }
+    }
+    
+    /**
+     * Walks a segment's rows oldest first, decoding one value per column at a time. Only the
+     * error message dictionary is read up front.
+     * <p>
+     * {@link #seek} moves along the timestamp column alone; the other columns catch up with it on
+     * the next {@link #next()}, so rows before a range are never turned into values.
+     */
+    public static final class Cursor {
+        
+        private final int size;
+        private final ByteBuffer timestamps;
+        private final ByteBuffer latencies;
+        private final ByteBuffer successes;
+        private final RunDecoder statusCodes;
+        private final RunDecoder failureClasses;
+        private final RunDecoder errorIds;
+        private final String[] dictionary;
+        
+        private int timestampPosition; // Rows whose timestamp has been consumed
+        private int columnPosition;    // Rows the other columns have been decoded up to
+        private long nextTimestamp;
+        private long timestampDelta;
+        private long previousLatency;
+        private boolean successValue;
+        private long successRun;
+        
+        private long timestamp;
+        private Long latency;
+        private boolean successful;
+        private Integer statusCode;
+        private FailureClass failureClass;
+        private String error;
+        
+        private Cursor(Segment segment) {
+            this.size = segment.size;
+            this.timestamps = segment.timestamps.duplicate();
+            this.latencies = segment.latencies.duplicate();
+            this.successes = segment.successes.duplicate();
+            this.statusCodes = new RunDecoder(segment.statusCodes.duplicate());
+            this.failureClasses = new RunDecoder(segment.failureClasses.duplicate());
+            ByteBuffer errors = segment.errors.duplicate();
+            this.dictionary = new String[(int) readVarint(errors)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[(int) readVarint(errors)];
+                errors.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            this.errorIds = new RunDecoder(errors);
+            if (size > 0) {
+                // Every run, the first included, flips the flag before it is used
+                successValue = successes.get() == 0;
+                nextTimestamp = unzigzag(readVarint(timestamps));
+            }
+        }
+        
+        /**
+         * Skips the rows before {@code timestampMillis}, so the next {@link #next()} moves to the
+         * first row at or after it.
+         */
+        public void seek(long timestampMillis) {
+            while (timestampPosition < size && nextTimestamp < timestampMillis) {
+                advanceTimestamp();
+            }
+        }
+        
+        /**
+         * @return the timestamp of the row {@link #next()} moves to, or {@link Long#MAX_VALUE}
+         * after the last row
+         */
+        public long peekTimestamp() {
+            return timestampPosition < size ? nextTimestamp : Long.MAX_VALUE;
+        }
+        
+        /**
+         * Moves to the next row.
+         *
+         * @return false after the last row
+         */
+        public boolean next() {
+            if (timestampPosition == size) {
+                return false;
+            }
+            while (columnPosition < timestampPosition) {
+                decodeColumns();
+            }
+            timestamp = nextTimestamp;
+            advanceTimestamp();
+            decodeColumns();
+            return true;
+        }
+        
+        public long timestamp() {
+            return timestamp;
+        }
+        
+        public Long latency() {
+            return latency;
+        }
+        
+        public boolean successful() {
+            return successful;
+        }
+        
+        public Integer statusCode() {
+            return statusCode;
+        }
+        
+        public FailureClass failureClass() {
+            return failureClass;
+        }
+        
+        public String error() {
+            return error;
+        }
+        
+        private void advanceTimestamp() {
+            timestampPosition++;
+            if (timestampPosition < size) {
+                long value = unzigzag(readVarint(timestamps));
+                timestampDelta = timestampPosition == 1 ? value : timestampDelta + value;
+                nextTimestamp += timestampDelta;
+            }
+        }
+        
+        private void decodeColumns() {
+            long value = readVarint(latencies) ^ previousLatency;
+            previousLatency = value;
+            latency = value > 0 ? value - 1 : null;
+            
+            while (successRun == 0) {
+                successRun = readVarint(successes);
+                successValue = !successValue;
+            }
+            successRun--;
+            successful = successValue;
+            
+            // RunDecoder returns code - 1, so a missing value comes back as -1
+            int status = statusCodes.next();
+            statusCode = status >= 0 ? status : null;
+            int failure = failureClasses.next();
+            failureClass = failure >= 0 ? FailureClass.fromCode(failure + 1) : null;
+            int errorId = errorIds.next();
+            error = errorId >= 0 ? dictionary[errorId] : null;
+            columnPosition++;
+        }
+    }
+    
+    private static byte[] encodeTimestamps(SegmentColumns columns) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            long timestamp = columns.timestampAt(i);
+            if (i == 0) {
+                writeVarint(out, zigzag(timestamp));
+            } else {
+                long delta = timestamp - previous;
+                writeVarint(out, zigzag(i == 1 ? delta : delta - previousDelta));
+                previousDelta = delta;
+            }
+            previous = timestamp;
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] encodeLatencies(SegmentColumns columns) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            Long latency = columns.latencyAt(i);
+            long value = latency != null ? latency + 1 : 0;
+            writeVarint(out, value ^ previous);
+            previous = value;
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] encodeSuccesses(SegmentColumns columns) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (columns.size() == 0) {
+            return out.toByteArray();
+        }
+        boolean current = columns.successAt(0);
+        out.write(current ? 1 : 0);
+        long run = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.successAt(i) != current) {
+                writeVarint(out, run);
+                current = !current;
+                run = 0;
+            }
+            run++;
+        }
+        writeVarint(out, run);
+        return out.toByteArray();
+    }
+    
+    private static byte[] encodeStatusCodes(SegmentColumns columns) {
+        int[] values = new int[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            Integer statusCode = columns.statusCodeAt(i);
+            values[i] = statusCode != null ? statusCode + 1 : 0;
+        }
+        return encodeRuns(values);
+    }
+    
+    private static byte[] encodeFailureClasses(SegmentColumns columns) {
+        int[] values = new int[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns.failureClassCodeAt(i);
+        }
+        return encodeRuns(values);
+    }
+    
+    private static byte[] encodeErrors(SegmentColumns columns) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] ids = new int[columns.size()];
+        for (int i = 0; i < ids.length; i++) {
+            String error = columns.errorAt(i);
+            if (error != null) {
+                ids[i] = dictionary.computeIfAbsent(error, e -> {
+                    entries.add(e);
+                    return entries.size();
+                });
+            }
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, entries.size());
+        for (String entry : entries) {
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        out.writeBytes(encodeRuns(ids));
+        return out.toByteArray();
+    }
+    
+    /**
+     * (value, run length) pairs of non-negative values.
+     */
+    private static byte[] encodeRuns(int[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < values.length) {
+            int value = values[i];
+            int run = 1;
+            while (i + run < values.length && values[i + run] == value) {
+                run++;
+            }
+            writeVarint(out, value);
+            writeVarint(out, run);
+            i += run;
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Reads {@link #encodeRuns} output one value at a time, returning each value minus one (so 0
+     * becomes -1).
+     */
+    private static final class RunDecoder {
+        
+        private final ByteBuffer buffer;
+        private int value;
+        private long remaining;
+        
+        RunDecoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        int next() {
+            if (remaining == 0) {
+                value = (int) readVarint(buffer) - 1;
+                remaining = readVarint(buffer);
+            }
+            remaining--;
+            return value;
+        }
+    }
+    
+    private static ByteBuffer block(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        ByteBuffer block = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return block;
+    }
+    
+    private static void writeBlock(ByteArrayOutputStream out, byte[] block) {
+        writeVarint(out, block.length);
+        out.writeBytes(block);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+    
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+}
\ No newline at end of file
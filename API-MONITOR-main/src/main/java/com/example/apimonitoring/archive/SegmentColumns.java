@@ -0,0 +1,92 @@
+package com.example.apimonitoring.archive;
+
+import com.example.apimonitoring.model.FailureClass;
+
+import java.util.Arrays;
+
+/**
+ * Column-oriented, time-ordered health checks of one endpoint-day, collected from the row store
+ * to be encoded into an archive segment. Missing latencies and status codes are stored as -1, a
+ * missing failure class as code 0.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class SegmentColumns {
+    
+    private long[] timestamps;
+    private long[] latencies;
+    private boolean[] successes;
+    private int[] statusCodes;
+    private int[] failureClasses;
+    private String[] errors;
+    private int size;
+    
+    public SegmentColumns() {
+        this(64);
+    }
+    
+    public SegmentColumns(int capacity) {
+        int initial = Math.max(1, capacity);
+        timestamps = new long[initial];
+        latencies = new long[initial];
+        successes = new boolean[initial];
+        statusCodes = new int[initial];
+        failureClasses = new int[initial];
+        errors = new String[initial];
+    }
+    
+    /**
+     * Appends a check. Timestamps must not decrease.
+     */
+    public void add(long timestampMillis, Long latency, boolean successful, Integer statusCode,
+                    FailureClass failureClass, String error) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            latencies = Arrays.copyOf(latencies, capacity);
+            successes = Arrays.copyOf(successes, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            failureClasses = Arrays.copyOf(failureClasses, capacity);
+            errors = Arrays.copyOf(errors, capacity);
+        }
+        timestamps[size] = timestampMillis;
+        latencies[size] = latency != null ? latency : -1;
+        successes[size] = successful;
+        statusCodes[size] = statusCode != null ? statusCode : -1;
+        failureClasses[size] = failureClass != null ? failureClass.getCode() : 0;
+        errors[size] = error;
+        size++;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+    
+    public Long latencyAt(int index) {
+        return latencies[index] >= 0 ? latencies[index] : null;
+    }
+    
+    public boolean successAt(int index) {
+        return successes[index];
+    }
+    
+    public Integer statusCodeAt(int index) {
+        return statusCodes[index] >= 0 ? statusCodes[index] : null;
+    }
+    
+    public FailureClass failureClassAt(int index) {
+        return failureClasses[index] != 0 ? FailureClass.fromCode(failureClasses[index]) : null;
+    }
+    
+    int failureClassCodeAt(int index) {
+        return failureClasses[index];
+    }
+    
+    public String errorAt(int index) {
+        return errors[index];
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.apimonitoring.config;
 
 import com.example.apimonitoring.model.ApiEndpoint;
 import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.service.EndpointRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +15,12 @@ public class DataInitializer implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
     
     private final ApiEndpointRepository apiEndpointRepository;
+    private final EndpointRegistry endpointRegistry;
     
     @Autowired
-    public DataInitializer(ApiEndpointRepository apiEndpointRepository) {
+    public DataInitializer(ApiEndpointRepository apiEndpointRepository, EndpointRegistry endpointRegistry) {
         this.apiEndpointRepository = apiEndpointRepository;
+        this.endpointRegistry = endpointRegistry;
     }
     
     @Override
@@ -55,6 +58,8 @@ public class DataInitializer implements CommandLineRunner {
             apiEndpointRepository.save(endpoint2);
             apiEndpointRepository.save(endpoint3);
             apiEndpointRepository.save(endpoint4);
+            // Saved directly rather than through the service, so reload the registry once
+            endpointRegistry.load();
             
             logger.info("Sample API endpoints initialized successfully");
         } else {
@@ -1,5 +1,7 @@
 package com.example.apimonitoring.config;
 
+import com.example.apimonitoring.service.ProbeConnectionPool;
+import com.example.apimonitoring.service.ProbeDnsResolver;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
@@ -10,9 +12,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2SslContextSpec;
 import reactor.netty.http.client.HttpClient;
 
 import javax.net.ssl.SSLException;
@@ -28,6 +32,12 @@ public class WebClientConfig {
     @Autowired
     private Environment environment;
     
+    @Autowired
+    private ProbeConnectionPool probeConnectionPool;
+    
+    @Autowired
+    private ProbeDnsResolver probeDnsResolver;
+    
     @PostConstruct
     public void logConfiguration() {
         System.out.println("🔧 WebClientConfig initialized!");
@@ -37,6 +47,7 @@ public class WebClientConfig {
     }
     
     @Bean
+    @Primary
     public WebClient.Builder webClientBuilder() {
         System.out.println("🚀 Building WebClient...");
         logger.error("🚀 FORCE LOG - Building WebClient with SSL ignore: {}", ignoreCertificateErrors);
@@ -50,6 +61,11 @@ public class WebClientConfig {
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
                 .defaultHeader("User-Agent", "API-Monitoring-Service");
         
+        // Probes share per-host keep-alive pools instead of reactor-netty's global defaults,
+        // and resolve hostnames through a bounded non-blocking DNS cache
+        HttpClient httpClient = probeConnectionPool.configure(HttpClient.create(probeConnectionPool.getConnectionProvider()));
+        httpClient = probeDnsResolver.configure(httpClient);
+        
         if (ignoreCertificateErrors) {
             System.out.println("🚨 SSL VERIFICATION DISABLED!");
             logger.error("🚨 FORCE LOG - SSL certificate validation is DISABLED!");
@@ -61,10 +77,8 @@ public class WebClientConfig {
                         .trustManager(InsecureTrustManagerFactory.INSTANCE)
                         .build();
                 
-                HttpClient httpClient = HttpClient.create()
-                        .secure(sslContextSpec -> sslContextSpec.sslContext(sslContext));
+                httpClient = httpClient.secure(sslContextSpec -> sslContextSpec.sslContext(sslContext));
                 
-                builder.clientConnector(new ReactorClientHttpConnector(httpClient));
                 System.out.println("✅ Insecure SSL context configured successfully!");
                 logger.error("✅ FORCE LOG - Insecure SSL context successfully configured");
                 
@@ -78,8 +92,32 @@ public class WebClientConfig {
             logger.error("🔒 FORCE LOG - SSL certificate validation is ENABLED (secure mode)");
         }
         
+        builder.clientConnector(new ReactorClientHttpConnector(httpClient));
         System.out.println("🎯 WebClient configuration complete");
         logger.info("==============================");
         return builder;
     }
+    
+    /**
+     * Client for endpoints probed over HTTP/2: negotiates h2 (ALPN) or h2c (upgrade) and falls
+     * back to HTTP/1.1, on the probe pool's HTTP/2 connections.
+     */
+    @Bean
+    public WebClient.Builder http2WebClientBuilder() {
+        HttpClient httpClient = probeConnectionPool.configureHttp2(HttpClient.create(probeConnectionPool.getHttp2ConnectionProvider()));
+        httpClient = probeDnsResolver.configure(httpClient);
+        
+        if (ignoreCertificateErrors) {
+            // ALPN has to be part of the SSL context for h2 to be offered
+            logger.warn("🚨 SSL certificate validation is DISABLED for HTTP/2 probes too!");
+            httpClient = httpClient.secure(sslContextSpec -> sslContextSpec.sslContext(
+                    Http2SslContextSpec.forClient()
+                            .configure(sslContextBuilder -> sslContextBuilder.trustManager(InsecureTrustManagerFactory.INSTANCE))));
+        }
+        
+        return WebClient.builder()
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .defaultHeader("User-Agent", "API-Monitoring-Service")
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
 }
\ No newline at end of file
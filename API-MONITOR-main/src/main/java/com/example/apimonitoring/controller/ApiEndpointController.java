@@ -1,6 +1,7 @@
 package com.example.apimonitoring.controller;
 
 import com.example.apimonitoring.dto.ApiEndpointRequest;
+import com.example.apimonitoring.dto.EndpointSummary;
 import com.example.apimonitoring.model.ApiEndpoint;
 import com.example.apimonitoring.service.ApiEndpointService;
 import jakarta.validation.Valid;
@@ -25,14 +26,14 @@ public class ApiEndpointController {
     }
     
     @GetMapping
-    public ResponseEntity<List<ApiEndpoint>> getAllEndpoints() {
-        List<ApiEndpoint> endpoints = apiEndpointService.getAllEndpoints();
+    public ResponseEntity<List<EndpointSummary>> getAllEndpoints() {
+        List<EndpointSummary> endpoints = apiEndpointService.getEndpointSummaries();
         return ResponseEntity.ok(endpoints);
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<ApiEndpoint>> getActiveEndpoints() {
-        List<ApiEndpoint> endpoints = apiEndpointService.getActiveEndpoints();
+    public ResponseEntity<List<EndpointSummary>> getActiveEndpoints() {
+        List<EndpointSummary> endpoints = apiEndpointService.getActiveEndpointSummaries();
         return ResponseEntity.ok(endpoints);
     }
     
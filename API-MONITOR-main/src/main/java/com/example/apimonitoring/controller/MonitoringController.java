@@ -1,14 +1,41 @@
 package com.example.apimonitoring.controller;
 
+import com.example.apimonitoring.dto.ArchiveReport;
+import com.example.apimonitoring.dto.ConnectionPoolStatus;
+import com.example.apimonitoring.dto.DnsCacheStatus;
+import com.example.apimonitoring.dto.EndpointScheduleStatus;
+import com.example.apimonitoring.dto.FailureClassCount;
+import com.example.apimonitoring.dto.HealthCheckPage;
 import com.example.apimonitoring.dto.MonitoringStats;
-import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.dto.ProbeEngineStatus;
+import com.example.apimonitoring.dto.ProbeTickResult;
+import com.example.apimonitoring.dto.QueryBenchmarkReport;
+import com.example.apimonitoring.dto.RangeStats;
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.dto.TimeSeries;
+import com.example.apimonitoring.dto.UptimeWindow;
+import com.example.apimonitoring.service.ArchiveService;
+import com.example.apimonitoring.service.EndpointScheduler;
+import com.example.apimonitoring.service.HealthCheckExporter;
 import com.example.apimonitoring.service.HealthCheckService;
 import com.example.apimonitoring.service.MonitoringService;
+import com.example.apimonitoring.service.MonitoringStreamService;
+import com.example.apimonitoring.service.ProbeConnectionPool;
+import com.example.apimonitoring.service.ProbeDnsResolver;
+import com.example.apimonitoring.service.ProbeEngine;
+import com.example.apimonitoring.service.QueryBenchmarkService;
+import com.example.apimonitoring.service.RetentionService;
+import com.example.apimonitoring.service.TimeSeriesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,11 +46,41 @@ public class MonitoringController {
     
     private final MonitoringService monitoringService;
     private final HealthCheckService healthCheckService;
+    private final ProbeEngine probeEngine;
+    private final EndpointScheduler endpointScheduler;
+    private final ProbeConnectionPool probeConnectionPool;
+    private final ProbeDnsResolver probeDnsResolver;
+    private final RetentionService retentionService;
+    private final MonitoringStreamService monitoringStreamService;
+    private final HealthCheckExporter healthCheckExporter;
+    private final TimeSeriesService timeSeriesService;
+    private final ArchiveService archiveService;
+    private final QueryBenchmarkService queryBenchmarkService;
     
     @Autowired
-    public MonitoringController(MonitoringService monitoringService, HealthCheckService healthCheckService) {
+    public MonitoringController(MonitoringService monitoringService, HealthCheckService healthCheckService,
+                                ProbeEngine probeEngine, EndpointScheduler endpointScheduler,
+                                ProbeConnectionPool probeConnectionPool, ProbeDnsResolver probeDnsResolver,
+                                RetentionService retentionService, MonitoringStreamService monitoringStreamService,
+                                HealthCheckExporter healthCheckExporter, TimeSeriesService timeSeriesService,
+                                ArchiveService archiveService, QueryBenchmarkService queryBenchmarkService) {
         this.monitoringService = monitoringService;
         this.healthCheckService = healthCheckService;
+        this.probeEngine = probeEngine;
+        this.endpointScheduler = endpointScheduler;
+        this.probeConnectionPool = probeConnectionPool;
+        this.probeDnsResolver = probeDnsResolver;
+        this.retentionService = retentionService;
+        this.monitoringStreamService = monitoringStreamService;
+        this.healthCheckExporter = healthCheckExporter;
+        this.timeSeriesService = timeSeriesService;
+        this.archiveService = archiveService;
+        this.queryBenchmarkService = queryBenchmarkService;
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMonitoringUpdates() {
+        return monitoringStreamService.subscribe();
     }
     
     @GetMapping("/stats")
@@ -48,18 +105,149 @@ public class MonitoringController {
         }
     }
     
+    @GetMapping("/stats/{endpointId}/uptime")
+    public ResponseEntity<List<UptimeWindow>> getUptimeWindows(@PathVariable Long endpointId) {
+        try {
+            List<UptimeWindow> windows = monitoringService.getUptimeWindows(endpointId);
+            return ResponseEntity.ok(windows);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/stats/{endpointId}/range")
+    public ResponseEntity<RangeStats> getRangeStats(
+            @PathVariable Long endpointId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            RangeStats stats = timeSeriesService.getRangeStats(endpointId, from, to != null ? to : LocalDateTime.now());
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/stats/{endpointId}/failures")
+    public ResponseEntity<List<FailureClassCount>> getFailureBreakdown(
+            @PathVariable Long endpointId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(healthCheckService.getFailureBreakdown(endpointId, start, end));
+    }
+    
+    @GetMapping("/series/{endpointId}")
+    public ResponseEntity<TimeSeries> getTimeSeries(
+            @PathVariable Long endpointId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int maxPoints,
+            @RequestParam(defaultValue = "buckets") String mode) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        try {
+            TimeSeriesService.Mode seriesMode = TimeSeriesService.Mode.valueOf(mode.toUpperCase());
+            TimeSeries series = timeSeriesService.getSeries(endpointId, start, end, maxPoints, seriesMode);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     @GetMapping("/health-checks/{endpointId}")
-    public ResponseEntity<List<HealthCheck>> getHealthCheckHistory(@PathVariable Long endpointId) {
-        List<HealthCheck> healthChecks = healthCheckService.getHealthCheckHistory(endpointId);
-        return ResponseEntity.ok(healthChecks);
+    public ResponseEntity<HealthCheckPage> getHealthCheckHistory(
+            @PathVariable Long endpointId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            HealthCheckPage page = healthCheckService.getHealthCheckPage(endpointId, null, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/health-checks/{endpointId}/since")
-    public ResponseEntity<List<HealthCheck>> getHealthChecksSince(
+    public ResponseEntity<HealthCheckPage> getHealthChecksSince(
             @PathVariable Long endpointId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
-        List<HealthCheck> healthChecks = healthCheckService.getHealthChecksSince(endpointId, since);
-        return ResponseEntity.ok(healthChecks);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            HealthCheckPage page = healthCheckService.getHealthCheckPage(endpointId, since, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/health-checks/{endpointId}/export")
+    public ResponseEntity<StreamingResponseBody> exportHealthChecks(
+            @PathVariable Long endpointId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        HealthCheckExporter.Format exportFormat;
+        try {
+            exportFormat = HealthCheckExporter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = outputStream ->
+                healthCheckExporter.export(endpointId, since, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"health-checks-" + endpointId + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/archive/{endpointId}/export")
+    public ResponseEntity<StreamingResponseBody> exportArchivedHealthChecks(
+            @PathVariable Long endpointId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        HealthCheckExporter.Format exportFormat;
+        try {
+            exportFormat = HealthCheckExporter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = outputStream ->
+                healthCheckExporter.exportArchive(endpointId, from, to, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"archive-" + endpointId + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/archive/report")
+    public ResponseEntity<ArchiveReport> getArchiveReport() {
+        return ResponseEntity.ok(archiveService.report());
+    }
+    
+    @PostMapping("/archive/seal")
+    public ResponseEntity<ArchiveReport> sealArchive() {
+        if (!archiveService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        archiveService.sealCompletedDays();
+        return ResponseEntity.ok(archiveService.report());
     }
     
     @PostMapping("/check/{endpointId}")
@@ -73,8 +261,68 @@ public class MonitoringController {
     }
     
     @PostMapping("/check/all")
-    public ResponseEntity<Void> performAllHealthChecks() {
-        monitoringService.performScheduledHealthChecks();
-        return ResponseEntity.ok().build();
+    public ResponseEntity<ProbeTickResult> performAllHealthChecks() {
+        ProbeTickResult result = monitoringService.performScheduledHealthChecks();
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/probe-engine")
+    public ResponseEntity<ProbeEngineStatus> getProbeEngineStatus() {
+        return ResponseEntity.ok(probeEngine.getStatus());
+    }
+    
+    @GetMapping("/scheduler")
+    public ResponseEntity<List<EndpointScheduleStatus>> getScheduleStatus() {
+        return ResponseEntity.ok(endpointScheduler.getScheduleStatus());
+    }
+    
+    @GetMapping("/connections")
+    public ResponseEntity<List<ConnectionPoolStatus>> getConnectionPoolStatus() {
+        return ResponseEntity.ok(probeConnectionPool.getStatus());
+    }
+    
+    @GetMapping("/dns")
+    public ResponseEntity<DnsCacheStatus> getDnsCacheStatus() {
+        return ResponseEntity.ok(probeDnsResolver.getStatus());
+    }
+    
+    @GetMapping("/retention")
+    public ResponseEntity<RetentionReport> getLastRetentionReport() {
+        return retentionService.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+    
+    @PostMapping("/retention/run")
+    public ResponseEntity<RetentionReport> runRetentionPurge() {
+        return ResponseEntity.ok(retentionService.purgeExpiredHealthChecks());
+    }
+    
+    @PostMapping("/benchmark/queries")
+    public ResponseEntity<QueryBenchmarkReport> benchmarkQueries(
+            @RequestParam(defaultValue = "1000000") long rows,
+            @RequestParam(defaultValue = "100") int endpoints) {
+        if (!queryBenchmarkService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(queryBenchmarkService.run(rows, endpoints));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/benchmark/probe-modes")
+    public ResponseEntity<List<ProbeTickResult>> compareProbeExecutionModes(
+            @RequestParam(defaultValue = "200") int endpoints,
+            @RequestParam(defaultValue = "50") long latencyMs) {
+        if (!probeEngine.isComparisonEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(probeEngine.compareModes(endpoints, Duration.ofMillis(latencyMs)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
\ No newline at end of file
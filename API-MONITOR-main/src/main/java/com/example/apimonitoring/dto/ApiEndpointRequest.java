@@ -25,8 +25,16 @@ public class ApiEndpointRequest {
     @Positive(message = "Check interval must be positive")
     private Long checkIntervalMs = 30000L;
     
+    @Positive(message = "Retention must be positive")
+    private Integer retentionDays;
+    
     private Boolean isActive = true;
     
+    private Boolean phaseTimingEnabled = true;
+    
+    @Pattern(regexp = "HTTP1|HTTP2", message = "Probe protocol must be HTTP1 or HTTP2")
+    private String probeProtocol = "HTTP1";
+    
     // Constructors
     public ApiEndpointRequest() {}
     
@@ -85,6 +93,14 @@ public class ApiEndpointRequest {
         this.checkIntervalMs = checkIntervalMs;
     }
     
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+    
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+    
     public Boolean getIsActive() {
         return isActive;
     }
@@ -92,4 +108,20 @@ public class ApiEndpointRequest {
     public void setIsActive(Boolean isActive) {
         this.isActive = isActive;
     }
+    
+    public Boolean getPhaseTimingEnabled() {
+        return phaseTimingEnabled;
+    }
+    
+    public void setPhaseTimingEnabled(Boolean phaseTimingEnabled) {
+        this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+    
+    public String getProbeProtocol() {
+        return probeProtocol;
+    }
+    
+    public void setProbeProtocol(String probeProtocol) {
+        this.probeProtocol = probeProtocol;
+    }
 }
\ No newline at end of file
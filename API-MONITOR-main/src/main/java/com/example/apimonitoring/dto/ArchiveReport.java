@@ -0,0 +1,130 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+public class ArchiveReport {
+    
+    private LocalDateTime generatedAt;
+    private Integer segmentCount;
+    private Long archivedBytes;
+    private Integer sampledSegments;
+    private Long sampledRows;
+    private Long sampledSegmentBytes;
+    private Long estimatedRowStoreBytes;
+    private Double compressionRatio;
+    private Double bytesPerCheck;
+    private Double archiveScanRowsPerSecond;
+    private Long rowStoreComparedRows;
+    private Double rowStoreScanRowsPerSecond;
+    
+    // Constructors
+    public ArchiveReport() {}
+    
+    public ArchiveReport(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+        this.segmentCount = 0;
+        this.archivedBytes = 0L;
+        this.sampledSegments = 0;
+        this.sampledRows = 0L;
+        this.sampledSegmentBytes = 0L;
+        this.estimatedRowStoreBytes = 0L;
+        this.rowStoreComparedRows = 0L;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+    
+    public Integer getSegmentCount() {
+        return segmentCount;
+    }
+    
+    public void setSegmentCount(Integer segmentCount) {
+        this.segmentCount = segmentCount;
+    }
+    
+    public Long getArchivedBytes() {
+        return archivedBytes;
+    }
+    
+    public void setArchivedBytes(Long archivedBytes) {
+        this.archivedBytes = archivedBytes;
+    }
+    
+    public Integer getSampledSegments() {
+        return sampledSegments;
+    }
+    
+    public void setSampledSegments(Integer sampledSegments) {
+        this.sampledSegments = sampledSegments;
+    }
+    
+    public Long getSampledRows() {
+        return sampledRows;
+    }
+    
+    public void setSampledRows(Long sampledRows) {
+        this.sampledRows = sampledRows;
+    }
+    
+    public Long getSampledSegmentBytes() {
+        return sampledSegmentBytes;
+    }
+    
+    public void setSampledSegmentBytes(Long sampledSegmentBytes) {
+        this.sampledSegmentBytes = sampledSegmentBytes;
+    }
+    
+    public Long getEstimatedRowStoreBytes() {
+        return estimatedRowStoreBytes;
+    }
+    
+    public void setEstimatedRowStoreBytes(Long estimatedRowStoreBytes) {
+        this.estimatedRowStoreBytes = estimatedRowStoreBytes;
+    }
+    
+    public Double getCompressionRatio() {
+        return compressionRatio;
+    }
+    
+    public void setCompressionRatio(Double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+    
+    public Double getBytesPerCheck() {
+        return bytesPerCheck;
+    }
+    
+    public void setBytesPerCheck(Double bytesPerCheck) {
+        this.bytesPerCheck = bytesPerCheck;
+    }
+    
+    public Double getArchiveScanRowsPerSecond() {
+        return archiveScanRowsPerSecond;
+    }
+    
+    public void setArchiveScanRowsPerSecond(Double archiveScanRowsPerSecond) {
+        this.archiveScanRowsPerSecond = archiveScanRowsPerSecond;
+    }
+    
+    public Long getRowStoreComparedRows() {
+        return rowStoreComparedRows;
+    }
+    
+    public void setRowStoreComparedRows(Long rowStoreComparedRows) {
+        this.rowStoreComparedRows = rowStoreComparedRows;
+    }
+    
+    public Double getRowStoreScanRowsPerSecond() {
+        return rowStoreScanRowsPerSecond;
+    }
+    
+    public void setRowStoreScanRowsPerSecond(Double rowStoreScanRowsPerSecond) {
+        this.rowStoreScanRowsPerSecond = rowStoreScanRowsPerSecond;
+    }
+}
\ No newline at end of file
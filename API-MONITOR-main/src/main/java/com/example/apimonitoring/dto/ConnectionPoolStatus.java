@@ -0,0 +1,131 @@
+package com.example.apimonitoring.dto;
+
+public class ConnectionPoolStatus {
+    
+    private String host;
+    private String protocol; // HTTP1, or HTTP2 for the pools of endpoints probed over HTTP/2
+    private Integer maxConnections;
+    private Integer activeConnections;
+    private Integer idleConnections;
+    private Integer allocatedConnections;
+    private Integer pendingAcquires;
+    private Long reusedAcquires;
+    private Long newConnectionAcquires;
+    private Double meanReusedAcquireMs;
+    private Double meanNewConnectionAcquireMs;
+    private Long multiplexedRequests; // HTTP2 pools: probes sent as HTTP/2 streams
+    private Long fallbackRequests; // HTTP2 pools: probes sent over HTTP/1.1 after negotiation fell back
+    
+    // Constructors
+    public ConnectionPoolStatus() {}
+    
+    public ConnectionPoolStatus(String host, Integer maxConnections) {
+        this.host = host;
+        this.maxConnections = maxConnections;
+    }
+    
+    // Getters and Setters
+    public String getHost() {
+        return host;
+    }
+    
+    public void setHost(String host) {
+        this.host = host;
+    }
+    
+    public String getProtocol() {
+        return protocol;
+    }
+    
+    public void setProtocol(String protocol) {
+        this.protocol = protocol;
+    }
+    
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+    
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+    
+    public Integer getActiveConnections() {
+        return activeConnections;
+    }
+    
+    public void setActiveConnections(Integer activeConnections) {
+        this.activeConnections = activeConnections;
+    }
+    
+    public Integer getIdleConnections() {
+        return idleConnections;
+    }
+    
+    public void setIdleConnections(Integer idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+    
+    public Integer getAllocatedConnections() {
+        return allocatedConnections;
+    }
+    
+    public void setAllocatedConnections(Integer allocatedConnections) {
+        this.allocatedConnections = allocatedConnections;
+    }
+    
+    public Integer getPendingAcquires() {
+        return pendingAcquires;
+    }
+    
+    public void setPendingAcquires(Integer pendingAcquires) {
+        this.pendingAcquires = pendingAcquires;
+    }
+    
+    public Long getReusedAcquires() {
+        return reusedAcquires;
+    }
+    
+    public void setReusedAcquires(Long reusedAcquires) {
+        this.reusedAcquires = reusedAcquires;
+    }
+    
+    public Long getNewConnectionAcquires() {
+        return newConnectionAcquires;
+    }
+    
+    public void setNewConnectionAcquires(Long newConnectionAcquires) {
+        this.newConnectionAcquires = newConnectionAcquires;
+    }
+    
+    public Double getMeanReusedAcquireMs() {
+        return meanReusedAcquireMs;
+    }
+    
+    public void setMeanReusedAcquireMs(Double meanReusedAcquireMs) {
+        this.meanReusedAcquireMs = meanReusedAcquireMs;
+    }
+    
+    public Double getMeanNewConnectionAcquireMs() {
+        return meanNewConnectionAcquireMs;
+    }
+    
+    public void setMeanNewConnectionAcquireMs(Double meanNewConnectionAcquireMs) {
+        this.meanNewConnectionAcquireMs = meanNewConnectionAcquireMs;
+    }
+    
+    public Long getMultiplexedRequests() {
+        return multiplexedRequests;
+    }
+    
+    public void setMultiplexedRequests(Long multiplexedRequests) {
+        this.multiplexedRequests = multiplexedRequests;
+    }
+    
+    public Long getFallbackRequests() {
+        return fallbackRequests;
+    }
+    
+    public void setFallbackRequests(Long fallbackRequests) {
+        this.fallbackRequests = fallbackRequests;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.apimonitoring.dto;
+
+import java.util.List;
+
+public class DnsCacheStatus {
+    
+    private Boolean enabled;
+    private Integer maxHosts;
+    private Integer cachedHosts;
+    private Integer minTtlSeconds;
+    private Integer maxTtlSeconds;
+    private Integer negativeTtlSeconds;
+    private List<String> nameServers; // Empty when the platform's resolv.conf is used
+    private Long hits;
+    private Long negativeHits; // Cached lookup failures
+    private Long misses; // Lookups that went to a name server
+    private Double hitRate;
+    private Long evictions; // Hostnames dropped to stay within maxHosts
+    private Integer warmedHosts;
+    private Integer warmupFailures;
+    
+    // Constructors
+    public DnsCacheStatus() {}
+    
+    public DnsCacheStatus(Boolean enabled, Integer maxHosts) {
+        this.enabled = enabled;
+        this.maxHosts = maxHosts;
+    }
+    
+    // Getters and Setters
+    public Boolean getEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Integer getMaxHosts() {
+        return maxHosts;
+    }
+    
+    public void setMaxHosts(Integer maxHosts) {
+        this.maxHosts = maxHosts;
+    }
+    
+    public Integer getCachedHosts() {
+        return cachedHosts;
+    }
+    
+    public void setCachedHosts(Integer cachedHosts) {
+        this.cachedHosts = cachedHosts;
+    }
+    
+    public Integer getMinTtlSeconds() {
+        return minTtlSeconds;
+    }
+    
+    public void setMinTtlSeconds(Integer minTtlSeconds) {
+        this.minTtlSeconds = minTtlSeconds;
+    }
+    
+    public Integer getMaxTtlSeconds() {
+        return maxTtlSeconds;
+    }
+    
+    public void setMaxTtlSeconds(Integer maxTtlSeconds) {
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+    
+    public Integer getNegativeTtlSeconds() {
+        return negativeTtlSeconds;
+    }
+    
+    public void setNegativeTtlSeconds(Integer negativeTtlSeconds) {
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+    
+    public List<String> getNameServers() {
+        return nameServers;
+    }
+    
+    public void setNameServers(List<String> nameServers) {
+        this.nameServers = nameServers;
+    }
+    
+    public Long getHits() {
+        return hits;
+    }
+    
+    public void setHits(Long hits) {
+        this.hits = hits;
+    }
+    
+    public Long getNegativeHits() {
+        return negativeHits;
+    }
+    
+    public void setNegativeHits(Long negativeHits) {
+        this.negativeHits = negativeHits;
+    }
+    
+    public Long getMisses() {
+        return misses;
+    }
+    
+    public void setMisses(Long misses) {
+        this.misses = misses;
+    }
+    
+    public Double getHitRate() {
+        return hitRate;
+    }
+    
+    public void setHitRate(Double hitRate) {
+        this.hitRate = hitRate;
+    }
+    
+    public Long getEvictions() {
+        return evictions;
+    }
+    
+    public void setEvictions(Long evictions) {
+        this.evictions = evictions;
+    }
+    
+    public Integer getWarmedHosts() {
+        return warmedHosts;
+    }
+    
+    public void setWarmedHosts(Integer warmedHosts) {
+        this.warmedHosts = warmedHosts;
+    }
+    
+    public Integer getWarmupFailures() {
+        return warmupFailures;
+    }
+    
+    public void setWarmupFailures(Integer warmupFailures) {
+        this.warmupFailures = warmupFailures;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+public class EndpointScheduleStatus {
+    
+    private Long endpointId;
+    private String endpointName;
+    private Long checkIntervalMs;
+    private Long effectiveIntervalMs; // Differs from checkIntervalMs when adaptive scheduling is on
+    private LocalDateTime nextDueAt;
+    private LocalDateTime lastDispatchedAt;
+    private Long lastLagMs;
+    private Long maxLagMs;
+    private Long dispatchCount;
+    private Long skippedCount; // Due while the previous probe was still pending
+    
+    // Constructors
+    public EndpointScheduleStatus() {}
+    
+    public EndpointScheduleStatus(Long endpointId, String endpointName, Long checkIntervalMs) {
+        this.endpointId = endpointId;
+        this.endpointName = endpointName;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+    
+    // Getters and Setters
+    public Long getEndpointId() {
+        return endpointId;
+    }
+    
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+    
+    public String getEndpointName() {
+        return endpointName;
+    }
+    
+    public void setEndpointName(String endpointName) {
+        this.endpointName = endpointName;
+    }
+    
+    public Long getCheckIntervalMs() {
+        return checkIntervalMs;
+    }
+    
+    public void setCheckIntervalMs(Long checkIntervalMs) {
+        this.checkIntervalMs = checkIntervalMs;
+    }
+    
+    public Long getEffectiveIntervalMs() {
+        return effectiveIntervalMs;
+    }
+    
+    public void setEffectiveIntervalMs(Long effectiveIntervalMs) {
+        this.effectiveIntervalMs = effectiveIntervalMs;
+    }
+    
+    public LocalDateTime getNextDueAt() {
+        return nextDueAt;
+    }
+    
+    public void setNextDueAt(LocalDateTime nextDueAt) {
+        this.nextDueAt = nextDueAt;
+    }
+    
+    public LocalDateTime getLastDispatchedAt() {
+        return lastDispatchedAt;
+    }
+    
+    public void setLastDispatchedAt(LocalDateTime lastDispatchedAt) {
+        this.lastDispatchedAt = lastDispatchedAt;
+    }
+    
+    public Long getLastLagMs() {
+        return lastLagMs;
+    }
+    
+    public void setLastLagMs(Long lastLagMs) {
+        this.lastLagMs = lastLagMs;
+    }
+    
+    public Long getMaxLagMs() {
+        return maxLagMs;
+    }
+    
+    public void setMaxLagMs(Long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+    
+    public Long getDispatchCount() {
+        return dispatchCount;
+    }
+    
+    public void setDispatchCount(Long dispatchCount) {
+        this.dispatchCount = dispatchCount;
+    }
+    
+    public Long getSkippedCount() {
+        return skippedCount;
+    }
+    
+    public void setSkippedCount(Long skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.apimonitoring.dto;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Endpoint configuration plus its latest status, as listed by {@code GET /api/endpoints}.
+ * Built from the endpoint registry's snapshot and the in-memory stats, so listing runs no queries.
+ */
+public class EndpointSummary {
+    
+    private Long id;
+    private String name;
+    private String url;
+    private String httpMethod;
+    private Integer expectedStatus;
+    private Integer timeoutMs;
+    private Long checkIntervalMs;
+    private Integer retentionDays;
+    private Boolean isActive;
+    private Boolean phaseTimingEnabled;
+    private String probeProtocol;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Latest status, from the in-memory stats; null until the first check
+    private Boolean isHealthy;
+    private LocalDateTime lastCheckTime;
+    private Long latestResponseTime;
+    
+    // Constructors
+    public EndpointSummary() {}
+    
+    public EndpointSummary(ApiEndpoint endpoint) {
+        this.id = endpoint.getId();
+        this.name = endpoint.getName();
+        this.url = endpoint.getUrl();
+        this.httpMethod = endpoint.getHttpMethod();
+        this.expectedStatus = endpoint.getExpectedStatus();
+        this.timeoutMs = endpoint.getTimeoutMs();
+        this.checkIntervalMs = endpoint.getCheckIntervalMs();
+        this.retentionDays = endpoint.getRetentionDays();
+        this.isActive = endpoint.getIsActive();
+        this.phaseTimingEnabled = endpoint.getPhaseTimingEnabled();
+        this.probeProtocol = endpoint.getProbeProtocol();
+        this.createdAt = endpoint.getCreatedAt();
+        this.updatedAt = endpoint.getUpdatedAt();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+    
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+    
+    public Integer getExpectedStatus() {
+        return expectedStatus;
+    }
+    
+    public void setExpectedStatus(Integer expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+    
+    public Integer getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    public void setTimeoutMs(Integer timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+    
+    public Long getCheckIntervalMs() {
+        return checkIntervalMs;
+    }
+    
+    public void setCheckIntervalMs(Long checkIntervalMs) {
+        this.checkIntervalMs = checkIntervalMs;
+    }
+    
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+    
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public Boolean getPhaseTimingEnabled() {
+        return phaseTimingEnabled;
+    }
+    
+    public void setPhaseTimingEnabled(Boolean phaseTimingEnabled) {
+        this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+    
+    public String getProbeProtocol() {
+        return probeProtocol;
+    }
+    
+    public void setProbeProtocol(String probeProtocol) {
+        this.probeProtocol = probeProtocol;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public Boolean getIsHealthy() {
+        return isHealthy;
+    }
+    
+    public void setIsHealthy(Boolean isHealthy) {
+        this.isHealthy = isHealthy;
+    }
+    
+    public LocalDateTime getLastCheckTime() {
+        return lastCheckTime;
+    }
+    
+    public void setLastCheckTime(LocalDateTime lastCheckTime) {
+        this.lastCheckTime = lastCheckTime;
+    }
+    
+    public Long getLatestResponseTime() {
+        return latestResponseTime;
+    }
+    
+    public void setLatestResponseTime(Long latestResponseTime) {
+        this.latestResponseTime = latestResponseTime;
+    }
+}
\ No newline at end of file
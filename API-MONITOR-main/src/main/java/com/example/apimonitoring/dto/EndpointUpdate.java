@@ -0,0 +1,144 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compact per-endpoint delta pushed on the monitoring stream: just the fields the dashboard
+ * redraws after a probe completes.
+ */
+public class EndpointUpdate {
+    
+    private Long endpointId;
+    private Boolean isHealthy;
+    private Long latestResponseTime;
+    private Long averageResponseTime;
+    private Long minResponseTime;
+    private Long maxResponseTime;
+    private List<Long> recentResponseTimes;
+    private Double uptime;
+    private LatencyPercentiles lastHourPercentiles;
+    private LocalDateTime lastCheckTime;
+    private String lastError;
+    private Long effectiveCheckIntervalMs;
+    
+    // Constructors
+    public EndpointUpdate() {}
+    
+    public EndpointUpdate(MonitoringStats stats) {
+        this.endpointId = stats.getEndpointId();
+        this.isHealthy = stats.getIsHealthy();
+        this.latestResponseTime = stats.getLatestResponseTime();
+        this.averageResponseTime = stats.getAverageResponseTime();
+        this.minResponseTime = stats.getMinResponseTime();
+        this.maxResponseTime = stats.getMaxResponseTime();
+        this.recentResponseTimes = stats.getRecentResponseTimes();
+        this.uptime = stats.getUptime();
+        this.lastCheckTime = stats.getLastCheckTime();
+        this.lastError = stats.getLastError();
+        this.effectiveCheckIntervalMs = stats.getEffectiveCheckIntervalMs();
+        if (stats.getWindowedLatencyPercentiles() != null) {
+            this.lastHourPercentiles = stats.getWindowedLatencyPercentiles().stream()
+                    .filter(percentiles -> "1h".equals(percentiles.getWindow()))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+    
+    // Getters and Setters
+    public Long getEndpointId() {
+        return endpointId;
+    }
+    
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+    
+    public Boolean getIsHealthy() {
+        return isHealthy;
+    }
+    
+    public void setIsHealthy(Boolean isHealthy) {
+        this.isHealthy = isHealthy;
+    }
+    
+    public Long getLatestResponseTime() {
+        return latestResponseTime;
+    }
+    
+    public void setLatestResponseTime(Long latestResponseTime) {
+        this.latestResponseTime = latestResponseTime;
+    }
+    
+    public Long getAverageResponseTime() {
+        return averageResponseTime;
+    }
+    
+    public void setAverageResponseTime(Long averageResponseTime) {
+        this.averageResponseTime = averageResponseTime;
+    }
+    
+    public Long getMinResponseTime() {
+        return minResponseTime;
+    }
+    
+    public void setMinResponseTime(Long minResponseTime) {
+        this.minResponseTime = minResponseTime;
+    }
+    
+    public Long getMaxResponseTime() {
+        return maxResponseTime;
+    }
+    
+    public void setMaxResponseTime(Long maxResponseTime) {
+        this.maxResponseTime = maxResponseTime;
+    }
+    
+    public List<Long> getRecentResponseTimes() {
+        return recentResponseTimes;
+    }
+    
+    public void setRecentResponseTimes(List<Long> recentResponseTimes) {
+        this.recentResponseTimes = recentResponseTimes;
+    }
+    
+    public Double getUptime() {
+        return uptime;
+    }
+    
+    public void setUptime(Double uptime) {
+        this.uptime = uptime;
+    }
+    
+    public LatencyPercentiles getLastHourPercentiles() {
+        return lastHourPercentiles;
+    }
+    
+    public void setLastHourPercentiles(LatencyPercentiles lastHourPercentiles) {
+        this.lastHourPercentiles = lastHourPercentiles;
+    }
+    
+    public LocalDateTime getLastCheckTime() {
+        return lastCheckTime;
+    }
+    
+    public void setLastCheckTime(LocalDateTime lastCheckTime) {
+        this.lastCheckTime = lastCheckTime;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public Long getEffectiveCheckIntervalMs() {
+        return effectiveCheckIntervalMs;
+    }
+    
+    public void setEffectiveCheckIntervalMs(Long effectiveCheckIntervalMs) {
+        this.effectiveCheckIntervalMs = effectiveCheckIntervalMs;
+    }
+}
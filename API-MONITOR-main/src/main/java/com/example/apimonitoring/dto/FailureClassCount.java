@@ -0,0 +1,44 @@
+package com.example.apimonitoring.dto;
+
+import com.example.apimonitoring.model.FailureClass;
+
+public class FailureClassCount {
+    
+    private FailureClass failureClass;
+    private String description;
+    private Long count;
+    
+    // Constructors
+    public FailureClassCount() {}
+    
+    public FailureClassCount(FailureClass failureClass, Long count) {
+        this.failureClass = failureClass;
+        this.description = failureClass.getDescription();
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public FailureClass getFailureClass() {
+        return failureClass;
+    }
+    
+    public void setFailureClass(FailureClass failureClass) {
+        this.failureClass = failureClass;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Long getCount() {
+        return count;
+    }
+    
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.apimonitoring.dto;
+
+import com.example.apimonitoring.model.HealthCheck;
+
+import java.util.List;
+
+/**
+ * One page of health check history, newest first. Pass {@code nextCursor} back as {@code cursor}
+ * to continue; it is null on the last page.
+ */
+public class HealthCheckPage {
+    
+    private List<HealthCheck> items;
+    private String nextCursor;
+    private Integer limit;
+    
+    // Constructors
+    public HealthCheckPage() {}
+    
+    public HealthCheckPage(List<HealthCheck> items, String nextCursor, Integer limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+    
+    // Getters and Setters
+    public List<HealthCheck> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<HealthCheck> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.apimonitoring.dto;
+
+public class LatencyPercentiles {
+    
+    private String window; // "1h", "24h", "7d" or "all"
+    private Long sampleCount;
+    private Long p50;
+    private Long p90;
+    private Long p95;
+    private Long p99;
+    private Long p999;
+    
+    // Constructors
+    public LatencyPercentiles() {}
+    
+    public LatencyPercentiles(String window, Long sampleCount) {
+        this.window = window;
+        this.sampleCount = sampleCount;
+    }
+    
+    // Getters and Setters
+    public String getWindow() {
+        return window;
+    }
+    
+    public void setWindow(String window) {
+        this.window = window;
+    }
+    
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+    
+    public Long getP50() {
+        return p50;
+    }
+    
+    public void setP50(Long p50) {
+        this.p50 = p50;
+    }
+    
+    public Long getP90() {
+        return p90;
+    }
+    
+    public void setP90(Long p90) {
+        this.p90 = p90;
+    }
+    
+    public Long getP95() {
+        return p95;
+    }
+    
+    public void setP95(Long p95) {
+        this.p95 = p95;
+    }
+    
+    public Long getP99() {
+        return p99;
+    }
+    
+    public void setP99(Long p99) {
+        this.p99 = p99;
+    }
+    
+    public Long getP999() {
+        return p999;
+    }
+    
+    public void setP999(Long p999) {
+        this.p999 = p999;
+    }
+}
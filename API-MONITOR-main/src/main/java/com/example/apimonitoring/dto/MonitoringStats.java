@@ -2,6 +2,7 @@ package com.example.apimonitoring.dto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class MonitoringStats {
     
@@ -14,11 +15,20 @@ public class MonitoringStats {
     private Long minResponseTime;
     private Long maxResponseTime;
     private List<Long> recentResponseTimes; // Last 10 response times for trend analysis
+    private LatencyPercentiles latencyPercentiles; // Over all retained history
+    private List<LatencyPercentiles> windowedLatencyPercentiles; // Last 1h, 24h and 7d
     private Double uptime;
+    private List<UptimeWindow> uptimeWindows; // Last 5m, 1h, 24h and 7d
     private Integer totalChecks;
     private Integer successfulChecks;
     private LocalDateTime lastCheckTime;
     private String lastError;
+    private Map<String, Long> failuresByClass; // Failed checks per FailureClass over all retained history
+    private Double connectionReuseRate; // Percent of checks sent on a pooled keep-alive connection
+    private Long averageResponseTimeReused; // Successful checks on a reused connection
+    private Long averageResponseTimeNewConnection; // Successful checks that opened a connection
+    private List<PhaseTiming> phaseTimings; // Per probe phase, for checks with phase timing enabled
+    private Long effectiveCheckIntervalMs; // Current probe interval; backs off or speeds up in adaptive mode
     
     // Constructors
     public MonitoringStats() {}
@@ -102,6 +112,22 @@ public class MonitoringStats {
         this.recentResponseTimes = recentResponseTimes;
     }
     
+    public LatencyPercentiles getLatencyPercentiles() {
+        return latencyPercentiles;
+    }
+    
+    public void setLatencyPercentiles(LatencyPercentiles latencyPercentiles) {
+        this.latencyPercentiles = latencyPercentiles;
+    }
+    
+    public List<LatencyPercentiles> getWindowedLatencyPercentiles() {
+        return windowedLatencyPercentiles;
+    }
+    
+    public void setWindowedLatencyPercentiles(List<LatencyPercentiles> windowedLatencyPercentiles) {
+        this.windowedLatencyPercentiles = windowedLatencyPercentiles;
+    }
+    
     public Double getUptime() {
         return uptime;
     }
@@ -110,6 +136,14 @@ public class MonitoringStats {
         this.uptime = uptime;
     }
     
+    public List<UptimeWindow> getUptimeWindows() {
+        return uptimeWindows;
+    }
+    
+    public void setUptimeWindows(List<UptimeWindow> uptimeWindows) {
+        this.uptimeWindows = uptimeWindows;
+    }
+    
     public Integer getTotalChecks() {
         return totalChecks;
     }
@@ -142,6 +176,54 @@ public class MonitoringStats {
         this.lastError = lastError;
     }
     
+    public Map<String, Long> getFailuresByClass() {
+        return failuresByClass;
+    }
+    
+    public void setFailuresByClass(Map<String, Long> failuresByClass) {
+        this.failuresByClass = failuresByClass;
+    }
+    
+    public Double getConnectionReuseRate() {
+        return connectionReuseRate;
+    }
+    
+    public void setConnectionReuseRate(Double connectionReuseRate) {
+        this.connectionReuseRate = connectionReuseRate;
+    }
+    
+    public Long getAverageResponseTimeReused() {
+        return averageResponseTimeReused;
+    }
+    
+    public void setAverageResponseTimeReused(Long averageResponseTimeReused) {
+        this.averageResponseTimeReused = averageResponseTimeReused;
+    }
+    
+    public Long getAverageResponseTimeNewConnection() {
+        return averageResponseTimeNewConnection;
+    }
+    
+    public void setAverageResponseTimeNewConnection(Long averageResponseTimeNewConnection) {
+        this.averageResponseTimeNewConnection = averageResponseTimeNewConnection;
+    }
+    
+    public List<PhaseTiming> getPhaseTimings() {
+        return phaseTimings;
+    }
+    
+    public void setPhaseTimings(List<PhaseTiming> phaseTimings) {
+        this.phaseTimings = phaseTimings;
+    }
+    
+    public Long getEffectiveCheckIntervalMs() {
+        return effectiveCheckIntervalMs;
+    }
+    
+    public void setEffectiveCheckIntervalMs(Long effectiveCheckIntervalMs) {
+        this.effectiveCheckIntervalMs = effectiveCheckIntervalMs;
+    }
+    
     // Helper methods for dashboard display
     public String getFormattedLatestResponseTime() {
         return latestResponseTime != null ? latestResponseTime + "ms" : "N/A";
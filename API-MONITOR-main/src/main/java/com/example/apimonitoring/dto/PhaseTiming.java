@@ -0,0 +1,59 @@
+package com.example.apimonitoring.dto;
+
+public class PhaseTiming {
+    
+    private String phase; // DNS, CONNECT, TLS, TTFB, BODY or TOTAL
+    private Long samples;
+    private Double meanMs;
+    private Double recentMs; // Exponentially weighted, so it follows the last few dozen checks
+    private Double maxMs;
+    
+    // Constructors
+    public PhaseTiming() {}
+    
+    public PhaseTiming(String phase, Long samples) {
+        this.phase = phase;
+        this.samples = samples;
+    }
+    
+    // Getters and Setters
+    public String getPhase() {
+        return phase;
+    }
+    
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+    
+    public Long getSamples() {
+        return samples;
+    }
+    
+    public void setSamples(Long samples) {
+        this.samples = samples;
+    }
+    
+    public Double getMeanMs() {
+        return meanMs;
+    }
+    
+    public void setMeanMs(Double meanMs) {
+        this.meanMs = meanMs;
+    }
+    
+    public Double getRecentMs() {
+        return recentMs;
+    }
+    
+    public void setRecentMs(Double recentMs) {
+        this.recentMs = recentMs;
+    }
+    
+    public Double getMaxMs() {
+        return maxMs;
+    }
+    
+    public void setMaxMs(Double maxMs) {
+        this.maxMs = maxMs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.apimonitoring.dto;
+
+public class ProbeEngineStatus {
+    
+    private String mode;
+    private Integer concurrency;
+    private Integer inFlight;
+    private ProbeTickResult lastTick;
+    
+    // Constructors
+    public ProbeEngineStatus() {}
+    
+    public ProbeEngineStatus(Integer concurrency, Integer inFlight, ProbeTickResult lastTick) {
+        this.concurrency = concurrency;
+        this.inFlight = inFlight;
+        this.lastTick = lastTick;
+    }
+    
+    // Getters and Setters
+    public String getMode() {
+        return mode;
+    }
+    
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public Integer getInFlight() {
+        return inFlight;
+    }
+    
+    public void setInFlight(Integer inFlight) {
+        this.inFlight = inFlight;
+    }
+    
+    public ProbeTickResult getLastTick() {
+        return lastTick;
+    }
+    
+    public void setLastTick(ProbeTickResult lastTick) {
+        this.lastTick = lastTick;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+public class ProbeTickResult {
+    
+    private String mode;
+    private Integer endpointCount;
+    private Integer successfulChecks;
+    private Integer failedChecks;
+    private Long durationMs;
+    private Integer peakInFlight;
+    private LocalDateTime startedAt;
+    private Long heapUsedBeforeBytes;
+    private Long heapUsedAfterBytes;
+    
+    // Constructors
+    public ProbeTickResult() {}
+    
+    public ProbeTickResult(Integer endpointCount, LocalDateTime startedAt) {
+        this.endpointCount = endpointCount;
+        this.startedAt = startedAt;
+    }
+    
+    // Getters and Setters
+    public String getMode() {
+        return mode;
+    }
+    
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    
+    public Integer getEndpointCount() {
+        return endpointCount;
+    }
+    
+    public void setEndpointCount(Integer endpointCount) {
+        this.endpointCount = endpointCount;
+    }
+    
+    public Integer getSuccessfulChecks() {
+        return successfulChecks;
+    }
+    
+    public void setSuccessfulChecks(Integer successfulChecks) {
+        this.successfulChecks = successfulChecks;
+    }
+    
+    public Integer getFailedChecks() {
+        return failedChecks;
+    }
+    
+    public void setFailedChecks(Integer failedChecks) {
+        this.failedChecks = failedChecks;
+    }
+    
+    public Long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public Integer getPeakInFlight() {
+        return peakInFlight;
+    }
+    
+    public void setPeakInFlight(Integer peakInFlight) {
+        this.peakInFlight = peakInFlight;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Long getHeapUsedBeforeBytes() {
+        return heapUsedBeforeBytes;
+    }
+    
+    public void setHeapUsedBeforeBytes(Long heapUsedBeforeBytes) {
+        this.heapUsedBeforeBytes = heapUsedBeforeBytes;
+    }
+    
+    public Long getHeapUsedAfterBytes() {
+        return heapUsedAfterBytes;
+    }
+    
+    public void setHeapUsedAfterBytes(Long heapUsedAfterBytes) {
+        this.heapUsedAfterBytes = heapUsedAfterBytes;
+    }
+}
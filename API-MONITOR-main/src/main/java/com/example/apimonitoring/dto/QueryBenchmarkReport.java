@@ -0,0 +1,83 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryBenchmarkReport {
+    
+    private LocalDateTime startedAt;
+    private Long rows;
+    private Integer endpoints;
+    private Long loadMs;
+    private Long indexBuildMs;
+    private Long durationMs;
+    private List<QueryBenchmarkResult> queries;
+    
+    // Constructors
+    public QueryBenchmarkReport() {}
+    
+    public QueryBenchmarkReport(LocalDateTime startedAt, Long rows, Integer endpoints) {
+        this.startedAt = startedAt;
+        this.rows = rows;
+        this.endpoints = endpoints;
+        this.queries = new ArrayList<>();
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Long getRows() {
+        return rows;
+    }
+    
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+    
+    public Integer getEndpoints() {
+        return endpoints;
+    }
+    
+    public void setEndpoints(Integer endpoints) {
+        this.endpoints = endpoints;
+    }
+    
+    public Long getLoadMs() {
+        return loadMs;
+    }
+    
+    public void setLoadMs(Long loadMs) {
+        this.loadMs = loadMs;
+    }
+    
+    public Long getIndexBuildMs() {
+        return indexBuildMs;
+    }
+    
+    public void setIndexBuildMs(Long indexBuildMs) {
+        this.indexBuildMs = indexBuildMs;
+    }
+    
+    public Long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public List<QueryBenchmarkResult> getQueries() {
+        return queries;
+    }
+    
+    public void setQueries(List<QueryBenchmarkResult> queries) {
+        this.queries = queries;
+    }
+}
\ No newline at end of file
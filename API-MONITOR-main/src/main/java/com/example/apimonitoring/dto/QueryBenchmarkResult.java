@@ -0,0 +1,76 @@
+package com.example.apimonitoring.dto;
+
+public class QueryBenchmarkResult {
+    
+    private String query;
+    private Long rowsReturned;
+    private Double withoutIndexesMs;
+    private Double withIndexesMs;
+    private Double speedup;
+    private String planWithoutIndexes;
+    private String planWithIndexes;
+    
+    // Constructors
+    public QueryBenchmarkResult() {}
+    
+    public QueryBenchmarkResult(String query) {
+        this.query = query;
+    }
+    
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+    
+    public void setQuery(String query) {
+        this.query = query;
+    }
+    
+    public Long getRowsReturned() {
+        return rowsReturned;
+    }
+    
+    public void setRowsReturned(Long rowsReturned) {
+        this.rowsReturned = rowsReturned;
+    }
+    
+    public Double getWithoutIndexesMs() {
+        return withoutIndexesMs;
+    }
+    
+    public void setWithoutIndexesMs(Double withoutIndexesMs) {
+        this.withoutIndexesMs = withoutIndexesMs;
+    }
+    
+    public Double getWithIndexesMs() {
+        return withIndexesMs;
+    }
+    
+    public void setWithIndexesMs(Double withIndexesMs) {
+        this.withIndexesMs = withIndexesMs;
+    }
+    
+    public Double getSpeedup() {
+        return speedup;
+    }
+    
+    public void setSpeedup(Double speedup) {
+        this.speedup = speedup;
+    }
+    
+    public String getPlanWithoutIndexes() {
+        return planWithoutIndexes;
+    }
+    
+    public void setPlanWithoutIndexes(String planWithoutIndexes) {
+        this.planWithoutIndexes = planWithoutIndexes;
+    }
+    
+    public String getPlanWithIndexes() {
+        return planWithIndexes;
+    }
+    
+    public void setPlanWithIndexes(String planWithIndexes) {
+        this.planWithIndexes = planWithIndexes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate stats for an arbitrary time range, answered from rollups where possible.
+ */
+public class RangeStats {
+    
+    private Long endpointId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String source;
+    private Long totalChecks;
+    private Long successfulChecks;
+    private Double uptime;
+    private Long minResponseTime;
+    private Long averageResponseTime;
+    private Long maxResponseTime;
+    private LatencyPercentiles latencyPercentiles;
+    
+    // Constructors
+    public RangeStats() {}
+    
+    public RangeStats(Long endpointId, LocalDateTime from, LocalDateTime to, String source) {
+        this.endpointId = endpointId;
+        this.from = from;
+        this.to = to;
+        this.source = source;
+    }
+    
+    // Getters and Setters
+    public Long getEndpointId() {
+        return endpointId;
+    }
+    
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public Long getTotalChecks() {
+        return totalChecks;
+    }
+    
+    public void setTotalChecks(Long totalChecks) {
+        this.totalChecks = totalChecks;
+    }
+    
+    public Long getSuccessfulChecks() {
+        return successfulChecks;
+    }
+    
+    public void setSuccessfulChecks(Long successfulChecks) {
+        this.successfulChecks = successfulChecks;
+    }
+    
+    public Double getUptime() {
+        return uptime;
+    }
+    
+    public void setUptime(Double uptime) {
+        this.uptime = uptime;
+    }
+    
+    public Long getMinResponseTime() {
+        return minResponseTime;
+    }
+    
+    public void setMinResponseTime(Long minResponseTime) {
+        this.minResponseTime = minResponseTime;
+    }
+    
+    public Long getAverageResponseTime() {
+        return averageResponseTime;
+    }
+    
+    public void setAverageResponseTime(Long averageResponseTime) {
+        this.averageResponseTime = averageResponseTime;
+    }
+    
+    public Long getMaxResponseTime() {
+        return maxResponseTime;
+    }
+    
+    public void setMaxResponseTime(Long maxResponseTime) {
+        this.maxResponseTime = maxResponseTime;
+    }
+    
+    public LatencyPercentiles getLatencyPercentiles() {
+        return latencyPercentiles;
+    }
+    
+    public void setLatencyPercentiles(LatencyPercentiles latencyPercentiles) {
+        this.latencyPercentiles = latencyPercentiles;
+    }
+}
\ No newline at end of file
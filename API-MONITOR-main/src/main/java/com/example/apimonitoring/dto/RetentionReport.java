@@ -0,0 +1,93 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+public class RetentionReport {
+    
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    private Long rowsDeleted;
+    private Integer chunks;
+    private Integer endpointsProcessed;
+    private Long rollupRowsDeleted;
+    private Integer partitionsDropped;
+    private Boolean completed;
+    
+    // Constructors
+    public RetentionReport() {}
+    
+    public RetentionReport(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+        this.rowsDeleted = 0L;
+        this.chunks = 0;
+        this.endpointsProcessed = 0;
+        this.rollupRowsDeleted = 0L;
+        this.partitionsDropped = 0;
+        this.completed = false;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public Long getRowsDeleted() {
+        return rowsDeleted;
+    }
+    
+    public void setRowsDeleted(Long rowsDeleted) {
+        this.rowsDeleted = rowsDeleted;
+    }
+    
+    public Integer getChunks() {
+        return chunks;
+    }
+    
+    public void setChunks(Integer chunks) {
+        this.chunks = chunks;
+    }
+    
+    public Integer getEndpointsProcessed() {
+        return endpointsProcessed;
+    }
+    
+    public void setEndpointsProcessed(Integer endpointsProcessed) {
+        this.endpointsProcessed = endpointsProcessed;
+    }
+    
+    public Long getRollupRowsDeleted() {
+        return rollupRowsDeleted;
+    }
+    
+    public void setRollupRowsDeleted(Long rollupRowsDeleted) {
+        this.rollupRowsDeleted = rollupRowsDeleted;
+    }
+    
+    public Integer getPartitionsDropped() {
+        return partitionsDropped;
+    }
+    
+    public void setPartitionsDropped(Integer partitionsDropped) {
+        this.partitionsDropped = partitionsDropped;
+    }
+    
+    public Boolean getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+}
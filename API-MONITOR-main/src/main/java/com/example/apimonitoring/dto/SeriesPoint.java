@@ -0,0 +1,82 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a downsampled series. Bucket mode fills the aggregates for the bucket starting at
+ * {@code timestamp}; LTTB mode fills only {@code value}, the latency of the sample it kept.
+ */
+public class SeriesPoint {
+    
+    private LocalDateTime timestamp;
+    private Long count;
+    private Double successRatio;
+    private Long minResponseTime;
+    private Long avgResponseTime;
+    private Long maxResponseTime;
+    private Long value;
+    
+    // Constructors
+    public SeriesPoint() {}
+    
+    public SeriesPoint(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public Long getCount() {
+        return count;
+    }
+    
+    public void setCount(Long count) {
+        this.count = count;
+    }
+    
+    public Double getSuccessRatio() {
+        return successRatio;
+    }
+    
+    public void setSuccessRatio(Double successRatio) {
+        this.successRatio = successRatio;
+    }
+    
+    public Long getMinResponseTime() {
+        return minResponseTime;
+    }
+    
+    public void setMinResponseTime(Long minResponseTime) {
+        this.minResponseTime = minResponseTime;
+    }
+    
+    public Long getAvgResponseTime() {
+        return avgResponseTime;
+    }
+    
+    public void setAvgResponseTime(Long avgResponseTime) {
+        this.avgResponseTime = avgResponseTime;
+    }
+    
+    public Long getMaxResponseTime() {
+        return maxResponseTime;
+    }
+    
+    public void setMaxResponseTime(Long maxResponseTime) {
+        this.maxResponseTime = maxResponseTime;
+    }
+    
+    public Long getValue() {
+        return value;
+    }
+    
+    public void setValue(Long value) {
+        this.value = value;
+    }
+}
\ No newline at end of file
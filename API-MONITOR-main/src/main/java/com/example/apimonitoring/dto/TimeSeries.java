@@ -0,0 +1,83 @@
+package com.example.apimonitoring.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TimeSeries {
+    
+    private Long endpointId;
+    private String mode;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long bucketMs;
+    private String source;
+    private List<SeriesPoint> points;
+    
+    // Constructors
+    public TimeSeries() {}
+    
+    public TimeSeries(Long endpointId, String mode, LocalDateTime from, LocalDateTime to, Long bucketMs) {
+        this.endpointId = endpointId;
+        this.mode = mode;
+        this.from = from;
+        this.to = to;
+        this.bucketMs = bucketMs;
+    }
+    
+    // Getters and Setters
+    public Long getEndpointId() {
+        return endpointId;
+    }
+    
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+    
+    public String getMode() {
+        return mode;
+    }
+    
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+    
+    public Long getBucketMs() {
+        return bucketMs;
+    }
+    
+    public void setBucketMs(Long bucketMs) {
+        this.bucketMs = bucketMs;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public List<SeriesPoint> getPoints() {
+        return points;
+    }
+    
+    public void setPoints(List<SeriesPoint> points) {
+        this.points = points;
+    }
+}
\ No newline at end of file
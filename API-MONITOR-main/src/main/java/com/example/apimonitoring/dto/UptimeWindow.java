@@ -0,0 +1,60 @@
+package com.example.apimonitoring.dto;
+
+public class UptimeWindow {
+    
+    private String window; // "5m", "1h", "24h" or "7d"
+    private Long totalChecks;
+    private Long successfulChecks;
+    private Double uptime;
+    private Double errorBudgetBurnRate; // 1.0 means failing exactly as fast as the SLA target allows
+    
+    // Constructors
+    public UptimeWindow() {}
+    
+    public UptimeWindow(String window, Long totalChecks, Long successfulChecks) {
+        this.window = window;
+        this.totalChecks = totalChecks;
+        this.successfulChecks = successfulChecks;
+    }
+    
+    // Getters and Setters
+    public String getWindow() {
+        return window;
+    }
+    
+    public void setWindow(String window) {
+        this.window = window;
+    }
+    
+    public Long getTotalChecks() {
+        return totalChecks;
+    }
+    
+    public void setTotalChecks(Long totalChecks) {
+        this.totalChecks = totalChecks;
+    }
+    
+    public Long getSuccessfulChecks() {
+        return successfulChecks;
+    }
+    
+    public void setSuccessfulChecks(Long successfulChecks) {
+        this.successfulChecks = successfulChecks;
+    }
+    
+    public Double getUptime() {
+        return uptime;
+    }
+    
+    public void setUptime(Double uptime) {
+        this.uptime = uptime;
+    }
+    
+    public Double getErrorBudgetBurnRate() {
+        return errorBudgetBurnRate;
+    }
+    
+    public void setErrorBudgetBurnRate(Double errorBudgetBurnRate) {
+        this.errorBudgetBurnRate = errorBudgetBurnRate;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.apimonitoring.journal;
+
+/**
+ * A reader's position in the journal: the next frame to read and the last sequence read.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class JournalCursor {
+    
+    private JournalSegment segment;
+    private int position;
+    private long lastSequence;
+    
+    public JournalCursor(JournalSegment segment, int position, long lastSequence) {
+        this.segment = segment;
+        this.position = position;
+        this.lastSequence = lastSequence;
+    }
+    
+    public void moveTo(JournalSegment segment, int position) {
+        this.segment = segment;
+        this.position = position;
+    }
+    
+    public void advance(JournalRecord record) {
+        this.position = segment.nextPosition(position);
+        this.lastSequence = record.sequence();
+    }
+    
+    public JournalSegment getSegment() {
+        return segment;
+    }
+    
+    public int getPosition() {
+        return position;
+    }
+    
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.apimonitoring.journal;
+
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * One probe result as stored in the journal: 40 fixed bytes plus the UTF-8 error message.
+ * Missing status codes and latencies are written as -1, a missing failure class as code 0 and
+ * a missing error message as length -1. Messages are kept as text rather than dictionary ids so
+ * the journal can be replayed into a database that has lost its dictionary.
+ * <p>
+ * The flags byte holds the success bit, a bit saying whether connection reuse is known, a bit
+ * saying whether the connection was reused, and a bit marking records that carry phase timings:
+ * one long per {@link ProbePhase} in declaration order after the message, -1 when not measured.
+ * Records written before these fields existed decode with unknown reuse and no phases.
+ */
+public record JournalRecord(long sequence, long endpointId, long checkedAtMillis, Integer statusCode,
+                            Long responseTimeMs, boolean successful, FailureClass failureClass,
+                            String errorMessage, Boolean connectionReused, long[] phaseNanos) {
+    
+    private static final int FIXED_BYTES = 8 + 8 + 8 + 4 + 8 + 1 + 1 + 2;
+    private static final int MAX_ERROR_BYTES = Short.MAX_VALUE;
+    private static final int SUCCESSFUL = 1;
+    private static final int REUSE_KNOWN = 1 << 1;
+    private static final int REUSED = 1 << 2;
+    private static final int PHASES = 1 << 3;
+    private static final int PHASE_COUNT = ProbePhase.values().length;
+    
+    public byte[] encode() {
+        byte[] error = errorMessage != null ? errorMessage.getBytes(StandardCharsets.UTF_8) : null;
+        int errorLength = error != null ? Math.min(error.length, MAX_ERROR_BYTES) : 0;
+        int phaseBytes = phaseNanos != null ? PHASE_COUNT * 8 : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + errorLength + phaseBytes);
+        buffer.putLong(sequence);
+        buffer.putLong(endpointId);
+        buffer.putLong(checkedAtMillis);
+        buffer.putInt(statusCode != null ? statusCode : -1);
+        buffer.putLong(responseTimeMs != null ? responseTimeMs : -1);
+        int flags = successful ? SUCCESSFUL : 0;
+        if (connectionReused != null) {
+            flags |= REUSE_KNOWN | (connectionReused ? REUSED : 0);
+        }
+        if (phaseNanos != null) {
+            flags |= PHASES;
+        }
+        buffer.put((byte) flags);
+        buffer.put((byte) (failureClass != null ? failureClass.getCode() : 0));
+        buffer.putShort((short) (error != null ? errorLength : -1));
+        if (error != null) {
+            buffer.put(error, 0, errorLength);
+        }
+        if (phaseNanos != null) {
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                buffer.putLong(phaseNanos[i]);
+            }
+        }
+        return buffer.array();
+    }
+    
+    public static JournalRecord decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        long endpointId = buffer.getLong();
+        long checkedAtMillis = buffer.getLong();
+        int statusCode = buffer.getInt();
+        long responseTimeMs = buffer.getLong();
+        byte flags = buffer.get();
+        byte failureClass = buffer.get();
+        short errorLength = buffer.getShort();
+        String errorMessage = null;
+        if (errorLength >= 0) {
+            byte[] error = new byte[errorLength];
+            buffer.get(error);
+            errorMessage = new String(error, StandardCharsets.UTF_8);
+        }
+        long[] phaseNanos = null;
+        if ((flags & PHASES) != 0) {
+            phaseNanos = new long[PHASE_COUNT];
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                phaseNanos[i] = buffer.getLong();
+            }
+        }
+        return new JournalRecord(sequence, endpointId, checkedAtMillis,
+                statusCode >= 0 ? statusCode : null,
+                responseTimeMs >= 0 ? responseTimeMs : null,
+                (flags & SUCCESSFUL) != 0, failureClass != 0 ? FailureClass.fromCode(failureClass) : null, errorMessage,
+                (flags & REUSE_KNOWN) != 0 ? (flags & REUSED) != 0 : null, phaseNanos);
+    }
+    
+    /**
+     * The check's phase timings in journal form, or null if it has none.
+     */
+    public static long[] phaseNanosOf(HealthCheck healthCheck) {
+        long[] phaseNanos = null;
+        for (ProbePhase phase : ProbePhase.values()) {
+            Long nanos = phase.nanosOf(healthCheck);
+            if (nanos != null) {
+                if (phaseNanos == null) {
+                    phaseNanos = new long[PHASE_COUNT];
+                    Arrays.fill(phaseNanos, -1);
+                }
+                phaseNanos[phase.ordinal()] = nanos;
+            }
+        }
+        return phaseNanos;
+    }
+    
+    public void applyPhasesTo(HealthCheck healthCheck) {
+        if (phaseNanos != null) {
+            for (ProbePhase phase : ProbePhase.values()) {
+                long nanos = phaseNanos[phase.ordinal()];
+                phase.setNanos(healthCheck, nanos >= 0 ? nanos : null);
+            }
+        }
+    }
+}
\ No newline at end of file
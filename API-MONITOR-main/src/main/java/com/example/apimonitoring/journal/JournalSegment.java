@@ -0,0 +1,190 @@
+package com.example.apimonitoring.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped journal file. After a 16-byte header (magic, base sequence)
+ * come frames of {@code [payload length][CRC32 of payload][payload]}; a zero length marks the
+ * end of the written data, since the mapping starts out zero-filled.
+ * <p>
+ * A single appender writes with absolute puts and then publishes the new end through a volatile
+ * field, so readers on other threads may read any frame below {@link #getWritePosition()}
+ * without locking. {@link #force()} makes the frames written since the last call durable.
+ */
+public class JournalSegment implements Closeable {
+    
+    public static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x504A4E31; // "PJN1"
+    private static final int FRAME_HEADER_BYTES = 8;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long baseSequence;
+    
+    private volatile int writePosition;
+    private volatile long lastSequence;
+    private volatile long lastTimestampMillis;
+    private int forcedPosition;
+    
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, long baseSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.baseSequence = baseSequence;
+        this.writePosition = HEADER_BYTES;
+        this.forcedPosition = HEADER_BYTES;
+        this.lastSequence = baseSequence - 1;
+    }
+    
+    public static JournalSegment create(Path path, long baseSequence, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putLong(4, baseSequence);
+        buffer.force(0, HEADER_BYTES);
+        return new JournalSegment(path, channel, buffer, baseSequence);
+    }
+    
+    /**
+     * Maps an existing segment and finds the end of its valid frames. A frame with a bad length
+     * or checksum is a write torn by a crash: it and everything after it are zeroed so appends
+     * can resume there.
+     */
+    public static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        
+        JournalSegment segment = new JournalSegment(path, channel, buffer, buffer.getLong(4));
+        int position = HEADER_BYTES;
+        while (true) {
+            int length = segment.validFrameLength(position);
+            if (length <= 0) {
+                if (length < 0) {
+                    segment.zeroFrom(position);
+                }
+                break;
+            }
+            JournalRecord record = segment.decode(position, length);
+            segment.lastSequence = record.sequence();
+            segment.lastTimestampMillis = record.checkedAtMillis();
+            position += FRAME_HEADER_BYTES + length;
+        }
+        segment.writePosition = position;
+        segment.forcedPosition = position;
+        return segment;
+    }
+    
+    /**
+     * @return {@code false} if the frame does not fit in the remaining space
+     */
+    public boolean append(JournalRecord record) {
+        byte[] payload = record.encode();
+        int position = writePosition;
+        // Keep room for the zero length that terminates the frames
+        if (position + FRAME_HEADER_BYTES + payload.length + 4 > buffer.capacity()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(position + FRAME_HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        lastSequence = record.sequence();
+        lastTimestampMillis = record.checkedAtMillis();
+        writePosition = position + FRAME_HEADER_BYTES + payload.length;
+        return true;
+    }
+    
+    /**
+     * The record of the frame at {@code position}, which must be below {@link #getWritePosition()}.
+     */
+    public JournalRecord readAt(int position) {
+        return decode(position, buffer.getInt(position));
+    }
+    
+    public int nextPosition(int position) {
+        return position + FRAME_HEADER_BYTES + buffer.getInt(position);
+    }
+    
+    public synchronized void force() {
+        int end = writePosition;
+        if (end > forcedPosition) {
+            buffer.force(forcedPosition, end - forcedPosition);
+            forcedPosition = end;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public long getBaseSequence() {
+        return baseSequence;
+    }
+    
+    public long getLastSequence() {
+        return lastSequence;
+    }
+    
+    public long getLastTimestampMillis() {
+        return lastTimestampMillis;
+    }
+    
+    public int getWritePosition() {
+        return writePosition;
+    }
+    
+    public boolean isEmpty() {
+        return writePosition == HEADER_BYTES;
+    }
+    
+    /**
+     * @return the payload length of a valid frame, 0 at the end of the data, -1 for a torn frame
+     */
+    private int validFrameLength(int position) {
+        if (position + FRAME_HEADER_BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || position + FRAME_HEADER_BYTES + length > buffer.capacity()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + FRAME_HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+    
+    private JournalRecord decode(int position, int length) {
+        return JournalRecord.decode(buffer.slice(position + FRAME_HEADER_BYTES, length));
+    }
+    
+    private void zeroFrom(int position) {
+        byte[] zeros = new byte[8192];
+        for (int offset = position; offset < buffer.capacity(); offset += zeros.length) {
+            buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+        }
+        buffer.force();
+    }
+}
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.example.apimonitoring.model;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
@@ -11,6 +11,9 @@ import java.util.List;
 @Table(name = "api_endpoints")
 public class ApiEndpoint {
     
+    public static final String PROTOCOL_HTTP1 = "HTTP1";
+    public static final String PROTOCOL_HTTP2 = "HTTP2";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,17 +39,29 @@ public class ApiEndpoint {
     @Column(name = "check_interval_ms")
     private Long checkIntervalMs = 30000L;
     
+    @Column(name = "retention_days")
+    private Integer retentionDays; // null means monitoring.retention.default-days
+    
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Per-phase probe timings (DNS, connect, TLS, TTFB, body) are collected for this endpoint
+    @Column(name = "phase_timing_enabled")
+    private Boolean phaseTimingEnabled = true;
+    
+    // HTTP2 negotiates HTTP/2 (h2 or h2c) and multiplexes probes per host, falling back to HTTP/1.1
+    @Column(name = "probe_protocol")
+    private String probeProtocol = PROTOCOL_HTTP1;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // History is served by the health check APIs, never serialized with the endpoint
     @OneToMany(mappedBy = "apiEndpoint", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<HealthCheck> healthChecks = new ArrayList<>();
     
     @PrePersist
@@ -69,6 +84,25 @@ public class ApiEndpoint {
         this.httpMethod = httpMethod;
     }
     
+    /**
+     * Detached copy of the configuration, without the health check collection.
+     */
+    public ApiEndpoint(ApiEndpoint source) {
+        this.id = source.getId();
+        this.name = source.getName();
+        this.url = source.getUrl();
+        this.httpMethod = source.getHttpMethod();
+        this.expectedStatus = source.getExpectedStatus();
+        this.timeoutMs = source.getTimeoutMs();
+        this.checkIntervalMs = source.getCheckIntervalMs();
+        this.retentionDays = source.getRetentionDays();
+        this.isActive = source.getIsActive();
+        this.phaseTimingEnabled = source.getPhaseTimingEnabled();
+        this.probeProtocol = source.getProbeProtocol();
+        this.createdAt = source.getCreatedAt();
+        this.updatedAt = source.getUpdatedAt();
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -126,6 +160,14 @@ public class ApiEndpoint {
         this.checkIntervalMs = checkIntervalMs;
     }
     
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+    
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+    
     public Boolean getIsActive() {
         return isActive;
     }
@@ -134,6 +176,22 @@ public class ApiEndpoint {
         this.isActive = isActive;
     }
     
+    public Boolean getPhaseTimingEnabled() {
+        return phaseTimingEnabled;
+    }
+    
+    public void setPhaseTimingEnabled(Boolean phaseTimingEnabled) {
+        this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+    
+    public String getProbeProtocol() {
+        return probeProtocol;
+    }
+    
+    public void setProbeProtocol(String probeProtocol) {
+        this.probeProtocol = probeProtocol;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,50 @@
+package com.example.apimonitoring.model;
+
+/**
+ * Why a health check failed, assigned when the probe completes. Stored as its {@link #getCode()
+ * code} so failure breakdowns are group-bys on a small integer column; codes must never be
+ * reused or renumbered.
+ */
+public enum FailureClass {
+    UNEXPECTED_STATUS(1, "Unexpected status"),
+    DNS(2, "DNS resolution failed"),
+    CONNECT_REFUSED(3, "Connection refused"),
+    CONNECT_TIMEOUT(4, "Connect timeout"),
+    TLS(5, "TLS handshake failed"),
+    READ_TIMEOUT(6, "Read timeout"),
+    TIMEOUT(7, "Probe timeout"),
+    CONNECTION_CLOSED(8, "Connection reset or closed"),
+    INVALID_REQUEST(9, "Invalid request"),
+    UNKNOWN(10, "Unclassified error");
+    
+    private static final FailureClass[] BY_CODE = new FailureClass[11];
+    
+    static {
+        for (FailureClass failureClass : values()) {
+            BY_CODE[failureClass.code] = failureClass;
+        }
+    }
+    
+    private final int code;
+    private final String description;
+    
+    FailureClass(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public static FailureClass fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown failure class code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
\ No newline at end of file
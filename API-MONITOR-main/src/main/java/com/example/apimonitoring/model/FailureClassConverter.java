@@ -0,0 +1,18 @@
+package com.example.apimonitoring.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class FailureClassConverter implements AttributeConverter<FailureClass, Integer> {
+    
+    @Override
+    public Integer convertToDatabaseColumn(FailureClass failureClass) {
+        return failureClass != null ? failureClass.getCode() : null;
+    }
+    
+    @Override
+    public FailureClass convertToEntityAttribute(Integer code) {
+        return code != null ? FailureClass.fromCode(code) : null;
+    }
+}
\ No newline at end of file
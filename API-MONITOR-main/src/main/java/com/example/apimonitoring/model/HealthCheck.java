@@ -1,6 +1,6 @@
 package com.example.apimonitoring.model;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -8,13 +8,15 @@ import java.time.LocalDateTime;
 @Table(name = "health_checks")
 public class HealthCheck {
     
+    // Pooled sequence ids keep Hibernate's JDBC insert batching available (IDENTITY disables it)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_check_seq")
+    @SequenceGenerator(name = "health_check_seq", sequenceName = "health_check_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "api_endpoint_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private ApiEndpoint apiEndpoint;
     
     @Column(name = "status_code")
@@ -26,15 +28,52 @@ public class HealthCheck {
     @Column(name = "is_successful")
     private Boolean isSuccessful;
     
-    @Column(name = "error_message", length = 1000)
+    @Column(name = "failure_class")
+    private FailureClass failureClass;
+    
+    // Interned in error_messages; the text itself is only held in memory
+    @Column(name = "error_message_id")
+    private Long errorMessageId;
+    
+    @Transient
     private String errorMessage;
     
+    // Sequence of the probe journal record, set when the check is appended to the journal
+    @Transient
+    private Long journalSequence;
+    
+    // Null when the probe failed before a connection was acquired
+    @Column(name = "connection_reused")
+    private Boolean connectionReused;
+    
+    // Phase timings in nanoseconds, see ProbePhase; null when not measured
+    @Column(name = "dns_nanos")
+    private Long dnsNanos;
+    
+    @Column(name = "connect_nanos")
+    private Long connectNanos;
+    
+    @Column(name = "tls_nanos")
+    private Long tlsNanos;
+    
+    @Column(name = "ttfb_nanos")
+    private Long ttfbNanos;
+    
+    @Column(name = "body_nanos")
+    private Long bodyNanos;
+    
+    @Column(name = "total_nanos")
+    private Long totalNanos;
+    
     @Column(name = "checked_at")
     private LocalDateTime checkedAt;
     
     @PrePersist
     protected void onCreate() {
-        checkedAt = LocalDateTime.now();
+        // Results may be written some time after the probe ran, so keep the probe's own timestamp
+        if (checkedAt == null) {
+            checkedAt = LocalDateTime.now();
+        }
     }
     
     // Constructors
@@ -42,6 +81,7 @@ public class HealthCheck {
     
     public HealthCheck(ApiEndpoint apiEndpoint) {
         this.apiEndpoint = apiEndpoint;
+        this.checkedAt = LocalDateTime.now();
     }
     
     // Getters and Setters
@@ -85,6 +125,22 @@ public class HealthCheck {
         this.isSuccessful = isSuccessful;
     }
     
+    public FailureClass getFailureClass() {
+        return failureClass;
+    }
+    
+    public void setFailureClass(FailureClass failureClass) {
+        this.failureClass = failureClass;
+    }
+    
+    public Long getErrorMessageId() {
+        return errorMessageId;
+    }
+    
+    public void setErrorMessageId(Long errorMessageId) {
+        this.errorMessageId = errorMessageId;
+    }
+    
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -93,6 +149,70 @@ public class HealthCheck {
         this.errorMessage = errorMessage;
     }
     
+    public Long getJournalSequence() {
+        return journalSequence;
+    }
+    
+    public void setJournalSequence(Long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+    
+    public Boolean getConnectionReused() {
+        return connectionReused;
+    }
+    
+    public void setConnectionReused(Boolean connectionReused) {
+        this.connectionReused = connectionReused;
+    }
+    
+    public Long getDnsNanos() {
+        return dnsNanos;
+    }
+    
+    public void setDnsNanos(Long dnsNanos) {
+        this.dnsNanos = dnsNanos;
+    }
+    
+    public Long getConnectNanos() {
+        return connectNanos;
+    }
+    
+    public void setConnectNanos(Long connectNanos) {
+        this.connectNanos = connectNanos;
+    }
+    
+    public Long getTlsNanos() {
+        return tlsNanos;
+    }
+    
+    public void setTlsNanos(Long tlsNanos) {
+        this.tlsNanos = tlsNanos;
+    }
+    
+    public Long getTtfbNanos() {
+        return ttfbNanos;
+    }
+    
+    public void setTtfbNanos(Long ttfbNanos) {
+        this.ttfbNanos = ttfbNanos;
+    }
+    
+    public Long getBodyNanos() {
+        return bodyNanos;
+    }
+    
+    public void setBodyNanos(Long bodyNanos) {
+        this.bodyNanos = bodyNanos;
+    }
+    
+    public Long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    public void setTotalNanos(Long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+    
     public LocalDateTime getCheckedAt() {
         return checkedAt;
     }
@@ -0,0 +1,149 @@
+package com.example.apimonitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Health checks of one endpoint folded into one minute, hour or day. Latency columns cover
+ * successful checks only, like the live stats, and the histogram is a
+ * {@link com.example.apimonitoring.stats.LatencyHistogram} in its compact encoding.
+ */
+@Entity
+@Table(name = "health_check_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"api_endpoint_id", "tier", "bucket_start"}))
+public class HealthCheckRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_check_rollup_seq")
+    @SequenceGenerator(name = "health_check_rollup_seq", sequenceName = "health_check_rollup_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "api_endpoint_id", nullable = false)
+    private Long apiEndpointId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupTier tier;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "check_count")
+    private Long checkCount = 0L;
+    
+    @Column(name = "success_count")
+    private Long successCount = 0L;
+    
+    @Column(name = "latency_count")
+    private Long latencyCount = 0L;
+    
+    @Column(name = "latency_sum")
+    private Long latencySum = 0L;
+    
+    @Column(name = "latency_min")
+    private Long latencyMin;
+    
+    @Column(name = "latency_max")
+    private Long latencyMax;
+    
+    @Column(name = "latency_histogram", length = 4096)
+    private byte[] latencyHistogram;
+    
+    // Constructors
+    public HealthCheckRollup() {}
+    
+    public HealthCheckRollup(Long apiEndpointId, RollupTier tier, LocalDateTime bucketStart) {
+        this.apiEndpointId = apiEndpointId;
+        this.tier = tier;
+        this.bucketStart = bucketStart;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getApiEndpointId() {
+        return apiEndpointId;
+    }
+    
+    public void setApiEndpointId(Long apiEndpointId) {
+        this.apiEndpointId = apiEndpointId;
+    }
+    
+    public RollupTier getTier() {
+        return tier;
+    }
+    
+    public void setTier(RollupTier tier) {
+        this.tier = tier;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public Long getCheckCount() {
+        return checkCount;
+    }
+    
+    public void setCheckCount(Long checkCount) {
+        this.checkCount = checkCount;
+    }
+    
+    public Long getSuccessCount() {
+        return successCount;
+    }
+    
+    public void setSuccessCount(Long successCount) {
+        this.successCount = successCount;
+    }
+    
+    public Long getLatencyCount() {
+        return latencyCount;
+    }
+    
+    public void setLatencyCount(Long latencyCount) {
+        this.latencyCount = latencyCount;
+    }
+    
+    public Long getLatencySum() {
+        return latencySum;
+    }
+    
+    public void setLatencySum(Long latencySum) {
+        this.latencySum = latencySum;
+    }
+    
+    public Long getLatencyMin() {
+        return latencyMin;
+    }
+    
+    public void setLatencyMin(Long latencyMin) {
+        this.latencyMin = latencyMin;
+    }
+    
+    public Long getLatencyMax() {
+        return latencyMax;
+    }
+    
+    public void setLatencyMax(Long latencyMax) {
+        this.latencyMax = latencyMax;
+    }
+    
+    public byte[] getLatencyHistogram() {
+        return latencyHistogram;
+    }
+    
+    public void setLatencyHistogram(byte[] latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+}
\ No newline at end of file
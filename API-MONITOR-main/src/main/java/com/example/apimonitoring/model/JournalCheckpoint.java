@@ -0,0 +1,59 @@
+package com.example.apimonitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The last journal sequence applied to the database, written in the same transaction as the
+ * health checks it covers. A single row; an in-memory database loses it along with the health
+ * checks, so the whole journal is replayed.
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+public class JournalCheckpoint {
+    
+    public static final Long SINGLETON_ID = 1L;
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "applied_sequence", nullable = false)
+    private Long appliedSequence;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public JournalCheckpoint() {}
+    
+    public JournalCheckpoint(Long appliedSequence) {
+        this.id = SINGLETON_ID;
+        this.appliedSequence = appliedSequence;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAppliedSequence() {
+        return appliedSequence;
+    }
+    
+    public void setAppliedSequence(Long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.apimonitoring.model;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Phases of a probe, each timed in nanoseconds on its {@link HealthCheck}. DNS, connect and TLS
+ * only happen when the probe opens a new connection. TTFB runs from the start of the request to
+ * the first byte of the response, BODY from there to its last byte, and TOTAL covers the whole
+ * probe including time spent waiting for a pooled connection. Storage formats list the phases in
+ * declaration order, so new phases must be added at the end.
+ */
+public enum ProbePhase {
+    DNS("dns_nanos", HealthCheck::getDnsNanos, HealthCheck::setDnsNanos),
+    CONNECT("connect_nanos", HealthCheck::getConnectNanos, HealthCheck::setConnectNanos),
+    TLS("tls_nanos", HealthCheck::getTlsNanos, HealthCheck::setTlsNanos),
+    TTFB("ttfb_nanos", HealthCheck::getTtfbNanos, HealthCheck::setTtfbNanos),
+    BODY("body_nanos", HealthCheck::getBodyNanos, HealthCheck::setBodyNanos),
+    TOTAL("total_nanos", HealthCheck::getTotalNanos, HealthCheck::setTotalNanos);
+    
+    private final String column;
+    private final Function<HealthCheck, Long> getter;
+    private final BiConsumer<HealthCheck, Long> setter;
+    
+    ProbePhase(String column, Function<HealthCheck, Long> getter, BiConsumer<HealthCheck, Long> setter) {
+        this.column = column;
+        this.getter = getter;
+        this.setter = setter;
+    }
+    
+    public String getColumn() {
+        return column;
+    }
+    
+    /**
+     * The phase's duration in nanoseconds, or null if it was not measured.
+     */
+    public Long nanosOf(HealthCheck healthCheck) {
+        return getter.apply(healthCheck);
+    }
+    
+    public void setNanos(HealthCheck healthCheck, Long nanos) {
+        setter.accept(healthCheck, nanos);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.apimonitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marks the one-off backfill of rollups from raw history as done, written in the same
+ * transaction as the rollups it built. A single row; without it the backfill runs on startup.
+ */
+@Entity
+@Table(name = "rollup_backfill")
+public class RollupBackfill {
+    
+    public static final Long SINGLETON_ID = 1L;
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "backfilled_rows", nullable = false)
+    private Long backfilledRows;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public RollupBackfill() {}
+    
+    public RollupBackfill(Long backfilledRows) {
+        this.id = SINGLETON_ID;
+        this.backfilledRows = backfilledRows;
+        this.completedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getBackfilledRows() {
+        return backfilledRows;
+    }
+    
+    public void setBackfilledRows(Long backfilledRows) {
+        this.backfilledRows = backfilledRows;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
\ No newline at end of file
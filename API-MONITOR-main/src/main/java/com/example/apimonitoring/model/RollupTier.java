@@ -0,0 +1,28 @@
+package com.example.apimonitoring.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Resolutions of {@link HealthCheckRollup}, finest first.
+ */
+public enum RollupTier {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+    
+    private final ChronoUnit unit;
+    
+    RollupTier(ChronoUnit unit) {
+        this.unit = unit;
+    }
+    
+    public Duration getWidth() {
+        return unit.getDuration();
+    }
+    
+    public LocalDateTime bucketStart(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+}
\ No newline at end of file
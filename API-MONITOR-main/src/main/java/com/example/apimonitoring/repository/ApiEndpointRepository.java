@@ -9,13 +9,6 @@ import java.util.List;
 @Repository
 public interface ApiEndpointRepository extends JpaRepository<ApiEndpoint, Long> {
     
-    List<ApiEndpoint> findByIsActiveTrue();
-    
-    List<ApiEndpoint> findByIsActiveFalse();
-    
-    @Query("SELECT ae FROM ApiEndpoint ae WHERE ae.isActive = true ORDER BY ae.name")
-    List<ApiEndpoint> findActiveEndpointsOrderByName();
-    
-    @Query("SELECT COUNT(ae) FROM ApiEndpoint ae WHERE ae.isActive = true")
-    Long countActiveEndpoints();
+    @Query("SELECT ae.id FROM ApiEndpoint ae ORDER BY ae.id")
+    List<Long> findAllIds();
 }
\ No newline at end of file
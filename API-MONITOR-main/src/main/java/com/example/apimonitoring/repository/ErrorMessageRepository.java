@@ -0,0 +1,13 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.ErrorMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ErrorMessageRepository extends JpaRepository<ErrorMessage, Long> {
+    
+    Optional<ErrorMessage> findByMessage(String message);
+}
\ No newline at end of file
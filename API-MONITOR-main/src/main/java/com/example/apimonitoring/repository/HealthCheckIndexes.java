@@ -0,0 +1,33 @@
+package com.example.apimonitoring.repository;
+
+import java.util.List;
+
+/**
+ * Secondary index definitions for health check tables. {@code health_checks} gets them from the
+ * {@code V7__health_check_indexes} migration; daily partitions and the query benchmark's scratch
+ * table are indexed from here, so both must change together.
+ */
+public final class HealthCheckIndexes {
+    
+    /**
+     * Per-endpoint time ranges and keyset pages, plus the columns those reads project.
+     */
+    public static final String ENDPOINT_TIME_COLUMNS =
+            "api_endpoint_id, checked_at, id, is_successful, response_time_ms, failure_class";
+    
+    /**
+     * Time order across all endpoints.
+     */
+    public static final String TIME_COLUMNS = "checked_at, id";
+    
+    private HealthCheckIndexes() {}
+    
+    /**
+     * Statements creating both indexes on {@code table}; each is a no-op if the index exists.
+     */
+    public static List<String> createStatements(String table) {
+        return List.of(
+                "CREATE INDEX IF NOT EXISTS idx_" + table + "_by_endpoint ON " + table + " (" + ENDPOINT_TIME_COLUMNS + ")",
+                "CREATE INDEX IF NOT EXISTS idx_" + table + "_by_time ON " + table + " (" + TIME_COLUMNS + ")");
+    }
+}
\ No newline at end of file
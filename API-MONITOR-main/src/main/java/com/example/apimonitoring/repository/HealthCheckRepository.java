@@ -1,44 +1,114 @@
 package com.example.apimonitoring.repository;
 
 import com.example.apimonitoring.model.HealthCheck;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Queries over the single {@code health_checks} table. Each one filters and orders by a prefix of
+ * an index in {@link HealthCheckIndexes}. Apart from the keyset page, the latest check and the
+ * export stream, which need whole rows, they project only columns the index carries.
+ */
 @Repository
 public interface HealthCheckRepository extends JpaRepository<HealthCheck, Long> {
     
-    List<HealthCheck> findByApiEndpointIdOrderByCheckedAtDesc(Long apiEndpointId);
+    // Keyset page: rows strictly older than the (checkedAt, id) cursor, newest first
+    @Query("SELECT hc FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.checkedAt >= :since " +
+           "AND (hc.checkedAt < :beforeCheckedAt OR (hc.checkedAt = :beforeCheckedAt AND hc.id < :beforeId)) " +
+           "ORDER BY hc.checkedAt DESC, hc.id DESC")
+    List<HealthCheck> findPageBefore(@Param("endpointId") Long endpointId,
+                                     @Param("since") LocalDateTime since,
+                                     @Param("beforeCheckedAt") LocalDateTime beforeCheckedAt,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
     
-    @Query("SELECT hc FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.checkedAt >= :since ORDER BY hc.checkedAt DESC")
-    List<HealthCheck> findHealthChecksSince(@Param("endpointId") Long endpointId, @Param("since") LocalDateTime since);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT hc.id, hc.checkedAt, hc.isSuccessful, hc.statusCode, hc.responseTimeMs, hc.failureClass, hc.errorMessageId FROM HealthCheck hc " +
+           "WHERE hc.apiEndpoint.id = :endpointId AND hc.checkedAt >= :since AND hc.checkedAt < :until ORDER BY hc.checkedAt, hc.id")
+    Stream<Object[]> streamHealthChecks(@Param("endpointId") Long endpointId,
+                                        @Param("since") LocalDateTime since,
+                                        @Param("until") LocalDateTime until);
     
-    @Query(value = "SELECT * FROM health_checks hc WHERE hc.api_endpoint_id = :endpointId ORDER BY hc.checked_at DESC LIMIT 1", nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT hc.checkedAt, hc.isSuccessful, hc.responseTimeMs FROM HealthCheck hc " +
+           "WHERE hc.apiEndpoint.id = :endpointId AND hc.checkedAt >= :from AND hc.checkedAt < :to ORDER BY hc.checkedAt, hc.id")
+    Stream<Object[]> streamSeriesSamples(@Param("endpointId") Long endpointId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+    
+    @Query(value = "SELECT * FROM health_checks hc WHERE hc.api_endpoint_id = :endpointId ORDER BY hc.checked_at DESC, hc.id DESC LIMIT 1", nativeQuery = true)
     Optional<HealthCheck> findLatestHealthCheck(@Param("endpointId") Long endpointId);
     
-    @Query("SELECT hc FROM HealthCheck hc WHERE hc.checkedAt < :cutoffTime")
-    List<HealthCheck> findOldHealthChecks(@Param("cutoffTime") LocalDateTime cutoffTime);
+    // {MIN(id), MAX(id)} in one pass over the (endpoint, time) index prefix
+    @Query("SELECT MIN(hc.id), MAX(hc.id) FROM HealthCheck hc WHERE hc.apiEndpoint.id IN :endpointIds AND hc.checkedAt < :cutoffTime")
+    List<Object[]> findIdRangeBefore(@Param("endpointIds") Collection<Long> endpointIds, @Param("cutoffTime") LocalDateTime cutoffTime);
+    
+    @Modifying
+    @Query("DELETE FROM HealthCheck hc WHERE hc.id BETWEEN :fromId AND :toId AND hc.apiEndpoint.id IN :endpointIds AND hc.checkedAt < :cutoffTime")
+    int deleteExpiredInIdRange(@Param("endpointIds") Collection<Long> endpointIds,
+                               @Param("cutoffTime") LocalDateTime cutoffTime,
+                               @Param("fromId") Long fromId,
+                               @Param("toId") Long toId);
     
-    @Query("SELECT AVG(hc.responseTimeMs) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.isSuccessful = true")
-    Optional<Double> findAverageResponseTime(@Param("endpointId") Long endpointId);
+    @Query("SELECT hc.failureClass, COUNT(hc) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId " +
+           "AND hc.checkedAt >= :from AND hc.checkedAt < :to AND hc.failureClass IS NOT NULL GROUP BY hc.failureClass")
+    List<Object[]> countFailuresByClass(@Param("endpointId") Long endpointId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
     
-    @Query("SELECT MIN(hc.responseTimeMs) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.isSuccessful = true")
-    Optional<Long> findMinResponseTime(@Param("endpointId") Long endpointId);
+    // Same columns as HealthCheckStore#summarizeByEndpoint; CASE without ELSE leaves other rows out of SUM/MIN/MAX
+    @Query("SELECT hc.apiEndpoint.id, COUNT(hc), SUM(CASE WHEN hc.isSuccessful = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN hc.isSuccessful = true THEN hc.responseTimeMs END), " +
+           "MIN(CASE WHEN hc.isSuccessful = true THEN hc.responseTimeMs END), " +
+           "MAX(CASE WHEN hc.isSuccessful = true THEN hc.responseTimeMs END), " +
+           "SUM(CASE WHEN hc.connectionReused = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN hc.connectionReused = false THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN hc.connectionReused = true AND hc.isSuccessful = true AND hc.responseTimeMs IS NOT NULL THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN hc.connectionReused = true AND hc.isSuccessful = true THEN hc.responseTimeMs END), " +
+           "SUM(CASE WHEN hc.connectionReused = false AND hc.isSuccessful = true AND hc.responseTimeMs IS NOT NULL THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN hc.connectionReused = false AND hc.isSuccessful = true THEN hc.responseTimeMs END), " +
+           "COUNT(hc.dnsNanos), SUM(hc.dnsNanos), MAX(hc.dnsNanos), " +
+           "COUNT(hc.connectNanos), SUM(hc.connectNanos), MAX(hc.connectNanos), " +
+           "COUNT(hc.tlsNanos), SUM(hc.tlsNanos), MAX(hc.tlsNanos), " +
+           "COUNT(hc.ttfbNanos), SUM(hc.ttfbNanos), MAX(hc.ttfbNanos), " +
+           "COUNT(hc.bodyNanos), SUM(hc.bodyNanos), MAX(hc.bodyNanos), " +
+           "COUNT(hc.totalNanos), SUM(hc.totalNanos), MAX(hc.totalNanos) " +
+           "FROM HealthCheck hc WHERE hc.id <= :maxId GROUP BY hc.apiEndpoint.id")
+    List<Object[]> summarizeByEndpoint(@Param("maxId") long maxId);
     
-    @Query("SELECT MAX(hc.responseTimeMs) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.isSuccessful = true")
-    Optional<Long> findMaxResponseTime(@Param("endpointId") Long endpointId);
+    @Query("SELECT hc.apiEndpoint.id, hc.failureClass, COUNT(hc) FROM HealthCheck hc " +
+           "WHERE (hc.isSuccessful = false OR hc.isSuccessful IS NULL) AND hc.id <= :maxId " +
+           "GROUP BY hc.apiEndpoint.id, hc.failureClass")
+    List<Object[]> countFailuresByEndpointAndClass(@Param("maxId") long maxId);
     
-    @Query(value = "SELECT hc.response_time_ms FROM health_checks hc WHERE hc.api_endpoint_id = :endpointId AND hc.is_successful = true ORDER BY hc.checked_at DESC LIMIT 10", nativeQuery = true)
-    List<Long> findRecentResponseTimes(@Param("endpointId") Long endpointId);
+    @Query("SELECT COALESCE(MAX(hc.id), 0) FROM HealthCheck hc")
+    long findMaxId();
     
-    @Query("SELECT COUNT(hc) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId")
-    Long countByApiEndpointId(@Param("endpointId") Long endpointId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT hc.apiEndpoint.id, hc.checkedAt, hc.isSuccessful, hc.responseTimeMs FROM HealthCheck hc " +
+           "WHERE hc.id <= :maxId ORDER BY hc.apiEndpoint.id, hc.checkedAt, hc.id")
+    Stream<Object[]> streamOrderedCheckSummaries(@Param("maxId") long maxId);
     
-    @Query("SELECT COUNT(hc) FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId AND hc.isSuccessful = true")
-    Long countSuccessfulByApiEndpointId(@Param("endpointId") Long endpointId);
+    @Modifying
+    @Query("DELETE FROM HealthCheck hc WHERE hc.apiEndpoint.id = :endpointId")
+    int deleteByEndpointId(@Param("endpointId") Long endpointId);
 }
\ No newline at end of file
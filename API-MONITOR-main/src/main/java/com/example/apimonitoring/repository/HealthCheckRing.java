@@ -0,0 +1,217 @@
+package com.example.apimonitoring.repository;
+
+import java.util.Arrays;
+
+/**
+ * One endpoint's most recent checks in parallel primitive arrays of fixed capacity, kept in
+ * (timestamp, id) order. Once full, each added check overwrites the oldest, so a ring never
+ * allocates after construction. Absent values are stored as {@link #NONE}; the flags byte holds
+ * the success bit, the failure class code in the next four bits and the connection reuse bits
+ * above it. Phase timings are kept in microseconds, in arrays allocated on the first check that
+ * has any. Not thread-safe; callers synchronize.
+ */
+final class HealthCheckRing {
+    
+    static final int NONE = -1;
+    
+    private static final int FAILURE_CLASS_MASK = 0x0F;
+    private static final int REUSE_KNOWN = 1 << 5;
+    private static final int REUSED = 1 << 6;
+    
+    private final long[] ids;
+    private final long[] timestamps;
+    private final int[] latencies;
+    private final short[] statusCodes;
+    private final byte[] flags;
+    private final int[] errorMessageIds;
+    // [phase][slot], null until a check with phase timings arrives
+    private int[][] phaseMicros;
+    private final int phaseCount;
+    private int head;
+    private int size;
+    
+    HealthCheckRing(int capacity, int phaseCount) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ids = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.latencies = new int[capacity];
+        this.statusCodes = new short[capacity];
+        this.flags = new byte[capacity];
+        this.errorMessageIds = new int[capacity];
+        this.phaseCount = phaseCount;
+    }
+    
+    static byte flags(boolean successful, int failureClassCode, Boolean connectionReused) {
+        int flagBits = (failureClassCode & FAILURE_CLASS_MASK) << 1 | (successful ? 1 : 0);
+        if (connectionReused != null) {
+            flagBits |= REUSE_KNOWN | (connectionReused ? REUSED : 0);
+        }
+        return (byte) flagBits;
+    }
+    
+    /**
+     * Inserts a check at its ordered position; checks normally arrive in order, so this is an
+     * append. A check older than everything in a full ring is dropped.
+     *
+     * @return the check's index, or -1 if it was dropped
+     */
+    int add(long id, long timestamp, int latency, int statusCode, byte flagBits, int errorMessageId) {
+        if (size == ids.length) {
+            if (compareAt(0, timestamp, id) > 0) {
+                return -1;
+            }
+            head = slot(1);
+            size--;
+        }
+        int position = size;
+        while (position > 0 && compareAt(position - 1, timestamp, id) > 0) {
+            copy(slot(position - 1), slot(position));
+            position--;
+        }
+        int slot = slot(position);
+        ids[slot] = id;
+        timestamps[slot] = timestamp;
+        latencies[slot] = latency;
+        statusCodes[slot] = (short) statusCode;
+        flags[slot] = flagBits;
+        errorMessageIds[slot] = errorMessageId;
+        if (phaseMicros != null) {
+            for (int[] micros : phaseMicros) {
+                micros[slot] = NONE;
+            }
+        }
+        size++;
+        return position;
+    }
+    
+    void setPhaseMicros(int index, int phase, int micros) {
+        if (phaseMicros == null) {
+            phaseMicros = new int[phaseCount][ids.length];
+            for (int[] column : phaseMicros) {
+                Arrays.fill(column, NONE);
+            }
+        }
+        phaseMicros[phase][slot(index)] = micros;
+    }
+    
+    int phaseMicrosAt(int index, int phase) {
+        return phaseMicros != null ? phaseMicros[phase][slot(index)] : NONE;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int capacity() {
+        return ids.length;
+    }
+    
+    /**
+     * Index of the first check at or after {@code timestamp}, or {@link #size()} if none.
+     */
+    int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[slot(mid)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Index of the first check at or after the ({@code timestamp}, {@code id}) position.
+     */
+    int lowerBound(long timestamp, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareAt(mid, timestamp, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Drops every check before {@code timestamp}.
+     *
+     * @return the number of checks dropped
+     */
+    int removeBefore(long timestamp) {
+        int removed = lowerBound(timestamp);
+        head = slot(removed);
+        size -= removed;
+        return removed;
+    }
+    
+    long idAt(int index) {
+        return ids[slot(index)];
+    }
+    
+    long timestampAt(int index) {
+        return timestamps[slot(index)];
+    }
+    
+    int latencyAt(int index) {
+        return latencies[slot(index)];
+    }
+    
+    int statusCodeAt(int index) {
+        return statusCodes[slot(index)];
+    }
+    
+    boolean successAt(int index) {
+        return (flags[slot(index)] & 1) != 0;
+    }
+    
+    int failureClassCodeAt(int index) {
+        return (flags[slot(index)] >>> 1) & FAILURE_CLASS_MASK;
+    }
+    
+    boolean connectionReuseKnownAt(int index) {
+        return (flags[slot(index)] & REUSE_KNOWN) != 0;
+    }
+    
+    boolean connectionReusedAt(int index) {
+        return (flags[slot(index)] & REUSED) != 0;
+    }
+    
+    int errorMessageIdAt(int index) {
+        return errorMessageIds[slot(index)];
+    }
+    
+    private int compareAt(int index, long timestamp, long id) {
+        int slot = slot(index);
+        int byTime = Long.compare(timestamps[slot], timestamp);
+        return byTime != 0 ? byTime : Long.compare(ids[slot], id);
+    }
+    
+    private void copy(int from, int to) {
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        latencies[to] = latencies[from];
+        statusCodes[to] = statusCodes[from];
+        flags[to] = flags[from];
+        errorMessageIds[to] = errorMessageIds[from];
+        if (phaseMicros != null) {
+            for (int[] micros : phaseMicros) {
+                micros[to] = micros[from];
+            }
+        }
+    }
+    
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= ids.length ? slot - ids.length : slot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.HealthCheckRollup;
+import com.example.apimonitoring.model.RollupTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HealthCheckRollupRepository extends JpaRepository<HealthCheckRollup, Long> {
+    
+    @Query("SELECT r FROM HealthCheckRollup r WHERE r.tier = :tier AND r.apiEndpointId IN :endpointIds AND r.bucketStart IN :bucketStarts")
+    List<HealthCheckRollup> findBuckets(@Param("tier") RollupTier tier,
+                                        @Param("endpointIds") Collection<Long> endpointIds,
+                                        @Param("bucketStarts") Collection<LocalDateTime> bucketStarts);
+    
+    @Query("SELECT r FROM HealthCheckRollup r WHERE r.apiEndpointId = :endpointId AND r.tier = :tier " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<HealthCheckRollup> findRange(@Param("endpointId") Long endpointId,
+                                      @Param("tier") RollupTier tier,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM HealthCheckRollup r WHERE r.tier = :tier AND r.bucketStart < :cutoffTime")
+    int deleteExpired(@Param("tier") RollupTier tier, @Param("cutoffTime") LocalDateTime cutoffTime);
+    
+    @Modifying
+    @Query("DELETE FROM HealthCheckRollup r WHERE r.apiEndpointId = :endpointId")
+    int deleteByEndpoint(@Param("endpointId") Long endpointId);
+}
\ No newline at end of file
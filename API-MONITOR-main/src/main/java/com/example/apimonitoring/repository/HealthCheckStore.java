@@ -0,0 +1,101 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage for raw health checks. Services read and write checks only through this interface;
+ * the backend is chosen with {@code monitoring.storage.backend}: {@code jpa} (default) keeps
+ * them in the database, {@code memory} keeps a bounded window per endpoint in process memory.
+ * With the {@code jpa} backend, {@code monitoring.storage.partitioning: daily} swaps the single
+ * {@code health_checks} table for one table per day ({@link PartitionedHealthCheckStore});
+ * the memory backend ignores it.
+ * <p>
+ * Row-returning methods use column arrays rather than entities so large ranges can be streamed.
+ * Streams must be closed by the caller; JPA streams also need an open transaction.
+ */
+public interface HealthCheckStore {
+    
+    /**
+     * Stores new checks. Each check must reference its endpoint and have no id yet.
+     */
+    void saveAll(List<HealthCheck> batch);
+    
+    /**
+     * Keyset page: checks at or after {@code since} and strictly older than the
+     * ({@code beforeCheckedAt}, {@code beforeId}) cursor, newest first.
+     */
+    List<HealthCheck> findPageBefore(Long endpointId, LocalDateTime since, LocalDateTime beforeCheckedAt,
+                                     Long beforeId, int limit);
+    
+    Optional<HealthCheck> findLatest(Long endpointId);
+    
+    /**
+     * Checks in [since, until) as {id, checkedAt, isSuccessful, statusCode, responseTimeMs,
+     * failureClass, errorMessageId}, ordered by time and id.
+     */
+    Stream<Object[]> streamHealthChecks(Long endpointId, LocalDateTime since, LocalDateTime until);
+    
+    /**
+     * Checks in [from, to) as {checkedAt, isSuccessful, responseTimeMs}, ordered by time.
+     */
+    Stream<Object[]> streamSeriesSamples(Long endpointId, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * The highest id stored, 0 if there are none. Ids increase in the order checks are stored, so
+     * reads bounded by it see the checks stored when it was read and none stored since.
+     */
+    long maxId();
+    
+    /**
+     * Every check with an id up to {@code maxId} as {endpointId, checkedAt, isSuccessful,
+     * responseTimeMs}. Any bucket of a day or less is returned as one contiguous run ordered by
+     * time.
+     */
+    Stream<Object[]> streamOrderedCheckSummaries(long maxId);
+    
+    /**
+     * Totals over every check with an id up to {@code maxId}, one row per endpoint: {endpointId,
+     * checks, successful checks, then the sum, min and max responseTimeMs of successful checks,
+     * then checks with a reused and with a new connection, then for reused and for new
+     * connections the successful checks with a latency and their responseTimeMs sum, then
+     * samples, sum and max per {@link ProbePhase}}.
+     * Backends compute these without handing every check to the caller.
+     */
+    List<Object[]> summarizeByEndpoint(long maxId);
+    
+    /**
+     * Failed checks with an id up to {@code maxId} as {endpointId, failureClass, count};
+     * failureClass is null for unclassified failures.
+     */
+    List<Object[]> countFailuresByEndpointAndClass(long maxId);
+    
+    /**
+     * Failed checks in [from, to) as {failureClass, count}, one row per class present.
+     */
+    List<Object[]> countFailuresByClass(Long endpointId, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Deletes checks older than each group's retention, keyed by retention days, and records
+     * rows, chunks, partitions and endpoints processed on the report.
+     */
+    void purgeExpired(Map<Integer, List<Long>> endpointIdsByRetention, RetentionReport report);
+    
+    /**
+     * Deletes every check of the endpoint. Called before the endpoint itself is deleted.
+     */
+    void deleteByEndpoint(Long endpointId);
+    
+    /**
+     * Whether stored checks survive a restart. The journal replays everything into a store
+     * that is not durable.
+     */
+    boolean isDurable();
+}
\ No newline at end of file
@@ -0,0 +1,368 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Process-memory store for ephemeral deployments and edge probes: each endpoint keeps its last
+ * {@code monitoring.storage.memory.capacity-per-endpoint} checks in a {@link HealthCheckRing},
+ * about 27 bytes per check with no entity or index overhead. Older checks are overwritten as new
+ * ones arrive and everything is lost on restart, so the probe journal is replayed in full at
+ * startup. Check times are kept at millisecond precision and phase timings at microsecond
+ * precision; endpoints that record phase timings take another 24 bytes per check.
+ * <p>
+ * Reads copy the requested range out under the ring's lock, so returned streams never observe
+ * concurrent writes.
+ */
+@Repository
+@ConditionalOnProperty(name = "monitoring.storage.backend", havingValue = "memory")
+public class InMemoryHealthCheckStore implements HealthCheckStore {
+    
+    private static final int NONE = HealthCheckRing.NONE;
+    private static final ProbePhase[] PHASES = ProbePhase.values();
+    
+    private final int capacityPerEndpoint;
+    private final Map<Long, HealthCheckRing> rings = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    
+    public InMemoryHealthCheckStore(@Value("${monitoring.storage.memory.capacity-per-endpoint:20160}") int capacityPerEndpoint) {
+        this.capacityPerEndpoint = capacityPerEndpoint;
+    }
+    
+    @Override
+    public void saveAll(List<HealthCheck> batch) {
+        for (HealthCheck healthCheck : batch) {
+            healthCheck.setId(lastId.incrementAndGet());
+            HealthCheckRing ring = rings.computeIfAbsent(healthCheck.getApiEndpoint().getId(),
+                    id -> new HealthCheckRing(capacityPerEndpoint, PHASES.length));
+            Long latency = healthCheck.getResponseTimeMs();
+            Integer statusCode = healthCheck.getStatusCode();
+            FailureClass failureClass = healthCheck.getFailureClass();
+            Long errorMessageId = healthCheck.getErrorMessageId();
+            synchronized (ring) {
+                int index = ring.add(healthCheck.getId(),
+                        toEpochMillis(healthCheck.getCheckedAt()),
+                        latency != null ? (int) Math.min(latency, Integer.MAX_VALUE) : NONE,
+                        statusCode != null ? statusCode : NONE,
+                        HealthCheckRing.flags(Boolean.TRUE.equals(healthCheck.getIsSuccessful()),
+                                failureClass != null ? failureClass.getCode() : 0,
+                                healthCheck.getConnectionReused()),
+                        errorMessageId != null ? errorMessageId.intValue() : NONE);
+                if (index >= 0) {
+                    for (ProbePhase phase : PHASES) {
+                        Long nanos = phase.nanosOf(healthCheck);
+                        if (nanos != null) {
+                            ring.setPhaseMicros(index, phase.ordinal(), (int) Math.min(nanos / 1000, Integer.MAX_VALUE));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Override
+    public List<HealthCheck> findPageBefore(Long endpointId, LocalDateTime since, LocalDateTime beforeCheckedAt,
+                                            Long beforeId, int limit) {
+        List<HealthCheck> page = new ArrayList<>();
+        HealthCheckRing ring = rings.get(endpointId);
+        if (ring == null) {
+            return page;
+        }
+        long sinceMillis = toEpochMillis(since);
+        synchronized (ring) {
+            int index = ring.lowerBound(toEpochMillis(beforeCheckedAt), beforeId) - 1;
+            for (; index >= 0 && page.size() < limit && ring.timestampAt(index) >= sinceMillis; index--) {
+                page.add(toHealthCheck(ring, index));
+            }
+        }
+        return page;
+    }
+    
+    @Override
+    public Optional<HealthCheck> findLatest(Long endpointId) {
+        HealthCheckRing ring = rings.get(endpointId);
+        if (ring == null) {
+            return Optional.empty();
+        }
+        synchronized (ring) {
+            return ring.size() > 0 ? Optional.of(toHealthCheck(ring, ring.size() - 1)) : Optional.empty();
+        }
+    }
+    
+    @Override
+    public Stream<Object[]> streamHealthChecks(Long endpointId, LocalDateTime since, LocalDateTime until) {
+        List<Object[]> rows = new ArrayList<>();
+        HealthCheckRing ring = rings.get(endpointId);
+        if (ring != null) {
+            synchronized (ring) {
+                int end = ring.lowerBound(toEpochMillis(until));
+                for (int i = ring.lowerBound(toEpochMillis(since)); i < end; i++) {
+                    rows.add(new Object[] {ring.idAt(i), toLocalDateTime(ring.timestampAt(i)), ring.successAt(i),
+                            statusCodeAt(ring, i), latencyAt(ring, i), failureClassAt(ring, i), errorMessageIdAt(ring, i)});
+                }
+            }
+        }
+        return rows.stream();
+    }
+    
+    @Override
+    public Stream<Object[]> streamSeriesSamples(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = new ArrayList<>();
+        HealthCheckRing ring = rings.get(endpointId);
+        if (ring != null) {
+            synchronized (ring) {
+                int end = ring.lowerBound(toEpochMillis(to));
+                for (int i = ring.lowerBound(toEpochMillis(from)); i < end; i++) {
+                    rows.add(new Object[] {toLocalDateTime(ring.timestampAt(i)), ring.successAt(i), latencyAt(ring, i)});
+                }
+            }
+        }
+        return rows.stream();
+    }
+    
+    @Override
+    public long maxId() {
+        return lastId.get();
+    }
+    
+    /**
+     * Copies one endpoint's ring at a time as the caller consumes the stream.
+     */
+    @Override
+    public Stream<Object[]> streamOrderedCheckSummaries(long maxId) {
+        return new TreeMap<>(rings).entrySet().stream().flatMap(entry -> {
+            HealthCheckRing ring = entry.getValue();
+            List<Object[]> rows;
+            synchronized (ring) {
+                rows = new ArrayList<>(ring.size());
+                for (int i = 0; i < ring.size(); i++) {
+                    if (ring.idAt(i) > maxId) {
+                        continue;
+                    }
+                    rows.add(new Object[] {entry.getKey(), toLocalDateTime(ring.timestampAt(i)), ring.successAt(i), latencyAt(ring, i)});
+                }
+            }
+            return rows.stream();
+        });
+    }
+    
+    @Override
+    public List<Object[]> summarizeByEndpoint(long maxId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, HealthCheckRing> entry : new TreeMap<>(rings).entrySet()) {
+            HealthCheckRing ring = entry.getValue();
+            synchronized (ring) {
+                Object[] row = summarize(entry.getKey(), ring, maxId);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+    
+    @Override
+    public List<Object[]> countFailuresByEndpointAndClass(long maxId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, HealthCheckRing> entry : new TreeMap<>(rings).entrySet()) {
+            HealthCheckRing ring = entry.getValue();
+            Map<FailureClass, Long> counts = new HashMap<>();
+            synchronized (ring) {
+                for (int i = 0; i < ring.size(); i++) {
+                    if (ring.idAt(i) <= maxId && !ring.successAt(i)) {
+                        counts.merge(failureClassAt(ring, i), 1L, Long::sum);
+                    }
+                }
+            }
+            counts.forEach((failureClass, count) -> rows.add(new Object[] {entry.getKey(), failureClass, count}));
+        }
+        return rows;
+    }
+    
+    @Override
+    public List<Object[]> countFailuresByClass(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = new ArrayList<>();
+        HealthCheckRing ring = rings.get(endpointId);
+        if (ring == null) {
+            return rows;
+        }
+        Map<FailureClass, Long> counts = new TreeMap<>();
+        synchronized (ring) {
+            int end = ring.lowerBound(toEpochMillis(to));
+            for (int i = ring.lowerBound(toEpochMillis(from)); i < end; i++) {
+                FailureClass failureClass = failureClassAt(ring, i);
+                if (failureClass != null) {
+                    counts.merge(failureClass, 1L, Long::sum);
+                }
+            }
+        }
+        counts.forEach((failureClass, count) -> rows.add(new Object[] {failureClass, count}));
+        return rows;
+    }
+    
+    @Override
+    public void purgeExpired(Map<Integer, List<Long>> endpointIdsByRetention, RetentionReport report) {
+        for (Map.Entry<Integer, List<Long>> group : endpointIdsByRetention.entrySet()) {
+            long cutoffMillis = toEpochMillis(report.getStartedAt().minusDays(group.getKey()));
+            for (Long endpointId : group.getValue()) {
+                HealthCheckRing ring = rings.get(endpointId);
+                if (ring != null) {
+                    synchronized (ring) {
+                        report.setRowsDeleted(report.getRowsDeleted() + ring.removeBefore(cutoffMillis));
+                    }
+                }
+            }
+            report.setChunks(report.getChunks() + 1);
+            report.setEndpointsProcessed(report.getEndpointsProcessed() + group.getValue().size());
+        }
+    }
+    
+    @Override
+    public void deleteByEndpoint(Long endpointId) {
+        rings.remove(endpointId);
+    }
+    
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+    
+    /**
+     * One {@link #summarizeByEndpoint} row over the ring's checks with an id up to {@code maxId},
+     * or null if there are none; sums, minima and maxima over no values are null, as in SQL.
+     */
+    private static Object[] summarize(Long endpointId, HealthCheckRing ring, long maxId) {
+        long checks = 0;
+        long successful = 0;
+        Long latencySum = null;
+        Long latencyMin = null;
+        Long latencyMax = null;
+        long[] reuse = new long[2];
+        long[] reuseSuccessful = new long[2];
+        Long[] reuseLatencySum = new Long[2];
+        long[] phaseSamples = new long[PHASES.length];
+        Long[] phaseSum = new Long[PHASES.length];
+        Long[] phaseMax = new Long[PHASES.length];
+        
+        for (int i = 0; i < ring.size(); i++) {
+            if (ring.idAt(i) > maxId) {
+                continue;
+            }
+            checks++;
+            Long latency = latencyAt(ring, i);
+            Boolean reused = connectionReusedAt(ring, i);
+            int connection = Boolean.TRUE.equals(reused) ? 0 : 1;
+            if (reused != null) {
+                reuse[connection]++;
+            }
+            if (ring.successAt(i)) {
+                successful++;
+                if (latency != null) {
+                    latencySum = latencySum == null ? latency : latencySum + latency;
+                    latencyMin = latencyMin == null ? latency : Math.min(latencyMin, latency);
+                    latencyMax = latencyMax == null ? latency : Math.max(latencyMax, latency);
+                    if (reused != null) {
+                        reuseSuccessful[connection]++;
+                        reuseLatencySum[connection] = reuseLatencySum[connection] == null
+                                ? latency : reuseLatencySum[connection] + latency;
+                    }
+                }
+            }
+            for (ProbePhase phase : PHASES) {
+                Long nanos = phaseNanosAt(ring, i, phase);
+                if (nanos != null) {
+                    int p = phase.ordinal();
+                    phaseSamples[p]++;
+                    phaseSum[p] = phaseSum[p] == null ? nanos : phaseSum[p] + nanos;
+                    phaseMax[p] = phaseMax[p] == null ? nanos : Math.max(phaseMax[p], nanos);
+                }
+            }
+        }
+        
+        if (checks == 0) {
+            return null;
+        }
+        Object[] row = new Object[12 + 3 * PHASES.length];
+        Object[] head = {endpointId, checks, successful, latencySum, latencyMin, latencyMax,
+                reuse[0], reuse[1], reuseSuccessful[0], reuseLatencySum[0], reuseSuccessful[1], reuseLatencySum[1]};
+        System.arraycopy(head, 0, row, 0, head.length);
+        for (ProbePhase phase : PHASES) {
+            int p = phase.ordinal();
+            row[12 + 3 * p] = phaseSamples[p];
+            row[13 + 3 * p] = phaseSum[p];
+            row[14 + 3 * p] = phaseMax[p];
+        }
+        return row;
+    }
+    
+    private static HealthCheck toHealthCheck(HealthCheckRing ring, int index) {
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setId(ring.idAt(index));
+        healthCheck.setCheckedAt(toLocalDateTime(ring.timestampAt(index)));
+        healthCheck.setStatusCode(statusCodeAt(ring, index));
+        healthCheck.setResponseTimeMs(latencyAt(ring, index));
+        healthCheck.setIsSuccessful(ring.successAt(index));
+        healthCheck.setFailureClass(failureClassAt(ring, index));
+        healthCheck.setErrorMessageId(errorMessageIdAt(ring, index));
+        healthCheck.setConnectionReused(connectionReusedAt(ring, index));
+        for (ProbePhase phase : PHASES) {
+            phase.setNanos(healthCheck, phaseNanosAt(ring, index, phase));
+        }
+        return healthCheck;
+    }
+    
+    private static Integer statusCodeAt(HealthCheckRing ring, int index) {
+        int statusCode = ring.statusCodeAt(index);
+        return statusCode != NONE ? statusCode : null;
+    }
+    
+    private static Long latencyAt(HealthCheckRing ring, int index) {
+        int latency = ring.latencyAt(index);
+        return latency != NONE ? (long) latency : null;
+    }
+    
+    private static FailureClass failureClassAt(HealthCheckRing ring, int index) {
+        int code = ring.failureClassCodeAt(index);
+        return code != 0 ? FailureClass.fromCode(code) : null;
+    }
+    
+    private static Long errorMessageIdAt(HealthCheckRing ring, int index) {
+        int errorMessageId = ring.errorMessageIdAt(index);
+        return errorMessageId != NONE ? (long) errorMessageId : null;
+    }
+    
+    private static Boolean connectionReusedAt(HealthCheckRing ring, int index) {
+        return ring.connectionReuseKnownAt(index) ? ring.connectionReusedAt(index) : null;
+    }
+    
+    private static Long phaseNanosAt(HealthCheckRing ring, int index, ProbePhase phase) {
+        int micros = ring.phaseMicrosAt(index, phase.ordinal());
+        return micros != NONE ? micros * 1000L : null;
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
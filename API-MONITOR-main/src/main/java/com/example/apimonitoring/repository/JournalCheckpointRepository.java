@@ -0,0 +1,9 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, Long> {
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.HealthCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Database-backed store on the {@code health_checks} table through {@link HealthCheckRepository}.
+ * With {@code monitoring.storage.partitioning: daily} the {@link PartitionedHealthCheckStore}
+ * takes its place.
+ * <p>
+ * Purges run set-based DELETE statements over bounded id ranges, one short transaction per
+ * range, so a purge never loads rows into memory or holds long locks.
+ */
+@Repository
+@ConditionalOnExpression("'${monitoring.storage.backend:jpa}' == 'jpa' and '${monitoring.storage.partitioning:none}' != 'daily'")
+public class JpaHealthCheckStore implements HealthCheckStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JpaHealthCheckStore.class);
+    
+    private final HealthCheckRepository healthCheckRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long chunkSize;
+    
+    @Autowired
+    public JpaHealthCheckStore(HealthCheckRepository healthCheckRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${monitoring.retention.chunk-size:10000}") long chunkSize) {
+        this.healthCheckRepository = healthCheckRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+    
+    @Override
+    public void saveAll(List<HealthCheck> batch) {
+        healthCheckRepository.saveAll(batch);
+    }
+    
+    @Override
+    public List<HealthCheck> findPageBefore(Long endpointId, LocalDateTime since, LocalDateTime beforeCheckedAt,
+                                            Long beforeId, int limit) {
+        return healthCheckRepository.findPageBefore(endpointId, since, beforeCheckedAt, beforeId, PageRequest.of(0, limit));
+    }
+    
+    @Override
+    public Optional<HealthCheck> findLatest(Long endpointId) {
+        return healthCheckRepository.findLatestHealthCheck(endpointId);
+    }
+    
+    @Override
+    public Stream<Object[]> streamHealthChecks(Long endpointId, LocalDateTime since, LocalDateTime until) {
+        return healthCheckRepository.streamHealthChecks(endpointId, since, until);
+    }
+    
+    @Override
+    public Stream<Object[]> streamSeriesSamples(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        return healthCheckRepository.streamSeriesSamples(endpointId, from, to);
+    }
+    
+    @Override
+    public long maxId() {
+        return healthCheckRepository.findMaxId();
+    }
+    
+    @Override
+    public Stream<Object[]> streamOrderedCheckSummaries(long maxId) {
+        return healthCheckRepository.streamOrderedCheckSummaries(maxId);
+    }
+    
+    @Override
+    public List<Object[]> summarizeByEndpoint(long maxId) {
+        return healthCheckRepository.summarizeByEndpoint(maxId);
+    }
+    
+    @Override
+    public List<Object[]> countFailuresByEndpointAndClass(long maxId) {
+        return healthCheckRepository.countFailuresByEndpointAndClass(maxId);
+    }
+    
+    @Override
+    public List<Object[]> countFailuresByClass(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        return healthCheckRepository.countFailuresByClass(endpointId, from, to);
+    }
+    
+    @Override
+    public void purgeExpired(Map<Integer, List<Long>> endpointIdsByRetention, RetentionReport report) {
+        for (Map.Entry<Integer, List<Long>> group : endpointIdsByRetention.entrySet()) {
+            LocalDateTime cutoffTime = report.getStartedAt().minusDays(group.getKey());
+            purgeGroup(group.getValue(), cutoffTime, report);
+            report.setEndpointsProcessed(report.getEndpointsProcessed() + group.getValue().size());
+        }
+    }
+    
+    @Override
+    public void deleteByEndpoint(Long endpointId) {
+        healthCheckRepository.deleteByEndpointId(endpointId);
+    }
+    
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+    
+    private void purgeGroup(List<Long> endpointIds, LocalDateTime cutoffTime, RetentionReport report) {
+        List<Object[]> idRange = healthCheckRepository.findIdRangeBefore(endpointIds, cutoffTime);
+        if (idRange.isEmpty() || idRange.get(0)[0] == null) {
+            return;
+        }
+        long minId = ((Number) idRange.get(0)[0]).longValue();
+        long maxId = ((Number) idRange.get(0)[1]).longValue();
+        
+        long totalRange = maxId - minId + 1;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long toId = Math.min(fromId + chunkSize - 1, maxId);
+            long rangeStart = fromId;
+            Integer deleted = transactionTemplate.execute(status ->
+                    healthCheckRepository.deleteExpiredInIdRange(endpointIds, cutoffTime, rangeStart, toId));
+            
+            report.setRowsDeleted(report.getRowsDeleted() + (deleted != null ? deleted : 0));
+            report.setChunks(report.getChunks() + 1);
+            report.setDurationMs(Duration.between(report.getStartedAt(), LocalDateTime.now()).toMillis());
+            
+            if (report.getChunks() % 100 == 0) {
+                logger.info("Retention purge progress: {}% of id range for {} endpoints, {} rows deleted so far",
+                           (toId - minId + 1) * 100 / totalRange, endpointIds.size(), report.getRowsDeleted());
+            }
+        }
+    }
+}
\ No newline at end of file
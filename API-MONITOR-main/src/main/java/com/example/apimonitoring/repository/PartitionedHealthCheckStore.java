@@ -0,0 +1,460 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Database backend that keeps health checks in one table per day ({@code health_checks_yyyyMMdd}),
+ * used instead of {@link JpaHealthCheckStore} when {@code monitoring.storage.partitioning} is
+ * {@code daily}. Inserts only ever touch the partition of the check's own day, range reads visit
+ * just the partitions overlapping the range, and retention drops whole partitions instead of
+ * deleting rows from one ever-growing B-tree.
+ * <p>
+ * Partitions are plain tables with the same columns as {@code health_checks}, so this works on
+ * any database without native partitioning. Ids come from the {@code health_check_partition_seq}
+ * sequence in blocks of {@value #ID_BLOCK_SIZE}, so instances sharing the database never hand out
+ * the same id.
+ * <p>
+ * Partitions older than the longest retention in use are dropped whole; groups with shorter
+ * retention are deleted by endpoint id within the remaining partitions.
+ */
+@Repository
+@ConditionalOnExpression("'${monitoring.storage.backend:jpa}' == 'jpa' and '${monitoring.storage.partitioning:none}' == 'daily'")
+public class PartitionedHealthCheckStore implements HealthCheckStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedHealthCheckStore.class);
+    
+    private static final String ID_SEQUENCE = "health_check_partition_seq";
+    // Must match INCREMENT BY of the sequence
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String TABLE_PREFIX = "health_checks_";
+    private static final Pattern TABLE_PATTERN = Pattern.compile("(?i)health_checks_(\\d{8})");
+    private static final DateTimeFormatter TABLE_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String COLUMNS = "id, api_endpoint_id, status_code, response_time_ms, is_successful, failure_class, error_message_id, checked_at, connection_reused, " +
+            "dns_nanos, connect_nanos, tls_nanos, ttfb_nanos, body_nanos, total_nanos";
+    private static final ProbePhase[] PHASES = ProbePhase.values();
+    private static final String SUMMARY_COLUMNS = "api_endpoint_id, COUNT(*), SUM(CASE WHEN is_successful THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN is_successful THEN response_time_ms END), MIN(CASE WHEN is_successful THEN response_time_ms END), " +
+            "MAX(CASE WHEN is_successful THEN response_time_ms END), " +
+            "SUM(CASE WHEN connection_reused THEN 1 ELSE 0 END), SUM(CASE WHEN NOT connection_reused THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN connection_reused AND is_successful AND response_time_ms IS NOT NULL THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN connection_reused AND is_successful THEN response_time_ms END), " +
+            "SUM(CASE WHEN NOT connection_reused AND is_successful AND response_time_ms IS NOT NULL THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN NOT connection_reused AND is_successful THEN response_time_ms END)" +
+            Stream.of(PHASES).map(phase -> ", COUNT(" + phase.getColumn() + "), SUM(" + phase.getColumn() + "), MAX(" + phase.getColumn() + ")")
+                    .collect(Collectors.joining());
+    // Index of the first phase column in a summary row; MIN is at 4, MAX at 5 and every third column from here + 2
+    private static final int SUMMARY_PHASES_START = 12;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultRetentionDays;
+    private final NavigableMap<LocalDate, String> partitions = new ConcurrentSkipListMap<>();
+    
+    // Current block of ids from the sequence, guarded by this
+    private long nextId;
+    private long blockEnd;
+    
+    @Autowired
+    public PartitionedHealthCheckStore(DataSource dataSource,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${monitoring.retention.default-days:7}") int defaultRetentionDays) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultRetentionDays = defaultRetentionDays;
+    }
+    
+    @PostConstruct
+    public void loadPartitions() throws SQLException {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(null, null, "%", new String[] {"TABLE"})) {
+                while (tables.next()) {
+                    Matcher matcher = TABLE_PATTERN.matcher(tables.getString("TABLE_NAME"));
+                    if (matcher.matches()) {
+                        partitions.put(LocalDate.parse(matcher.group(1), TABLE_SUFFIX), tables.getString("TABLE_NAME"));
+                    }
+                }
+            }
+        }
+        
+        ensurePartitions();
+        logger.info("Daily health check partitioning enabled with {} partitions", partitions.size());
+    }
+    
+    /**
+     * Creates today's and tomorrow's partitions ahead of time, so the write path normally never
+     * waits on DDL.
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void ensurePartitions() {
+        LocalDate today = LocalDate.now();
+        partitionFor(today);
+        partitionFor(today.plusDays(1));
+    }
+    
+    @Override
+    public void saveAll(List<HealthCheck> batch) {
+        Map<LocalDate, List<HealthCheck>> byDay = batch.stream()
+                .collect(Collectors.groupingBy(healthCheck -> healthCheck.getCheckedAt().toLocalDate(), TreeMap::new, Collectors.toList()));
+        
+        for (Map.Entry<LocalDate, List<HealthCheck>> day : byDay.entrySet()) {
+            List<Object[]> rows = new ArrayList<>(day.getValue().size());
+            for (HealthCheck healthCheck : day.getValue()) {
+                healthCheck.setId(nextId());
+                rows.add(new Object[] {
+                    healthCheck.getId(), healthCheck.getApiEndpoint().getId(), healthCheck.getStatusCode(),
+                    healthCheck.getResponseTimeMs(), healthCheck.getIsSuccessful(),
+                    healthCheck.getFailureClass() != null ? healthCheck.getFailureClass().getCode() : null,
+                    healthCheck.getErrorMessageId(), healthCheck.getCheckedAt(), healthCheck.getConnectionReused(),
+                    healthCheck.getDnsNanos(), healthCheck.getConnectNanos(), healthCheck.getTlsNanos(),
+                    healthCheck.getTtfbNanos(), healthCheck.getBodyNanos(), healthCheck.getTotalNanos()
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + partitionFor(day.getKey()) + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+    
+    /**
+     * Keyset page, newest first, walking partitions backwards from the cursor until the page is
+     * full or {@code since} is reached.
+     */
+    @Override
+    public List<HealthCheck> findPageBefore(Long endpointId, LocalDateTime since, LocalDateTime beforeCheckedAt,
+                                            Long beforeId, int limit) {
+        List<HealthCheck> page = new ArrayList<>(limit);
+        for (String table : overlapping(since, beforeCheckedAt).descendingMap().values()) {
+            page.addAll(jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM " + table + " WHERE api_endpoint_id = ? AND checked_at >= ? " +
+                    "AND (checked_at < ? OR (checked_at = ? AND id < ?)) ORDER BY checked_at DESC, id DESC LIMIT ?",
+                    HEALTH_CHECK_MAPPER, endpointId, since, beforeCheckedAt, beforeCheckedAt, beforeId, limit - page.size()));
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+    
+    @Override
+    public Optional<HealthCheck> findLatest(Long endpointId) {
+        return findPageBefore(endpointId, LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(9999, 1, 1, 0, 0),
+                Long.MAX_VALUE, 1).stream().findFirst();
+    }
+    
+    /**
+     * Same columns and order as {@link HealthCheckRepository#streamHealthChecks}.
+     */
+    @Override
+    public Stream<Object[]> streamHealthChecks(Long endpointId, LocalDateTime since, LocalDateTime until) {
+        return streamPartitions(since, until,
+                "SELECT id, checked_at, is_successful, status_code, response_time_ms, failure_class, error_message_id FROM %s " +
+                "WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? ORDER BY checked_at, id",
+                endpointId, since, until);
+    }
+    
+    /**
+     * Same columns and order as {@link HealthCheckRepository#streamSeriesSamples}.
+     */
+    @Override
+    public Stream<Object[]> streamSeriesSamples(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        return streamPartitions(from, to,
+                "SELECT checked_at, is_successful, response_time_ms FROM %s " +
+                "WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? ORDER BY checked_at",
+                endpointId, from, to);
+    }
+    
+    @Override
+    public long maxId() {
+        long maxId = 0;
+        for (String table : partitions.values()) {
+            Long partitionMax = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            maxId = Math.max(maxId, partitionMax != null ? partitionMax : 0);
+        }
+        return maxId;
+    }
+    
+    /**
+     * Checks with an id up to {@code maxId} as {endpointId, checkedAt, isSuccessful,
+     * responseTimeMs}, one partition after another, ordered by endpoint and time within each
+     * partition. Any bucket of a day or less lies within one partition, so per-bucket folding sees
+     * each bucket as one contiguous run.
+     */
+    @Override
+    public Stream<Object[]> streamOrderedCheckSummaries(long maxId) {
+        return streamPartitions(null, null,
+                "SELECT api_endpoint_id, checked_at, is_successful, response_time_ms FROM %s WHERE id <= ? " +
+                "ORDER BY api_endpoint_id, checked_at", maxId);
+    }
+    
+    /**
+     * Same columns as {@link HealthCheckRepository#countFailuresByClass}, summed over the
+     * partitions overlapping the range.
+     */
+    @Override
+    public List<Object[]> countFailuresByClass(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        Map<FailureClass, Long> counts = new TreeMap<>();
+        try (Stream<Object[]> rows = streamPartitions(from, to,
+                "SELECT failure_class, COUNT(*) FROM %s WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? " +
+                "AND failure_class IS NOT NULL GROUP BY failure_class",
+                endpointId, from, to)) {
+            rows.forEach(row -> counts.merge((FailureClass) row[0], ((Number) row[1]).longValue(), Long::sum));
+        }
+        List<Object[]> result = new ArrayList<>(counts.size());
+        counts.forEach((failureClass, count) -> result.add(new Object[] {failureClass, count}));
+        return result;
+    }
+    
+    /**
+     * Same columns as {@link HealthCheckRepository#summarizeByEndpoint}: each partition is
+     * aggregated in the database and the per-partition rows of an endpoint are combined.
+     */
+    @Override
+    public List<Object[]> summarizeByEndpoint(long maxId) {
+        Map<Long, Object[]> totals = new TreeMap<>();
+        try (Stream<Object[]> rows = streamPartitions(null, null,
+                "SELECT " + SUMMARY_COLUMNS + " FROM %s WHERE id <= ? GROUP BY api_endpoint_id", maxId)) {
+            rows.forEach(row -> totals.merge(((Number) row[0]).longValue(), row, PartitionedHealthCheckStore::combineSummaries));
+        }
+        return new ArrayList<>(totals.values());
+    }
+    
+    /**
+     * Same columns as {@link HealthCheckRepository#countFailuresByEndpointAndClass}, summed over
+     * all partitions.
+     */
+    @Override
+    public List<Object[]> countFailuresByEndpointAndClass(long maxId) {
+        Map<Long, Map<FailureClass, Long>> counts = new TreeMap<>();
+        try (Stream<Object[]> rows = streamPartitions(null, null,
+                "SELECT api_endpoint_id, failure_class, COUNT(*) FROM %s " +
+                "WHERE (is_successful = false OR is_successful IS NULL) AND id <= ? GROUP BY api_endpoint_id, failure_class",
+                maxId)) {
+            rows.forEach(row -> counts.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashMap<>())
+                    .merge((FailureClass) row[1], ((Number) row[2]).longValue(), Long::sum));
+        }
+        List<Object[]> result = new ArrayList<>();
+        counts.forEach((endpointId, byClass) ->
+                byClass.forEach((failureClass, count) -> result.add(new Object[] {endpointId, failureClass, count})));
+        return result;
+    }
+    
+    @Override
+    public void purgeExpired(Map<Integer, List<Long>> endpointIdsByRetention, RetentionReport report) {
+        TreeMap<Integer, List<Long>> groups = new TreeMap<>(endpointIdsByRetention);
+        int longestRetention = groups.isEmpty() ? defaultRetentionDays : groups.lastKey();
+        LocalDate dropBefore = report.getStartedAt().minusDays(longestRetention).toLocalDate();
+        report.setPartitionsDropped(dropPartitionsBefore(dropBefore));
+        
+        for (Map.Entry<Integer, List<Long>> group : groups.entrySet()) {
+            if (group.getKey() < longestRetention) {
+                LocalDateTime cutoffTime = report.getStartedAt().minusDays(group.getKey());
+                Integer deleted = transactionTemplate.execute(status -> deleteExpired(group.getValue(), cutoffTime));
+                report.setRowsDeleted(report.getRowsDeleted() + (deleted != null ? deleted : 0));
+                report.setChunks(report.getChunks() + 1);
+            }
+            report.setEndpointsProcessed(report.getEndpointsProcessed() + group.getValue().size());
+        }
+    }
+    
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+    
+    /**
+     * Drops every partition whose whole day lies before {@code cutoffDate}.
+     *
+     * @return the number of partitions dropped
+     */
+    int dropPartitionsBefore(LocalDate cutoffDate) {
+        int dropped = 0;
+        for (Map.Entry<LocalDate, String> partition : new ArrayList<>(partitions.headMap(cutoffDate, false).entrySet())) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.getValue());
+            partitions.remove(partition.getKey());
+            dropped++;
+        }
+        return dropped;
+    }
+    
+    /**
+     * Deletes the given endpoints' checks older than the cutoff. Partitions entirely before the
+     * cutoff are cleared by endpoint id alone; only the cutoff day needs a time predicate.
+     */
+    int deleteExpired(Collection<Long> endpointIds, LocalDateTime cutoffTime) {
+        String ids = endpointIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        int deleted = 0;
+        for (Map.Entry<LocalDate, String> partition : partitions.headMap(cutoffTime.toLocalDate(), true).entrySet()) {
+            if (partition.getKey().isBefore(cutoffTime.toLocalDate())) {
+                deleted += jdbcTemplate.update("DELETE FROM " + partition.getValue() + " WHERE api_endpoint_id IN (" + ids + ")");
+            } else {
+                deleted += jdbcTemplate.update("DELETE FROM " + partition.getValue()
+                        + " WHERE api_endpoint_id IN (" + ids + ") AND checked_at < ?", cutoffTime);
+            }
+        }
+        return deleted;
+    }
+    
+    @Override
+    public void deleteByEndpoint(Long endpointId) {
+        for (String table : partitions.values()) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE api_endpoint_id = ?", endpointId);
+        }
+    }
+    
+    private synchronized long nextId() {
+        if (nextId >= blockEnd) {
+            nextIdBlock();
+        }
+        return nextId++;
+    }
+    
+    /**
+     * Takes the next block of ids from the sequence; its value is the first id of the block.
+     */
+    private synchronized void nextIdBlock() {
+        Long first = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + ID_SEQUENCE, Long.class);
+        nextId = first;
+        blockEnd = first + ID_BLOCK_SIZE;
+    }
+    
+    private synchronized String partitionFor(LocalDate day) {
+        String existing = partitions.get(day);
+        if (existing != null) {
+            return existing;
+        }
+        String table = TABLE_PREFIX + day.format(TABLE_SUFFIX);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "id BIGINT PRIMARY KEY, " +
+                "api_endpoint_id BIGINT NOT NULL, " +
+                "status_code INTEGER, " +
+                "response_time_ms BIGINT, " +
+                "is_successful BOOLEAN, " +
+                "failure_class SMALLINT, " +
+                "error_message_id BIGINT, " +
+                "checked_at TIMESTAMP NOT NULL, " +
+                "connection_reused BOOLEAN, " +
+                "dns_nanos BIGINT, " +
+                "connect_nanos BIGINT, " +
+                "tls_nanos BIGINT, " +
+                "ttfb_nanos BIGINT, " +
+                "body_nanos BIGINT, " +
+                "total_nanos BIGINT)");
+        HealthCheckIndexes.createStatements(table).forEach(jdbcTemplate::execute);
+        partitions.put(day, table);
+        logger.info("Created health check partition {}", table);
+        return table;
+    }
+    
+    /**
+     * Partitions whose day intersects [from, to]; null bounds are open.
+     */
+    private NavigableMap<LocalDate, String> overlapping(LocalDateTime from, LocalDateTime to) {
+        if (partitions.isEmpty()) {
+            return partitions;
+        }
+        LocalDate first = from != null ? from.toLocalDate() : partitions.firstKey();
+        LocalDate last = to != null ? to.toLocalDate() : partitions.lastKey();
+        if (first.isAfter(last)) {
+            return new TreeMap<>();
+        }
+        return partitions.subMap(first, true, last, true);
+    }
+    
+    private Stream<Object[]> streamPartitions(LocalDateTime from, LocalDateTime to, String sqlTemplate, Object... args) {
+        // Partitions are opened one at a time as the caller consumes the stream
+        return overlapping(from, to).values().stream()
+                .flatMap(table -> jdbcTemplate.queryForStream(String.format(sqlTemplate, table), OBJECT_ARRAY_MAPPER, args));
+    }
+    
+    private static Object[] combineSummaries(Object[] total, Object[] partition) {
+        for (int i = 1; i < total.length; i++) {
+            if (partition[i] == null) {
+                continue;
+            }
+            long value = ((Number) partition[i]).longValue();
+            if (total[i] == null) {
+                total[i] = value;
+            } else if (i == 4) {
+                total[i] = Math.min(((Number) total[i]).longValue(), value);
+            } else if (i == 5 || (i >= SUMMARY_PHASES_START && (i - SUMMARY_PHASES_START) % 3 == 2)) {
+                total[i] = Math.max(((Number) total[i]).longValue(), value);
+            } else {
+                total[i] = ((Number) total[i]).longValue() + value;
+            }
+        }
+        return total;
+    }
+    
+    private static final RowMapper<Object[]> OBJECT_ARRAY_MAPPER = (rs, rowNum) -> {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Object[] row = new Object[metaData.getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            // Match the Java types the JPQL projections return
+            if (metaData.getColumnType(i + 1) == Types.TIMESTAMP) {
+                row[i] = rs.getObject(i + 1, LocalDateTime.class);
+            } else if ("failure_class".equalsIgnoreCase(metaData.getColumnLabel(i + 1))) {
+                int code = rs.getInt(i + 1);
+                row[i] = rs.wasNull() ? null : FailureClass.fromCode(code);
+            } else {
+                row[i] = rs.getObject(i + 1);
+            }
+        }
+        return row;
+    };
+    
+    private static final RowMapper<HealthCheck> HEALTH_CHECK_MAPPER = (rs, rowNum) -> {
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setId(rs.getLong("id"));
+        healthCheck.setStatusCode(rs.getObject("status_code", Integer.class));
+        healthCheck.setResponseTimeMs(rs.getObject("response_time_ms", Long.class));
+        healthCheck.setIsSuccessful(rs.getObject("is_successful", Boolean.class));
+        int failureClass = rs.getInt("failure_class");
+        healthCheck.setFailureClass(rs.wasNull() ? null : FailureClass.fromCode(failureClass));
+        healthCheck.setErrorMessageId(rs.getObject("error_message_id", Long.class));
+        healthCheck.setCheckedAt(rs.getObject("checked_at", LocalDateTime.class));
+        healthCheck.setConnectionReused(rs.getObject("connection_reused", Boolean.class));
+        for (ProbePhase phase : PHASES) {
+            phase.setNanos(healthCheck, rs.getObject(phase.getColumn(), Long.class));
+        }
+        return healthCheck;
+    };
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.RollupBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupBackfillRepository extends JpaRepository<RollupBackfill, Long> {
+}
\ No newline at end of file
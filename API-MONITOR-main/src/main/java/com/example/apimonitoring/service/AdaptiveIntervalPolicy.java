@@ -0,0 +1,233 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Decides how often the {@link EndpointScheduler} probes each endpoint when
+ * {@code monitoring.scheduler.adaptive.enabled} is on, starting from the endpoint's
+ * {@code checkIntervalMs}.
+ * <p>
+ * An endpoint that keeps passing backs off: every {@code stable-checks} consecutive healthy checks
+ * multiply its interval by {@code backoff-factor}, up to {@code max-interval-ms}. A failed check,
+ * or a response time more than {@code latency-deviation-factor} mean deviations above its smoothed
+ * mean, switches it to {@code fast-interval-ms} until {@code recovery-checks} healthy checks in a
+ * row, after which it starts again from its baseline. Latency is smoothed the way TCP smooths
+ * round-trip times, so one slow response on a jittery endpoint does not count as a deviation.
+ * <p>
+ * State lives in memory only and restarts from the baseline.
+ */
+@Service
+public class AdaptiveIntervalPolicy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveIntervalPolicy.class);
+    
+    // Smoothing weights for the latency mean and mean deviation, as in TCP's SRTT and RTTVAR
+    private static final double MEAN_WEIGHT = 0.125;
+    private static final double DEVIATION_WEIGHT = 0.25;
+    // Far past any useful interval; only keeps a long green run from counting forever
+    private static final int MAX_BACKOFF_STEPS = 30;
+    
+    private final boolean enabled;
+    private final boolean perEndpointScheduling;
+    private final long defaultIntervalMs;
+    private final long maxIntervalMs;
+    private final long fastIntervalMs;
+    private final int stableChecks;
+    private final double backoffFactor;
+    private final int recoveryChecks;
+    private final double latencyDeviationFactor;
+    private final long latencyDeviationFloorMs;
+    private final int latencyMinSamples;
+    private final Counter failureEscalations;
+    private final Counter latencyEscalations;
+    
+    private final Map<Long, EndpointState> states = new ConcurrentHashMap<>();
+    // Endpoints whose interval just shrank, drained by the scheduler so it can pull their next probe in
+    private final Queue<Long> shortened = new ConcurrentLinkedQueue<>();
+    
+    @Autowired
+    public AdaptiveIntervalPolicy(MeterRegistry meterRegistry,
+                                  @Value("${monitoring.scheduler.adaptive.enabled:false}") boolean enabled,
+                                  @Value("${monitoring.scheduler.adaptive.max-interval-ms:600000}") long maxIntervalMs,
+                                  @Value("${monitoring.scheduler.adaptive.fast-interval-ms:5000}") long fastIntervalMs,
+                                  @Value("${monitoring.scheduler.adaptive.stable-checks:10}") int stableChecks,
+                                  @Value("${monitoring.scheduler.adaptive.backoff-factor:2.0}") double backoffFactor,
+                                  @Value("${monitoring.scheduler.adaptive.recovery-checks:3}") int recoveryChecks,
+                                  @Value("${monitoring.scheduler.adaptive.latency-deviation-factor:4.0}") double latencyDeviationFactor,
+                                  @Value("${monitoring.scheduler.adaptive.latency-deviation-floor-ms:50}") long latencyDeviationFloorMs,
+                                  @Value("${monitoring.scheduler.adaptive.latency-min-samples:20}") int latencyMinSamples,
+                                  @Value("${monitoring.scheduler.mode:per-endpoint}") String schedulerMode,
+                                  @Value("${monitoring.check-interval:30000}") long defaultIntervalMs) {
+        this.enabled = enabled;
+        this.perEndpointScheduling = EndpointScheduler.MODE_PER_ENDPOINT.equalsIgnoreCase(schedulerMode);
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.fastIntervalMs = fastIntervalMs;
+        this.stableChecks = Math.max(1, stableChecks);
+        this.backoffFactor = Math.max(1.0, backoffFactor);
+        this.recoveryChecks = Math.max(1, recoveryChecks);
+        this.latencyDeviationFactor = latencyDeviationFactor;
+        this.latencyDeviationFloorMs = latencyDeviationFloorMs;
+        this.latencyMinSamples = latencyMinSamples;
+        this.failureEscalations = escalationCounter(meterRegistry, "failure");
+        this.latencyEscalations = escalationCounter(meterRegistry, "latency");
+        if (enabled) {
+            logger.info("Adaptive probe intervals: back off x{} every {} healthy checks up to {}ms, {}ms while unhealthy",
+                    this.backoffFactor, this.stableChecks, maxIntervalMs, fastIntervalMs);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Updates the endpoint's state with a completed check.
+     */
+    public void record(HealthCheck healthCheck) {
+        if (!enabled || healthCheck.getApiEndpoint() == null) {
+            return;
+        }
+        Long endpointId = healthCheck.getApiEndpoint().getId();
+        EndpointState state = states.computeIfAbsent(endpointId, id -> new EndpointState());
+        boolean successful = Boolean.TRUE.equals(healthCheck.getIsSuccessful());
+        Long responseTime = healthCheck.getResponseTimeMs();
+        
+        String escalation = state.record(successful, successful ? responseTime : null);
+        if (escalation != null) {
+            (successful ? latencyEscalations : failureEscalations).increment();
+            shortened.add(endpointId);
+            logger.info("Probing endpoint {} at the fast cadence: {}", endpointId, escalation);
+        }
+    }
+    
+    /**
+     * The interval to probe the endpoint at, given its configured {@code baselineMs}.
+     */
+    public long intervalFor(Long endpointId, long baselineMs) {
+        EndpointState state = enabled ? states.get(endpointId) : null;
+        return state != null ? state.intervalMs(baselineMs) : baselineMs;
+    }
+    
+    /**
+     * The interval an endpoint is currently probed at, for the stats APIs and the monitoring
+     * stream alike: its {@code checkIntervalMs} (or {@code monitoring.check-interval}) as adjusted
+     * by this policy. In fixed-rate mode every endpoint runs at {@code monitoring.check-interval}.
+     *
+     * @return null for an inactive endpoint, which is not probed
+     */
+    public Long effectiveIntervalFor(ApiEndpoint endpoint) {
+        if (!Boolean.TRUE.equals(endpoint.getIsActive())) {
+            return null;
+        }
+        if (!perEndpointScheduling) {
+            return defaultIntervalMs;
+        }
+        Long baselineMs = endpoint.getCheckIntervalMs();
+        return intervalFor(endpoint.getId(), baselineMs != null && baselineMs > 0 ? baselineMs : defaultIntervalMs);
+    }
+    
+    /**
+     * Next endpoint whose interval shrank since the last call, or null.
+     */
+    Long pollShortened() {
+        return shortened.poll();
+    }
+    
+    // A changed URL or method makes the learned latency meaningless
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEndpointChanged(EndpointChangedEvent event) {
+        if (event.type() != EndpointChangedEvent.Type.CREATED) {
+            states.remove(event.endpointId());
+        }
+    }
+    
+    private static Counter escalationCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("monitoring.scheduler.adaptive.escalations")
+                .description("Endpoints switched to the fast cadence")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    private final class EndpointState {
+        
+        private double latencyMean;
+        private double latencyDeviation;
+        private long latencySamples;
+        private boolean unhealthy;
+        private int healthyStreak;
+        private int backoffSteps;
+        
+        /**
+         * @return why the endpoint was switched to the fast cadence, or null if it was not
+         */
+        synchronized String record(boolean successful, Long responseTime) {
+            String escalation = null;
+            if (!successful) {
+                escalation = "check failed";
+            } else if (responseTime != null) {
+                double threshold = latencyMean + latencyDeviationFactor * Math.max(latencyDeviation, latencyDeviationFloorMs);
+                if (latencySamples >= latencyMinSamples && responseTime > threshold) {
+                    escalation = "response time " + responseTime + "ms above " + Math.round(threshold) + "ms";
+                }
+                updateLatency(responseTime);
+            }
+            
+            if (escalation != null) {
+                healthyStreak = 0;
+                backoffSteps = 0;
+                // Already fast: no need to reschedule or log again
+                if (unhealthy) {
+                    return null;
+                }
+                unhealthy = true;
+                return escalation;
+            }
+            
+            healthyStreak++;
+            if (unhealthy) {
+                if (healthyStreak >= recoveryChecks) {
+                    unhealthy = false;
+                    healthyStreak = 0;
+                }
+            } else if (healthyStreak >= stableChecks) {
+                backoffSteps = Math.min(backoffSteps + 1, MAX_BACKOFF_STEPS);
+                healthyStreak = 0;
+            }
+            return null;
+        }
+        
+        private void updateLatency(long responseTime) {
+            if (latencySamples == 0) {
+                latencyMean = responseTime;
+                latencyDeviation = responseTime / 2.0;
+            } else {
+                latencyDeviation += DEVIATION_WEIGHT * (Math.abs(responseTime - latencyMean) - latencyDeviation);
+                latencyMean += MEAN_WEIGHT * (responseTime - latencyMean);
+            }
+            latencySamples++;
+        }
+        
+        synchronized long intervalMs(long baselineMs) {
+            if (unhealthy) {
+                return Math.min(fastIntervalMs, baselineMs);
+            }
+            long ceiling = Math.max(maxIntervalMs, baselineMs);
+            return (long) Math.min(baselineMs * Math.pow(backoffFactor, backoffSteps), ceiling);
+        }
+    }
+}
\ No newline at end of file
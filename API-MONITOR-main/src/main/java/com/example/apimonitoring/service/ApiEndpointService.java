@@ -1,12 +1,17 @@
 package com.example.apimonitoring.service;
 
 import com.example.apimonitoring.dto.ApiEndpointRequest;
+import com.example.apimonitoring.dto.EndpointSummary;
 import com.example.apimonitoring.model.ApiEndpoint;
 import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,22 +20,64 @@ import java.util.Optional;
 public class ApiEndpointService {
     
     private final ApiEndpointRepository apiEndpointRepository;
+    private final EndpointStatsAggregator endpointStatsAggregator;
+    private final RollupService rollupService;
+    private final HealthCheckStore healthCheckStore;
+    private final ArchiveService archiveService;
+    private final EndpointRegistry endpointRegistry;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public ApiEndpointService(ApiEndpointRepository apiEndpointRepository) {
+    public ApiEndpointService(ApiEndpointRepository apiEndpointRepository,
+                              EndpointStatsAggregator endpointStatsAggregator,
+                              RollupService rollupService,
+                              HealthCheckStore healthCheckStore,
+                              ArchiveService archiveService,
+                              EndpointRegistry endpointRegistry,
+                              ApplicationEventPublisher eventPublisher) {
         this.apiEndpointRepository = apiEndpointRepository;
+        this.endpointStatsAggregator = endpointStatsAggregator;
+        this.rollupService = rollupService;
+        this.healthCheckStore = healthCheckStore;
+        this.archiveService = archiveService;
+        this.endpointRegistry = endpointRegistry;
+        this.eventPublisher = eventPublisher;
     }
     
+    // Reads are served from the registry snapshot; the endpoints returned must not be modified
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ApiEndpoint> getAllEndpoints() {
-        return apiEndpointRepository.findAll();
+        return endpointRegistry.getAllEndpoints();
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ApiEndpoint> getActiveEndpoints() {
-        return apiEndpointRepository.findByIsActiveTrue();
+        return endpointRegistry.getActiveEndpoints();
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<EndpointSummary> getEndpointSummaries() {
+        return toSummaries(endpointRegistry.getAllEndpoints());
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<EndpointSummary> getActiveEndpointSummaries() {
+        return toSummaries(endpointRegistry.getActiveEndpoints());
+    }
+    
+    private List<EndpointSummary> toSummaries(List<ApiEndpoint> endpoints) {
+        List<EndpointSummary> summaries = new ArrayList<>(endpoints.size());
+        for (ApiEndpoint endpoint : endpoints) {
+            EndpointSummary summary = new EndpointSummary(endpoint);
+            endpointStatsAggregator.applyLatestTo(summary);
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<ApiEndpoint> getEndpointById(Long id) {
-        return apiEndpointRepository.findById(id);
+        return endpointRegistry.getEndpoint(id);
     }
     
     public ApiEndpoint createEndpoint(ApiEndpointRequest request) {
@@ -41,9 +88,14 @@ public class ApiEndpointService {
         endpoint.setExpectedStatus(request.getExpectedStatus());
         endpoint.setTimeoutMs(request.getTimeoutMs());
         endpoint.setCheckIntervalMs(request.getCheckIntervalMs());
+        endpoint.setRetentionDays(request.getRetentionDays());
         endpoint.setIsActive(request.getIsActive());
+        endpoint.setPhaseTimingEnabled(request.getPhaseTimingEnabled());
+        endpoint.setProbeProtocol(request.getProbeProtocol());
         
-        return apiEndpointRepository.save(endpoint);
+        ApiEndpoint saved = apiEndpointRepository.save(endpoint);
+        eventPublisher.publishEvent(new EndpointChangedEvent(EndpointChangedEvent.Type.CREATED, saved.getId(), saved));
+        return saved;
     }
     
     public ApiEndpoint updateEndpoint(Long id, ApiEndpointRequest request) {
@@ -56,16 +108,26 @@ public class ApiEndpointService {
             endpoint.setExpectedStatus(request.getExpectedStatus());
             endpoint.setTimeoutMs(request.getTimeoutMs());
             endpoint.setCheckIntervalMs(request.getCheckIntervalMs());
+            endpoint.setRetentionDays(request.getRetentionDays());
             endpoint.setIsActive(request.getIsActive());
+            endpoint.setPhaseTimingEnabled(request.getPhaseTimingEnabled());
+            endpoint.setProbeProtocol(request.getProbeProtocol());
             
-            return apiEndpointRepository.save(endpoint);
+            ApiEndpoint saved = apiEndpointRepository.save(endpoint);
+            eventPublisher.publishEvent(new EndpointChangedEvent(EndpointChangedEvent.Type.UPDATED, saved.getId(), saved));
+            return saved;
         }
         throw new RuntimeException("Endpoint not found with id: " + id);
     }
     
     public void deleteEndpoint(Long id) {
         if (apiEndpointRepository.existsById(id)) {
+            healthCheckStore.deleteByEndpoint(id);
             apiEndpointRepository.deleteById(id);
+            eventPublisher.publishEvent(new EndpointChangedEvent(EndpointChangedEvent.Type.DELETED, id, null));
+            endpointStatsAggregator.remove(id);
+            rollupService.remove(id);
+            archiveService.remove(id);
         } else {
             throw new RuntimeException("Endpoint not found with id: " + id);
         }
@@ -76,12 +138,15 @@ public class ApiEndpointService {
         if (optionalEndpoint.isPresent()) {
             ApiEndpoint endpoint = optionalEndpoint.get();
             endpoint.setIsActive(!endpoint.getIsActive());
-            return apiEndpointRepository.save(endpoint);
+            ApiEndpoint saved = apiEndpointRepository.save(endpoint);
+            eventPublisher.publishEvent(new EndpointChangedEvent(EndpointChangedEvent.Type.UPDATED, saved.getId(), saved));
+            return saved;
         }
         throw new RuntimeException("Endpoint not found with id: " + id);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long getActiveEndpointCount() {
-        return apiEndpointRepository.countActiveEndpoints();
+        return (long) endpointRegistry.getActiveEndpoints().size();
     }
 }
\ No newline at end of file
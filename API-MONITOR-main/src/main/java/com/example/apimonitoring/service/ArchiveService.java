@@ -0,0 +1,397 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.archive.ArchiveSegment;
+import com.example.apimonitoring.archive.SegmentCodec;
+import com.example.apimonitoring.archive.SegmentColumns;
+import com.example.apimonitoring.dto.ArchiveReport;
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Seals each completed endpoint-day of raw health checks into an immutable columnar segment
+ * file ({@code <directory>/<endpointId>/<yyyyMMdd>.seg}) so history can be kept far longer than
+ * the row store's retention at a fraction of the size. Sealing runs nightly, before the raw
+ * retention purge, for every day in the look-back window that has no segment yet.
+ * <p>
+ * Segments are never rewritten; range scans map the files of the overlapping days read-only
+ * and decode them from the mapping as they go, skipping to the range start on the timestamp
+ * column alone.
+ */
+@Service
+public class ArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+    
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Column payload of a health_checks row: id, api_endpoint_id, checked_at, response_time_ms
+    // and error_message_id (8 bytes each), status_code and failure_class (4 each), is_successful (1)
+    private static final int ROW_STORE_BYTES = 49;
+    
+    private final ApiEndpointRepository apiEndpointRepository;
+    private final HealthCheckStore healthCheckStore;
+    private final ErrorMessageDictionary errorMessageDictionary;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Path directory;
+    private final int lookbackDays;
+    private final int retentionDays;
+    private final int reportSampleSegments;
+    
+    // Keeps the benchmark loops in report() from being optimised away
+    private volatile long scanChecksum;
+    
+    @Autowired
+    public ArchiveService(ApiEndpointRepository apiEndpointRepository,
+                          HealthCheckStore healthCheckStore,
+                          ErrorMessageDictionary errorMessageDictionary,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${monitoring.archive.enabled:false}") boolean enabled,
+                          @Value("${monitoring.archive.directory:./data/archive}") String directory,
+                          @Value("${monitoring.archive.lookback-days:7}") int lookbackDays,
+                          @Value("${monitoring.archive.retention-days:365}") int retentionDays,
+                          @Value("${monitoring.archive.report-sample-segments:50}") int reportSampleSegments) {
+        this.apiEndpointRepository = apiEndpointRepository;
+        this.healthCheckStore = healthCheckStore;
+        this.errorMessageDictionary = errorMessageDictionary;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.lookbackDays = lookbackDays;
+        this.retentionDays = retentionDays;
+        this.reportSampleSegments = reportSampleSegments;
+    }
+    
+    @Scheduled(cron = "0 30 1 * * ?") // Before the 2 AM retention purge removes the raw rows
+    public void sealAndPurge() {
+        if (enabled) {
+            sealCompletedDays();
+            purgeExpired(LocalDate.now());
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Seals every endpoint-day in the look-back window, up to yesterday, that has no segment yet.
+     *
+     * @return the number of segments written
+     * @throws IllegalStateException if the archive is not enabled
+     */
+    public synchronized int sealCompletedDays() {
+        if (!enabled) {
+            throw new IllegalStateException("Archive is disabled (monitoring.archive.enabled)");
+        }
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int sealed = 0;
+        
+        for (Long endpointId : apiEndpointRepository.findAllIds()) {
+            for (int daysBack = lookbackDays; daysBack >= 1; daysBack--) {
+                LocalDate day = today.minusDays(daysBack);
+                if (Files.exists(segmentPath(endpointId, day))) {
+                    continue;
+                }
+                try {
+                    if (seal(endpointId, day)) {
+                        sealed++;
+                    }
+                } catch (IOException e) {
+                    logger.error("Failed to seal archive segment for endpoint {} on {}: {}", endpointId, day, e.getMessage());
+                }
+            }
+        }
+        
+        logger.info("Sealed {} archive segments in {}ms", sealed, System.currentTimeMillis() - start);
+        return sealed;
+    }
+    
+    /**
+     * Writes the segment for one endpoint-day from the row store, replacing any existing one.
+     *
+     * @return {@code false} if the day has no health checks
+     */
+    public synchronized boolean seal(Long endpointId, LocalDate day) throws IOException {
+        SegmentColumns columns = readRowStore(endpointId, day);
+        if (columns.size() == 0) {
+            return false;
+        }
+        
+        byte[] segment = SegmentCodec.encode(endpointId, day.toEpochDay(), columns);
+        Path path = segmentPath(endpointId, day);
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, segment);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        logger.debug("Sealed {} health checks for endpoint {} on {} into {} bytes", columns.size(), endpointId, day, segment.length);
+        return true;
+    }
+    
+    /**
+     * Archived checks of an endpoint in [from, to), oldest first, as the same columns as
+     * {@link HealthCheckStore#streamHealthChecks} except for a null id and the error message
+     * text in place of its id. Segments are opened one at a time as the stream is consumed.
+     */
+    public Stream<Object[]> scan(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = toEpochMillis(from);
+        long toMillis = toEpochMillis(to);
+        return segmentsOf(endpointId).subMap(from.toLocalDate(), true, to.toLocalDate(), true).values().stream()
+                .flatMap(path -> scan(open(path).cursor(), fromMillis, toMillis));
+    }
+    
+    /**
+     * Compares the most recent segments with the row store: size against an estimate of the
+     * rows' column payload (row headers and indexes excluded, so the real saving is larger), and
+     * full-day scan throughput against streaming the same endpoint-days from the row store while
+     * they are still within raw retention.
+     */
+    public ArchiveReport report() {
+        ArchiveReport report = new ArchiveReport(LocalDateTime.now());
+        List<Path> segments = listSegments();
+        report.setSegmentCount(segments.size());
+        
+        long archiveNanos = 0;
+        long rowStoreNanos = 0;
+        long checksum = 0;
+        for (Path path : segments) {
+            report.setArchivedBytes(report.getArchivedBytes() + path.toFile().length());
+            if (report.getSampledSegments() >= reportSampleSegments) {
+                continue;
+            }
+            
+            long start = System.nanoTime();
+            ArchiveSegment segment = open(path);
+            SegmentCodec.Cursor cursor = segment.cursor();
+            while (cursor.next()) {
+                Long latency = cursor.latency();
+                checksum += cursor.timestamp() + (latency != null ? latency : 0) + (cursor.successful() ? 1 : 0);
+            }
+            archiveNanos += System.nanoTime() - start;
+            
+            report.setSampledSegments(report.getSampledSegments() + 1);
+            report.setSampledRows(report.getSampledRows() + segment.getSize());
+            report.setSampledSegmentBytes(report.getSampledSegmentBytes() + segment.getFileSize());
+            report.setEstimatedRowStoreBytes(report.getEstimatedRowStoreBytes() + (long) segment.getSize() * ROW_STORE_BYTES);
+            
+            start = System.nanoTime();
+            long[] scanned = scanRowStore(segment.getEndpointId(), segment.getDay());
+            if (scanned[0] > 0) {
+                rowStoreNanos += System.nanoTime() - start;
+                report.setRowStoreComparedRows(report.getRowStoreComparedRows() + scanned[0]);
+                checksum += scanned[1];
+            }
+        }
+        scanChecksum = checksum;
+        
+        if (report.getSampledSegmentBytes() > 0) {
+            report.setCompressionRatio((double) report.getEstimatedRowStoreBytes() / report.getSampledSegmentBytes());
+            report.setBytesPerCheck((double) report.getSampledSegmentBytes() / report.getSampledRows());
+        }
+        if (archiveNanos > 0) {
+            report.setArchiveScanRowsPerSecond(report.getSampledRows() * 1e9 / archiveNanos);
+        }
+        if (rowStoreNanos > 0) {
+            report.setRowStoreScanRowsPerSecond(report.getRowStoreComparedRows() * 1e9 / rowStoreNanos);
+        }
+        return report;
+    }
+    
+    /**
+     * Deletes segments older than {@code monitoring.archive.retention-days}.
+     *
+     * @return the number of segments deleted
+     */
+    public synchronized int purgeExpired(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        int deleted = 0;
+        for (Path path : listSegments()) {
+            LocalDate day = dayOf(path);
+            if (day != null && day.isBefore(cutoff)) {
+                try {
+                    Files.deleteIfExists(path);
+                    deleted++;
+                } catch (IOException e) {
+                    logger.error("Failed to delete archive segment {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} archive segments older than {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+    
+    public synchronized void remove(Long endpointId) {
+        for (Path path : segmentsOf(endpointId).values()) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.error("Failed to delete archive segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+    
+    private SegmentColumns readRowStore(Long endpointId, LocalDate day) {
+        return readOnlyTransaction.execute(status -> {
+            SegmentColumns columns = new SegmentColumns(1024);
+            try (Stream<Object[]> rows = streamRowStore(endpointId, day)) {
+                rows.forEach(row -> columns.add(
+                        toEpochMillis((LocalDateTime) row[1]),
+                        row[4] != null ? ((Number) row[4]).longValue() : null,
+                        Boolean.TRUE.equals(row[2]),
+                        row[3] != null ? ((Number) row[3]).intValue() : null,
+                        (FailureClass) row[5],
+                        errorMessageDictionary.resolve(row[6] != null ? ((Number) row[6]).longValue() : null)));
+            }
+            return columns;
+        });
+    }
+    
+    /**
+     * @return the row count and a checksum over the same fields the archive scan reads
+     */
+    private long[] scanRowStore(Long endpointId, LocalDate day) {
+        return readOnlyTransaction.execute(status -> {
+            long[] result = new long[2];
+            try (Stream<Object[]> rows = streamRowStore(endpointId, day)) {
+                rows.forEach(row -> {
+                    Long latency = (Long) row[4];
+                    result[0]++;
+                    result[1] += toEpochMillis((LocalDateTime) row[1]) + (latency != null ? latency : 0)
+                            + (Boolean.TRUE.equals(row[2]) ? 1 : 0);
+                });
+            }
+            return result;
+        });
+    }
+    
+    private Stream<Object[]> streamRowStore(Long endpointId, LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        return healthCheckStore.streamHealthChecks(endpointId, from, to);
+    }
+    
+    private static Stream<Object[]> scan(SegmentCodec.Cursor cursor, long fromMillis, long toMillis) {
+        cursor.seek(fromMillis);
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Object[]>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Object[]> action) {
+                if (cursor.peekTimestamp() >= toMillis || !cursor.next()) {
+                    return false;
+                }
+                action.accept(new Object[] {
+                    null,
+                    toLocalDateTime(cursor.timestamp()),
+                    cursor.successful(),
+                    cursor.statusCode(),
+                    cursor.latency(),
+                    cursor.failureClass(),
+                    cursor.error()
+                });
+                return true;
+            }
+        }, false);
+    }
+    
+    private ArchiveSegment open(Path path) {
+        try {
+            return ArchiveSegment.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + path, e);
+        }
+    }
+    
+    private Path segmentPath(Long endpointId, LocalDate day) {
+        return directory.resolve(endpointId.toString()).resolve(FILE_DATE.format(day) + SEGMENT_SUFFIX);
+    }
+    
+    private NavigableMap<LocalDate, Path> segmentsOf(Long endpointId) {
+        NavigableMap<LocalDate, Path> segments = new TreeMap<>();
+        Path endpointDirectory = directory.resolve(endpointId.toString());
+        if (!Files.isDirectory(endpointDirectory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(endpointDirectory)) {
+            files.forEach(path -> {
+                LocalDate day = dayOf(path);
+                if (day != null) {
+                    segments.put(day, path);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive segments for endpoint " + endpointId, e);
+        }
+        return segments;
+    }
+    
+    /**
+     * All segment files, most recent day first.
+     */
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            return files.filter(path -> dayOf(path) != null)
+                    .sorted(Comparator.comparing(ArchiveService::dayOf).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive segments", e);
+        }
+    }
+    
+    private static LocalDate dayOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), FILE_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+
+/**
+ * Published by {@link ApiEndpointService} whenever an endpoint definition is created, updated,
+ * toggled or deleted. Listeners see it after the transaction commits; {@code endpoint} is the
+ * saved entity, or null for a deletion.
+ */
+public record EndpointChangedEvent(Type type, Long endpointId, ApiEndpoint endpoint) {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * In-memory copy of every endpoint definition, loaded once at startup and then kept current by
+ * {@link EndpointChangedEvent}s, so the scheduler, probes and read APIs never query the database
+ * for endpoint configuration.
+ * <p>
+ * Readers get the current {@link Snapshot} through one volatile read and never lock. Each change
+ * builds a new snapshot from the previous one and swaps it in. The endpoints in a snapshot are
+ * detached copies shared by all readers and must not be modified; writes go through
+ * {@link ApiEndpointService}.
+ */
+@Service
+public class EndpointRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EndpointRegistry.class);
+    
+    private final ApiEndpointRepository apiEndpointRepository;
+    
+    private volatile Snapshot snapshot = Snapshot.of(new TreeMap<>(), 0);
+    
+    @Autowired
+    public EndpointRegistry(ApiEndpointRepository apiEndpointRepository) {
+        this.apiEndpointRepository = apiEndpointRepository;
+    }
+    
+    /**
+     * An immutable view of all endpoints, ordered by id, with the active ones precomputed.
+     * {@code version} increases with every change.
+     */
+    public record Snapshot(Map<Long, ApiEndpoint> endpointsById, List<ApiEndpoint> all, List<ApiEndpoint> active, long version) {
+        
+        static Snapshot of(TreeMap<Long, ApiEndpoint> endpointsById, long version) {
+            List<ApiEndpoint> all = new ArrayList<>(endpointsById.values());
+            List<ApiEndpoint> active = all.stream()
+                    .filter(endpoint -> Boolean.TRUE.equals(endpoint.getIsActive()))
+                    .toList();
+            return new Snapshot(Collections.unmodifiableMap(endpointsById), Collections.unmodifiableList(all), active, version);
+        }
+    }
+    
+    @PostConstruct
+    public synchronized void load() {
+        TreeMap<Long, ApiEndpoint> endpointsById = new TreeMap<>();
+        for (ApiEndpoint endpoint : apiEndpointRepository.findAll()) {
+            endpointsById.put(endpoint.getId(), new ApiEndpoint(endpoint));
+        }
+        snapshot = Snapshot.of(endpointsById, snapshot.version() + 1);
+        logger.info("Loaded {} endpoint definitions ({} active)", snapshot.all().size(), snapshot.active().size());
+    }
+    
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    public List<ApiEndpoint> getAllEndpoints() {
+        return snapshot.all();
+    }
+    
+    public List<ApiEndpoint> getActiveEndpoints() {
+        return snapshot.active();
+    }
+    
+    public Optional<ApiEndpoint> getEndpoint(Long id) {
+        return Optional.ofNullable(snapshot.endpointsById().get(id));
+    }
+    
+    /**
+     * Applies a committed change. Runs before other listeners of the same event, so they
+     * already see the new snapshot.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onEndpointChanged(EndpointChangedEvent event) {
+        TreeMap<Long, ApiEndpoint> endpointsById = new TreeMap<>(snapshot.endpointsById());
+        if (event.type() == EndpointChangedEvent.Type.DELETED) {
+            endpointsById.remove(event.endpointId());
+        } else {
+            endpointsById.put(event.endpointId(), new ApiEndpoint(event.endpoint()));
+        }
+        snapshot = Snapshot.of(endpointsById, snapshot.version() + 1);
+        logger.debug("Endpoint {} {}, registry at version {}", event.endpointId(), event.type(), snapshot.version());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,318 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.EndpointScheduleStatus;
+import com.example.apimonitoring.model.ApiEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each active endpoint on its own {@code checkIntervalMs} cadence. Endpoints sit in a
+ * priority queue keyed by next-due time and are handed to the {@link ProbeEngine} by a single
+ * dispatcher thread. First runs are spread across the interval so endpoints sharing an interval
+ * do not all fire in the same burst.
+ * <p>
+ * The schedule follows the {@link EndpointRegistry}: every committed endpoint change triggers a
+ * resync on the dispatcher thread, so new or edited endpoints take effect immediately without
+ * polling the database.
+ * <p>
+ * With {@code monitoring.probe.pool.preconnect-lead-ms} set, endpoints checked less often than
+ * the {@link ProbeConnectionPool} keeps connections idle get a connection opened that long
+ * before they are due, so the probe does not measure a fresh handshake.
+ * <p>
+ * With {@code monitoring.scheduler.adaptive.enabled}, each endpoint's {@code checkIntervalMs} is
+ * only a baseline: the {@link AdaptiveIntervalPolicy} stretches it for endpoints that stay healthy
+ * and shortens it as soon as one fails or slows down, in which case its next probe is pulled in
+ * rather than waiting out the old interval.
+ */
+@Service
+public class EndpointScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EndpointScheduler.class);
+    
+    public static final String MODE_PER_ENDPOINT = "per-endpoint";
+    
+    private final EndpointRegistry endpointRegistry;
+    private final ProbeEngine probeEngine;
+    private final HealthCheckService healthCheckService;
+    private final ProbeConnectionPool probeConnectionPool;
+    private final AdaptiveIntervalPolicy adaptiveIntervalPolicy;
+    private final boolean enabled;
+    private final long defaultIntervalMs;
+    private final long resolutionMs;
+    private final long preconnectLeadMs;
+    private final Timer lagTimer;
+    
+    // Only touched from the dispatcher thread
+    private final PriorityQueue<ScheduledEndpoint> queue =
+            new PriorityQueue<>(Comparator.comparingLong(entry -> entry.nextDueAt));
+    // Shared with status readers
+    private final Map<Long, ScheduledEndpoint> scheduled = new ConcurrentHashMap<>();
+    
+    private volatile ScheduledExecutorService dispatcher;
+    
+    @Autowired
+    public EndpointScheduler(EndpointRegistry endpointRegistry,
+                             ProbeEngine probeEngine,
+                             HealthCheckService healthCheckService,
+                             ProbeConnectionPool probeConnectionPool,
+                             AdaptiveIntervalPolicy adaptiveIntervalPolicy,
+                             MeterRegistry meterRegistry,
+                             @Value("${monitoring.scheduler.mode:per-endpoint}") String mode,
+                             @Value("${monitoring.check-interval:30000}") long defaultIntervalMs,
+                             @Value("${monitoring.scheduler.resolution-ms:100}") long resolutionMs,
+                             @Value("${monitoring.probe.pool.preconnect-lead-ms:0}") long preconnectLeadMs) {
+        this.endpointRegistry = endpointRegistry;
+        this.probeEngine = probeEngine;
+        this.healthCheckService = healthCheckService;
+        this.probeConnectionPool = probeConnectionPool;
+        this.adaptiveIntervalPolicy = adaptiveIntervalPolicy;
+        this.enabled = MODE_PER_ENDPOINT.equalsIgnoreCase(mode);
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.resolutionMs = resolutionMs;
+        this.preconnectLeadMs = preconnectLeadMs;
+        this.lagTimer = Timer.builder("monitoring.scheduler.lag")
+                .description("Delay between an endpoint's due time and its dispatch")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Per-endpoint scheduler disabled, using the fixed-rate tick");
+            return;
+        }
+        
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "endpoint-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.execute(this::refreshEndpoints);
+        dispatcher.scheduleWithFixedDelay(this::dispatchDueEndpoints, resolutionMs, resolutionMs, TimeUnit.MILLISECONDS);
+        logger.info("Per-endpoint scheduler started (resolution {}ms)", resolutionMs);
+    }
+    
+    // Runs after the registry listener, so the resync sees the new snapshot
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEndpointChanged(EndpointChangedEvent event) {
+        ScheduledExecutorService current = dispatcher;
+        if (current != null && !current.isShutdown()) {
+            current.execute(this::refreshEndpoints);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public List<EndpointScheduleStatus> getScheduleStatus() {
+        return scheduled.values().stream()
+                .map(ScheduledEndpoint::toStatus)
+                .sorted(Comparator.comparing(EndpointScheduleStatus::getEndpointId))
+                .toList();
+    }
+    
+    void refreshEndpoints() {
+        try {
+            List<ApiEndpoint> activeEndpoints = endpointRegistry.getActiveEndpoints();
+            long now = System.currentTimeMillis();
+            Set<Long> activeIds = new HashSet<>();
+            
+            for (ApiEndpoint endpoint : activeEndpoints) {
+                activeIds.add(endpoint.getId());
+                long baselineMs = intervalOf(endpoint);
+                ScheduledEndpoint entry = scheduled.get(endpoint.getId());
+                
+                if (entry == null) {
+                    entry = new ScheduledEndpoint(endpoint, baselineMs, now + startOffset(endpoint.getId(), baselineMs));
+                    scheduled.put(endpoint.getId(), entry);
+                    queue.add(entry);
+                } else {
+                    entry.endpoint = endpoint;
+                    if (entry.baselineMs != baselineMs) {
+                        queue.remove(entry);
+                        entry.baselineMs = baselineMs;
+                        entry.intervalMs = effectiveIntervalOf(entry);
+                        entry.nextDueAt = Math.min(entry.nextDueAt, now + entry.intervalMs);
+                        queue.add(entry);
+                    }
+                }
+            }
+            
+            Iterator<ScheduledEndpoint> iterator = scheduled.values().iterator();
+            while (iterator.hasNext()) {
+                ScheduledEndpoint entry = iterator.next();
+                if (!activeIds.contains(entry.endpoint.getId())) {
+                    queue.remove(entry);
+                    iterator.remove();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing scheduled endpoints: {}", e.getMessage());
+        }
+    }
+    
+    void dispatchDueEndpoints() {
+        try {
+            long now = System.currentTimeMillis();
+            pullInShortenedEndpoints(now);
+            ScheduledEndpoint entry;
+            
+            while ((entry = queue.peek()) != null && entry.nextDueAt <= now) {
+                queue.poll();
+                long lagMs = now - entry.nextDueAt;
+                
+                if (probeEngine.submit(entry.endpoint)) {
+                    entry.recordDispatch(now, lagMs);
+                    lagTimer.record(lagMs, TimeUnit.MILLISECONDS);
+                } else {
+                    entry.skippedCount++;
+                }
+                
+                // Keep a fixed-rate cadence, but realign rather than burst if we fell a whole interval behind
+                entry.intervalMs = effectiveIntervalOf(entry);
+                long nextDueAt = entry.nextDueAt + entry.intervalMs;
+                entry.nextDueAt = nextDueAt > now ? nextDueAt : now + entry.intervalMs;
+                queue.add(entry);
+                schedulePreconnect(entry, now);
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching scheduled health checks: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Brings forward the next probe of endpoints the adaptive policy just switched to a shorter
+     * interval, so a failure is re-checked at the fast cadence instead of after a backed-off wait.
+     */
+    private void pullInShortenedEndpoints(long now) {
+        Long endpointId;
+        while ((endpointId = adaptiveIntervalPolicy.pollShortened()) != null) {
+            ScheduledEndpoint entry = scheduled.get(endpointId);
+            if (entry == null) {
+                continue;
+            }
+            long intervalMs = effectiveIntervalOf(entry);
+            if (intervalMs < entry.intervalMs) {
+                queue.remove(entry);
+                entry.intervalMs = intervalMs;
+                entry.nextDueAt = Math.min(entry.nextDueAt, Math.max(now, entry.lastDispatchedAt + intervalMs));
+                queue.add(entry);
+            }
+        }
+    }
+    
+    private long effectiveIntervalOf(ScheduledEndpoint entry) {
+        return Math.max(adaptiveIntervalPolicy.intervalFor(entry.endpoint.getId(), entry.baselineMs), resolutionMs);
+    }
+    
+    private void schedulePreconnect(ScheduledEndpoint entry, long now) {
+        if (preconnectLeadMs <= 0 || entry.intervalMs <= probeConnectionPool.getMaxIdleMs()) {
+            return;
+        }
+        long dueAt = entry.nextDueAt;
+        long delayMs = dueAt - preconnectLeadMs - now;
+        if (delayMs <= 0) {
+            return;
+        }
+        dispatcher.schedule(() -> {
+            // Skip if the endpoint was removed or rescheduled meanwhile
+            if (scheduled.get(entry.endpoint.getId()) == entry && entry.nextDueAt == dueAt) {
+                healthCheckService.preconnect(entry.endpoint).subscribe();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+    
+    private long intervalOf(ApiEndpoint endpoint) {
+        Long intervalMs = endpoint.getCheckIntervalMs();
+        if (intervalMs == null || intervalMs <= 0) {
+            intervalMs = defaultIntervalMs;
+        }
+        return Math.max(intervalMs, resolutionMs);
+    }
+    
+    /**
+     * Deterministic offset in [0, interval) derived from the endpoint id, so restarts keep
+     * the same spread and consecutive ids do not land next to each other.
+     */
+    private static long startOffset(Long endpointId, long intervalMs) {
+        long mixed = endpointId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(mixed ^ (mixed >>> 32), intervalMs);
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private static final class ScheduledEndpoint {
+        
+        volatile ApiEndpoint endpoint;
+        volatile long baselineMs; // The endpoint's checkIntervalMs
+        volatile long intervalMs; // What it is probed at; differs from the baseline in adaptive mode
+        volatile long nextDueAt;
+        volatile long lastDispatchedAt;
+        volatile long lastLagMs;
+        volatile long maxLagMs;
+        volatile long dispatchCount;
+        volatile long skippedCount;
+        
+        ScheduledEndpoint(ApiEndpoint endpoint, long baselineMs, long nextDueAt) {
+            this.endpoint = endpoint;
+            this.baselineMs = baselineMs;
+            this.intervalMs = baselineMs;
+            this.nextDueAt = nextDueAt;
+        }
+        
+        void recordDispatch(long now, long lagMs) {
+            lastDispatchedAt = now;
+            lastLagMs = lagMs;
+            maxLagMs = Math.max(maxLagMs, lagMs);
+            dispatchCount++;
+        }
+        
+        EndpointScheduleStatus toStatus() {
+            EndpointScheduleStatus status = new EndpointScheduleStatus(endpoint.getId(), endpoint.getName(), baselineMs);
+            status.setEffectiveIntervalMs(intervalMs);
+            status.setNextDueAt(toLocalDateTime(nextDueAt));
+            if (dispatchCount > 0) {
+                status.setLastDispatchedAt(toLocalDateTime(lastDispatchedAt));
+                status.setLastLagMs(lastLagMs);
+                status.setMaxLagMs(maxLagMs);
+            }
+            status.setDispatchCount(dispatchCount);
+            status.setSkippedCount(skippedCount);
+            return status;
+        }
+    }
+}
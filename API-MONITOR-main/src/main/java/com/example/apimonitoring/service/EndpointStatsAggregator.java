@@ -0,0 +1,543 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.EndpointSummary;
+import com.example.apimonitoring.dto.LatencyPercentiles;
+import com.example.apimonitoring.dto.MonitoringStats;
+import com.example.apimonitoring.dto.PhaseTiming;
+import com.example.apimonitoring.dto.UptimeWindow;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.example.apimonitoring.stats.LatencyHistogram;
+import com.example.apimonitoring.stats.RollingUptimeCounters;
+import com.example.apimonitoring.stats.WindowedLatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps running statistics per endpoint, updated as each health check is recorded, so
+ * {@link MonitoringStats} can be served from memory instead of aggregate queries over
+ * {@code health_checks}. Latency percentiles come from a fixed-size histogram over all
+ * history plus time-bucketed histograms for the 1h/24h/7d windows, and rolling uptime comes from
+ * per-minute and per-hour outcome counters. Failed checks are also counted per
+ * {@link FailureClass}, and each {@link ProbePhase} keeps a count, mean, maximum and an
+ * exponentially weighted recent value, so a slow resolver can be told apart from a slow server.
+ * The state is rebuilt from the {@link HealthCheckStore} at startup and after a
+ * retention purge. A rebuild reads the store as of one write position and then merges in the
+ * checks recorded since it started that the position does not cover, so results still in the
+ * write-behind or recorded meanwhile are kept and none is counted twice.
+ */
+@Service
+public class EndpointStatsAggregator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EndpointStatsAggregator.class);
+    
+    static final int RECENT_RESPONSE_TIMES = 10;
+    
+    // Latest checks replayed into each phase's recent value after a rebuild
+    private static final int RECENT_PHASE_CHECKS = 20;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 1, 1, 0, 0);
+    
+    // Weight of the newest sample in a phase's recent value
+    private static final double PHASE_RECENT_WEIGHT = 0.1;
+    private static final ProbePhase[] PHASES = ProbePhase.values();
+    
+    private static final Map<String, Duration> PERCENTILE_WINDOWS = new LinkedHashMap<>();
+    
+    static {
+        PERCENTILE_WINDOWS.put("1h", Duration.ofHours(1));
+        PERCENTILE_WINDOWS.put("24h", Duration.ofHours(24));
+        PERCENTILE_WINDOWS.put("7d", Duration.ofDays(7));
+    }
+    
+    private static final Map<String, Duration> UPTIME_WINDOWS = new LinkedHashMap<>();
+    
+    static {
+        UPTIME_WINDOWS.put("5m", Duration.ofMinutes(5));
+        UPTIME_WINDOWS.put("1h", Duration.ofHours(1));
+        UPTIME_WINDOWS.put("24h", Duration.ofHours(24));
+        UPTIME_WINDOWS.put("7d", Duration.ofDays(7));
+    }
+    
+    private final HealthCheckStore healthCheckStore;
+    private final HealthCheckWriteBehind healthCheckWriteBehind;
+    private final ErrorMessageDictionary errorMessageDictionary;
+    private final double errorBudget; // Failure ratio the SLA target allows; 0 for a 100% target, which has no burn rate
+    private final long flushWaitMs;
+    private final Map<Long, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+    
+    // Checks recorded since the running rebuild started; null when no rebuild is running
+    private volatile List<HealthCheck> rebuildDeltas;
+    
+    @Autowired
+    public EndpointStatsAggregator(HealthCheckStore healthCheckStore,
+                                   HealthCheckWriteBehind healthCheckWriteBehind,
+                                   ErrorMessageDictionary errorMessageDictionary,
+                                   @Value("${monitoring.sla.target-percent:99.9}") double slaTargetPercent,
+                                   @Value("${monitoring.persistence.flush-wait-ms:10000}") long flushWaitMs) {
+        this.healthCheckStore = healthCheckStore;
+        this.healthCheckWriteBehind = healthCheckWriteBehind;
+        this.errorMessageDictionary = errorMessageDictionary;
+        if (!(slaTargetPercent > 0 && slaTargetPercent <= 100)) {
+            throw new IllegalArgumentException("monitoring.sla.target-percent must be above 0 and at most 100, was " + slaTargetPercent);
+        }
+        this.errorBudget = (100.0 - slaTargetPercent) / 100.0;
+        this.flushWaitMs = flushWaitMs;
+    }
+    
+    /**
+     * Loads counts, sums, minima and maxima from the store's aggregate queries, then streams
+     * only {endpointId, checkedAt, isSuccessful, responseTimeMs} per check for the uptime
+     * counters, latency histograms and recent response times. Each endpoint's latest checks are
+     * read back for its latest status and to bring the phases' recent values up to date.
+     * <p>
+     * Checks recorded from the start of the rebuild on are captured as they are recorded. After
+     * waiting (up to {@code monitoring.persistence.flush-wait-ms}) for the write-behind to store
+     * everything recorded before then, the rebuild takes the write-behind's current
+     * {@link HealthCheckWriteBehind.WritePosition position} and reads only checks up to its id, so
+     * every query sees the same checks. Captured checks the position does not cover are applied
+     * to the rebuilt stats before they replace the live ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<HealthCheck> deltas = new ArrayList<>();
+        rebuildDeltas = deltas;
+        try {
+            if (!healthCheckWriteBehind.awaitWritten(flushWaitMs)) {
+                logger.warn("Health checks recorded before the stats rebuild were not all stored within {}ms; "
+                           + "the rebuilt stats may miss some", flushWaitMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rebuildDeltas = null;
+            return;
+        }
+        
+        Map<Long, EndpointStats> rebuilt = new ConcurrentHashMap<>();
+        HealthCheckWriteBehind.WritePosition position;
+        try {
+            position = healthCheckWriteBehind.currentPosition();
+            load(rebuilt, position.maxId());
+        } catch (RuntimeException e) {
+            rebuildDeltas = null;
+            throw e;
+        }
+        
+        int merged;
+        synchronized (deltas) {
+            // Checks stored after the position, or not yet; the others were read from the store
+            merged = 0;
+            for (HealthCheck healthCheck : deltas) {
+                if (!position.covers(healthCheck)) {
+                    rebuilt.computeIfAbsent(healthCheck.getApiEndpoint().getId(), id -> new EndpointStats())
+                           .record(healthCheck);
+                    merged++;
+                }
+            }
+            statsByEndpoint.clear();
+            statsByEndpoint.putAll(rebuilt);
+            rebuildDeltas = null;
+        }
+        logger.info("Rebuilt monitoring stats for {} endpoints in {}ms, {} checks recorded meanwhile merged in",
+                   rebuilt.size(), System.currentTimeMillis() - start, merged);
+    }
+    
+    private void load(Map<Long, EndpointStats> rebuilt, long maxId) {
+        for (Object[] row : healthCheckStore.summarizeByEndpoint(maxId)) {
+            rebuilt.computeIfAbsent(((Number) row[0]).longValue(), id -> new EndpointStats()).loadTotals(row);
+        }
+        for (Object[] row : healthCheckStore.countFailuresByEndpointAndClass(maxId)) {
+            EndpointStats stats = rebuilt.get(((Number) row[0]).longValue());
+            if (stats != null) {
+                stats.loadFailures((FailureClass) row[1], ((Number) row[2]).longValue());
+            }
+        }
+        
+        try (Stream<Object[]> rows = healthCheckStore.streamOrderedCheckSummaries(maxId)) {
+            rows.forEach(row -> {
+                EndpointStats stats = rebuilt.get(((Number) row[0]).longValue());
+                if (stats == null) {
+                    return;
+                }
+                long checkedAtMillis = toEpochMillis((LocalDateTime) row[1]);
+                boolean successful = Boolean.TRUE.equals(row[2]);
+                stats.recordOutcome(checkedAtMillis, successful);
+                if (successful && row[3] != null) {
+                    long responseTime = ((Number) row[3]).longValue();
+                    stats.recordLatency(checkedAtMillis, responseTime);
+                    // Each endpoint's checks arrive oldest first, so the ring ends on the newest
+                    stats.pushRecent(responseTime);
+                }
+            });
+        }
+        
+        for (Map.Entry<Long, EndpointStats> entry : rebuilt.entrySet()) {
+            // Checks stored since the position are merged in with the captured ones
+            List<HealthCheck> latest = new ArrayList<>(healthCheckStore.findPageBefore(entry.getKey(), EPOCH, FAR_FUTURE,
+                    Long.MAX_VALUE, RECENT_PHASE_CHECKS));
+            latest.removeIf(healthCheck -> healthCheck.getId() > maxId);
+            if (latest.isEmpty()) {
+                continue;
+            }
+            HealthCheck newest = latest.get(0);
+            newest.setErrorMessage(errorMessageDictionary.resolve(newest.getErrorMessageId()));
+            entry.getValue().updateLatest(newest);
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                entry.getValue().recordRecentPhases(latest.get(i));
+            }
+        }
+    }
+    
+    public void record(HealthCheck healthCheck) {
+        List<HealthCheck> deltas = rebuildDeltas;
+        if (deltas != null) {
+            // Under the lock, so the check lands in exactly one of the merge and the swapped-in stats
+            synchronized (deltas) {
+                if (rebuildDeltas == deltas) {
+                    deltas.add(healthCheck);
+                }
+                recordLive(healthCheck);
+            }
+            return;
+        }
+        recordLive(healthCheck);
+    }
+    
+    private void recordLive(HealthCheck healthCheck) {
+        statsByEndpoint
+            .computeIfAbsent(healthCheck.getApiEndpoint().getId(), id -> new EndpointStats())
+            .record(healthCheck);
+    }
+    
+    public void remove(Long endpointId) {
+        statsByEndpoint.remove(endpointId);
+    }
+    
+    /**
+     * Uptime and error budget burn rate over the last 5m, 1h, 24h and 7d. The burn rate is the
+     * observed failure ratio divided by the ratio allowed by {@code monitoring.sla.target-percent};
+     * a 100% target allows none, so it is left out.
+     */
+    public List<UptimeWindow> getUptimeWindows(Long endpointId) {
+        EndpointStats stats = statsByEndpoint.get(endpointId);
+        long now = System.currentTimeMillis();
+        List<UptimeWindow> windows = new ArrayList<>(UPTIME_WINDOWS.size());
+        
+        for (Map.Entry<String, Duration> window : UPTIME_WINDOWS.entrySet()) {
+            long[] counts = stats != null ? stats.uptimeCounts(window.getValue(), now) : new long[] {0, 0};
+            UptimeWindow uptimeWindow = new UptimeWindow(window.getKey(), counts[0], counts[1]);
+            if (counts[0] > 0) {
+                double failureRatio = (counts[0] - counts[1]) / (double) counts[0];
+                uptimeWindow.setUptime((1.0 - failureRatio) * 100.0);
+                if (errorBudget > 0) {
+                    uptimeWindow.setErrorBudgetBurnRate(failureRatio / errorBudget);
+                }
+            }
+            windows.add(uptimeWindow);
+        }
+        return windows;
+    }
+    
+    public MonitoringStats statsFor(ApiEndpoint endpoint) {
+        MonitoringStats stats = new MonitoringStats(endpoint.getId(), endpoint.getName(), endpoint.getUrl());
+        applyTo(stats);
+        return stats;
+    }
+    
+    /**
+     * Copies the endpoint's statistics onto the given stats object. Endpoints with no recorded
+     * checks get the same empty values the database queries used to produce.
+     */
+    public void applyTo(MonitoringStats monitoringStats) {
+        EndpointStats stats = statsByEndpoint.get(monitoringStats.getEndpointId());
+        if (stats == null) {
+            monitoringStats.setIsHealthy(null);
+            monitoringStats.setRecentResponseTimes(new ArrayList<>());
+            monitoringStats.setTotalChecks(0);
+            monitoringStats.setSuccessfulChecks(0);
+            monitoringStats.setUptime(null);
+            monitoringStats.setFailuresByClass(new LinkedHashMap<>());
+            monitoringStats.setPhaseTimings(new ArrayList<>());
+        } else {
+            stats.applyTo(monitoringStats);
+        }
+        monitoringStats.setUptimeWindows(getUptimeWindows(monitoringStats.getEndpointId()));
+    }
+    
+    public void applyLatestTo(EndpointSummary summary) {
+        EndpointStats stats = statsByEndpoint.get(summary.getId());
+        if (stats != null) {
+            stats.applyLatestTo(summary);
+        }
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return System.currentTimeMillis();
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    static LatencyPercentiles toPercentiles(String window, LatencyHistogram histogram) {
+        LatencyPercentiles percentiles = new LatencyPercentiles(window, histogram.getTotalCount());
+        percentiles.setP50(histogram.valueAtPercentile(50.0));
+        percentiles.setP90(histogram.valueAtPercentile(90.0));
+        percentiles.setP95(histogram.valueAtPercentile(95.0));
+        percentiles.setP99(histogram.valueAtPercentile(99.0));
+        percentiles.setP999(histogram.valueAtPercentile(99.9));
+        return percentiles;
+    }
+    
+    static final class EndpointStats {
+        
+        private long totalChecks;
+        private long successfulChecks;
+        private long responseTimeSum; // Successful checks only, like the average/min/max
+        private Long minResponseTime;
+        private Long maxResponseTime;
+        private final long[] failuresByClass = new long[FailureClass.values().length];
+        
+        // Checks with known connection reuse; the sums cover successful checks only
+        private long reusedChecks;
+        private long newConnectionChecks;
+        private long reusedSuccessfulChecks;
+        private long reusedResponseTimeSum;
+        private long newConnectionSuccessfulChecks;
+        private long newConnectionResponseTimeSum;
+        
+        private final long[] phaseSamples = new long[PHASES.length];
+        private final long[] phaseNanosSum = new long[PHASES.length];
+        private final long[] phaseNanosMax = new long[PHASES.length];
+        private final double[] phaseNanosRecent = new double[PHASES.length];
+        
+        private Boolean latestSuccessful;
+        private LocalDateTime latestCheckedAt;
+        private String latestError;
+        private Long latestResponseTime;
+        
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        private final WindowedLatencyHistogram windowedLatency = new WindowedLatencyHistogram();
+        
+        private final RollingUptimeCounters uptimeCounters = new RollingUptimeCounters();
+        
+        private final long[] recentResponseTimes = new long[RECENT_RESPONSE_TIMES];
+        private int recentHead;
+        private int recentSize;
+        
+        synchronized void record(HealthCheck healthCheck) {
+            totalChecks++;
+            Long responseTime = healthCheck.getResponseTimeMs();
+            recordOutcome(toEpochMillis(healthCheck.getCheckedAt()), Boolean.TRUE.equals(healthCheck.getIsSuccessful()));
+            recordPhases(healthCheck);
+            Boolean connectionReused = healthCheck.getConnectionReused();
+            if (connectionReused != null) {
+                if (connectionReused) {
+                    reusedChecks++;
+                } else {
+                    newConnectionChecks++;
+                }
+            }
+            
+            if (Boolean.TRUE.equals(healthCheck.getIsSuccessful())) {
+                successfulChecks++;
+                if (responseTime != null) {
+                    recordConnectionLatency(connectionReused, responseTime);
+                    responseTimeSum += responseTime;
+                    minResponseTime = minResponseTime == null ? responseTime : Math.min(minResponseTime, responseTime);
+                    maxResponseTime = maxResponseTime == null ? responseTime : Math.max(maxResponseTime, responseTime);
+                    pushRecent(responseTime);
+                    recordLatency(toEpochMillis(healthCheck.getCheckedAt()), responseTime);
+                }
+            } else {
+                FailureClass failureClass = healthCheck.getFailureClass();
+                failuresByClass[(failureClass != null ? failureClass : FailureClass.UNKNOWN).ordinal()]++;
+            }
+            updateLatest(healthCheck);
+        }
+        
+        /**
+         * Takes the totals of a {@link HealthCheckStore#summarizeByEndpoint} row. Each phase's
+         * recent value starts at its mean.
+         */
+        synchronized void loadTotals(Object[] row) {
+            totalChecks = longAt(row, 1);
+            successfulChecks = longAt(row, 2);
+            responseTimeSum = longAt(row, 3);
+            minResponseTime = row[4] != null ? ((Number) row[4]).longValue() : null;
+            maxResponseTime = row[5] != null ? ((Number) row[5]).longValue() : null;
+            reusedChecks = longAt(row, 6);
+            newConnectionChecks = longAt(row, 7);
+            reusedSuccessfulChecks = longAt(row, 8);
+            reusedResponseTimeSum = longAt(row, 9);
+            newConnectionSuccessfulChecks = longAt(row, 10);
+            newConnectionResponseTimeSum = longAt(row, 11);
+            for (ProbePhase phase : PHASES) {
+                int i = phase.ordinal();
+                phaseSamples[i] = longAt(row, 12 + 3 * i);
+                phaseNanosSum[i] = longAt(row, 13 + 3 * i);
+                phaseNanosMax[i] = longAt(row, 14 + 3 * i);
+                phaseNanosRecent[i] = phaseSamples[i] > 0 ? phaseNanosSum[i] / (double) phaseSamples[i] : 0.0;
+            }
+        }
+        
+        synchronized void loadFailures(FailureClass failureClass, long count) {
+            failuresByClass[(failureClass != null ? failureClass : FailureClass.UNKNOWN).ordinal()] += count;
+        }
+        
+        synchronized void recordRecentPhases(HealthCheck healthCheck) {
+            for (ProbePhase phase : PHASES) {
+                Long nanos = phase.nanosOf(healthCheck);
+                if (nanos != null) {
+                    int i = phase.ordinal();
+                    phaseNanosRecent[i] += PHASE_RECENT_WEIGHT * (nanos - phaseNanosRecent[i]);
+                }
+            }
+        }
+        
+        private static long longAt(Object[] row, int index) {
+            return row[index] != null ? ((Number) row[index]).longValue() : 0L;
+        }
+        
+        synchronized void updateLatest(HealthCheck healthCheck) {
+            // Concurrent probes can complete out of order; keep the most recently started one
+            if (latestCheckedAt != null && healthCheck.getCheckedAt() != null
+                    && healthCheck.getCheckedAt().isBefore(latestCheckedAt)) {
+                return;
+            }
+            latestSuccessful = healthCheck.getIsSuccessful();
+            latestCheckedAt = healthCheck.getCheckedAt();
+            latestError = healthCheck.getErrorMessage();
+            latestResponseTime = healthCheck.getResponseTimeMs();
+        }
+        
+        synchronized void recordOutcome(long checkedAtMillis, boolean successful) {
+            uptimeCounters.record(checkedAtMillis, successful);
+        }
+        
+        synchronized long[] uptimeCounts(Duration window, long nowMillis) {
+            return uptimeCounters.countsFor(window, nowMillis);
+        }
+        
+        synchronized void recordLatency(long checkedAtMillis, long responseTime) {
+            latencyHistogram.record(responseTime);
+            windowedLatency.record(checkedAtMillis, responseTime);
+        }
+        
+        synchronized void recordConnectionLatency(Boolean connectionReused, long responseTime) {
+            if (Boolean.TRUE.equals(connectionReused)) {
+                reusedSuccessfulChecks++;
+                reusedResponseTimeSum += responseTime;
+            } else if (Boolean.FALSE.equals(connectionReused)) {
+                newConnectionSuccessfulChecks++;
+                newConnectionResponseTimeSum += responseTime;
+            }
+        }
+        
+        synchronized void recordPhases(HealthCheck healthCheck) {
+            for (ProbePhase phase : PHASES) {
+                Long nanos = phase.nanosOf(healthCheck);
+                if (nanos == null) {
+                    continue;
+                }
+                int i = phase.ordinal();
+                phaseNanosRecent[i] = phaseSamples[i] == 0
+                        ? nanos
+                        : phaseNanosRecent[i] + PHASE_RECENT_WEIGHT * (nanos - phaseNanosRecent[i]);
+                phaseSamples[i]++;
+                phaseNanosSum[i] += nanos;
+                phaseNanosMax[i] = Math.max(phaseNanosMax[i], nanos);
+            }
+        }
+        
+        synchronized void pushRecent(long responseTime) {
+            recentResponseTimes[recentHead] = responseTime;
+            recentHead = (recentHead + 1) % recentResponseTimes.length;
+            recentSize = Math.min(recentSize + 1, recentResponseTimes.length);
+        }
+        
+        synchronized void applyLatestTo(EndpointSummary summary) {
+            summary.setIsHealthy(latestSuccessful);
+            summary.setLastCheckTime(latestCheckedAt);
+            summary.setLatestResponseTime(latestResponseTime);
+        }
+        
+        synchronized void applyTo(MonitoringStats stats) {
+            stats.setIsHealthy(latestSuccessful);
+            stats.setLastCheckTime(latestCheckedAt);
+            stats.setLastError(latestError);
+            stats.setLatestResponseTime(latestResponseTime);
+            
+            if (successfulChecks > 0) {
+                stats.setAverageResponseTime(responseTimeSum / successfulChecks);
+            }
+            stats.setMinResponseTime(minResponseTime);
+            stats.setMaxResponseTime(maxResponseTime);
+            
+            // Newest first, matching the order the dashboard's trend arrows expect
+            List<Long> recent = new ArrayList<>(recentSize);
+            for (int i = 1; i <= recentSize; i++) {
+                recent.add(recentResponseTimes[Math.floorMod(recentHead - i, recentResponseTimes.length)]);
+            }
+            stats.setRecentResponseTimes(recent);
+            
+            long now = System.currentTimeMillis();
+            stats.setLatencyPercentiles(toPercentiles("all", latencyHistogram));
+            List<LatencyPercentiles> windowed = new ArrayList<>(PERCENTILE_WINDOWS.size());
+            PERCENTILE_WINDOWS.forEach((label, window) ->
+                    windowed.add(toPercentiles(label, windowedLatency.merge(window, now))));
+            stats.setWindowedLatencyPercentiles(windowed);
+            
+            Map<String, Long> failures = new LinkedHashMap<>();
+            for (FailureClass failureClass : FailureClass.values()) {
+                if (failuresByClass[failureClass.ordinal()] > 0) {
+                    failures.put(failureClass.name(), failuresByClass[failureClass.ordinal()]);
+                }
+            }
+            stats.setFailuresByClass(failures);
+            
+            long reuseKnown = reusedChecks + newConnectionChecks;
+            stats.setConnectionReuseRate(reuseKnown > 0 ? (reusedChecks * 100.0) / reuseKnown : null);
+            stats.setAverageResponseTimeReused(reusedSuccessfulChecks > 0 ? reusedResponseTimeSum / reusedSuccessfulChecks : null);
+            stats.setAverageResponseTimeNewConnection(newConnectionSuccessfulChecks > 0
+                    ? newConnectionResponseTimeSum / newConnectionSuccessfulChecks : null);
+            
+            List<PhaseTiming> phaseTimings = new ArrayList<>(PHASES.length);
+            for (ProbePhase phase : PHASES) {
+                int i = phase.ordinal();
+                if (phaseSamples[i] > 0) {
+                    PhaseTiming timing = new PhaseTiming(phase.name(), phaseSamples[i]);
+                    timing.setMeanMs(phaseNanosSum[i] / (double) phaseSamples[i] / 1_000_000.0);
+                    timing.setRecentMs(phaseNanosRecent[i] / 1_000_000.0);
+                    timing.setMaxMs(phaseNanosMax[i] / 1_000_000.0);
+                    phaseTimings.add(timing);
+                }
+            }
+            stats.setPhaseTimings(phaseTimings);
+            
+            stats.setTotalChecks((int) totalChecks);
+            stats.setSuccessfulChecks((int) successfulChecks);
+            stats.setUptime(totalChecks > 0 ? (successfulChecks * 100.0) / totalChecks : null);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ErrorMessage;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.repository.ErrorMessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns error messages into the {@code error_messages} table and caches both directions in
+ * memory. Lookups never touch the database after startup; a new message costs one insert in its
+ * own transaction, so its id stays valid even if the batch that first used it rolls back.
+ */
+@Service
+public class ErrorMessageDictionary {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ErrorMessageDictionary.class);
+    
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    
+    private final ErrorMessageRepository errorMessageRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Long> idsByMessage = new ConcurrentHashMap<>();
+    private final Map<Long, String> messagesById = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public ErrorMessageDictionary(ErrorMessageRepository errorMessageRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.errorMessageRepository = errorMessageRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @PostConstruct
+    public void load() {
+        for (ErrorMessage errorMessage : errorMessageRepository.findAll()) {
+            cache(errorMessage);
+        }
+        logger.info("Loaded {} error messages", messagesById.size());
+    }
+    
+    /**
+     * @return the message's id, inserting it first if it is new; null for a null message
+     */
+    public Long intern(String message) {
+        if (message == null) {
+            return null;
+        }
+        String normalized = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        Long id = idsByMessage.get(normalized);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idsByMessage.get(normalized);
+            if (id == null) {
+                ErrorMessage errorMessage = newTransaction.execute(status ->
+                        errorMessageRepository.findByMessage(normalized)
+                                .orElseGet(() -> errorMessageRepository.save(new ErrorMessage(normalized))));
+                cache(errorMessage);
+                id = errorMessage.getId();
+            }
+            return id;
+        }
+    }
+    
+    /**
+     * Sets the message id of every check in the batch that has a message but no id yet.
+     */
+    public void internAll(Collection<HealthCheck> batch) {
+        for (HealthCheck healthCheck : batch) {
+            if (healthCheck.getErrorMessage() != null && healthCheck.getErrorMessageId() == null) {
+                healthCheck.setErrorMessageId(intern(healthCheck.getErrorMessage()));
+            }
+        }
+    }
+    
+    public String resolve(Long id) {
+        return id != null ? messagesById.get(id) : null;
+    }
+    
+    /**
+     * Fills in the message text of checks loaded from the database.
+     */
+    public void resolveAll(Collection<HealthCheck> healthChecks) {
+        for (HealthCheck healthCheck : healthChecks) {
+            if (healthCheck.getErrorMessage() == null) {
+                healthCheck.setErrorMessage(resolve(healthCheck.getErrorMessageId()));
+            }
+        }
+    }
+    
+    private void cache(ErrorMessage errorMessage) {
+        idsByMessage.put(errorMessage.getMessage(), errorMessage.getId());
+        messagesById.put(errorMessage.getId(), errorMessage.getMessage());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.FailureClass;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.netty.http.client.PrematureCloseException;
+
+import javax.net.ssl.SSLException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Maps probe exceptions to a {@link FailureClass} by walking the cause chain: WebClient wraps
+ * transport errors, so the most specific cause decides.
+ */
+final class FailureClassifier {
+    
+    private FailureClassifier() {}
+    
+    static FailureClass classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            FailureClass failureClass = classifyOne(cause);
+            if (failureClass != null) {
+                return failureClass;
+            }
+        }
+        return FailureClass.UNKNOWN;
+    }
+    
+    private static FailureClass classifyOne(Throwable error) {
+        if (error instanceof UnknownHostException) {
+            return FailureClass.DNS;
+        }
+        // Netty's connect timeout is a ConnectException, so it has to be checked first
+        if (error instanceof ConnectTimeoutException) {
+            return FailureClass.CONNECT_TIMEOUT;
+        }
+        if (error instanceof ConnectException || error instanceof NoRouteToHostException) {
+            return FailureClass.CONNECT_REFUSED;
+        }
+        if (error instanceof SSLException) {
+            return FailureClass.TLS;
+        }
+        if (error instanceof ReadTimeoutException || error instanceof SocketTimeoutException) {
+            return FailureClass.READ_TIMEOUT;
+        }
+        if (error instanceof TimeoutException) {
+            return FailureClass.TIMEOUT;
+        }
+        if (error instanceof PrematureCloseException || error instanceof SocketException) {
+            return FailureClass.CONNECTION_CLOSED;
+        }
+        if (error instanceof IllegalArgumentException || error instanceof URISyntaxException) {
+            return FailureClass.INVALID_REQUEST;
+        }
+        return null;
+    }
+}
\ No newline at end of file
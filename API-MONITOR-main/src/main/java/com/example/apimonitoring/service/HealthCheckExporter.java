@@ -0,0 +1,166 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams an endpoint's health check history straight from a forward-only result set to the
+ * response, oldest first. Rows are read as column projections, so nothing accumulates in the
+ * persistence context and heap use stays flat however long the range is. Rows are exported with
+ * the failure class and the error message text, resolved from the message dictionary.
+ */
+@Service
+public class HealthCheckExporter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HealthCheckExporter.class);
+    
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final String CSV_HEADER = "id,checkedAt,isSuccessful,statusCode,responseTimeMs,failureClass,errorMessage";
+    
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    private final HealthCheckStore healthCheckStore;
+    private final ArchiveService archiveService;
+    private final ErrorMessageDictionary errorMessageDictionary;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public HealthCheckExporter(HealthCheckStore healthCheckStore,
+                               ArchiveService archiveService,
+                               ErrorMessageDictionary errorMessageDictionary,
+                               ObjectMapper objectMapper) {
+        this.healthCheckStore = healthCheckStore;
+        this.archiveService = archiveService;
+        this.errorMessageDictionary = errorMessageDictionary;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Transactional(readOnly = true)
+    public long export(Long endpointId, LocalDateTime since, Format format, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        
+        LocalDateTime lowerBound = since != null ? since : EARLIEST;
+        try (Stream<Object[]> stream = healthCheckStore.streamHealthChecks(endpointId, lowerBound, LATEST)) {
+            rows = write(stream.map(this::resolveMessage).iterator(), format, outputStream);
+        }
+        
+        logger.info("Exported {} health checks for endpoint {} as {} in {}ms",
+                rows, endpointId, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+    
+    /**
+     * Exports archived checks in [from, to). Archive rows carry no id.
+     */
+    public long exportArchive(Long endpointId, LocalDateTime from, LocalDateTime to, Format format,
+                              OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        
+        try (Stream<Object[]> stream = archiveService.scan(endpointId, from, to)) {
+            rows = write(stream.iterator(), format, outputStream);
+        }
+        
+        logger.info("Exported {} archived health checks for endpoint {} as {} in {}ms",
+                rows, endpointId, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+    
+    // Row store rows carry the message id in the last column
+    private Object[] resolveMessage(Object[] row) {
+        row[6] = errorMessageDictionary.resolve(row[6] != null ? ((Number) row[6]).longValue() : null);
+        return row;
+    }
+    
+    private long write(Iterator<Object[]> rows, Format format, OutputStream outputStream) throws IOException {
+        return format == Format.CSV ? writeCsv(rows, outputStream) : writeNdjson(rows, outputStream);
+    }
+    
+    private long writeNdjson(Iterator<Object[]> rows, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                generator.writeStartObject();
+                generator.writeObjectField("id", row[0]);
+                generator.writeStringField("checkedAt", row[1] != null ? row[1].toString() : null);
+                generator.writeObjectField("isSuccessful", row[2]);
+                generator.writeObjectField("statusCode", row[3]);
+                generator.writeObjectField("responseTimeMs", row[4]);
+                generator.writeStringField("failureClass", row[5] != null ? row[5].toString() : null);
+                generator.writeStringField("errorMessage", (String) row[6]);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private long writeCsv(Iterator<Object[]> rows, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    if (row[i] != null) {
+                        writer.write(i == row.length - 1 ? escapeCsv(row[i].toString()) : row[i].toString());
+                    }
+                }
+                writer.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
\ No newline at end of file
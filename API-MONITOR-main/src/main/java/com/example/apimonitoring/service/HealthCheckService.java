@@ -1,21 +1,34 @@
 package com.example.apimonitoring.service;
 
+import com.example.apimonitoring.dto.FailureClassCount;
+import com.example.apimonitoring.dto.HealthCheckPage;
 import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.FailureClass;
 import com.example.apimonitoring.model.HealthCheck;
-import com.example.apimonitoring.repository.HealthCheckRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Transactional
@@ -23,89 +36,241 @@ public class HealthCheckService {
     
     private static final Logger logger = LoggerFactory.getLogger(HealthCheckService.class);
     
-    private final HealthCheckRepository healthCheckRepository;
+    // Open bounds for history queries without a since or cursor
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59);
+    
+    private final HealthCheckStore healthCheckStore;
+    private final HealthCheckWriteBehind healthCheckWriteBehind;
+    private final EndpointStatsAggregator endpointStatsAggregator;
+    private final MonitoringStreamService monitoringStreamService;
+    private final ErrorMessageDictionary errorMessageDictionary;
+    private final ProbeConnectionPool probeConnectionPool;
+    private final AdaptiveIntervalPolicy adaptiveIntervalPolicy;
     private final WebClient webClient;
+    private final WebClient http2WebClient;
+    private final int maxPageSize;
     
     @Autowired
-    public HealthCheckService(HealthCheckRepository healthCheckRepository, WebClient.Builder webClientBuilder) {
-        this.healthCheckRepository = healthCheckRepository;
+    public HealthCheckService(HealthCheckStore healthCheckStore,
+                              HealthCheckWriteBehind healthCheckWriteBehind,
+                              EndpointStatsAggregator endpointStatsAggregator,
+                              MonitoringStreamService monitoringStreamService,
+                              ErrorMessageDictionary errorMessageDictionary,
+                              ProbeConnectionPool probeConnectionPool,
+                              AdaptiveIntervalPolicy adaptiveIntervalPolicy,
+                              WebClient.Builder webClientBuilder,
+                              @Qualifier("http2WebClientBuilder") WebClient.Builder http2WebClientBuilder,
+                              @Value("${monitoring.history.max-page-size:1000}") int maxPageSize) {
+        this.healthCheckStore = healthCheckStore;
+        this.healthCheckWriteBehind = healthCheckWriteBehind;
+        this.endpointStatsAggregator = endpointStatsAggregator;
+        this.monitoringStreamService = monitoringStreamService;
+        this.errorMessageDictionary = errorMessageDictionary;
+        this.probeConnectionPool = probeConnectionPool;
+        this.adaptiveIntervalPolicy = adaptiveIntervalPolicy;
         this.webClient = webClientBuilder.build();
+        this.http2WebClient = http2WebClientBuilder.build();
+        this.maxPageSize = maxPageSize;
     }
     
+    /**
+     * Probes the endpoint, blocking the calling thread until the response arrives, and records
+     * the result. Used for one-off checks; scheduled checks go through {@link ProbeEngine}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public HealthCheck performHealthCheck(ApiEndpoint endpoint) {
-        logger.info("Performing health check for endpoint: {}", endpoint.getName());
-        
-        HealthCheck healthCheck = new HealthCheck(endpoint);
-        long startTime = System.currentTimeMillis();
-        
-        try {
+        return recordHealthCheck(probe(endpoint).block());
+    }
+    
+    /**
+     * Builds a non-blocking probe for the endpoint. The returned Mono never errors: transport
+     * failures and timeouts are folded into an unsuccessful, not yet persisted, HealthCheck.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<HealthCheck> probe(ApiEndpoint endpoint) {
+        return Mono.defer(() -> {
+            logger.info("Performing health check for endpoint: {}", endpoint.getName());
+            
+            HealthCheck healthCheck = new HealthCheck(endpoint);
+            ProbeTrace trace = probeConnectionPool.track(endpoint);
             HttpMethod method = HttpMethod.valueOf(endpoint.getHttpMethod().toUpperCase());
             
-            Integer statusCode = webClient
+            return webClientFor(endpoint)
                 .method(method)
                 .uri(endpoint.getUrl())
                 .retrieve()
+                // Every status is a response to compare with expectedStatus, not an error
+                .onStatus(status -> true, response -> Mono.empty())
                 .toBodilessEntity()
+                .contextWrite(trace.context())
                 .timeout(Duration.ofMillis(endpoint.getTimeoutMs()))
-                .map(response -> response.getStatusCode().value())
-                .block();
-            
-            long endTime = System.currentTimeMillis();
-            long responseTime = endTime - startTime;
-            
-            healthCheck.setStatusCode(statusCode);
-            healthCheck.setResponseTimeMs(responseTime);
-            healthCheck.setIsSuccessful(statusCode.equals(endpoint.getExpectedStatus()));
-            
-            if (!healthCheck.getIsSuccessful()) {
-                healthCheck.setErrorMessage("Expected status " + endpoint.getExpectedStatus() + 
-                                          " but got " + statusCode);
-            }
-            
-            logger.info("Health check completed for {}: Status={}, ResponseTime={}ms", 
-                       endpoint.getName(), statusCode, responseTime);
-            
-        } catch (WebClientException e) {
-            long endTime = System.currentTimeMillis();
-            long responseTime = endTime - startTime;
-            
-            healthCheck.setResponseTimeMs(responseTime);
-            healthCheck.setIsSuccessful(false);
-            healthCheck.setErrorMessage("Request failed: " + e.getMessage());
-            
-            logger.error("Health check failed for {}: {}", endpoint.getName(), e.getMessage());
-            
-        } catch (Exception e) {
-            long endTime = System.currentTimeMillis();
-            long responseTime = endTime - startTime;
-            
-            healthCheck.setResponseTimeMs(responseTime);
+                .map(response -> {
+                    long totalNanos = trace.elapsedNanos();
+                    long responseTime = TimeUnit.NANOSECONDS.toMillis(totalNanos);
+                    Integer statusCode = response.getStatusCode().value();
+                    
+                    healthCheck.setStatusCode(statusCode);
+                    healthCheck.setResponseTimeMs(responseTime);
+                    healthCheck.setIsSuccessful(statusCode.equals(endpoint.getExpectedStatus()));
+                    trace.applyTo(healthCheck, totalNanos);
+                    
+                    if (!healthCheck.getIsSuccessful()) {
+                        healthCheck.setFailureClass(FailureClass.UNEXPECTED_STATUS);
+                        healthCheck.setErrorMessage("Expected status " + endpoint.getExpectedStatus() + 
+                                                  " but got " + statusCode);
+                    }
+                    
+                    logger.info("Health check completed for {}: Status={}, ResponseTime={}ms", 
+                               endpoint.getName(), statusCode, responseTime);
+                    return healthCheck;
+                })
+                .onErrorResume(WebClientException.class, e -> {
+                    long totalNanos = trace.elapsedNanos();
+                    healthCheck.setResponseTimeMs(TimeUnit.NANOSECONDS.toMillis(totalNanos));
+                    trace.applyTo(healthCheck, totalNanos);
+                    healthCheck.setIsSuccessful(false);
+                    healthCheck.setFailureClass(FailureClassifier.classify(e));
+                    healthCheck.setErrorMessage("Request failed: " + e.getMessage());
+                    
+                    logger.error("Health check failed for {}: {}", endpoint.getName(), e.getMessage());
+                    return Mono.just(healthCheck);
+                })
+                .onErrorResume(e -> {
+                    long totalNanos = trace.elapsedNanos();
+                    healthCheck.setResponseTimeMs(TimeUnit.NANOSECONDS.toMillis(totalNanos));
+                    trace.applyTo(healthCheck, totalNanos);
+                    healthCheck.setIsSuccessful(false);
+                    healthCheck.setFailureClass(FailureClassifier.classify(e));
+                    healthCheck.setErrorMessage("Unexpected error: " + e.getMessage());
+                    
+                    logger.error("Unexpected error during health check for {}: {}", endpoint.getName(), e.getMessage());
+                    return Mono.just(healthCheck);
+                });
+        }).onErrorResume(e -> {
+            // Failures while building the request (e.g. an invalid HTTP method) happen before subscription
+            HealthCheck healthCheck = new HealthCheck(endpoint);
+            healthCheck.setResponseTimeMs(0L);
             healthCheck.setIsSuccessful(false);
+            healthCheck.setFailureClass(FailureClassifier.classify(e));
             healthCheck.setErrorMessage("Unexpected error: " + e.getMessage());
             
             logger.error("Unexpected error during health check for {}: {}", endpoint.getName(), e.getMessage());
+            return Mono.just(healthCheck);
+        });
+    }
+    
+    /**
+     * Opens a connection to the endpoint's host ahead of its next probe, unless the pool already
+     * holds an idle one there. Sends a HEAD request to the endpoint URL, whose result is
+     * discarded; never errors.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<Void> preconnect(ApiEndpoint endpoint) {
+        return Mono.defer(() -> {
+            if (probeConnectionPool.idleConnections(endpoint) > 0) {
+                return Mono.empty();
+            }
+            probeConnectionPool.recordPreconnect();
+            return webClientFor(endpoint)
+                .head()
+                .uri(endpoint.getUrl())
+                .retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toBodilessEntity()
+                .timeout(Duration.ofMillis(endpoint.getTimeoutMs()))
+                .then();
+        }).onErrorResume(e -> {
+            logger.debug("Pre-connect to {} failed: {}", endpoint.getName(), e.getMessage());
+            return Mono.empty();
+        });
+    }
+    
+    private WebClient webClientFor(ApiEndpoint endpoint) {
+        return probeConnectionPool.usesHttp2(endpoint) ? http2WebClient : webClient;
+    }
+    
+    /**
+     * Folds a probe result into the in-memory stats and the adaptive schedule, and hands it to
+     * the write-behind buffer; it is persisted with the next batch.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public HealthCheck recordHealthCheck(HealthCheck healthCheck) {
+        endpointStatsAggregator.record(healthCheck);
+        adaptiveIntervalPolicy.record(healthCheck);
+        healthCheckWriteBehind.enqueue(healthCheck);
+        monitoringStreamService.publish(healthCheck);
+        return healthCheck;
+    }
+    
+    /**
+     * Returns one page of history, newest first, optionally bounded below by {@code since}.
+     * Pages are keyed on (checkedAt, id), so each page is an index range scan however deep the
+     * client has paged, and rows written meanwhile neither shift nor duplicate later pages.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public HealthCheckPage getHealthCheckPage(Long endpointId, LocalDateTime since, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        LocalDateTime beforeCheckedAt = LATEST;
+        long beforeId = Long.MAX_VALUE;
+        
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            beforeCheckedAt = LocalDateTime.parse(parts[0]);
+            beforeId = Long.parseLong(parts[1]);
         }
         
-        return healthCheckRepository.save(healthCheck);
+        // One extra row tells us whether another page exists without a count query
+        LocalDateTime lowerBound = since != null ? since : EARLIEST;
+        List<HealthCheck> rows = healthCheckStore.findPageBefore(endpointId, lowerBound, beforeCheckedAt, beforeId, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            HealthCheck last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCheckedAt(), last.getId());
+        }
+        errorMessageDictionary.resolveAll(rows);
+        return new HealthCheckPage(rows, nextCursor, pageSize);
     }
     
-    public List<HealthCheck> getHealthCheckHistory(Long endpointId) {
-        return healthCheckRepository.findByApiEndpointIdOrderByCheckedAtDesc(endpointId);
+    /**
+     * Failed checks in [from, to) per failure class, most frequent first.
+     */
+    @Transactional(readOnly = true)
+    public List<FailureClassCount> getFailureBreakdown(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = healthCheckStore.countFailuresByClass(endpointId, from, to);
+        List<FailureClassCount> counts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            counts.add(new FailureClassCount((FailureClass) row[0], ((Number) row[1]).longValue()));
+        }
+        counts.sort(Comparator.comparing(FailureClassCount::getCount).reversed());
+        return counts;
     }
     
-    public List<HealthCheck> getHealthChecksSince(Long endpointId, LocalDateTime since) {
-        return healthCheckRepository.findHealthChecksSince(endpointId, since);
+    private static String encodeCursor(LocalDateTime checkedAt, Long id) {
+        String raw = checkedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
     
-    public Optional<HealthCheck> getLatestHealthCheck(Long endpointId) {
-        return healthCheckRepository.findLatestHealthCheck(endpointId);
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
     }
     
-    public void cleanupOldHealthChecks(LocalDateTime cutoffTime) {
-        List<HealthCheck> oldChecks = healthCheckRepository.findOldHealthChecks(cutoffTime);
-        if (!oldChecks.isEmpty()) {
-            healthCheckRepository.deleteAll(oldChecks);
-            logger.info("Cleaned up {} old health check records", oldChecks.size());
-        }
+    public Optional<HealthCheck> getLatestHealthCheck(Long endpointId) {
+        Optional<HealthCheck> latest = healthCheckStore.findLatest(endpointId);
+        latest.ifPresent(healthCheck -> healthCheck.setErrorMessage(errorMessageDictionary.resolve(healthCheck.getErrorMessageId())));
+        return latest;
     }
 }
\ No newline at end of file
@@ -0,0 +1,511 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.journal.JournalCursor;
+import com.example.apimonitoring.journal.JournalRecord;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.JournalCheckpoint;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.example.apimonitoring.repository.JournalCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers health check results and writes them in batches, one transaction per batch, so
+ * Hibernate can send them as JDBC batch inserts. The same transaction folds the batch into the
+ * minute/hour/day rollups. A batch is flushed once it reaches
+ * {@code monitoring.persistence.batch-size} or has waited {@code flush-interval-ms}. When the
+ * buffer is full, producers block until the writer catches up. A batch that fails to write is
+ * retried with exponential backoff up to {@code max-retries} times before it is dropped; while
+ * the writer waits, the buffer fills and producers block, so a short database outage slows
+ * probing down instead of losing results. Checks of endpoints deleted while they were buffered
+ * are skipped. Remaining results are flushed when the application shuts down.
+ * <p>
+ * When the {@link ProbeJournal} is enabled it replaces the in-memory buffer: results are
+ * appended to the journal and the writer tails it, committing the journal checkpoint with each
+ * batch. Everything after the checkpoint is replayed into the database in large batches once
+ * the application is ready, when the endpoints created by command-line runners exist, and before
+ * probing, the stats rebuild and the rollup backfill start. Records of endpoints that no longer
+ * exist are skipped. A {@link HealthCheckStore} that is not durable gets the whole journal
+ * replayed, but only records after the checkpoint reach the rollups. A batch that fails to write
+ * is read again from the journal and retried with exponential backoff, so the checkpoint never
+ * moves past records that are not in the database.
+ * <p>
+ * Error messages are interned through the {@link ErrorMessageDictionary} before each write, so
+ * rows carry only the message id.
+ */
+@Service
+public class HealthCheckWriteBehind implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HealthCheckWriteBehind.class);
+    
+    private final HealthCheckStore healthCheckStore;
+    private final RollupService rollupService;
+    private final ProbeJournal probeJournal;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final ApiEndpointRepository apiEndpointRepository;
+    private final ErrorMessageDictionary errorMessageDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<HealthCheck> buffer;
+    private final int batchSize;
+    private final int replayBatchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final long retryBackoffMs;
+    private final long retryBackoffMaxMs;
+    private final int maxRetries;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    private final Counter backpressureCounter;
+    private final Counter droppedCounter;
+    // Buffered mode: results handed to enqueue, and results written or dropped
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong settledCount = new AtomicLong();
+    
+    // Held while a batch is written, so currentPosition never sees one half done
+    private final Object writeMonitor = new Object();
+    
+    private volatile boolean running;
+    private Thread writerThread;
+    private JournalCursor journalCursor;
+    private long replayCheckpoint;
+    private long retryDelayMs;
+    
+    @Autowired
+    public HealthCheckWriteBehind(HealthCheckStore healthCheckStore,
+                                  RollupService rollupService,
+                                  ProbeJournal probeJournal,
+                                  JournalCheckpointRepository checkpointRepository,
+                                  ApiEndpointRepository apiEndpointRepository,
+                                  ErrorMessageDictionary errorMessageDictionary,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${monitoring.persistence.buffer-capacity:10000}") int bufferCapacity,
+                                  @Value("${monitoring.persistence.batch-size:50}") int batchSize,
+                                  @Value("${monitoring.persistence.flush-interval-ms:1000}") long flushIntervalMs,
+                                  @Value("${monitoring.journal.replay-batch-size:1000}") int replayBatchSize,
+                                  @Value("${monitoring.persistence.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                                  @Value("${monitoring.persistence.retry-backoff-ms:500}") long retryBackoffMs,
+                                  @Value("${monitoring.persistence.retry-backoff-max-ms:30000}") long retryBackoffMaxMs,
+                                  @Value("${monitoring.persistence.max-retries:5}") int maxRetries) {
+        this.healthCheckStore = healthCheckStore;
+        this.rollupService = rollupService;
+        this.probeJournal = probeJournal;
+        this.checkpointRepository = checkpointRepository;
+        this.apiEndpointRepository = apiEndpointRepository;
+        this.errorMessageDictionary = errorMessageDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.replayBatchSize = replayBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retryBackoffMaxMs = retryBackoffMaxMs;
+        this.retryDelayMs = retryBackoffMs;
+        this.maxRetries = maxRetries;
+        this.batchSizeSummary = DistributionSummary.builder("monitoring.persistence.batch.size")
+                .description("Health checks written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("monitoring.persistence.flush")
+                .description("Time to write one batch of health checks")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("monitoring.persistence.backpressure")
+                .description("Writes that had to wait for space in the buffer")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("monitoring.persistence.dropped")
+                .description("Buffered health checks dropped after their batch failed every retry")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.persistence.buffer.size", buffer, BlockingQueue::size)
+                .description("Health checks waiting to be written")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Hands a result to the writer: appends it to the journal, or otherwise buffers it, blocking
+     * while the buffer is full. After shutdown has begun, buffered mode writes results straight
+     * through instead.
+     */
+    public void enqueue(HealthCheck healthCheck) {
+        if (probeJournal.isEnabled()) {
+            probeJournal.append(healthCheck);
+            return;
+        }
+        enqueuedCount.incrementAndGet();
+        if (!running) {
+            writeWithRetry(new ArrayList<>(List.of(healthCheck)));
+            return;
+        }
+        if (!buffer.offer(healthCheck)) {
+            backpressureCounter.increment();
+            try {
+                buffer.put(healthCheck);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to buffer health check", e);
+            }
+        }
+    }
+    
+    /**
+     * Waits until every result handed to {@link #enqueue} so far is in the store, or was dropped
+     * after failing every retry.
+     *
+     * @return false if that did not happen within the timeout
+     */
+    public boolean awaitWritten(long timeoutMs) throws InterruptedException {
+        boolean journal = probeJournal.isEnabled();
+        long target = journal ? probeJournal.getAppendedSequence() : enqueuedCount.get();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while ((journal ? probeJournal.getAppliedSequence() : settledCount.get()) < target) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            Thread.sleep(Math.min(remaining, 10));
+        }
+        return true;
+    }
+    
+    /**
+     * How far the store has been written: the checks it holds up to {@code maxId} and, with the
+     * journal, the records applied up to {@code journalSequence}.
+     */
+    public record WritePosition(long maxId, Long journalSequence) {
+        
+        /**
+         * Whether a check handed to {@link #enqueue} was in the store at this position.
+         */
+        public boolean covers(HealthCheck healthCheck) {
+            if (journalSequence != null) {
+                return healthCheck.getJournalSequence() != null && healthCheck.getJournalSequence() <= journalSequence;
+            }
+            return healthCheck.getId() != null && healthCheck.getId() <= maxId;
+        }
+    }
+    
+    /**
+     * The current position, read while no batch is being written.
+     */
+    public WritePosition currentPosition() {
+        synchronized (writeMonitor) {
+            return new WritePosition(healthCheckStore.maxId(),
+                    probeJournal.isEnabled() ? probeJournal.getAppliedSequence() : null);
+        }
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        if (probeJournal.isEnabled()) {
+            // Fix the sequence numbering now; results appended before the replay are replayed too
+            replayCheckpoint = checkpointRepository.findById(JournalCheckpoint.SINGLETON_ID)
+                    .map(JournalCheckpoint::getAppliedSequence)
+                    .orElse(0L);
+            probeJournal.ensureSequenceAfter(replayCheckpoint);
+            probeJournal.markApplied(replayCheckpoint);
+            return;
+        }
+        writerThread = new Thread(this::runWriter, "health-check-writer");
+        writerThread.start();
+    }
+    
+    /**
+     * Replays the journal and starts tailing it. Runs first among the ready listeners, since the
+     * stats rebuild and rollup backfill read what the replay writes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady() {
+        if (!probeJournal.isEnabled() || !running) {
+            return;
+        }
+        replayJournal();
+        writerThread = new Thread(this::runJournalWriter, "health-check-writer");
+        writerThread.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything that slipped in while the writer was exiting is written directly
+        List<HealthCheck> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeWithRetry(remaining);
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void runWriter() {
+        List<HealthCheck> batch = new ArrayList<>(batchSize);
+        
+        while (running || !buffer.isEmpty()) {
+            try {
+                HealthCheck first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    HealthCheck next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    writeWithRetry(batch);
+                }
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        logger.info("Health check writer stopped");
+    }
+    
+    private void replayJournal() {
+        long start = System.currentTimeMillis();
+        long replayFrom = healthCheckStore.isDurable() ? replayCheckpoint : 0L;
+        journalCursor = probeJournal.cursorAfter(replayFrom);
+        
+        long replayed = 0;
+        List<JournalRecord> batch;
+        try {
+            while (running && !(batch = probeJournal.read(journalCursor, replayBatchSize)).isEmpty()) {
+                if (writeJournalBatch(batch, replayCheckpoint)) {
+                    replayed += batch.size();
+                } else {
+                    rewindAndBackOff(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Replayed {} journal records after sequence {} into the health check store in {}ms",
+                   replayed, replayFrom, System.currentTimeMillis() - start);
+    }
+    
+    private void runJournalWriter() {
+        List<JournalRecord> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        
+        while (running) {
+            try {
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                batch.addAll(probeJournal.read(journalCursor, batchSize));
+                while (batch.size() < batchSize && running) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    probeJournal.awaitSync(remaining);
+                    batch.addAll(probeJournal.read(journalCursor, batchSize - batch.size()));
+                }
+                if (!batch.isEmpty() && !writeJournalBatch(batch, 0L)) {
+                    rewindAndBackOff(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        logger.info("Health check journal writer stopped at sequence {}", journalCursor.getLastSequence());
+    }
+    
+    /**
+     * Writes the records to the store; only records after {@code appliedSequence} are folded
+     * into the rollups and advance the checkpoint.
+     *
+     * @return false if the transaction failed and nothing was written
+     */
+    private boolean writeJournalBatch(List<JournalRecord> records, long appliedSequence) {
+        long lastSequence = records.get(records.size() - 1).sequence();
+        long start = System.nanoTime();
+        synchronized (writeMonitor) {
+            try {
+                Integer written = transactionTemplate.execute(status -> {
+                    Set<Long> endpointIds = new HashSet<>(apiEndpointRepository.findAllIds());
+                    List<HealthCheck> batch = new ArrayList<>(records.size());
+                    List<HealthCheck> unapplied = new ArrayList<>(records.size());
+                    for (JournalRecord record : records) {
+                        if (endpointIds.contains(record.endpointId())) {
+                            HealthCheck healthCheck = toHealthCheck(record);
+                            batch.add(healthCheck);
+                            if (record.sequence() > appliedSequence) {
+                                unapplied.add(healthCheck);
+                            }
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        errorMessageDictionary.internAll(batch);
+                        healthCheckStore.saveAll(batch);
+                        rollupService.apply(unapplied);
+                    }
+                    if (lastSequence > appliedSequence) {
+                        checkpointRepository.save(new JournalCheckpoint(lastSequence));
+                    }
+                    return batch.size();
+                });
+                if (lastSequence > appliedSequence) {
+                    probeJournal.markApplied(lastSequence);
+                }
+                batchSizeSummary.record(written != null ? written : 0);
+                retryDelayMs = retryBackoffMs;
+                return true;
+            } catch (Exception e) {
+                logger.error("Failed to write {} journal records up to sequence {}, retrying in {}ms: {}",
+                           records.size(), lastSequence, retryDelayMs, e.getMessage());
+                return false;
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+    
+    /**
+     * Moves the cursor back to the first record of a batch that failed to write, so it is read
+     * again, and waits out the backoff, which doubles with each consecutive failure.
+     */
+    private void rewindAndBackOff(List<JournalRecord> records) throws InterruptedException {
+        journalCursor = probeJournal.cursorAfter(records.get(0).sequence() - 1);
+        sleepWhileRunning(retryDelayMs);
+        retryDelayMs = Math.min(retryDelayMs * 2, retryBackoffMaxMs);
+    }
+    
+    private void sleepWhileRunning(long delayMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + delayMs;
+        long remaining;
+        while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            // Sleep in slices so shutdown is not held up by a long backoff
+            Thread.sleep(Math.min(remaining, flushIntervalMs));
+        }
+    }
+    
+    private HealthCheck toHealthCheck(JournalRecord record) {
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setApiEndpoint(apiEndpointRepository.getReferenceById(record.endpointId()));
+        healthCheck.setCheckedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.checkedAtMillis()), ZoneOffset.UTC));
+        healthCheck.setStatusCode(record.statusCode());
+        healthCheck.setResponseTimeMs(record.responseTimeMs());
+        healthCheck.setIsSuccessful(record.successful());
+        healthCheck.setFailureClass(record.failureClass());
+        healthCheck.setErrorMessage(record.errorMessage());
+        healthCheck.setConnectionReused(record.connectionReused());
+        record.applyPhasesTo(healthCheck);
+        return healthCheck;
+    }
+    
+    /**
+     * Writes a buffered batch, retrying with exponential backoff. Retries stop once shutdown has
+     * begun or the thread is interrupted, so stopping is not held up; a batch that is still not
+     * written is dropped and counted.
+     */
+    private void writeWithRetry(List<HealthCheck> batch) {
+        long delayMs = retryBackoffMs;
+        for (int attempt = 1; !write(batch, delayMs); attempt++) {
+            if (attempt > maxRetries || !running || Thread.currentThread().isInterrupted()) {
+                droppedCounter.increment(batch.size());
+                settledCount.addAndGet(batch.size());
+                logger.error("Dropped batch of {} health checks after {} failed attempts", batch.size(), attempt);
+                return;
+            }
+            try {
+                sleepWhileRunning(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delayMs = Math.min(delayMs * 2, retryBackoffMaxMs);
+        }
+        settledCount.addAndGet(batch.size());
+    }
+    
+    /**
+     * @return false if the transaction failed and nothing was written
+     */
+    private boolean write(List<HealthCheck> batch, long retryDelayMs) {
+        long start = System.nanoTime();
+        synchronized (writeMonitor) {
+            try {
+                errorMessageDictionary.internAll(batch);
+                Integer written = transactionTemplate.execute(status -> {
+                    // Checks of an endpoint deleted after they were buffered would fail the foreign key
+                    Set<Long> endpointIds = new HashSet<>(apiEndpointRepository.findAllIds());
+                    List<HealthCheck> existing = new ArrayList<>(batch.size());
+                    for (HealthCheck healthCheck : batch) {
+                        if (endpointIds.contains(healthCheck.getApiEndpoint().getId())) {
+                            existing.add(healthCheck);
+                        }
+                    }
+                    if (!existing.isEmpty()) {
+                        healthCheckStore.saveAll(existing);
+                        rollupService.apply(existing);
+                    }
+                    return existing.size();
+                });
+                batchSizeSummary.record(written != null ? written : 0);
+                return true;
+            } catch (Exception e) {
+                // Ids handed out by the rolled back attempt are not in the database
+                batch.forEach(healthCheck -> healthCheck.setId(null));
+                logger.error("Failed to write batch of {} health checks, retrying in {}ms: {}",
+                           batch.size(), retryDelayMs, e.getMessage());
+                return false;
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.EndpointUpdate;
+import com.example.apimonitoring.dto.MonitoringStats;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes per-endpoint updates to dashboard clients over Server-Sent Events.
+ * <p>
+ * Recorded checks only mark their endpoint dirty. Every {@code monitoring.stream.flush-interval-ms}
+ * the dirty endpoints are turned into {@link EndpointUpdate}s, serialized once, and offered to each
+ * subscriber. A subscriber's pending updates are keyed by endpoint, so a slow client gets the
+ * newest update per endpoint instead of an ever-growing backlog. Each subscriber, heartbeats
+ * included, has at most one send in progress on the sender pool, and a subscriber whose send
+ * blocks for longer than {@code monitoring.stream.send-timeout-ms} is dropped and its sender
+ * interrupted, so stalled connections cannot tie up the pool.
+ */
+@Service
+public class MonitoringStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MonitoringStreamService.class);
+    
+    private final ApiEndpointService apiEndpointService;
+    private final EndpointStatsAggregator endpointStatsAggregator;
+    private final AdaptiveIntervalPolicy adaptiveIntervalPolicy;
+    private final ObjectMapper objectMapper;
+    private final long flushIntervalMs;
+    private final long heartbeatIntervalMs;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+    
+    private final Map<Long, ApiEndpoint> dirtyEndpoints = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private ScheduledExecutorService flusher;
+    private ExecutorService senders;
+    
+    @Autowired
+    public MonitoringStreamService(ApiEndpointService apiEndpointService,
+                                   EndpointStatsAggregator endpointStatsAggregator,
+                                   AdaptiveIntervalPolicy adaptiveIntervalPolicy,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${monitoring.stream.flush-interval-ms:1000}") long flushIntervalMs,
+                                   @Value("${monitoring.stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                   @Value("${monitoring.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                   @Value("${monitoring.stream.sender-threads:4}") int senderThreads) {
+        this.apiEndpointService = apiEndpointService;
+        this.endpointStatsAggregator = endpointStatsAggregator;
+        this.adaptiveIntervalPolicy = adaptiveIntervalPolicy;
+        this.objectMapper = objectMapper;
+        this.flushIntervalMs = flushIntervalMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.senderThreads = senderThreads;
+        Gauge.builder("monitoring.stream.subscribers", subscribers, Set::size)
+                .description("Open dashboard event streams")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-stream-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::dropStalledSubscribers, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    /**
+     * Opens a stream for a new client. The first event is a {@code snapshot} with the stats of
+     * every endpoint; {@code update} events follow as probes complete.
+     * <p>
+     * The subscriber is registered before the snapshot is built, so checks recorded meanwhile are
+     * not lost between the two. It is marked as sending until the snapshot is out, which holds
+     * those updates back until after it.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        
+        subscriber.sending.set(true);
+        subscribers.add(subscriber);
+        try {
+            List<MonitoringStats> snapshot = new ArrayList<>();
+            for (ApiEndpoint endpoint : apiEndpointService.getAllEndpoints()) {
+                snapshot.add(statsFor(endpoint));
+            }
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+            return emitter;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Updates flushed while the snapshot was being sent
+        scheduleSend(subscriber);
+        return emitter;
+    }
+    
+    public void publish(HealthCheck healthCheck) {
+        if (!subscribers.isEmpty()) {
+            ApiEndpoint endpoint = healthCheck.getApiEndpoint();
+            dirtyEndpoints.put(endpoint.getId(), endpoint);
+        }
+    }
+    
+    void flush() {
+        try {
+            if (dirtyEndpoints.isEmpty()) {
+                return;
+            }
+            
+            Iterator<ApiEndpoint> iterator = dirtyEndpoints.values().iterator();
+            while (iterator.hasNext()) {
+                ApiEndpoint endpoint = iterator.next();
+                iterator.remove();
+                String json = objectMapper.writeValueAsString(new EndpointUpdate(statsFor(endpoint)));
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.pending.put(endpoint.getId(), json);
+                }
+            }
+            subscribers.forEach(this::scheduleSend);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize monitoring update: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error flushing monitoring updates: {}", e.getMessage());
+        }
+    }
+    
+    // The same interval the stats API reports
+    private MonitoringStats statsFor(ApiEndpoint endpoint) {
+        MonitoringStats stats = endpointStatsAggregator.statsFor(endpoint);
+        stats.setEffectiveCheckIntervalMs(adaptiveIntervalPolicy.effectiveIntervalFor(endpoint));
+        return stats;
+    }
+    
+    // A subscriber with a send in progress does not need a keep-alive
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> {
+                    try {
+                        send(subscriber, SseEmitter.event().comment("heartbeat"));
+                    } catch (Exception e) {
+                        drop(subscriber);
+                        return;
+                    } finally {
+                        subscriber.sending.set(false);
+                    }
+                    // Updates that arrived while the heartbeat was being sent
+                    scheduleSend(subscriber);
+                });
+            }
+        }
+    }
+    
+    /**
+     * Drops subscribers whose current send has been blocked longer than the send timeout and
+     * interrupts the sender, which completes the emitter once the write gives up.
+     */
+    void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                if (subscriber.sender != null && now - subscriber.sendStartedNanos > sendTimeoutNanos) {
+                    logger.warn("Dropping monitoring stream subscriber whose send has been blocked for over {} ms",
+                            TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                    subscribers.remove(subscriber);
+                    subscriber.sender.interrupt();
+                }
+            }
+        }
+    }
+    
+    private void scheduleSend(Subscriber subscriber) {
+        if (!subscriber.pending.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            Iterator<Map.Entry<Long, String>> iterator = subscriber.pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                String json = iterator.next().getValue();
+                iterator.remove();
+                send(subscriber, SseEmitter.event().name("update").data(json, MediaType.APPLICATION_JSON));
+            }
+        } catch (Exception e) {
+            drop(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Updates that arrived while this send was running
+        scheduleSend(subscriber);
+    }
+    
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+            subscriber.sendStartedNanos = System.nanoTime();
+        }
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            synchronized (subscriber) {
+                subscriber.sender = null;
+                // An interrupt for this send must not leak into the next task on this thread
+                Thread.interrupted();
+            }
+        }
+        if (!subscribers.contains(subscriber)) {
+            throw new IOException("Send outlasted the send timeout");
+        }
+    }
+    
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.emitter.complete();
+    }
+    
+    private static final class Subscriber {
+        
+        final SseEmitter emitter;
+        final Map<Long, String> pending = new ConcurrentHashMap<>(); // Latest update per endpoint
+        final AtomicBoolean sending = new AtomicBoolean();
+        // Thread blocked in the current send and when it started, guarded by this
+        Thread sender;
+        long sendStartedNanos;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
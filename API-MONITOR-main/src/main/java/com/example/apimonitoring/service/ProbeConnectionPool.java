@@ -0,0 +1,396 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.ConnectionPoolStatus;
+import com.example.apimonitoring.model.ApiEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.util.AttributeKey;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.netty.Connection;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The probes' connection layer: one reactor-netty pool per host, so endpoints on a shared host
+ * reuse each other's keep-alive connections instead of paying a TCP and TLS handshake per check.
+ * <p>
+ * Idle connections are kept slightly longer than the longest active check interval (capped
+ * below common server keep-alive timeouts), so consecutive probes of an endpoint normally find
+ * a warm connection. The limit is recomputed whenever an endpoint changes. Each probe records
+ * whether its request went out on a reused connection and how long acquiring it took, per host
+ * and per outcome.
+ * <p>
+ * With {@code monitoring.probe.phase-timing} on, reactor-netty's timings for DNS, connect, TLS
+ * and the exchange are also routed to each probe's {@link ProbeTrace}, for endpoints that have
+ * phase timing enabled.
+ * <p>
+ * Endpoints with {@code probeProtocol} {@value ApiEndpoint#PROTOCOL_HTTP2} use a second set of
+ * pools that negotiate HTTP/2 (h2 through ALPN, h2c through an upgrade) and fall back to HTTP/1.1
+ * when the server declines. Negotiated connections carry up to
+ * {@code monitoring.probe.http2.max-concurrent-streams} probes at once, so due probes for a host
+ * share {@code monitoring.probe.http2.max-connections-per-host} connections instead of each
+ * taking one.
+ */
+@Service
+public class ProbeConnectionPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeConnectionPool.class);
+    
+    private static final String POOL_NAME = "probes";
+    private static final String HTTP2_POOL_NAME = "probes-h2";
+    // Set on a channel by its first request; any later request on it is a reuse
+    private static final AttributeKey<Boolean> USED = AttributeKey.valueOf("probe.connection.used");
+    
+    private final EndpointRegistry endpointRegistry;
+    private final MeterRegistry meterRegistry;
+    private final long defaultIntervalMs;
+    private final int maxConnectionsPerHost;
+    private final long configuredMaxIdleMs;
+    private final long maxIdleCapMs;
+    private final long maxLifeMs;
+    private final boolean phaseTiming;
+    private final boolean http2Enabled;
+    private final int http2MaxConnectionsPerHost;
+    private final ConnectionProvider connectionProvider;
+    private final ConnectionProvider http2ConnectionProvider;
+    private final Map<String, HostPool> hosts = new ConcurrentHashMap<>();
+    private final Counter preconnectCounter;
+    
+    private volatile long maxIdleMs;
+    
+    @Autowired
+    public ProbeConnectionPool(EndpointRegistry endpointRegistry,
+                               MeterRegistry meterRegistry,
+                               @Value("${monitoring.check-interval:30000}") long defaultIntervalMs,
+                               @Value("${monitoring.probe.pool.max-connections-per-host:8}") int maxConnectionsPerHost,
+                               @Value("${monitoring.probe.pool.pending-acquire-max:64}") int pendingAcquireMax,
+                               @Value("${monitoring.probe.pool.pending-acquire-timeout-ms:10000}") long pendingAcquireTimeoutMs,
+                               @Value("${monitoring.probe.pool.max-idle-ms:0}") long maxIdleMs,
+                               @Value("${monitoring.probe.pool.max-idle-cap-ms:55000}") long maxIdleCapMs,
+                               @Value("${monitoring.probe.pool.max-life-ms:600000}") long maxLifeMs,
+                               @Value("${monitoring.probe.pool.eviction-interval-ms:5000}") long evictionIntervalMs,
+                               @Value("${monitoring.probe.phase-timing:true}") boolean phaseTiming,
+                               @Value("${monitoring.probe.http2.enabled:true}") boolean http2Enabled,
+                               @Value("${monitoring.probe.http2.max-connections-per-host:1}") int http2MaxConnectionsPerHost,
+                               @Value("${monitoring.probe.http2.max-concurrent-streams:100}") long http2MaxConcurrentStreams) {
+        this.endpointRegistry = endpointRegistry;
+        this.meterRegistry = meterRegistry;
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.configuredMaxIdleMs = maxIdleMs;
+        this.maxIdleCapMs = maxIdleCapMs;
+        this.maxLifeMs = maxLifeMs;
+        this.phaseTiming = phaseTiming;
+        this.http2Enabled = http2Enabled;
+        this.http2MaxConnectionsPerHost = http2MaxConnectionsPerHost;
+        this.maxIdleMs = currentMaxIdleMs();
+        this.preconnectCounter = Counter.builder("monitoring.probe.pool.preconnects")
+                .description("Connections opened ahead of a due probe")
+                .register(meterRegistry);
+        
+        // Last in, first out, so the pool keeps as few connections warm as the load needs. The
+        // eviction predicate stands in for maxIdleTime, which would fix the idle limit for good.
+        this.connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .evictionPredicate(this::isExpired)
+                .evictInBackground(Duration.ofMillis(evictionIntervalMs))
+                .lifo()
+                .metrics(true, () -> (poolName, id, remoteAddress, metrics) ->
+                        registerPool(false, remoteAddress, metrics))
+                .build();
+        this.http2ConnectionProvider = ConnectionProvider.builder(HTTP2_POOL_NAME)
+                .allocationStrategy(Http2AllocationStrategy.builder()
+                        .minConnections(0)
+                        .maxConnections(http2MaxConnectionsPerHost)
+                        .maxConcurrentStreams(http2MaxConcurrentStreams)
+                        .build())
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .evictionPredicate(this::isExpired)
+                .evictInBackground(Duration.ofMillis(evictionIntervalMs))
+                .metrics(true, () -> (poolName, id, remoteAddress, metrics) ->
+                        registerPool(true, remoteAddress, metrics))
+                .build();
+        logger.info("Probe connection pool: {} connections per host, idle connections kept {}ms, HTTP/2 {}",
+                maxConnectionsPerHost, this.maxIdleMs,
+                http2Enabled ? http2MaxConnectionsPerHost + " connections per host x " + http2MaxConcurrentStreams + " streams" : "disabled");
+    }
+    
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+        http2ConnectionProvider.dispose();
+    }
+    
+    // Runs after the registry listener, so the active endpoints include the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEndpointChanged(EndpointChangedEvent event) {
+        long updated = currentMaxIdleMs();
+        if (updated != maxIdleMs) {
+            maxIdleMs = updated;
+            logger.info("Idle probe connections now kept {}ms", updated);
+        }
+    }
+    
+    private long currentMaxIdleMs() {
+        return configuredMaxIdleMs > 0
+                ? configuredMaxIdleMs
+                : keepAliveFor(endpointRegistry.getActiveEndpoints(), defaultIntervalMs, maxIdleCapMs);
+    }
+    
+    private boolean isExpired(Connection connection, ConnectionProvider.ConnectionMetadata metadata) {
+        return metadata.idleTime() >= maxIdleMs || metadata.lifeTime() >= maxLifeMs;
+    }
+    
+    /**
+     * Long enough for the slowest active endpoint to find its previous connection still open,
+     * but not past {@code capMs}, after which servers tend to close idle connections themselves.
+     */
+    static long keepAliveFor(List<ApiEndpoint> endpoints, long defaultIntervalMs, long capMs) {
+        long longest = defaultIntervalMs;
+        for (ApiEndpoint endpoint : endpoints) {
+            Long intervalMs = endpoint.getCheckIntervalMs();
+            longest = Math.max(longest, intervalMs != null && intervalMs > 0 ? intervalMs : defaultIntervalMs);
+        }
+        return Math.min(longest + longest / 4, capMs);
+    }
+    
+    /**
+     * Pools {@code httpClient}'s connections here and fills in the {@link ProbeTrace} of probes
+     * subscribed with {@link #track(ApiEndpoint)}'s context.
+     */
+    public HttpClient configure(HttpClient httpClient) {
+        HttpClient configured = httpClient
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .doOnRequest(this::onRequest)
+                .doOnResponse(this::onResponse);
+        if (!phaseTiming) {
+            return configured;
+        }
+        return configured
+                .metrics(true, () -> ProbePhaseRecorder.INSTANCE)
+                .doOnResolve(ProbePhaseRecorder::resolveStarted)
+                .doAfterResolve((connection, address) -> ProbePhaseRecorder.resolveFinished(connection))
+                .doOnResolveError((connection, error) -> ProbePhaseRecorder.resolveFinished(connection));
+    }
+    
+    /**
+     * {@link #configure(HttpClient)} plus HTTP/2 negotiation with HTTP/1.1 fallback, for a client
+     * created on {@link #getHttp2ConnectionProvider()}.
+     */
+    public HttpClient configureHttp2(HttpClient httpClient) {
+        return configure(httpClient).protocol(HttpProtocol.HTTP11, HttpProtocol.H2, HttpProtocol.H2C);
+    }
+    
+    public ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+    
+    public ConnectionProvider getHttp2ConnectionProvider() {
+        return http2ConnectionProvider;
+    }
+    
+    /**
+     * Whether the endpoint's probes go through the HTTP/2 client.
+     */
+    public boolean usesHttp2(ApiEndpoint endpoint) {
+        return http2Enabled && ApiEndpoint.PROTOCOL_HTTP2.equalsIgnoreCase(endpoint.getProbeProtocol());
+    }
+    
+    public long getMaxIdleMs() {
+        return maxIdleMs;
+    }
+    
+    /**
+     * Starts tracking one probe; put {@link ProbeTrace#context()} on its request.
+     */
+    public ProbeTrace track(ApiEndpoint endpoint) {
+        return new ProbeTrace(hostOf(endpoint.getUrl()), usesHttp2(endpoint),
+                phaseTiming && !Boolean.FALSE.equals(endpoint.getPhaseTimingEnabled()));
+    }
+    
+    public int idleConnections(ApiEndpoint endpoint) {
+        HostPool pool = hosts.get(poolKey(usesHttp2(endpoint), hostOf(endpoint.getUrl())));
+        return pool != null && pool.metrics != null ? pool.metrics.idleSize() : 0;
+    }
+    
+    public void recordPreconnect() {
+        preconnectCounter.increment();
+    }
+    
+    public List<ConnectionPoolStatus> getStatus() {
+        return hosts.values().stream()
+                .map(HostPool::toStatus)
+                .sorted(Comparator.comparing(ConnectionPoolStatus::getHost).thenComparing(ConnectionPoolStatus::getProtocol))
+                .toList();
+    }
+    
+    private void onRequest(HttpClientRequest request, Connection connection) {
+        boolean reused = connectionOf(connection).attr(USED).getAndSet(Boolean.TRUE) != null;
+        ProbeTrace trace = ProbeTrace.from(request.currentContextView());
+        if (trace != null) {
+            trace.reused = reused;
+            hostPool(trace.http2, trace.host).acquireTimer(reused).record(trace.elapsedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Counted on the response, since an h2c upgrade request leaves as HTTP/1.1 and is answered over HTTP/2
+    private void onResponse(HttpClientResponse response, Connection connection) {
+        ProbeTrace trace = ProbeTrace.from(response.currentContextView());
+        if (trace != null && trace.http2) {
+            HostPool pool = hostPool(true, trace.host);
+            boolean negotiated = connectionOf(connection).pipeline().get(Http2FrameCodec.class) != null;
+            (negotiated ? pool.multiplexedRequests : pool.fallbackRequests).increment();
+        }
+    }
+    
+    // An HTTP/2 request runs on a stream channel whose parent is the connection
+    private static Channel connectionOf(Connection connection) {
+        Channel channel = connection.channel();
+        return channel instanceof Http2StreamChannel ? channel.parent() : channel;
+    }
+    
+    private void registerPool(boolean http2, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        String host = hostOf(remoteAddress);
+        String protocol = protocolOf(http2);
+        hostPool(http2, host).metrics = metrics;
+        Gauge.builder("monitoring.probe.pool.connections", metrics, ConnectionPoolMetrics::acquiredSize)
+                .tag("host", host).tag("protocol", protocol).tag("state", "active").register(meterRegistry);
+        Gauge.builder("monitoring.probe.pool.connections", metrics, ConnectionPoolMetrics::idleSize)
+                .tag("host", host).tag("protocol", protocol).tag("state", "idle").register(meterRegistry);
+        Gauge.builder("monitoring.probe.pool.pending", metrics, ConnectionPoolMetrics::pendingAcquireSize)
+                .description("Probes waiting for a connection")
+                .tag("host", host).tag("protocol", protocol).register(meterRegistry);
+        logger.debug("Opened {} probe connection pool for {}", protocol, host);
+    }
+    
+    private HostPool hostPool(boolean http2, String host) {
+        return hosts.computeIfAbsent(poolKey(http2, host), key -> new HostPool(http2, host));
+    }
+    
+    private static String poolKey(boolean http2, String host) {
+        return http2 ? ApiEndpoint.PROTOCOL_HTTP2 + " " + host : host;
+    }
+    
+    private static String protocolOf(boolean http2) {
+        return http2 ? ApiEndpoint.PROTOCOL_HTTP2 : ApiEndpoint.PROTOCOL_HTTP1;
+    }
+    
+    static String hostOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            int port = uri.getPort();
+            if (port < 0) {
+                port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+            }
+            return uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) + ":" + port : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+    
+    private static String hostOf(SocketAddress address) {
+        if (address instanceof InetSocketAddress inetAddress) {
+            return inetAddress.getHostString().toLowerCase(Locale.ROOT) + ":" + inetAddress.getPort();
+        }
+        return String.valueOf(address);
+    }
+    
+    private final class HostPool {
+        
+        private final boolean http2;
+        private final String host;
+        private final Timer reusedAcquireTimer;
+        private final Timer newConnectionAcquireTimer;
+        // HTTP/2 pools only: requests sent as streams vs. over a connection that fell back to HTTP/1.1
+        private final Counter multiplexedRequests;
+        private final Counter fallbackRequests;
+        private volatile ConnectionPoolMetrics metrics;
+        
+        HostPool(boolean http2, String host) {
+            this.http2 = http2;
+            this.host = host;
+            this.reusedAcquireTimer = newAcquireTimer(true);
+            this.newConnectionAcquireTimer = newAcquireTimer(false);
+            this.multiplexedRequests = http2 ? newRequestCounter(true) : null;
+            this.fallbackRequests = http2 ? newRequestCounter(false) : null;
+        }
+        
+        private Timer newAcquireTimer(boolean reused) {
+            return Timer.builder("monitoring.probe.connection.acquire")
+                    .description("Time from probe start until its request is sent on a connection")
+                    .tag("host", host)
+                    .tag("protocol", protocolOf(http2))
+                    .tag("reused", Boolean.toString(reused))
+                    .register(meterRegistry);
+        }
+        
+        private Counter newRequestCounter(boolean multiplexed) {
+            return Counter.builder("monitoring.probe.http2.requests")
+                    .description("Probes on the HTTP/2 client, by whether the host negotiated HTTP/2")
+                    .tag("host", host)
+                    .tag("negotiated", multiplexed ? "h2" : "http/1.1")
+                    .register(meterRegistry);
+        }
+        
+        Timer acquireTimer(boolean reused) {
+            return reused ? reusedAcquireTimer : newConnectionAcquireTimer;
+        }
+        
+        ConnectionPoolStatus toStatus() {
+            ConnectionPoolStatus status = new ConnectionPoolStatus(host, http2 ? http2MaxConnectionsPerHost : maxConnectionsPerHost);
+            status.setProtocol(protocolOf(http2));
+            ConnectionPoolMetrics current = metrics;
+            if (current != null) {
+                status.setActiveConnections(current.acquiredSize());
+                status.setIdleConnections(current.idleSize());
+                status.setAllocatedConnections(current.allocatedSize());
+                status.setPendingAcquires(current.pendingAcquireSize());
+            }
+            status.setReusedAcquires(reusedAcquireTimer.count());
+            status.setNewConnectionAcquires(newConnectionAcquireTimer.count());
+            if (reusedAcquireTimer.count() > 0) {
+                status.setMeanReusedAcquireMs(reusedAcquireTimer.mean(TimeUnit.MILLISECONDS));
+            }
+            if (newConnectionAcquireTimer.count() > 0) {
+                status.setMeanNewConnectionAcquireMs(newConnectionAcquireTimer.mean(TimeUnit.MILLISECONDS));
+            }
+            if (http2) {
+                status.setMultiplexedRequests((long) multiplexedRequests.count());
+                status.setFallbackRequests((long) fallbackRequests.count());
+            }
+            return status;
+        }
+    }
+}
\ No newline at end of file
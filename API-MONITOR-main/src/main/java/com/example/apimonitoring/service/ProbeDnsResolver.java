@@ -0,0 +1,367 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.DnsCacheStatus;
+import com.example.apimonitoring.model.ApiEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.EventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsCacheEntry;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
+import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves probe hostnames with netty's non-blocking DNS client instead of the JVM resolver,
+ * which blocks a thread per lookup and caches for a TTL the application does not control.
+ * <p>
+ * Answers are cached for their record TTL, clamped to {@code monitoring.probe.dns.min-ttl-seconds}
+ * and {@code max-ttl-seconds}; failed lookups are cached for {@code negative-ttl-seconds} so a
+ * dead hostname does not cost a query per probe. The cache holds at most {@code max-hosts}
+ * hostnames and drops the least recently used one beyond that. Queries run on a dedicated event
+ * loop and are timed as the probe's {@link com.example.apimonitoring.model.ProbePhase#DNS} phase.
+ * <p>
+ * Active endpoints' hostnames are resolved at startup and whenever an endpoint is saved, so
+ * first probes do not pay for a cold cache.
+ */
+@Service
+public class ProbeDnsResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeDnsResolver.class);
+    
+    private final EndpointRegistry endpointRegistry;
+    private final boolean enabled;
+    private final boolean warmup;
+    private final int maxHosts;
+    private final int minTtlSeconds;
+    private final int maxTtlSeconds;
+    private final int negativeTtlSeconds;
+    private final List<InetSocketAddress> nameServers;
+    private final Counter hitCounter;
+    private final Counter negativeHitCounter;
+    private final Counter missCounter;
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicInteger warmedHosts = new AtomicInteger();
+    private final AtomicInteger warmupFailures = new AtomicInteger();
+    
+    private final BoundedDnsCache cache;
+    private final NioEventLoopGroup dnsLoop;
+    private final DnsAddressResolverGroup resolverGroup;
+    
+    @Autowired
+    public ProbeDnsResolver(EndpointRegistry endpointRegistry,
+                            MeterRegistry meterRegistry,
+                            @Value("${monitoring.probe.dns.enabled:true}") boolean enabled,
+                            @Value("${monitoring.probe.dns.warmup:true}") boolean warmup,
+                            @Value("${monitoring.probe.dns.max-hosts:1024}") int maxHosts,
+                            @Value("${monitoring.probe.dns.min-ttl-seconds:0}") int minTtlSeconds,
+                            @Value("${monitoring.probe.dns.max-ttl-seconds:300}") int maxTtlSeconds,
+                            @Value("${monitoring.probe.dns.negative-ttl-seconds:10}") int negativeTtlSeconds,
+                            @Value("${monitoring.probe.dns.query-timeout-ms:2000}") long queryTimeoutMs,
+                            @Value("${monitoring.probe.dns.servers:}") List<String> servers) {
+        this.endpointRegistry = endpointRegistry;
+        this.enabled = enabled;
+        this.warmup = warmup;
+        this.maxHosts = maxHosts;
+        this.minTtlSeconds = minTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.negativeTtlSeconds = negativeTtlSeconds;
+        this.nameServers = parseServers(servers);
+        this.hitCounter = cacheCounter(meterRegistry, "hit");
+        this.negativeHitCounter = cacheCounter(meterRegistry, "negative-hit");
+        this.missCounter = cacheCounter(meterRegistry, "miss");
+        
+        if (!enabled) {
+            this.cache = null;
+            this.dnsLoop = null;
+            this.resolverGroup = null;
+            logger.info("Probe DNS cache disabled, probes use reactor-netty's default resolver");
+            return;
+        }
+        
+        this.cache = new BoundedDnsCache(new DefaultDnsCache(minTtlSeconds, maxTtlSeconds, negativeTtlSeconds));
+        Gauge.builder("monitoring.probe.dns.cache.hosts", cache, BoundedDnsCache::size)
+                .description("Hostnames held in the probe DNS cache")
+                .register(meterRegistry);
+        
+        this.dnsLoop = new NioEventLoopGroup(1, new DefaultThreadFactory("probe-dns", true));
+        DnsServerAddressStreamProvider serverProvider = nameServers.isEmpty()
+                ? DnsServerAddressStreamProviders.platformDefault()
+                : new SequentialDnsServerAddressStreamProvider(nameServers.toArray(new InetSocketAddress[0]));
+        // Every resolver the group hands out shares the cache and the event loop
+        this.resolverGroup = new DnsAddressResolverGroup(new DnsNameResolverBuilder()
+                .eventLoop((EventLoop) dnsLoop.next())
+                .channelType(NioDatagramChannel.class)
+                .nameServerProvider(serverProvider)
+                .resolveCache(cache)
+                .queryTimeoutMillis(queryTimeoutMs));
+        logger.info("Probe DNS cache: up to {} hosts, TTL {}-{}s, negative TTL {}s, name servers {}",
+                maxHosts, minTtlSeconds, maxTtlSeconds, negativeTtlSeconds,
+                nameServers.isEmpty() ? "from the platform" : nameServers);
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (resolverGroup != null) {
+            resolverGroup.close();
+            dnsLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+    
+    /**
+     * Resolves {@code httpClient}'s hostnames through the cache, unless it is disabled.
+     */
+    public HttpClient configure(HttpClient httpClient) {
+        return enabled ? httpClient.resolver(resolverGroup) : httpClient;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled && warmup) {
+            resolveAll(endpointRegistry.getActiveEndpoints());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEndpointChanged(EndpointChangedEvent event) {
+        if (enabled && warmup && event.endpoint() != null && Boolean.TRUE.equals(event.endpoint().getIsActive())) {
+            resolveAll(List.of(event.endpoint()));
+        }
+    }
+    
+    public DnsCacheStatus getStatus() {
+        DnsCacheStatus status = new DnsCacheStatus(enabled, maxHosts);
+        status.setCachedHosts(enabled ? cache.size() : 0);
+        status.setMinTtlSeconds(minTtlSeconds);
+        status.setMaxTtlSeconds(maxTtlSeconds);
+        status.setNegativeTtlSeconds(negativeTtlSeconds);
+        status.setNameServers(nameServers.stream().map(InetSocketAddress::toString).toList());
+        long hits = (long) hitCounter.count();
+        long negativeHits = (long) negativeHitCounter.count();
+        long misses = (long) missCounter.count();
+        status.setHits(hits);
+        status.setNegativeHits(negativeHits);
+        status.setMisses(misses);
+        long lookups = hits + negativeHits + misses;
+        if (lookups > 0) {
+            status.setHitRate((hits + negativeHits) * 100.0 / lookups);
+        }
+        status.setEvictions(evictions.get());
+        status.setWarmedHosts(warmedHosts.get());
+        status.setWarmupFailures(warmupFailures.get());
+        return status;
+    }
+    
+    private void resolveAll(Collection<ApiEndpoint> endpoints) {
+        Set<InetSocketAddress> addresses = new LinkedHashSet<>();
+        for (ApiEndpoint endpoint : endpoints) {
+            InetSocketAddress address = unresolvedAddressOf(endpoint.getUrl());
+            if (address != null) {
+                addresses.add(address);
+            }
+        }
+        if (addresses.isEmpty()) {
+            return;
+        }
+        
+        long startNanos = System.nanoTime();
+        AtomicInteger remaining = new AtomicInteger(addresses.size());
+        AtomicInteger failed = new AtomicInteger();
+        for (InetSocketAddress address : addresses) {
+            resolve(address).addListener(future -> {
+                if (future.isSuccess()) {
+                    warmedHosts.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                    warmupFailures.incrementAndGet();
+                    logger.debug("Could not pre-resolve {}: {}", address.getHostString(), future.cause().getMessage());
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    logger.info("Pre-resolved {} probe hosts in {}ms ({} failed)", addresses.size(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), failed.get());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Resolves an unresolved address through the cache, as a probe would.
+     */
+    Future<InetSocketAddress> resolve(InetSocketAddress address) {
+        AddressResolver<InetSocketAddress> resolver = resolverGroup.getResolver(dnsLoop.next());
+        return resolver.resolve(address);
+    }
+    
+    private static InetSocketAddress unresolvedAddressOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return null;
+            }
+            int port = uri.getPort() >= 0 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+            return InetSocketAddress.createUnresolved(uri.getHost(), port);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static List<InetSocketAddress> parseServers(List<String> servers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String server : servers) {
+            String trimmed = server.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon > 0 && trimmed.indexOf(':') == colon) {
+                addresses.add(new InetSocketAddress(trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1))));
+            } else {
+                addresses.add(new InetSocketAddress(trimmed, 53));
+            }
+        }
+        return addresses;
+    }
+    
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("monitoring.probe.dns.cache")
+                .description("Probe DNS cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * {@link DefaultDnsCache} with a bound on the number of hostnames. The delegate expires the
+     * entries; this tracks recency, so the least recently looked up hostname can be dropped, and
+     * when each hostname's last entry expires, so expired hostnames stop counting.
+     */
+    private final class BoundedDnsCache implements DnsCache {
+        
+        private final DnsCache delegate;
+        // Hostname to System.nanoTime() expiry of its longest-lived entry; access-ordered, guarded by itself
+        private final LinkedHashMap<String, Long> hostnames = new LinkedHashMap<>(16, 0.75f, true);
+        
+        BoundedDnsCache(DnsCache delegate) {
+            this.delegate = delegate;
+        }
+        
+        int size() {
+            synchronized (hostnames) {
+                pruneExpired();
+                return hostnames.size();
+            }
+        }
+        
+        @Override
+        public void clear() {
+            synchronized (hostnames) {
+                hostnames.clear();
+            }
+            delegate.clear();
+        }
+        
+        @Override
+        public boolean clear(String hostname) {
+            synchronized (hostnames) {
+                hostnames.remove(hostname);
+            }
+            return delegate.clear(hostname);
+        }
+        
+        @Override
+        public List<? extends DnsCacheEntry> get(String hostname, DnsRecord[] additionals) {
+            List<? extends DnsCacheEntry> entries = delegate.get(hostname, additionals);
+            if (entries == null || entries.isEmpty()) {
+                missCounter.increment();
+                synchronized (hostnames) {
+                    hostnames.remove(hostname);
+                }
+                return entries;
+            }
+            synchronized (hostnames) {
+                hostnames.get(hostname);
+            }
+            if (entries.get(0).cause() != null) {
+                negativeHitCounter.increment();
+            } else {
+                hitCounter.increment();
+            }
+            return entries;
+        }
+        
+        @Override
+        public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, InetAddress address, long originalTtl, EventLoop loop) {
+            // The TTL DefaultDnsCache applies
+            track(hostname, Math.max(minTtlSeconds, Math.min(maxTtlSeconds, originalTtl)));
+            return delegate.cache(hostname, additionals, address, originalTtl, loop);
+        }
+        
+        @Override
+        public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, Throwable cause, EventLoop loop) {
+            track(hostname, negativeTtlSeconds);
+            return delegate.cache(hostname, additionals, cause, loop);
+        }
+        
+        private void track(String hostname, long ttlSeconds) {
+            if (ttlSeconds <= 0) {
+                // Not cached by the delegate either
+                return;
+            }
+            long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            String eldest = null;
+            synchronized (hostnames) {
+                Long previous = hostnames.get(hostname);
+                hostnames.put(hostname, previous != null && previous - expiresAt > 0 ? previous : expiresAt);
+                pruneExpired();
+                if (hostnames.size() > maxHosts) {
+                    Map.Entry<String, Long> entry = hostnames.entrySet().iterator().next();
+                    eldest = entry.getKey();
+                    hostnames.remove(eldest);
+                }
+            }
+            if (eldest != null) {
+                delegate.clear(eldest);
+                evictions.incrementAndGet();
+            }
+        }
+        
+        // Caller holds the hostnames lock
+        private void pruneExpired() {
+            long now = System.nanoTime();
+            hostnames.values().removeIf(expiresAt -> expiresAt - now <= 0);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,393 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.ProbeEngineStatus;
+import com.example.apimonitoring.dto.ProbeTickResult;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fans out health check probes with a bounded concurrency, so a tick takes as long as its
+ * slowest endpoint rather than the sum of all of them.
+ * <p>
+ * Probes run either as non-blocking Reactor pipelines ({@code monitoring.executor=reactive}),
+ * one virtual thread per probe behind a semaphore ({@code virtual}), or one after another on the
+ * calling thread ({@code sequential}). In every mode results are persisted on a small bounded
+ * platform pool so probe parallelism never translates into database connection pressure.
+ * <p>
+ * With {@code monitoring.benchmark.enabled}, {@link #compareModes} runs one tick per mode against
+ * simulated probes to compare their tick latency and heap use.
+ */
+@Service
+public class ProbeEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeEngine.class);
+    
+    static final int MAX_COMPARISON_ENDPOINTS = 10_000;
+    static final Duration MAX_COMPARISON_LATENCY = Duration.ofSeconds(1);
+    
+    public enum Mode {
+        REACTIVE, VIRTUAL, SEQUENTIAL;
+        
+        static Mode fromProperty(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+    
+    private final HealthCheckService healthCheckService;
+    private final Mode mode;
+    private final int concurrency;
+    private final int virtualParallelism;
+    private final boolean benchmarkEnabled;
+    private final ProbeSteps liveSteps;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<Long> pendingEndpointIds = ConcurrentHashMap.newKeySet();
+    private final Sinks.Many<ApiEndpoint> submissions = Sinks.many().unicast().onBackpressureBuffer();
+    private final Semaphore virtualPermits;
+    private final ExecutorService virtualExecutor;
+    private final ExecutorService sequentialExecutor;
+    private final ThreadPoolExecutor persistenceExecutor;
+    private final Scheduler persistenceScheduler;
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final Timer tickTimer;
+    
+    private volatile ProbeTickResult lastTick;
+    private Disposable submissionPipeline;
+    
+    @Autowired
+    public ProbeEngine(HealthCheckService healthCheckService,
+                       MeterRegistry meterRegistry,
+                       @Value("${monitoring.executor:reactive}") String mode,
+                       @Value("${monitoring.probe.concurrency:64}") int concurrency,
+                       @Value("${monitoring.probe.virtual-parallelism:1024}") int virtualParallelism,
+                       @Value("${monitoring.probe.persistence-threads:4}") int persistenceThreads,
+                       @Value("${monitoring.benchmark.enabled:false}") boolean benchmarkEnabled) {
+        this.healthCheckService = healthCheckService;
+        this.mode = Mode.fromProperty(mode);
+        this.concurrency = concurrency;
+        this.virtualParallelism = virtualParallelism;
+        this.benchmarkEnabled = benchmarkEnabled;
+        this.liveSteps = new ProbeSteps(healthCheckService::probe, this::record);
+        this.virtualPermits = new Semaphore(virtualParallelism);
+        this.virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.sequentialExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "probe-sequential"));
+        this.persistenceExecutor = newPersistenceExecutor(persistenceThreads);
+        this.persistenceScheduler = Schedulers.fromExecutorService(persistenceExecutor, "probe-persistence");
+        this.tickTimer = Timer.builder("monitoring.tick.duration")
+                .description("Wall-clock time of one probe tick across all endpoints")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.probes.in-flight", inFlight, AtomicInteger::get)
+                .description("Probes currently awaiting a response")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        submissionPipeline = submissions.asFlux()
+            .flatMap(endpoint -> track(healthCheckService.probe(endpoint))
+                .doFinally(signal -> pendingEndpointIds.remove(endpoint.getId())), concurrency)
+            .publishOn(persistenceScheduler)
+            .subscribe(this::record);
+        logger.info("Probe engine started in {} mode", mode);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        submissions.tryEmitComplete();
+        if (submissionPipeline != null) {
+            submissionPipeline.dispose();
+        }
+        virtualExecutor.shutdownNow();
+        sequentialExecutor.shutdownNow();
+        persistenceScheduler.dispose();
+    }
+    
+    /**
+     * Queues a single probe without waiting for it. Submissions share the engine's concurrency
+     * limit; an endpoint whose previous probe is still queued or running is not submitted again.
+     *
+     * @return false if the endpoint already has a probe pending
+     */
+    public boolean submit(ApiEndpoint endpoint) {
+        if (!pendingEndpointIds.add(endpoint.getId())) {
+            return false;
+        }
+        
+        switch (mode) {
+            case REACTIVE -> submissions.emitNext(endpoint, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+            case VIRTUAL -> virtualExecutor.execute(() -> {
+                try {
+                    probeOnVirtualThread(endpoint, liveSteps, new TickCounters());
+                } finally {
+                    pendingEndpointIds.remove(endpoint.getId());
+                }
+            });
+            case SEQUENTIAL -> sequentialExecutor.execute(() -> {
+                try {
+                    probeSequentially(endpoint, liveSteps, new TickCounters());
+                } finally {
+                    pendingEndpointIds.remove(endpoint.getId());
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Probes all endpoints in the configured mode and persists each result as soon as it arrives.
+     * Blocks until the last probe has been recorded.
+     */
+    public ProbeTickResult runAll(List<ApiEndpoint> endpoints) {
+        return runAll(endpoints, mode);
+    }
+    
+    ProbeTickResult runAll(List<ApiEndpoint> endpoints, Mode runMode) {
+        ProbeTickResult result = runTick(endpoints, runMode, liveSteps);
+        tickTimer.record(result.getDurationMs(), TimeUnit.MILLISECONDS);
+        lastTick = result;
+        return result;
+    }
+    
+    public boolean isComparisonEnabled() {
+        return benchmarkEnabled;
+    }
+    
+    /**
+     * Runs one tick in each execution mode against {@code endpointCount} simulated endpoints whose
+     * probes answer after {@code probeLatency} without leaving the JVM. Nothing is recorded and
+     * the monitored endpoints are never contacted. The sequential run alone takes
+     * {@code endpointCount * probeLatency}.
+     *
+     * @throws IllegalStateException if benchmarks are not enabled
+     * @throws IllegalArgumentException if the endpoint count or latency is out of range
+     */
+    public List<ProbeTickResult> compareModes(int endpointCount, Duration probeLatency) {
+        if (!benchmarkEnabled) {
+            throw new IllegalStateException("Probe mode comparison is disabled (monitoring.benchmark.enabled)");
+        }
+        if (endpointCount < 1 || endpointCount > MAX_COMPARISON_ENDPOINTS) {
+            throw new IllegalArgumentException("endpoints must be between 1 and " + MAX_COMPARISON_ENDPOINTS);
+        }
+        if (probeLatency.isNegative() || probeLatency.compareTo(MAX_COMPARISON_LATENCY) > 0) {
+            throw new IllegalArgumentException("latency must be between 0 and " + MAX_COMPARISON_LATENCY.toMillis() + " ms");
+        }
+        
+        List<ApiEndpoint> endpoints = new ArrayList<>(endpointCount);
+        for (long id = 1; id <= endpointCount; id++) {
+            ApiEndpoint endpoint = new ApiEndpoint();
+            endpoint.setId(-id);
+            endpoint.setName("simulated-" + id);
+            endpoints.add(endpoint);
+        }
+        ProbeSteps simulated = new ProbeSteps(endpoint -> Mono.fromSupplier(() -> {
+            HealthCheck healthCheck = new HealthCheck(endpoint);
+            healthCheck.setIsSuccessful(true);
+            return healthCheck;
+        }).delayElement(probeLatency), healthCheck -> { });
+        
+        List<ProbeTickResult> results = new ArrayList<>();
+        for (Mode runMode : List.of(Mode.SEQUENTIAL, Mode.VIRTUAL, Mode.REACTIVE)) {
+            results.add(runTick(endpoints, runMode, simulated));
+        }
+        return results;
+    }
+    
+    public ProbeEngineStatus getStatus() {
+        int limit = mode == Mode.VIRTUAL ? virtualParallelism : mode == Mode.REACTIVE ? concurrency : 1;
+        ProbeEngineStatus status = new ProbeEngineStatus(limit, inFlight.get(), lastTick);
+        status.setMode(mode.name().toLowerCase(Locale.ROOT));
+        return status;
+    }
+    
+    private ProbeTickResult runTick(List<ApiEndpoint> endpoints, Mode runMode, ProbeSteps steps) {
+        ProbeTickResult result = new ProbeTickResult(endpoints.size(), LocalDateTime.now());
+        result.setMode(runMode.name().toLowerCase(Locale.ROOT));
+        TickCounters counters = new TickCounters();
+        long heapBefore = memoryMXBean.getHeapMemoryUsage().getUsed();
+        long start = System.nanoTime();
+        
+        switch (runMode) {
+            case REACTIVE -> runReactive(endpoints, steps, counters);
+            case VIRTUAL -> runVirtual(endpoints, steps, counters);
+            case SEQUENTIAL -> endpoints.forEach(endpoint -> probeSequentially(endpoint, steps, counters));
+        }
+        
+        long durationNanos = System.nanoTime() - start;
+        result.setSuccessfulChecks(counters.successful.get());
+        result.setFailedChecks(counters.failed.get());
+        result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        result.setPeakInFlight(counters.peakInFlight.get());
+        result.setHeapUsedBeforeBytes(heapBefore);
+        result.setHeapUsedAfterBytes(memoryMXBean.getHeapMemoryUsage().getUsed());
+        return result;
+    }
+    
+    private void runReactive(List<ApiEndpoint> endpoints, ProbeSteps steps, TickCounters counters) {
+        Flux.fromIterable(endpoints)
+            .flatMap(endpoint -> track(steps.probe().apply(endpoint))
+                .doOnSubscribe(subscription -> counters.updatePeak(inFlight.get())), concurrency)
+            .publishOn(persistenceScheduler)
+            .doOnNext(healthCheck -> {
+                counters.count(healthCheck);
+                steps.recorder().accept(healthCheck);
+            })
+            .then()
+            .block();
+    }
+    
+    private void runVirtual(List<ApiEndpoint> endpoints, ProbeSteps steps, TickCounters counters) {
+        List<Future<?>> futures = new ArrayList<>(endpoints.size());
+        for (ApiEndpoint endpoint : endpoints) {
+            futures.add(virtualExecutor.submit(() -> probeOnVirtualThread(endpoint, steps, counters)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Error performing health check on virtual thread: {}", e.getCause().getMessage());
+            }
+        }
+    }
+    
+    private void probeOnVirtualThread(ApiEndpoint endpoint, ProbeSteps steps, TickCounters counters) {
+        HealthCheck healthCheck;
+        try {
+            virtualPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            counters.updatePeak(inFlight.incrementAndGet());
+            healthCheck = steps.probe().apply(endpoint).block();
+        } finally {
+            inFlight.decrementAndGet();
+            virtualPermits.release();
+        }
+        
+        counters.count(healthCheck);
+        try {
+            // Parking a virtual thread is cheap; the JPA work itself stays on the bounded platform pool
+            persistenceExecutor.submit(() -> steps.recorder().accept(healthCheck)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Error saving health check for endpoint {}: {}", endpoint.getName(), e.getCause().getMessage());
+        }
+    }
+    
+    private void probeSequentially(ApiEndpoint endpoint, ProbeSteps steps, TickCounters counters) {
+        HealthCheck healthCheck;
+        try {
+            counters.updatePeak(inFlight.incrementAndGet());
+            healthCheck = steps.probe().apply(endpoint).block();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        counters.count(healthCheck);
+        steps.recorder().accept(healthCheck);
+    }
+    
+    private Mono<HealthCheck> track(Mono<HealthCheck> probe) {
+        return probe
+            .doOnSubscribe(subscription -> inFlight.incrementAndGet())
+            .doFinally(signal -> inFlight.decrementAndGet());
+    }
+    
+    private void record(HealthCheck healthCheck) {
+        try {
+            healthCheckService.recordHealthCheck(healthCheck);
+        } catch (Exception e) {
+            logger.error("Error saving health check for endpoint {}: {}", 
+                       healthCheck.getApiEndpoint().getName(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Fixed-size pool with a bounded queue. When the queue is full, submitters wait for space
+     * instead of running the save themselves, which would put it back on a probe thread.
+     */
+    private static ThreadPoolExecutor newPersistenceExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(threads * 256),
+                runnable -> new Thread(runnable, "probe-persistence-" + threadNumber.incrementAndGet()),
+                (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Persistence pool is shut down");
+                    }
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for persistence capacity", e);
+                    }
+                });
+    }
+    
+    /**
+     * How a tick probes an endpoint and what it does with the result: the real probe and save,
+     * or a simulated probe for {@link #compareModes}.
+     */
+    private record ProbeSteps(Function<ApiEndpoint, Mono<HealthCheck>> probe, Consumer<HealthCheck> recorder) {
+    }
+    
+    private static final class TickCounters {
+        
+        final AtomicInteger successful = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        
+        void count(HealthCheck healthCheck) {
+            if (Boolean.TRUE.equals(healthCheck.getIsSuccessful())) {
+                successful.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+        
+        void updatePeak(int current) {
+            peakInFlight.accumulateAndGet(current, Math::max);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.journal.JournalCursor;
+import com.example.apimonitoring.journal.JournalRecord;
+import com.example.apimonitoring.journal.JournalSegment;
+import com.example.apimonitoring.model.HealthCheck;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of probe results and the primary durable write path: a result is
+ * acknowledged once its record is in the journal, and the SQL store is fed from the journal by
+ * {@link HealthCheckWriteBehind}. Records go into memory-mapped segment files of
+ * {@code monitoring.journal.segment-size-bytes}; a full segment is forced to disk and a new one
+ * started.
+ * <p>
+ * Durability uses group commit: a single sync thread forces everything appended since its last
+ * pass in one call, so concurrent appenders share one fsync. With {@code fsync: group} (the
+ * default) {@link #append} returns only after the record's group is on disk; with
+ * {@code interval} it returns immediately and a crash can lose the last sync interval. Readers
+ * only ever see synced records, so nothing reaches the database that the journal could lose.
+ * An append that is not synced within {@code sync-timeout-ms}, e.g. because the disk keeps
+ * failing, throws instead of blocking the probe pipeline; its record stays in the journal and
+ * still reaches the database if a later sync succeeds.
+ * <p>
+ * Segments whose records have all been applied to the database and are older than
+ * {@code monitoring.journal.retention-days} are deleted hourly.
+ */
+@Service
+public class ProbeJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeJournal.class);
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final boolean awaitSync;
+    private final long syncIntervalMs;
+    private final long syncTimeoutMs;
+    private final int retentionDays;
+    private final Timer syncTimer;
+    private final DistributionSummary groupSizeSummary;
+    
+    private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object syncMonitor = new Object();
+    private volatile JournalSegment activeSegment;
+    private long nextSequence = 1;
+    private volatile long appendedSequence;
+    private volatile long syncedSequence;
+    private volatile long appliedSequence;
+    private volatile RuntimeException syncFailure;
+    private volatile boolean running;
+    private Thread syncThread;
+    
+    @Autowired
+    public ProbeJournal(MeterRegistry meterRegistry,
+                        @Value("${monitoring.journal.enabled:true}") boolean enabled,
+                        @Value("${monitoring.journal.directory:./data/journal}") String directory,
+                        @Value("${monitoring.journal.segment-size-bytes:67108864}") int segmentSizeBytes,
+                        @Value("${monitoring.journal.fsync:group}") String fsync,
+                        @Value("${monitoring.journal.sync-interval-ms:10}") long syncIntervalMs,
+                        @Value("${monitoring.journal.sync-timeout-ms:5000}") long syncTimeoutMs,
+                        @Value("${monitoring.journal.retention-days:7}") int retentionDays) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.awaitSync = !"interval".equalsIgnoreCase(fsync);
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncTimeoutMs = syncTimeoutMs;
+        this.retentionDays = retentionDays;
+        this.syncTimer = Timer.builder("monitoring.journal.sync")
+                .description("Time to force one group of journal records to disk")
+                .register(meterRegistry);
+        this.groupSizeSummary = DistributionSummary.builder("monitoring.journal.group.size")
+                .description("Journal records made durable per fsync")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.journal.lag", this, journal -> journal.syncedSequence - journal.appliedSequence)
+                .description("Durable journal records not yet applied to the database")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.journal.segments", segments, List::size)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            // Zero-padded base sequences sort in sequence order
+            files = listing.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        for (Path file : files) {
+            segments.add(JournalSegment.open(file));
+        }
+        
+        if (segments.isEmpty()) {
+            activeSegment = createSegment(1);
+        } else {
+            activeSegment = segments.get(segments.size() - 1);
+            nextSequence = activeSegment.getLastSequence() + 1;
+        }
+        appendedSequence = nextSequence - 1;
+        syncedSequence = appendedSequence;
+        
+        running = true;
+        syncThread = new Thread(this::runSync, "probe-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+        logger.info("Opened probe journal with {} segments up to sequence {} in {}ms",
+                   segments.size(), appendedSequence, System.currentTimeMillis() - start);
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (JournalSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.error("Failed to close journal segment {}: {}", segment.getPath(), e.getMessage());
+            }
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Appends a probe result, waiting for its group commit unless {@code fsync} is
+     * {@code interval}.
+     *
+     * @return the record's sequence number
+     * @throws IllegalStateException if the record is not synced within {@code sync-timeout-ms}
+     */
+    public long append(HealthCheck healthCheck) {
+        long sequence;
+        synchronized (this) {
+            if (!running) {
+                throw new IllegalStateException("Probe journal is closed");
+            }
+            sequence = nextSequence++;
+            healthCheck.setJournalSequence(sequence);
+            JournalRecord record = new JournalRecord(sequence,
+                    healthCheck.getApiEndpoint().getId(),
+                    healthCheck.getCheckedAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    healthCheck.getStatusCode(),
+                    healthCheck.getResponseTimeMs(),
+                    Boolean.TRUE.equals(healthCheck.getIsSuccessful()),
+                    healthCheck.getFailureClass(),
+                    healthCheck.getErrorMessage(),
+                    healthCheck.getConnectionReused(),
+                    JournalRecord.phaseNanosOf(healthCheck));
+            if (!activeSegment.append(record)) {
+                rotate(sequence);
+                if (!activeSegment.append(record)) {
+                    throw new IllegalStateException("Journal record larger than a segment");
+                }
+            }
+            appendedSequence = sequence;
+        }
+        
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncTimeoutMs);
+            while (awaitSync && syncedSequence < sequence && running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Journal record " + sequence + " not synced within "
+                            + syncTimeoutMs + "ms", syncFailure);
+                }
+                try {
+                    syncMonitor.wait(Math.max(1, Math.min(syncIntervalMs, TimeUnit.NANOSECONDS.toMillis(remaining))));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal sync", e);
+                }
+            }
+        }
+        return sequence;
+    }
+    
+    /**
+     * Never reuse sequences the database has already applied, e.g. after the journal directory
+     * was cleared while the database was kept.
+     */
+    public synchronized void ensureSequenceAfter(long sequence) {
+        if (nextSequence <= sequence) {
+            if (!activeSegment.isEmpty()) {
+                rotate(sequence + 1);
+            } else {
+                segments.remove(activeSegment);
+                deleteSegment(activeSegment);
+                activeSegment = createSegment(sequence + 1);
+            }
+            nextSequence = sequence + 1;
+            appendedSequence = sequence;
+            syncedSequence = sequence;
+        }
+    }
+    
+    /**
+     * A cursor at the first record after {@code sequence}.
+     */
+    public JournalCursor cursorAfter(long sequence) {
+        JournalSegment start = segments.get(0);
+        for (JournalSegment segment : segments) {
+            if (segment.getBaseSequence() <= sequence + 1) {
+                start = segment;
+            }
+        }
+        JournalCursor cursor = new JournalCursor(start, JournalSegment.HEADER_BYTES, sequence);
+        int position = JournalSegment.HEADER_BYTES;
+        while (position < start.getWritePosition() && start.readAt(position).sequence() <= sequence) {
+            position = start.nextPosition(position);
+        }
+        cursor.moveTo(start, position);
+        return cursor;
+    }
+    
+    /**
+     * Reads up to {@code max} synced records after the cursor and advances it past them.
+     */
+    public List<JournalRecord> read(JournalCursor cursor, int max) {
+        List<JournalRecord> records = new ArrayList<>(Math.min(max, 1024));
+        long synced = syncedSequence;
+        while (records.size() < max) {
+            JournalSegment segment = cursor.getSegment();
+            if (cursor.getPosition() < segment.getWritePosition()) {
+                JournalRecord record = segment.readAt(cursor.getPosition());
+                if (record.sequence() > synced) {
+                    break;
+                }
+                records.add(record);
+                cursor.advance(record);
+            } else {
+                JournalSegment next = segmentAfter(segment);
+                if (next == null) {
+                    break;
+                }
+                cursor.moveTo(next, JournalSegment.HEADER_BYTES);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Waits until the next group commit or the timeout, whichever comes first.
+     */
+    public void awaitSync(long timeoutNanos) throws InterruptedException {
+        synchronized (syncMonitor) {
+            TimeUnit.NANOSECONDS.timedWait(syncMonitor, timeoutNanos);
+        }
+    }
+    
+    /**
+     * Records that everything up to {@code sequence} is in the database, making older segments
+     * eligible for deletion.
+     */
+    public void markApplied(long sequence) {
+        appliedSequence = sequence;
+    }
+    
+    public long getAppendedSequence() {
+        return appendedSequence;
+    }
+    
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+    
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeSegments() {
+        if (!enabled) {
+            return;
+        }
+        long cutoffMillis = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        int deleted = 0;
+        for (JournalSegment segment : segments) {
+            if (segment == activeSegment || segment.getLastSequence() > appliedSequence
+                    || segment.getLastTimestampMillis() >= cutoffMillis) {
+                break;
+            }
+            segments.remove(segment);
+            deleteSegment(segment);
+            deleted++;
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} applied journal segments older than {} days", deleted, retentionDays);
+        }
+    }
+    
+    private void runSync() {
+        while (running) {
+            try {
+                synchronized (syncMonitor) {
+                    if (appendedSequence == syncedSequence && running) {
+                        syncMonitor.wait(syncIntervalMs);
+                    }
+                }
+                long target = appendedSequence;
+                if (target == syncedSequence) {
+                    continue;
+                }
+                
+                long start = System.nanoTime();
+                activeSegment.force();
+                syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                groupSizeSummary.record(target - syncedSequence);
+                
+                synchronized (syncMonitor) {
+                    syncedSequence = target;
+                    syncFailure = null;
+                    syncMonitor.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                syncFailure = e;
+                logger.error("Journal sync failed: {}", e.getMessage());
+                try {
+                    // Don't spin on a failing disk
+                    Thread.sleep(syncIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+    
+    private void rotate(long baseSequence) {
+        // The sync thread only forces the active segment, so the outgoing one is forced here
+        activeSegment.force();
+        activeSegment = createSegment(baseSequence);
+    }
+    
+    private JournalSegment createSegment(long baseSequence) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSequence, SEGMENT_SUFFIX));
+        try {
+            JournalSegment segment = JournalSegment.create(path, baseSequence, segmentSizeBytes);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + path, e);
+        }
+    }
+    
+    private JournalSegment segmentAfter(JournalSegment segment) {
+        int index = segments.indexOf(segment);
+        return index >= 0 && index + 1 < segments.size() ? segments.get(index + 1) : null;
+    }
+    
+    private void deleteSegment(JournalSegment segment) {
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.getPath());
+        } catch (IOException e) {
+            logger.error("Failed to delete journal segment {}: {}", segment.getPath(), e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.apimonitoring.service;
+
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.client.ContextAwareHttpClientMetricsRecorder;
+import reactor.util.context.ContextView;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+
+/**
+ * Routes reactor-netty's connection and exchange timings to the {@link ProbeTrace} in the
+ * request's context. Requests without a trace, or whose endpoint has phase timing off, return
+ * straight away; nothing is aggregated here.
+ * <p>
+ * Reactor-netty reports address resolution without the request's context, so DNS is timed by
+ * the {@link #resolveStarted} and {@link #resolveFinished} hooks instead, which find the trace
+ * through the connection's observer the same way reactor-netty does for connect times.
+ */
+class ProbePhaseRecorder extends ContextAwareHttpClientMetricsRecorder {
+    
+    static final ProbePhaseRecorder INSTANCE = new ProbePhaseRecorder();
+    
+    private ProbePhaseRecorder() {}
+    
+    private static ProbeTrace traceOf(ContextView contextView) {
+        ProbeTrace trace = ProbeTrace.from(contextView);
+        return trace != null && trace.phaseTiming ? trace : null;
+    }
+    
+    private static ProbeTrace traceOf(Connection connection) {
+        return connection instanceof ConnectionObserver observer ? traceOf(observer.currentContext()) : null;
+    }
+    
+    static void resolveStarted(Connection connection) {
+        ProbeTrace trace = traceOf(connection);
+        if (trace != null) {
+            trace.resolveStartNanos = System.nanoTime();
+        }
+    }
+    
+    static void resolveFinished(Connection connection) {
+        ProbeTrace trace = traceOf(connection);
+        if (trace != null && trace.resolveStartNanos != ProbeTrace.UNSET) {
+            trace.dnsNanos = System.nanoTime() - trace.resolveStartNanos;
+        }
+    }
+    
+    // No request context here; see resolveStarted
+    @Override
+    public void recordResolveAddressTime(SocketAddress remoteAddress, Duration time, String status) {
+    }
+    
+    @Override
+    public void recordConnectTime(ContextView contextView, SocketAddress remoteAddress, Duration time, String status) {
+        ProbeTrace trace = traceOf(contextView);
+        if (trace != null) {
+            trace.connectNanos = time.toNanos();
+        }
+    }
+    
+    @Override
+    public void recordTlsHandshakeTime(ContextView contextView, SocketAddress remoteAddress, Duration time, String status) {
+        ProbeTrace trace = traceOf(contextView);
+        if (trace != null) {
+            trace.tlsNanos = time.toNanos();
+        }
+    }
+    
+    @Override
+    public void recordDataReceivedTime(ContextView contextView, SocketAddress remoteAddress, String uri, String method,
+                                       String status, Duration time) {
+        ProbeTrace trace = traceOf(contextView);
+        if (trace != null) {
+            trace.bodyNanos = time.toNanos();
+        }
+    }
+    
+    @Override
+    public void recordResponseTime(ContextView contextView, SocketAddress remoteAddress, String uri, String method,
+                                   String status, Duration time) {
+        ProbeTrace trace = traceOf(contextView);
+        if (trace != null) {
+            trace.responseNanos = time.toNanos();
+        }
+    }
+    
+    @Override
+    public void recordDataSentTime(ContextView contextView, SocketAddress remoteAddress, String uri, String method, Duration time) {
+    }
+    
+    @Override
+    public void recordDataReceived(ContextView contextView, SocketAddress remoteAddress, String uri, long bytes) {
+    }
+    
+    @Override
+    public void recordDataSent(ContextView contextView, SocketAddress remoteAddress, String uri, long bytes) {
+    }
+    
+    @Override
+    public void incrementErrorsCount(ContextView contextView, SocketAddress remoteAddress, String uri) {
+    }
+    
+    @Override
+    public void recordDataReceived(ContextView contextView, SocketAddress remoteAddress, long bytes) {
+    }
+    
+    @Override
+    public void recordDataSent(ContextView contextView, SocketAddress remoteAddress, long bytes) {
+    }
+    
+    @Override
+    public void incrementErrorsCount(ContextView contextView, SocketAddress remoteAddress) {
+    }
+}
\ No newline at end of file
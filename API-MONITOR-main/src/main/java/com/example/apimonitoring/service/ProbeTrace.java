@@ -0,0 +1,80 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * What the connection layer observed for one probe: whether its request went out on a reused
+ * connection and, if phase timing is on for the endpoint, the raw phase durations reported by
+ * reactor-netty. Travels in the request's Reactor context; one small object of primitive fields
+ * per probe, written from the event loop and read once the response has completed.
+ */
+public final class ProbeTrace {
+    
+    private static final String CONTEXT_KEY = ProbeTrace.class.getName();
+    static final long UNSET = -1;
+    
+    final String host;
+    final boolean http2;
+    final long startNanos;
+    final boolean phaseTiming;
+    
+    volatile Boolean reused;
+    volatile long resolveStartNanos = UNSET;
+    volatile long dnsNanos = UNSET;
+    volatile long connectNanos = UNSET;
+    volatile long tlsNanos = UNSET;
+    volatile long responseNanos = UNSET; // Request start to last response byte
+    volatile long bodyNanos = UNSET; // First to last response byte
+    
+    ProbeTrace(String host, boolean http2, boolean phaseTiming) {
+        this.host = host;
+        this.http2 = http2;
+        this.phaseTiming = phaseTiming;
+        this.startNanos = System.nanoTime();
+    }
+    
+    static ProbeTrace from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+    
+    public Context context() {
+        return Context.of(CONTEXT_KEY, this);
+    }
+    
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    /**
+     * Null until a connection has been acquired, so also for probes that failed to connect.
+     */
+    public Boolean getReused() {
+        return reused;
+    }
+    
+    /**
+     * Copies the connection reuse and, when phase timing is on, every observed phase onto the
+     * check. Phases that did not happen, such as DNS on a reused connection, stay null.
+     */
+    public void applyTo(HealthCheck healthCheck, long totalNanos) {
+        healthCheck.setConnectionReused(reused);
+        if (!phaseTiming) {
+            return;
+        }
+        long response = responseNanos;
+        long body = bodyNanos;
+        ProbePhase.DNS.setNanos(healthCheck, valueOf(dnsNanos));
+        ProbePhase.CONNECT.setNanos(healthCheck, valueOf(connectNanos));
+        ProbePhase.TLS.setNanos(healthCheck, valueOf(tlsNanos));
+        ProbePhase.TTFB.setNanos(healthCheck, response != UNSET && body != UNSET ? Math.max(0, response - body) : null);
+        ProbePhase.BODY.setNanos(healthCheck, valueOf(body));
+        ProbePhase.TOTAL.setNanos(healthCheck, totalNanos);
+    }
+    
+    private static Long valueOf(long nanos) {
+        return nanos != UNSET ? nanos : null;
+    }
+}
\ No newline at end of file
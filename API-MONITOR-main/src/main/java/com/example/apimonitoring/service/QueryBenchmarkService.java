@@ -0,0 +1,342 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.QueryBenchmarkReport;
+import com.example.apimonitoring.dto.QueryBenchmarkResult;
+import com.example.apimonitoring.repository.HealthCheckIndexes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Repeatable benchmark of the health check queries. Loads a synthetic history into scratch
+ * copies of {@code api_endpoints} and {@code health_checks} created from the V1 baseline
+ * migration and the health check columns of V4, so the baseline has the primary key and the
+ * foreign key index the schema had before V7. Runs the native equivalent of each
+ * {@code HealthCheckRepository} read, adds the {@link HealthCheckIndexes}, runs them again with
+ * the same parameters and drops the tables.
+ * <p>
+ * Loading up to {@code max-rows} rows takes minutes and gigabytes of heap on the in-memory
+ * database, so the benchmark only runs with {@code monitoring.benchmark.enabled}.
+ * <p>
+ * Data and parameters come from a fixed seed and a fixed end time, so runs with the same
+ * {@code rows} and {@code endpoints} are comparable. Each endpoint gets one check every 30
+ * seconds with about 2% failures; ids increase in time order as they do in production.
+ */
+@Service
+public class QueryBenchmarkService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryBenchmarkService.class);
+    
+    private static final String TABLE = "health_checks_bench";
+    private static final String ENDPOINT_TABLE = "api_endpoints_bench";
+    private static final String BASELINE_MIGRATION = "db/migration/V1__baseline.sql";
+    private static final String COLUMNS_MIGRATION = "db/migration/V4__error_message_dictionary.sql";
+    private static final long SEED = 42L;
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final long INTERVAL_SECONDS = 30;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long maxRows;
+    private final int iterations;
+    
+    @Autowired
+    public QueryBenchmarkService(DataSource dataSource,
+                                 @Value("${monitoring.benchmark.enabled:false}") boolean enabled,
+                                 @Value("${monitoring.benchmark.max-rows:10000000}") long maxRows,
+                                 @Value("${monitoring.benchmark.iterations:5}") int iterations) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.enabled = enabled;
+        this.maxRows = maxRows;
+        this.iterations = iterations;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * A query shape and a generator of its parameters. Full scans run once per phase; the
+     * others run {@code monitoring.benchmark.iterations} times and report the median.
+     */
+    private record BenchmarkQuery(String name, String sql, boolean fullScan, Function<Random, Object[]> parameters) {}
+    
+    /**
+     * @throws IllegalStateException if the benchmark is not enabled
+     * @throws IllegalArgumentException if rows or endpoints are out of range
+     */
+    public synchronized QueryBenchmarkReport run(long rows, int endpoints) {
+        if (!enabled) {
+            throw new IllegalStateException("Query benchmark is disabled (monitoring.benchmark.enabled)");
+        }
+        if (rows < 1 || rows > maxRows) {
+            throw new IllegalArgumentException("rows must be between 1 and " + maxRows);
+        }
+        if (endpoints < 1 || endpoints > rows) {
+            throw new IllegalArgumentException("endpoints must be between 1 and rows");
+        }
+        
+        QueryBenchmarkReport report = new QueryBenchmarkReport(LocalDateTime.now(), rows, endpoints);
+        long start = System.nanoTime();
+        try {
+            dropTables();
+            baselineSchema().forEach(jdbcTemplate::execute);
+            
+            long loadStart = System.nanoTime();
+            long slots = (rows + endpoints - 1) / endpoints;
+            load(rows, endpoints, slots);
+            report.setLoadMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart));
+            logger.info("Query benchmark loaded {} rows for {} endpoints in {}ms", rows, endpoints, report.getLoadMs());
+            
+            List<BenchmarkQuery> queries = queries(endpoints, END.minusSeconds(slots * INTERVAL_SECONDS));
+            for (BenchmarkQuery query : queries) {
+                QueryBenchmarkResult result = new QueryBenchmarkResult(query.name());
+                result.setWithoutIndexesMs(time(query, result));
+                result.setPlanWithoutIndexes(plan(query));
+                report.getQueries().add(result);
+            }
+            
+            long indexStart = System.nanoTime();
+            HealthCheckIndexes.createStatements(TABLE).forEach(jdbcTemplate::execute);
+            report.setIndexBuildMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - indexStart));
+            
+            for (int i = 0; i < queries.size(); i++) {
+                QueryBenchmarkResult result = report.getQueries().get(i);
+                result.setWithIndexesMs(time(queries.get(i), result));
+                result.setPlanWithIndexes(plan(queries.get(i)));
+                result.setSpeedup(result.getWithIndexesMs() > 0 ? result.getWithoutIndexesMs() / result.getWithIndexesMs() : null);
+                logger.info("Query benchmark {}: {}ms without indexes, {}ms with", result.getQuery(),
+                           String.format("%.2f", result.getWithoutIndexesMs()), String.format("%.2f", result.getWithIndexesMs()));
+            }
+        } finally {
+            dropTables();
+        }
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return report;
+    }
+    
+    private void dropTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + ENDPOINT_TABLE);
+    }
+    
+    /**
+     * The {@code api_endpoints} and {@code health_checks} statements of the V1 migration and the
+     * {@code health_checks} columns of V4, renamed to the scratch tables. Constraint names are
+     * schema-wide, so they are renamed too.
+     */
+    private List<String> baselineSchema() {
+        List<String> statements = new ArrayList<>();
+        for (String sql : migrationStatements(BASELINE_MIGRATION)) {
+            if (sql.startsWith("CREATE TABLE api_endpoints ") || sql.startsWith("CREATE TABLE health_checks ")) {
+                statements.add(toScratchTables(sql));
+            }
+        }
+        if (statements.size() != 2) {
+            throw new IllegalStateException(BASELINE_MIGRATION + " no longer creates api_endpoints and health_checks");
+        }
+        for (String sql : migrationStatements(COLUMNS_MIGRATION)) {
+            if (sql.startsWith("ALTER TABLE health_checks ")) {
+                statements.add(toScratchTables(sql));
+            }
+        }
+        if (statements.size() == 2) {
+            throw new IllegalStateException(COLUMNS_MIGRATION + " no longer alters health_checks");
+        }
+        return statements;
+    }
+    
+    private static List<String> migrationStatements(String location) {
+        String migration;
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            migration = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + location, e);
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : migration.replaceAll("(?m)^--.*$", "").split(";")) {
+            String sql = statement.trim();
+            if (!sql.isEmpty()) {
+                statements.add(sql);
+            }
+        }
+        return statements;
+    }
+    
+    private static String toScratchTables(String sql) {
+        return sql
+                .replace("fk_health_checks_api_endpoint", "fk_" + TABLE + "_api_endpoint")
+                .replaceAll("\\bapi_endpoints\\b", ENDPOINT_TABLE)
+                .replaceAll("\\bhealth_checks\\b", TABLE);
+    }
+    
+    private void load(long rows, int endpoints, long slots) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + ENDPOINT_TABLE + " (id, name, url, http_method, is_active) " +
+                "VALUES (?, ?, ?, 'GET', TRUE)", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, i + 1);
+                ps.setString(2, "Endpoint " + (i + 1));
+                ps.setString(3, "http://bench.invalid/" + (i + 1));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return endpoints;
+            }
+        });
+        
+        Random random = new Random(SEED);
+        LocalDateTime first = END.minusSeconds(slots * INTERVAL_SECONDS);
+        String sql = "INSERT INTO " + TABLE + " (id, api_endpoint_id, status_code, response_time_ms, is_successful, " +
+                "failure_class, error_message_id, checked_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        for (long next = 1; next <= rows; next += LOAD_BATCH_SIZE) {
+            long batchStart = next;
+            int batchSize = (int) Math.min(LOAD_BATCH_SIZE, rows - batchStart + 1);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    long id = batchStart + i;
+                    long slot = (id - 1) / endpoints;
+                    boolean successful = random.nextInt(50) != 0;
+                    ps.setLong(1, id);
+                    ps.setLong(2, (id - 1) % endpoints + 1);
+                    if (successful) {
+                        ps.setInt(3, 200);
+                        ps.setLong(4, 20 + (long) Math.abs(random.nextGaussian() * 80));
+                        ps.setBoolean(5, true);
+                        ps.setNull(6, Types.INTEGER);
+                        ps.setNull(7, Types.BIGINT);
+                    } else {
+                        ps.setInt(3, 500 + random.nextInt(4));
+                        ps.setLong(4, 1000 + random.nextInt(4000));
+                        ps.setBoolean(5, false);
+                        ps.setInt(6, 1 + random.nextInt(10));
+                        ps.setLong(7, 1 + random.nextInt(20));
+                    }
+                    ps.setTimestamp(8, Timestamp.valueOf(first.plusSeconds(slot * INTERVAL_SECONDS + random.nextInt(5))));
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return batchSize;
+                }
+            });
+        }
+    }
+    
+    private List<BenchmarkQuery> queries(int endpoints, LocalDateTime first) {
+        long spanSeconds = Duration.between(first, END).getSeconds();
+        Function<Random, Long> endpoint = random -> 1L + random.nextInt(endpoints);
+        List<BenchmarkQuery> queries = new ArrayList<>();
+        
+        queries.add(new BenchmarkQuery("findPageBefore",
+                "SELECT * FROM %s WHERE api_endpoint_id = ? AND checked_at >= ? " +
+                "AND (checked_at < ? OR (checked_at = ? AND id < ?)) ORDER BY checked_at DESC, id DESC LIMIT 101",
+                false, random -> {
+                    Timestamp cursor = Timestamp.valueOf(first.plusSeconds((long) (random.nextDouble() * spanSeconds)));
+                    return new Object[] {endpoint.apply(random), Timestamp.valueOf(first), cursor, cursor, Long.MAX_VALUE};
+                }));
+        queries.add(new BenchmarkQuery("findLatestHealthCheck",
+                "SELECT * FROM %s WHERE api_endpoint_id = ? ORDER BY checked_at DESC, id DESC LIMIT 1",
+                false, random -> new Object[] {endpoint.apply(random)}));
+        queries.add(new BenchmarkQuery("streamHealthChecks (24h)",
+                "SELECT id, checked_at, is_successful, status_code, response_time_ms, failure_class, error_message_id FROM %s " +
+                "WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? ORDER BY checked_at, id",
+                false, random -> new Object[] {endpoint.apply(random), Timestamp.valueOf(END.minusDays(1)), Timestamp.valueOf(END)}));
+        queries.add(new BenchmarkQuery("streamSeriesSamples (7d)",
+                "SELECT checked_at, is_successful, response_time_ms FROM %s " +
+                "WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? ORDER BY checked_at, id",
+                false, random -> new Object[] {endpoint.apply(random), Timestamp.valueOf(END.minusDays(7)), Timestamp.valueOf(END)}));
+        queries.add(new BenchmarkQuery("countFailuresByClass (7d)",
+                "SELECT failure_class, COUNT(*) FROM %s WHERE api_endpoint_id = ? AND checked_at >= ? AND checked_at < ? " +
+                "AND failure_class IS NOT NULL GROUP BY failure_class",
+                false, random -> new Object[] {endpoint.apply(random), Timestamp.valueOf(END.minusDays(7)), Timestamp.valueOf(END)}));
+        
+        int groupSize = Math.min(10, endpoints);
+        String placeholders = String.join(", ", Collections.nCopies(groupSize, "?"));
+        queries.add(new BenchmarkQuery("findIdRangeBefore (" + groupSize + " endpoints, oldest day)",
+                "SELECT MIN(id), MAX(id) FROM %s WHERE api_endpoint_id IN (" + placeholders + ") AND checked_at < ?",
+                false, random -> {
+                    Object[] parameters = new Object[groupSize + 1];
+                    long firstEndpoint = endpoint.apply(random);
+                    for (int i = 0; i < groupSize; i++) {
+                        parameters[i] = (firstEndpoint - 1 + i) % endpoints + 1;
+                    }
+                    parameters[groupSize] = Timestamp.valueOf(first.plusDays(1));
+                    return parameters;
+                }));
+        queries.add(new BenchmarkQuery("streamOrderedCheckSummaries",
+                "SELECT api_endpoint_id, checked_at, is_successful, response_time_ms FROM %s WHERE id <= ? " +
+                "ORDER BY api_endpoint_id, checked_at, id",
+                true, random -> new Object[] {Long.MAX_VALUE}));
+        queries.add(new BenchmarkQuery("summarizeByEndpoint",
+                "SELECT api_endpoint_id, COUNT(*), SUM(CASE WHEN is_successful THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN is_successful THEN response_time_ms END), MIN(CASE WHEN is_successful THEN response_time_ms END), " +
+                "MAX(CASE WHEN is_successful THEN response_time_ms END) FROM %s WHERE id <= ? GROUP BY api_endpoint_id",
+                true, random -> new Object[] {Long.MAX_VALUE}));
+        return queries;
+    }
+    
+    /**
+     * Median latency in milliseconds. The parameter sequence restarts from the seed, so both
+     * phases run a query with identical parameters.
+     */
+    private double time(BenchmarkQuery query, QueryBenchmarkResult result) {
+        Random random = new Random(SEED);
+        String sql = String.format(query.sql(), TABLE);
+        int runs = query.fullScan() ? 1 : iterations;
+        double[] samples = new double[runs];
+        long[] rowCount = {0};
+        if (!query.fullScan()) {
+            // Warm-up with throwaway parameters
+            jdbcTemplate.query(sql, rs -> {}, query.parameters().apply(new Random(SEED - 1)));
+        }
+        for (int i = 0; i < runs; i++) {
+            Object[] parameters = query.parameters().apply(random);
+            rowCount[0] = 0;
+            long start = System.nanoTime();
+            jdbcTemplate.query(sql, rs -> {
+                rs.getObject(1);
+                rowCount[0]++;
+            }, parameters);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        result.setRowsReturned(rowCount[0]);
+        Arrays.sort(samples);
+        return samples[runs / 2];
+    }
+    
+    private String plan(BenchmarkQuery query) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + String.format(query.sql(), TABLE), String.class,
+                query.parameters().apply(new Random(SEED)));
+        return String.join("\n", plan);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Purges expired health checks through the configured {@link HealthCheckStore}. Endpoints are
+ * grouped by their retention period ({@code ApiEndpoint.retentionDays}, falling back to
+ * {@code monitoring.retention.default-days}) and each group is purged with its own cutoff; how
+ * a group is deleted is up to the store.
+ */
+@Service
+public class RetentionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+    
+    private final ApiEndpointService apiEndpointService;
+    private final HealthCheckStore healthCheckStore;
+    private final EndpointStatsAggregator endpointStatsAggregator;
+    private final RollupService rollupService;
+    private final int defaultRetentionDays;
+    
+    private volatile RetentionReport lastReport;
+    
+    @Autowired
+    public RetentionService(ApiEndpointService apiEndpointService,
+                            HealthCheckStore healthCheckStore,
+                            EndpointStatsAggregator endpointStatsAggregator,
+                            RollupService rollupService,
+                            @Value("${monitoring.retention.default-days:7}") int defaultRetentionDays) {
+        this.apiEndpointService = apiEndpointService;
+        this.healthCheckStore = healthCheckStore;
+        this.endpointStatsAggregator = endpointStatsAggregator;
+        this.rollupService = rollupService;
+        this.defaultRetentionDays = defaultRetentionDays;
+    }
+    
+    public synchronized RetentionReport purgeExpiredHealthChecks() {
+        RetentionReport report = new RetentionReport(LocalDateTime.now());
+        lastReport = report;
+        long start = System.nanoTime();
+        
+        Map<Integer, List<Long>> endpointIdsByRetention = apiEndpointService.getAllEndpoints().stream()
+                .collect(Collectors.groupingBy(this::retentionDaysOf, TreeMap::new,
+                        Collectors.mapping(ApiEndpoint::getId, Collectors.toList())));
+        healthCheckStore.purgeExpired(endpointIdsByRetention, report);
+        
+        // Rollups keep their own, longer, per-tier retention
+        report.setRollupRowsDeleted(rollupService.purgeExpired(report.getStartedAt()));
+        
+        if (report.getRowsDeleted() > 0 || report.getPartitionsDropped() > 0) {
+            // Running totals still include the purged rows
+            endpointStatsAggregator.rebuild();
+        }
+        
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        report.setCompleted(true);
+        logger.info("Retention purge deleted {} health checks in {} chunks across {} endpoints, {} partitions and {} rollup rows in {}ms",
+                   report.getRowsDeleted(), report.getChunks(), report.getEndpointsProcessed(),
+                   report.getPartitionsDropped(), report.getRollupRowsDeleted(), report.getDurationMs());
+        return report;
+    }
+    
+    public Optional<RetentionReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+    
+    private int retentionDaysOf(ApiEndpoint endpoint) {
+        Integer retentionDays = endpoint.getRetentionDays();
+        return retentionDays != null && retentionDays > 0 ? retentionDays : defaultRetentionDays;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.HealthCheckRollup;
+import com.example.apimonitoring.model.RollupBackfill;
+import com.example.apimonitoring.model.RollupTier;
+import com.example.apimonitoring.repository.HealthCheckRollupRepository;
+import com.example.apimonitoring.repository.RollupBackfillRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.example.apimonitoring.stats.CheckAggregate;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintains per-endpoint minute, hour and day rollups of health checks. Each batch written by
+ * {@link HealthCheckWriteBehind} is folded into the rollups in the same transaction, so rollups
+ * never disagree with the raw rows that were committed. Each tier has its own retention, which
+ * lets trend data outlive the raw history.
+ */
+@Service
+public class RollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+    
+    private static final int BACKFILL_FLUSH_ROWS = 500;
+    
+    private final HealthCheckRollupRepository rollupRepository;
+    private final RollupBackfillRepository backfillRepository;
+    private final HealthCheckStore healthCheckStore;
+    private final EntityManager entityManager;
+    private final TransactionTemplate backfillTransaction;
+    private final int rawRetentionDays;
+    private final Map<RollupTier, Integer> retentionDays = new EnumMap<>(RollupTier.class);
+    
+    @Autowired
+    public RollupService(HealthCheckRollupRepository rollupRepository,
+                         RollupBackfillRepository backfillRepository,
+                         HealthCheckStore healthCheckStore,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${monitoring.retention.default-days:7}") int rawRetentionDays,
+                         @Value("${monitoring.rollup.retention.minute-days:3}") int minuteRetentionDays,
+                         @Value("${monitoring.rollup.retention.hour-days:90}") int hourRetentionDays,
+                         @Value("${monitoring.rollup.retention.day-days:1095}") int dayRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.backfillRepository = backfillRepository;
+        this.healthCheckStore = healthCheckStore;
+        this.entityManager = entityManager;
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+        this.rawRetentionDays = rawRetentionDays;
+        retentionDays.put(RollupTier.MINUTE, minuteRetentionDays);
+        retentionDays.put(RollupTier.HOUR, hourRetentionDays);
+        retentionDays.put(RollupTier.DAY, dayRetentionDays);
+    }
+    
+    /**
+     * Folds a batch of new health checks into every tier: one lookup and one saveAll per tier,
+     * however many checks the batch holds.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public synchronized void apply(List<HealthCheck> batch) {
+        for (RollupTier tier : RollupTier.values()) {
+            Map<RollupKey, CheckAggregate> pending = new HashMap<>();
+            for (HealthCheck healthCheck : batch) {
+                RollupKey key = new RollupKey(healthCheck.getApiEndpoint().getId(), tier.bucketStart(healthCheck.getCheckedAt()));
+                pending.computeIfAbsent(key, k -> new CheckAggregate())
+                       .record(Boolean.TRUE.equals(healthCheck.getIsSuccessful()), healthCheck.getResponseTimeMs());
+            }
+            
+            Set<Long> endpointIds = new HashSet<>();
+            Set<LocalDateTime> bucketStarts = new HashSet<>();
+            pending.keySet().forEach(key -> {
+                endpointIds.add(key.endpointId());
+                bucketStarts.add(key.bucketStart());
+            });
+            Map<RollupKey, HealthCheckRollup> existing = new HashMap<>();
+            for (HealthCheckRollup rollup : rollupRepository.findBuckets(tier, endpointIds, bucketStarts)) {
+                existing.put(new RollupKey(rollup.getApiEndpointId(), rollup.getBucketStart()), rollup);
+            }
+            
+            List<HealthCheckRollup> changed = new ArrayList<>(pending.size());
+            pending.forEach((key, aggregate) -> {
+                HealthCheckRollup rollup = existing.get(key);
+                if (rollup == null) {
+                    rollup = new HealthCheckRollup(key.endpointId(), tier, key.bucketStart());
+                } else {
+                    aggregate.add(toAggregate(rollup));
+                }
+                writeTo(rollup, aggregate);
+                changed.add(rollup);
+            });
+            rollupRepository.saveAll(changed);
+        }
+    }
+    
+    /**
+     * Builds rollups from existing raw history until a backfill has completed, e.g. the first
+     * start after upgrading, and records its completion in the same transaction. Raw rows are
+     * streamed in endpoint/time order, so only the current bucket of each tier is held in memory.
+     * <p>
+     * Rollups already present came from batches applied before the backfill got to run, and their
+     * raw rows are part of the history being replayed, so they are rebuilt rather than added to.
+     * Batches written meanwhile wait in {@link #apply}, which shares the lock; it is held until
+     * the backfill has committed, so they find the rebuilt buckets.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        backfillTransaction.executeWithoutResult(status -> {
+            if (!backfillRepository.existsById(RollupBackfill.SINGLETON_ID)) {
+                backfillFromRawHistory();
+            }
+        });
+    }
+    
+    private void backfillFromRawHistory() {
+        long start = System.currentTimeMillis();
+        Map<RollupTier, RollupKey> currentKeys = new EnumMap<>(RollupTier.class);
+        Map<RollupTier, CheckAggregate> currentAggregates = new EnumMap<>(RollupTier.class);
+        long[] written = {0};
+        
+        rollupRepository.deleteAllInBatch();
+        try (Stream<Object[]> rows = healthCheckStore.streamOrderedCheckSummaries(Long.MAX_VALUE)) {
+            rows.forEach(row -> {
+                Long endpointId = (Long) row[0];
+                LocalDateTime checkedAt = (LocalDateTime) row[1];
+                for (RollupTier tier : RollupTier.values()) {
+                    RollupKey key = new RollupKey(endpointId, tier.bucketStart(checkedAt));
+                    if (!key.equals(currentKeys.get(tier))) {
+                        persistBackfilled(tier, currentKeys.get(tier), currentAggregates.get(tier), written);
+                        currentKeys.put(tier, key);
+                        currentAggregates.put(tier, new CheckAggregate());
+                    }
+                    currentAggregates.get(tier).record(Boolean.TRUE.equals(row[2]), (Long) row[3]);
+                }
+            });
+        }
+        for (RollupTier tier : RollupTier.values()) {
+            persistBackfilled(tier, currentKeys.get(tier), currentAggregates.get(tier), written);
+        }
+        backfillRepository.save(new RollupBackfill(written[0]));
+        
+        if (written[0] > 0) {
+            logger.info("Backfilled {} rollup rows from raw history in {}ms", written[0], System.currentTimeMillis() - start);
+        }
+    }
+    
+    private void persistBackfilled(RollupTier tier, RollupKey key, CheckAggregate aggregate, long[] written) {
+        if (key == null) {
+            return;
+        }
+        HealthCheckRollup rollup = new HealthCheckRollup(key.endpointId(), tier, key.bucketStart());
+        writeTo(rollup, aggregate);
+        entityManager.persist(rollup);
+        if (++written[0] % BACKFILL_FLUSH_ROWS == 0) {
+            // Keep the persistence context from growing with the whole backfill
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+    
+    /**
+     * Picks the coarsest tier whose width is no larger than {@code resolutionMillis}, or empty
+     * for raw checks when even minutes are too coarse. If the chosen source no longer holds data
+     * as old as {@code from}, the next coarser tier is used instead.
+     */
+    public Optional<RollupTier> selectTier(LocalDateTime from, long resolutionMillis) {
+        RollupTier[] tiers = RollupTier.values();
+        RollupTier chosen = null;
+        for (int i = tiers.length - 1; i >= 0; i--) {
+            if (tiers[i].getWidth().toMillis() <= resolutionMillis) {
+                chosen = tiers[i];
+                break;
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (chosen == null && from.isBefore(now.minusDays(rawRetentionDays))) {
+            chosen = RollupTier.MINUTE;
+        }
+        while (chosen != null && chosen.ordinal() < tiers.length - 1
+                && from.isBefore(now.minusDays(retentionDays.get(chosen)))) {
+            chosen = tiers[chosen.ordinal() + 1];
+        }
+        return Optional.ofNullable(chosen);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<HealthCheckRollup> findRange(Long endpointId, RollupTier tier, LocalDateTime from, LocalDateTime to) {
+        return rollupRepository.findRange(endpointId, tier, from, to);
+    }
+    
+    @Transactional
+    public long purgeExpired(LocalDateTime now) {
+        long deleted = 0;
+        for (RollupTier tier : RollupTier.values()) {
+            deleted += rollupRepository.deleteExpired(tier, now.minusDays(retentionDays.get(tier)));
+        }
+        return deleted;
+    }
+    
+    @Transactional
+    public void remove(Long endpointId) {
+        rollupRepository.deleteByEndpoint(endpointId);
+    }
+    
+    public static CheckAggregate toAggregate(HealthCheckRollup rollup) {
+        CheckAggregate aggregate = new CheckAggregate();
+        aggregate.add(rollup.getCheckCount(), rollup.getSuccessCount(), rollup.getLatencyCount(), rollup.getLatencySum(),
+                rollup.getLatencyMin(), rollup.getLatencyMax(), rollup.getLatencyHistogram());
+        return aggregate;
+    }
+    
+    private static void writeTo(HealthCheckRollup rollup, CheckAggregate aggregate) {
+        rollup.setCheckCount(aggregate.getCount());
+        rollup.setSuccessCount(aggregate.getSuccesses());
+        rollup.setLatencyCount(aggregate.getLatencyCount());
+        rollup.setLatencySum(aggregate.getLatencySum());
+        rollup.setLatencyMin(aggregate.getLatencyMin());
+        rollup.setLatencyMax(aggregate.getLatencyMax());
+        rollup.setLatencyHistogram(aggregate.getHistogram().toCompactBytes());
+    }
+    
+    private record RollupKey(Long endpointId, LocalDateTime bucketStart) {}
+}
\ No newline at end of file
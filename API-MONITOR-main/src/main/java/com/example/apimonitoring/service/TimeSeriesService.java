@@ -0,0 +1,212 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.RangeStats;
+import com.example.apimonitoring.dto.SeriesPoint;
+import com.example.apimonitoring.dto.TimeSeries;
+import com.example.apimonitoring.model.HealthCheckRollup;
+import com.example.apimonitoring.model.RollupTier;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.example.apimonitoring.stats.BucketedSeries;
+import com.example.apimonitoring.stats.CheckAggregate;
+import com.example.apimonitoring.stats.LttbDownsampler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Downsampled latency/availability series for charts, and aggregate stats over arbitrary ranges.
+ * Each query reads the coarsest rollup tier that still resolves the request (see
+ * {@link RollupService#selectTier}), or raw checks in one forward pass when minutes are too
+ * coarse. Series payloads are bounded by the requested point count rather than by the range.
+ */
+@Service
+public class TimeSeriesService {
+    
+    // A range stats query may use a tier up to 1/24 of the range wide
+    private static final int RANGE_STATS_RESOLUTION = 24;
+    
+    public enum Mode {
+        BUCKETS, // Fixed-width buckets with count, success ratio and min/avg/max latency
+        LTTB     // Shape-preserving selection of actual latency samples
+    }
+    
+    private final ApiEndpointService apiEndpointService;
+    private final HealthCheckStore healthCheckStore;
+    private final RollupService rollupService;
+    private final int maxPointsLimit;
+    
+    @Autowired
+    public TimeSeriesService(ApiEndpointService apiEndpointService,
+                             HealthCheckStore healthCheckStore,
+                             RollupService rollupService,
+                             @Value("${monitoring.series.max-points:2000}") int maxPointsLimit) {
+        this.apiEndpointService = apiEndpointService;
+        this.healthCheckStore = healthCheckStore;
+        this.rollupService = rollupService;
+        this.maxPointsLimit = maxPointsLimit;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the range is empty
+     * @throws RuntimeException if the endpoint does not exist
+     */
+    @Transactional(readOnly = true)
+    public TimeSeries getSeries(Long endpointId, LocalDateTime from, LocalDateTime to, int maxPoints, Mode mode) {
+        validate(endpointId, from, to);
+        
+        int points = Math.max(3, Math.min(maxPoints, maxPointsLimit));
+        long fromMillis = toEpochMillis(from);
+        long rangeMillis = Duration.between(from, to).toMillis();
+        // LTTB always keeps the first and last samples on top of one sample per bucket
+        int bucketCount = mode == Mode.LTTB ? points - 2 : points;
+        long bucketMillis = Math.max(1, (rangeMillis + bucketCount - 1) / bucketCount);
+        
+        TimeSeries series = new TimeSeries(endpointId, mode.name().toLowerCase(), from, to, bucketMillis);
+        Optional<RollupTier> tier = rollupService.selectTier(from, bucketMillis);
+        
+        if (tier.isPresent()) {
+            series.setSource(tier.get().name().toLowerCase());
+            List<HealthCheckRollup> rollups = rollupService.findRange(endpointId, tier.get(), from, to);
+            series.setPoints(mode == Mode.LTTB
+                    ? lttb(rollupSamples(rollups), fromMillis, bucketMillis)
+                    : buckets(rollups, fromMillis, bucketMillis, bucketCount));
+        } else {
+            series.setSource("raw");
+            try (Stream<Object[]> samples = rawSamples(endpointId, from, to)) {
+                series.setPoints(mode == Mode.LTTB
+                        ? lttb(samples.filter(row -> Boolean.TRUE.equals(row[1]) && row[2] != null)
+                                      .map(row -> new Object[] {row[0], row[2]}), fromMillis, bucketMillis)
+                        : buckets(samples, fromMillis, bucketMillis, bucketCount));
+            }
+        }
+        return series;
+    }
+    
+    /**
+     * Totals, uptime and latency percentiles for the range. Rollup-backed answers cover whole
+     * tier buckets starting inside the range.
+     *
+     * @throws IllegalArgumentException if the range is empty
+     * @throws RuntimeException if the endpoint does not exist
+     */
+    @Transactional(readOnly = true)
+    public RangeStats getRangeStats(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        validate(endpointId, from, to);
+        
+        long resolutionMillis = Duration.between(from, to).toMillis() / RANGE_STATS_RESOLUTION;
+        Optional<RollupTier> tier = rollupService.selectTier(from, resolutionMillis);
+        CheckAggregate aggregate = new CheckAggregate();
+        
+        if (tier.isPresent()) {
+            for (HealthCheckRollup rollup : rollupService.findRange(endpointId, tier.get(), from, to)) {
+                aggregate.add(RollupService.toAggregate(rollup));
+            }
+        } else {
+            try (Stream<Object[]> samples = rawSamples(endpointId, from, to)) {
+                samples.forEach(row -> aggregate.record(Boolean.TRUE.equals(row[1]), (Long) row[2]));
+            }
+        }
+        
+        RangeStats stats = new RangeStats(endpointId, from, to, tier.map(t -> t.name().toLowerCase()).orElse("raw"));
+        stats.setTotalChecks(aggregate.getCount());
+        stats.setSuccessfulChecks(aggregate.getSuccesses());
+        stats.setUptime(aggregate.getCount() > 0 ? aggregate.getSuccesses() * 100.0 / aggregate.getCount() : null);
+        stats.setMinResponseTime(aggregate.getLatencyMin());
+        stats.setAverageResponseTime(aggregate.getLatencyAverage());
+        stats.setMaxResponseTime(aggregate.getLatencyMax());
+        stats.setLatencyPercentiles(EndpointStatsAggregator.toPercentiles("range", aggregate.getHistogram()));
+        return stats;
+    }
+    
+    private Stream<Object[]> rawSamples(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        return healthCheckStore.streamSeriesSamples(endpointId, from, to);
+    }
+    
+    private void validate(Long endpointId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (apiEndpointService.getEndpointById(endpointId).isEmpty()) {
+            throw new RuntimeException("Endpoint not found with id: " + endpointId);
+        }
+    }
+    
+    private List<SeriesPoint> buckets(Stream<Object[]> samples, long fromMillis, long bucketMillis, int bucketCount) {
+        BucketedSeries buckets = new BucketedSeries(fromMillis, bucketMillis, bucketCount);
+        samples.forEach(row -> buckets.record(
+                toEpochMillis((LocalDateTime) row[0]), Boolean.TRUE.equals(row[1]), (Long) row[2]));
+        return toPoints(buckets);
+    }
+    
+    private List<SeriesPoint> buckets(List<HealthCheckRollup> rollups, long fromMillis, long bucketMillis, int bucketCount) {
+        BucketedSeries buckets = new BucketedSeries(fromMillis, bucketMillis, bucketCount);
+        for (HealthCheckRollup rollup : rollups) {
+            buckets.add(toEpochMillis(rollup.getBucketStart()), rollup.getCheckCount(), rollup.getSuccessCount(),
+                    rollup.getLatencyCount(), rollup.getLatencySum(),
+                    rollup.getLatencyMin() != null ? rollup.getLatencyMin() : 0,
+                    rollup.getLatencyMax() != null ? rollup.getLatencyMax() : 0);
+        }
+        return toPoints(buckets);
+    }
+    
+    private static Stream<Object[]> rollupSamples(List<HealthCheckRollup> rollups) {
+        // Each rollup contributes its average latency at the start of its interval
+        return rollups.stream()
+                .filter(rollup -> rollup.getLatencyCount() > 0)
+                .map(rollup -> new Object[] {rollup.getBucketStart(), rollup.getLatencySum() / rollup.getLatencyCount()});
+    }
+    
+    private List<SeriesPoint> toPoints(BucketedSeries buckets) {
+        List<SeriesPoint> points = new ArrayList<>();
+        for (int i = 0; i < buckets.getBucketCount(); i++) {
+            if (buckets.count(i) == 0) {
+                continue;
+            }
+            SeriesPoint point = new SeriesPoint(toLocalDateTime(buckets.bucketStart(i)));
+            point.setCount(buckets.count(i));
+            point.setSuccessRatio(buckets.successes(i) / (double) buckets.count(i));
+            if (buckets.hasLatency(i)) {
+                point.setMinResponseTime(buckets.minLatency(i));
+                point.setAvgResponseTime(buckets.averageLatency(i));
+                point.setMaxResponseTime(buckets.maxLatency(i));
+            }
+            points.add(point);
+        }
+        return points;
+    }
+    
+    /**
+     * @param samples time-ordered {checkedAt, latency} pairs
+     */
+    private List<SeriesPoint> lttb(Stream<Object[]> samples, long fromMillis, long bucketMillis) {
+        LttbDownsampler downsampler = new LttbDownsampler(fromMillis, bucketMillis);
+        samples.forEach(sample -> downsampler.add(toEpochMillis((LocalDateTime) sample[0]), (Long) sample[1]));
+        downsampler.finish();
+        
+        List<SeriesPoint> points = new ArrayList<>(downsampler.size());
+        for (int i = 0; i < downsampler.size(); i++) {
+            SeriesPoint point = new SeriesPoint(toLocalDateTime(downsampler.timeAt(i)));
+            point.setValue((long) downsampler.valueAt(i));
+            points.add(point);
+        }
+        return points;
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.example.apimonitoring.stats;
+
+/**
+ * Fixed-width time buckets over a range, filled in one pass: check and success counts, plus
+ * min/sum/max of the latencies of successful checks. Memory depends only on the bucket count.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class BucketedSeries {
+    
+    private final long fromMillis;
+    private final long bucketMillis;
+    private final long[] counts;
+    private final long[] successes;
+    private final long[] latencyCounts;
+    private final long[] latencySums;
+    private final long[] latencyMins;
+    private final long[] latencyMaxes;
+    
+    public BucketedSeries(long fromMillis, long bucketMillis, int bucketCount) {
+        this.fromMillis = fromMillis;
+        this.bucketMillis = bucketMillis;
+        this.counts = new long[bucketCount];
+        this.successes = new long[bucketCount];
+        this.latencyCounts = new long[bucketCount];
+        this.latencySums = new long[bucketCount];
+        this.latencyMins = new long[bucketCount];
+        this.latencyMaxes = new long[bucketCount];
+    }
+    
+    public void record(long timestampMillis, boolean successful, Long responseTime) {
+        int bucket = bucketOf(timestampMillis);
+        if (bucket < 0) {
+            return;
+        }
+        counts[bucket]++;
+        if (successful) {
+            successes[bucket]++;
+            if (responseTime != null) {
+                recordLatency(bucket, 1, responseTime, responseTime, responseTime);
+            }
+        }
+    }
+    
+    /**
+     * Folds in an already aggregated interval that starts at {@code timestampMillis}.
+     */
+    public void add(long timestampMillis, long count, long successful, long latencyCount,
+                    long latencySum, long latencyMin, long latencyMax) {
+        int bucket = bucketOf(timestampMillis);
+        if (bucket < 0) {
+            return;
+        }
+        counts[bucket] += count;
+        successes[bucket] += successful;
+        if (latencyCount > 0) {
+            recordLatency(bucket, latencyCount, latencySum, latencyMin, latencyMax);
+        }
+    }
+    
+    private void recordLatency(int bucket, long count, long sum, long min, long max) {
+        if (latencyCounts[bucket] == 0) {
+            latencyMins[bucket] = min;
+            latencyMaxes[bucket] = max;
+        } else {
+            latencyMins[bucket] = Math.min(latencyMins[bucket], min);
+            latencyMaxes[bucket] = Math.max(latencyMaxes[bucket], max);
+        }
+        latencyCounts[bucket] += count;
+        latencySums[bucket] += sum;
+    }
+    
+    private int bucketOf(long timestampMillis) {
+        long offset = timestampMillis - fromMillis;
+        if (offset < 0 || offset / bucketMillis >= counts.length) {
+            return -1;
+        }
+        return (int) (offset / bucketMillis);
+    }
+    
+    public int getBucketCount() {
+        return counts.length;
+    }
+    
+    public long bucketStart(int bucket) {
+        return fromMillis + bucket * bucketMillis;
+    }
+    
+    public long count(int bucket) {
+        return counts[bucket];
+    }
+    
+    public long successes(int bucket) {
+        return successes[bucket];
+    }
+    
+    public boolean hasLatency(int bucket) {
+        return latencyCounts[bucket] > 0;
+    }
+    
+    public long minLatency(int bucket) {
+        return latencyMins[bucket];
+    }
+    
+    public long maxLatency(int bucket) {
+        return latencyMaxes[bucket];
+    }
+    
+    public long averageLatency(int bucket) {
+        return latencySums[bucket] / latencyCounts[bucket];
+    }
+}
\ No newline at end of file
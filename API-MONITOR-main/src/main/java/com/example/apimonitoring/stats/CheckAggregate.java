@@ -0,0 +1,95 @@
+package com.example.apimonitoring.stats;
+
+/**
+ * Counts, latency sum/min/max and a latency histogram for a set of checks. Latency figures
+ * cover successful checks only, matching the live stats. Aggregates merge by addition, which is
+ * what lets rollup rows be built incrementally and combined across a range.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class CheckAggregate {
+    
+    private long count;
+    private long successes;
+    private long latencyCount;
+    private long latencySum;
+    private long latencyMin = Long.MAX_VALUE;
+    private long latencyMax = Long.MIN_VALUE;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    
+    public void record(boolean successful, Long responseTime) {
+        count++;
+        if (successful) {
+            successes++;
+            if (responseTime != null) {
+                latencyCount++;
+                latencySum += responseTime;
+                latencyMin = Math.min(latencyMin, responseTime);
+                latencyMax = Math.max(latencyMax, responseTime);
+                histogram.record(responseTime);
+            }
+        }
+    }
+    
+    /**
+     * Adds an aggregate in its stored form; {@code compactHistogram} may be null.
+     */
+    public void add(long count, long successes, long latencyCount, long latencySum,
+                    Long latencyMin, Long latencyMax, byte[] compactHistogram) {
+        this.count += count;
+        this.successes += successes;
+        this.latencyCount += latencyCount;
+        this.latencySum += latencySum;
+        if (latencyMin != null) {
+            this.latencyMin = Math.min(this.latencyMin, latencyMin);
+        }
+        if (latencyMax != null) {
+            this.latencyMax = Math.max(this.latencyMax, latencyMax);
+        }
+        if (compactHistogram != null) {
+            histogram.addCompactBytes(compactHistogram);
+        }
+    }
+    
+    public void add(CheckAggregate other) {
+        count += other.count;
+        successes += other.successes;
+        latencyCount += other.latencyCount;
+        latencySum += other.latencySum;
+        latencyMin = Math.min(latencyMin, other.latencyMin);
+        latencyMax = Math.max(latencyMax, other.latencyMax);
+        histogram.add(other.histogram);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getSuccesses() {
+        return successes;
+    }
+    
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+    
+    public long getLatencySum() {
+        return latencySum;
+    }
+    
+    public Long getLatencyMin() {
+        return latencyCount > 0 ? latencyMin : null;
+    }
+    
+    public Long getLatencyMax() {
+        return latencyCount > 0 ? latencyMax : null;
+    }
+    
+    public Long getLatencyAverage() {
+        return latencyCount > 0 ? latencySum / latencyCount : null;
+    }
+    
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
\ No newline at end of file
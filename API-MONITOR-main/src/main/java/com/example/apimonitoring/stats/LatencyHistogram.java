@@ -0,0 +1,154 @@
+package com.example.apimonitoring.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Fixed-memory log-linear latency histogram in the style of HdrHistogram. Values below 16ms are
+ * counted exactly; above that each power of two is split into 16 linear sub-buckets, so any
+ * reported percentile is within about 6% of the true value. Values above about 70 minutes are
+ * clamped into the last bucket. Histograms with the same layout can be merged by adding counts.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 22; // 2^22 ms, roughly 70 minutes
+    
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    static final long MAX_TRACKABLE_VALUE = (1L << MAX_EXPONENT) - 1;
+    
+    private final int[] counts = new int[BUCKET_COUNT];
+    private long totalCount;
+    
+    public void record(long value) {
+        counts[bucketIndex(value)]++;
+        totalCount++;
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+    
+    /**
+     * Adds counts previously produced by {@link #toCompactBytes()}.
+     */
+    public void addCompactBytes(byte[] bytes) {
+        int[] position = {0};
+        int nonEmpty = (int) readVarint(bytes, position);
+        int index = -1;
+        for (int i = 0; i < nonEmpty; i++) {
+            index += (int) readVarint(bytes, position) + 1;
+            long count = readVarint(bytes, position);
+            counts[index] += (int) count;
+            totalCount += count;
+        }
+    }
+    
+    /**
+     * Sparse encoding for storage: the number of non-empty buckets, then a varint index gap and
+     * varint count for each. A typical endpoint fills a handful of buckets, so this is tens of
+     * bytes rather than the 1.2KB of the in-memory array.
+     */
+    public byte[] toCompactBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        int nonEmpty = 0;
+        for (int count : counts) {
+            if (count != 0) {
+                nonEmpty++;
+            }
+        }
+        writeVarint(out, nonEmpty);
+        int previous = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                writeVarint(out, i - previous - 1);
+                writeVarint(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+    }
+    
+    public long getTotalCount() {
+        return totalCount;
+    }
+    
+    /**
+     * @param percentile in the range (0, 100]
+     * @return the representative value of the bucket holding that percentile, or null when empty
+     */
+    public Long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return representativeValue(i);
+            }
+        }
+        return representativeValue(BUCKET_COUNT - 1);
+    }
+    
+    static int bucketIndex(long value) {
+        long clamped = Math.max(0, Math.min(value, MAX_TRACKABLE_VALUE));
+        if (clamped < SUB_BUCKET_COUNT) {
+            return (int) clamped;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(clamped);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (clamped >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+    
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    private static long representativeValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        // Midpoint of the bucket's value range
+        return lowestValue(index) + ((1L << shift) >> 1);
+    }
+}
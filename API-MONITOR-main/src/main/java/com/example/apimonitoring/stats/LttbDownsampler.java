@@ -0,0 +1,161 @@
+package com.example.apimonitoring.stats;
+
+import java.util.Arrays;
+
+/**
+ * Largest-triangle-three-buckets downsampling in a single pass over time-ordered samples.
+ * <p>
+ * The range is split into equal time buckets. From each bucket LTTB keeps the sample that forms
+ * the largest triangle with the previously kept sample and the average of the next bucket, which
+ * preserves peaks and dips that averaging would flatten. Only the bucket being decided and the
+ * one after it are buffered, so memory is bounded by the samples in two buckets rather than the
+ * whole range. The first and last samples are always kept; the output has at most
+ * {@code bucketCount + 2} points.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class LttbDownsampler {
+    
+    private final long fromMillis;
+    private final long bucketMillis;
+    
+    private long[] outTimes = new long[16];
+    private double[] outValues = new double[16];
+    private int outSize;
+    
+    private boolean hasFirst;
+    private Bucket pending;   // Waiting for the next bucket's average
+    private Bucket current;   // Still receiving samples
+    private long lastTime;
+    private double lastValue;
+    private long currentIndex = -1;
+    
+    public LttbDownsampler(long fromMillis, long bucketMillis) {
+        this.fromMillis = fromMillis;
+        this.bucketMillis = bucketMillis;
+    }
+    
+    /**
+     * Adds the next sample. Timestamps must not decrease.
+     */
+    public void add(long timestampMillis, double value) {
+        if (!hasFirst) {
+            hasFirst = true;
+            emit(timestampMillis, value);
+            lastTime = timestampMillis;
+            lastValue = value;
+            return;
+        }
+        
+        long index = Math.max(0, (timestampMillis - fromMillis) / bucketMillis);
+        if (index != currentIndex) {
+            if (current != null) {
+                if (pending != null) {
+                    select(pending, current.averageTime(), current.averageValue());
+                }
+                pending = current;
+            }
+            current = new Bucket();
+            currentIndex = index;
+        }
+        current.add(timestampMillis, value);
+        lastTime = timestampMillis;
+        lastValue = value;
+    }
+    
+    public void finish() {
+        if (current == null) {
+            return; // Zero or one sample, already emitted
+        }
+        current.removeLast(); // The final sample is kept on its own
+        
+        if (current.size == 0) {
+            if (pending != null) {
+                select(pending, lastTime, lastValue);
+            }
+        } else {
+            if (pending != null) {
+                select(pending, current.averageTime(), current.averageValue());
+            }
+            select(current, lastTime, lastValue);
+        }
+        pending = null;
+        current = null;
+        emit(lastTime, lastValue);
+    }
+    
+    public int size() {
+        return outSize;
+    }
+    
+    public long timeAt(int index) {
+        return outTimes[index];
+    }
+    
+    public double valueAt(int index) {
+        return outValues[index];
+    }
+    
+    private void select(Bucket bucket, double nextTime, double nextValue) {
+        double previousTime = outTimes[outSize - 1];
+        double previousValue = outValues[outSize - 1];
+        
+        int best = 0;
+        double bestArea = -1;
+        for (int i = 0; i < bucket.size; i++) {
+            // Twice the triangle area; the factor does not change which sample wins
+            double area = Math.abs((previousTime - nextTime) * (bucket.values[i] - previousValue)
+                    - (previousTime - bucket.times[i]) * (nextValue - previousValue));
+            if (area > bestArea) {
+                bestArea = area;
+                best = i;
+            }
+        }
+        emit(bucket.times[best], bucket.values[best]);
+    }
+    
+    private void emit(long time, double value) {
+        if (outSize == outTimes.length) {
+            outTimes = Arrays.copyOf(outTimes, outSize * 2);
+            outValues = Arrays.copyOf(outValues, outSize * 2);
+        }
+        outTimes[outSize] = time;
+        outValues[outSize] = value;
+        outSize++;
+    }
+    
+    private static final class Bucket {
+        
+        private long[] times = new long[8];
+        private double[] values = new double[8];
+        private int size;
+        private double timeSum;
+        private double valueSum;
+        
+        void add(long time, double value) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            values[size] = value;
+            size++;
+            timeSum += time;
+            valueSum += value;
+        }
+        
+        void removeLast() {
+            size--;
+            timeSum -= times[size];
+            valueSum -= values[size];
+        }
+        
+        double averageTime() {
+            return timeSum / size;
+        }
+        
+        double averageValue() {
+            return valueSum / size;
+        }
+    }
+}
\ No newline at end of file
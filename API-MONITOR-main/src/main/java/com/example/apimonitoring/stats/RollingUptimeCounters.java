@@ -0,0 +1,88 @@
+package com.example.apimonitoring.stats;
+
+import java.time.Duration;
+
+/**
+ * Check and success counts in two circular arrays: one slot per minute for the last day and
+ * one slot per hour for the last week. A window is answered by summing its slots of one array,
+ * so the cost depends on the window's length, not on how many checks it covers. Windows up to
+ * 24 hours use minute resolution; longer ones are aligned to whole hours.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class RollingUptimeCounters {
+    
+    private static final long MINUTE_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    
+    private final Ring minutes = new Ring(MINUTE_MILLIS, 24 * 60);
+    private final Ring hours = new Ring(HOUR_MILLIS, 7 * 24);
+    
+    public void record(long timestampMillis, boolean successful) {
+        minutes.record(timestampMillis, successful);
+        hours.record(timestampMillis, successful);
+    }
+    
+    /**
+     * @return {total, successful} for the window ending at {@code nowMillis}
+     */
+    public long[] countsFor(Duration window, long nowMillis) {
+        Ring ring = window.toMillis() <= minutes.coverageMillis() ? minutes : hours;
+        return ring.sum(window.toMillis(), nowMillis);
+    }
+    
+    private static final class Ring {
+        
+        private final long slotMillis;
+        private final int[] totals;
+        private final int[] successes;
+        private final long[] slotEpochs;
+        
+        Ring(long slotMillis, int slotCount) {
+            this.slotMillis = slotMillis;
+            this.totals = new int[slotCount];
+            this.successes = new int[slotCount];
+            this.slotEpochs = new long[slotCount];
+        }
+        
+        long coverageMillis() {
+            return slotMillis * totals.length;
+        }
+        
+        void record(long timestampMillis, boolean successful) {
+            long epoch = timestampMillis / slotMillis;
+            int slot = (int) Math.floorMod(epoch, (long) totals.length);
+            
+            if (slotEpochs[slot] != epoch) {
+                if (slotEpochs[slot] > epoch) {
+                    return; // Older than anything this ring still covers
+                }
+                slotEpochs[slot] = epoch;
+                totals[slot] = 0;
+                successes[slot] = 0;
+            }
+            totals[slot]++;
+            if (successful) {
+                successes[slot]++;
+            }
+        }
+        
+        long[] sum(long windowMillis, long nowMillis) {
+            long nowEpoch = nowMillis / slotMillis;
+            long slotsInWindow = Math.min(totals.length, Math.max(1, (windowMillis + slotMillis - 1) / slotMillis));
+            long oldestEpoch = nowEpoch - slotsInWindow + 1;
+            
+            // Only the window's own slots, so a 5 minute window reads 5 of the 1440 minute slots
+            long total = 0;
+            long successful = 0;
+            for (long epoch = oldestEpoch; epoch <= nowEpoch; epoch++) {
+                int slot = (int) Math.floorMod(epoch, (long) totals.length);
+                if (slotEpochs[slot] == epoch) {
+                    total += totals[slot];
+                    successful += successes[slot];
+                }
+            }
+            return new long[] {total, successful};
+        }
+    }
+}
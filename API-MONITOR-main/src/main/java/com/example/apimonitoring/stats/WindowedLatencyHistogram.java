@@ -0,0 +1,92 @@
+package com.example.apimonitoring.stats;
+
+import java.time.Duration;
+
+/**
+ * Latency histograms kept per time bucket in three rings: 5-minute buckets covering the last
+ * hour, hourly buckets covering the last day and daily buckets covering the last week. A
+ * windowed percentile is answered by merging the buckets of the finest ring that spans the
+ * window, so the window edges are aligned to that ring's bucket size. Bucket histograms are
+ * allocated on first use.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public class WindowedLatencyHistogram {
+    
+    private static final Duration[] BUCKET_SPANS = {Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofDays(1)};
+    private static final int[] BUCKETS_PER_RING = {12, 24, 7};
+    
+    private final Ring[] rings = new Ring[BUCKET_SPANS.length];
+    
+    public WindowedLatencyHistogram() {
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new Ring(BUCKET_SPANS[i].toMillis(), BUCKETS_PER_RING[i]);
+        }
+    }
+    
+    public void record(long timestampMillis, long value) {
+        for (Ring ring : rings) {
+            ring.record(timestampMillis, value);
+        }
+    }
+    
+    /**
+     * Merges the buckets covering the given window ending at {@code nowMillis}. Windows longer
+     * than the coarsest ring are truncated to it.
+     */
+    public LatencyHistogram merge(Duration window, long nowMillis) {
+        long windowMillis = window.toMillis();
+        Ring ring = rings[rings.length - 1];
+        for (Ring candidate : rings) {
+            if (candidate.spanMillis * candidate.buckets.length >= windowMillis) {
+                ring = candidate;
+                break;
+            }
+        }
+        return ring.merge(windowMillis, nowMillis);
+    }
+    
+    private static final class Ring {
+        
+        private final long spanMillis;
+        private final LatencyHistogram[] buckets;
+        private final long[] bucketEpochs;
+        
+        Ring(long spanMillis, int bucketCount) {
+            this.spanMillis = spanMillis;
+            this.buckets = new LatencyHistogram[bucketCount];
+            this.bucketEpochs = new long[bucketCount];
+        }
+        
+        void record(long timestampMillis, long value) {
+            long epoch = timestampMillis / spanMillis;
+            int slot = (int) Math.floorMod(epoch, (long) buckets.length);
+            
+            if (buckets[slot] == null) {
+                buckets[slot] = new LatencyHistogram();
+                bucketEpochs[slot] = epoch;
+            } else if (bucketEpochs[slot] != epoch) {
+                if (bucketEpochs[slot] > epoch) {
+                    return; // Older than anything this ring still covers
+                }
+                buckets[slot].reset();
+                bucketEpochs[slot] = epoch;
+            }
+            buckets[slot].record(value);
+        }
+        
+        LatencyHistogram merge(long windowMillis, long nowMillis) {
+            long nowEpoch = nowMillis / spanMillis;
+            long bucketsInWindow = Math.min(buckets.length, Math.max(1, (windowMillis + spanMillis - 1) / spanMillis));
+            long oldestEpoch = nowEpoch - bucketsInWindow + 1;
+            
+            LatencyHistogram merged = new LatencyHistogram();
+            for (int slot = 0; slot < buckets.length; slot++) {
+                if (buckets[slot] != null && bucketEpochs[slot] >= oldestEpoch && bucketEpochs[slot] <= nowEpoch) {
+                    merged.add(buckets[slot]);
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Protocol the endpoint is probed with: HTTP1, or HTTP2 to negotiate h2/h2c and multiplex probes per host.
+ALTER TABLE api_endpoints ADD COLUMN IF NOT EXISTS probe_protocol VARCHAR(16) DEFAULT 'HTTP1';
+UPDATE api_endpoints SET probe_protocol = 'HTTP1' WHERE probe_protocol IS NULL;
\ No newline at end of file
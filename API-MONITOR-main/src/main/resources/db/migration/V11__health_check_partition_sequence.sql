@@ -0,0 +1,3 @@
+-- Ids of health checks in daily partitions (monitoring.storage.partitioning: daily), handed out in
+-- blocks of 50 so several instances sharing the database never reuse one.
+CREATE SEQUENCE IF NOT EXISTS health_check_partition_seq START WITH 1 INCREMENT BY 50;
\ No newline at end of file
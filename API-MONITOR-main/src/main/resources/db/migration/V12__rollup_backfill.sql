@@ -0,0 +1,10 @@
+-- Completion marker of the rollup backfill from raw history. Databases that already hold rollups
+-- were backfilled by earlier versions, which only checked that the rollup table was non-empty.
+CREATE TABLE rollup_backfill (
+    id BIGINT PRIMARY KEY,
+    backfilled_rows BIGINT NOT NULL,
+    completed_at TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO rollup_backfill (id, backfilled_rows, completed_at)
+SELECT 1, 0, CURRENT_TIMESTAMP WHERE EXISTS (SELECT 1 FROM health_check_rollups);
\ No newline at end of file
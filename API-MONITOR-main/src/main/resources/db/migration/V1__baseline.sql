@@ -0,0 +1,27 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update). Existing databases are
+-- baselined at this version instead of running it; Hibernate named their foreign key itself, so
+-- later migrations must not refer to it by name.
+
+CREATE TABLE api_endpoints (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    url VARCHAR(255) NOT NULL,
+    http_method VARCHAR(255) NOT NULL,
+    expected_status INTEGER,
+    timeout_ms INTEGER,
+    check_interval_ms BIGINT,
+    is_active BOOLEAN,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE health_checks (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    api_endpoint_id BIGINT NOT NULL,
+    status_code INTEGER,
+    response_time_ms BIGINT,
+    is_successful BOOLEAN,
+    error_message VARCHAR(1000),
+    checked_at TIMESTAMP(6),
+    CONSTRAINT fk_health_checks_api_endpoint FOREIGN KEY (api_endpoint_id) REFERENCES api_endpoints (id)
+);
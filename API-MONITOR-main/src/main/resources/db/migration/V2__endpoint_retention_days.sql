@@ -0,0 +1,2 @@
+-- Per-endpoint retention of health checks in days; NULL means monitoring.retention.default-days.
+ALTER TABLE api_endpoints ADD COLUMN IF NOT EXISTS retention_days INTEGER;
@@ -0,0 +1,7 @@
+-- Health check ids come from a sequence in blocks of 50, so the write-behind buffer can batch its
+-- inserts; IDENTITY ids are fetched back one row at a time. Hibernate's pooled optimizer hands out
+-- the 50 ids up to the value it reads, so the sequence continues 50 past the highest existing id.
+ALTER TABLE health_checks ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE health_check_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE health_check_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM health_checks);
@@ -0,0 +1,26 @@
+-- Failed checks store a FailureClass code and the id of their interned message instead of the
+-- message text.
+CREATE TABLE error_messages (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    message VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_error_messages_message UNIQUE (message)
+);
+
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS failure_class INTEGER;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS error_message_id BIGINT;
+
+INSERT INTO error_messages (message, created_at)
+SELECT DISTINCT error_message, CURRENT_TIMESTAMP FROM health_checks WHERE error_message IS NOT NULL;
+
+UPDATE health_checks
+SET error_message_id = (SELECT m.id FROM error_messages m WHERE m.message = health_checks.error_message)
+WHERE error_message IS NOT NULL;
+
+-- Earlier failures only recorded a status code when the response was the wrong one
+-- (UNEXPECTED_STATUS = 1); anything else is UNKNOWN (10).
+UPDATE health_checks
+SET failure_class = CASE WHEN status_code IS NOT NULL THEN 1 ELSE 10 END
+WHERE is_successful = FALSE;
+
+ALTER TABLE health_checks DROP COLUMN error_message;
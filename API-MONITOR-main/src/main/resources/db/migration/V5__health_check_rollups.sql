@@ -0,0 +1,18 @@
+-- Minute, hour and day aggregates of health checks (see RollupService), one row per endpoint,
+-- tier and bucket.
+CREATE SEQUENCE health_check_rollup_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE health_check_rollups (
+    id BIGINT PRIMARY KEY,
+    api_endpoint_id BIGINT NOT NULL,
+    tier VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    check_count BIGINT,
+    success_count BIGINT,
+    latency_count BIGINT,
+    latency_sum BIGINT,
+    latency_min BIGINT,
+    latency_max BIGINT,
+    latency_histogram VARBINARY(4096),
+    CONSTRAINT uk_health_check_rollups_bucket UNIQUE (api_endpoint_id, tier, bucket_start)
+);
@@ -0,0 +1,7 @@
+-- Highest probe journal sequence applied to the store, so replay at startup skips records that
+-- are already persisted.
+CREATE TABLE journal_checkpoint (
+    id BIGINT PRIMARY KEY,
+    applied_sequence BIGINT NOT NULL,
+    updated_at TIMESTAMP(6)
+);
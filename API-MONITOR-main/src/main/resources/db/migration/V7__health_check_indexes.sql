@@ -0,0 +1,11 @@
+-- Access paths of HealthCheckRepository; keep in sync with HealthCheckIndexes, which applies the
+-- same definitions to daily partitions and the query benchmark.
+
+-- Per-endpoint time ranges, keyset pages, failure counts and retention id bounds. Carries the
+-- columns those queries project, so they are answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_health_checks_by_endpoint
+    ON health_checks (api_endpoint_id, checked_at, id, is_successful, response_time_ms, failure_class);
+
+-- Time order across all endpoints, for the stats replay at startup.
+CREATE INDEX IF NOT EXISTS idx_health_checks_by_time
+    ON health_checks (checked_at, id);
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Whether the probe's request went out on a pooled keep-alive connection (TRUE) or had to open
+-- a new one (FALSE). NULL when the probe failed before a connection was acquired, and for
+-- checks recorded before this column existed.
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS connection_reused BOOLEAN;
\ No newline at end of file
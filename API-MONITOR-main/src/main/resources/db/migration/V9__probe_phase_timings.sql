@@ -0,0 +1,11 @@
+-- Per-phase probe timings in nanoseconds (see ProbePhase). NULL when the phase did not happen,
+-- e.g. DNS, connect and TLS on a reused connection, or when phase timing is off for the endpoint.
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS dns_nanos BIGINT;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS connect_nanos BIGINT;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS tls_nanos BIGINT;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS ttfb_nanos BIGINT;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS body_nanos BIGINT;
+ALTER TABLE health_checks ADD COLUMN IF NOT EXISTS total_nanos BIGINT;
+
+ALTER TABLE api_endpoints ADD COLUMN IF NOT EXISTS phase_timing_enabled BOOLEAN DEFAULT TRUE;
+UPDATE api_endpoints SET phase_timing_enabled = TRUE WHERE phase_timing_enabled IS NULL;
\ No newline at end of file
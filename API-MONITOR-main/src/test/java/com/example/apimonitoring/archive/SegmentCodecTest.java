@@ -0,0 +1,96 @@
+package com.example.apimonitoring.archive;
+
+import com.example.apimonitoring.model.FailureClass;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round trips columns through an encoded segment and reads them back with a cursor, from a
+ * direct buffer as a mapped file would be.
+ */
+class SegmentCodecTest {
+    
+    private static final long START = 1_700_000_000_000L;
+    
+    @Test
+    void cursorReturnsEveryRowAsEncoded() {
+        SegmentColumns columns = sampleColumns();
+        SegmentCodec.Segment segment = SegmentCodec.read(direct(SegmentCodec.encode(7L, 19_000L, columns)));
+        
+        assertThat(segment.endpointId()).isEqualTo(7L);
+        assertThat(segment.epochDay()).isEqualTo(19_000L);
+        assertThat(segment.size()).isEqualTo(columns.size());
+        SegmentCodec.Cursor cursor = segment.cursor();
+        for (int i = 0; i < columns.size(); i++) {
+            assertThat(cursor.next()).isTrue();
+            assertThat(cursor.timestamp()).isEqualTo(columns.timestampAt(i));
+            assertThat(cursor.latency()).isEqualTo(columns.latencyAt(i));
+            assertThat(cursor.successful()).isEqualTo(columns.successAt(i));
+            assertThat(cursor.statusCode()).isEqualTo(columns.statusCodeAt(i));
+            assertThat(cursor.failureClass()).isEqualTo(columns.failureClassAt(i));
+            assertThat(cursor.error()).isEqualTo(columns.errorAt(i));
+        }
+        assertThat(cursor.next()).isFalse();
+        assertThat(cursor.peekTimestamp()).isEqualTo(Long.MAX_VALUE);
+    }
+    
+    @Test
+    void seekSkipsToTheFirstRowAtOrAfterTheTimestamp() {
+        SegmentColumns columns = sampleColumns();
+        SegmentCodec.Segment segment = SegmentCodec.read(direct(SegmentCodec.encode(7L, 19_000L, columns)));
+        
+        SegmentCodec.Cursor cursor = segment.cursor();
+        cursor.seek(columns.timestampAt(40) - 1);
+        assertThat(cursor.peekTimestamp()).isEqualTo(columns.timestampAt(40));
+        List<Integer> rows = new ArrayList<>();
+        while (cursor.peekTimestamp() < columns.timestampAt(45) && cursor.next()) {
+            int row = (int) ((cursor.timestamp() - START) / 60_000);
+            assertThat(cursor.latency()).isEqualTo(columns.latencyAt(row));
+            assertThat(cursor.error()).isEqualTo(columns.errorAt(row));
+            assertThat(cursor.failureClass()).isEqualTo(columns.failureClassAt(row));
+            rows.add(row);
+        }
+        assertThat(rows).containsExactly(40, 41, 42, 43, 44);
+        
+        cursor.seek(Long.MAX_VALUE);
+        assertThat(cursor.next()).isFalse();
+    }
+    
+    @Test
+    void readRejectsACorruptSegment() {
+        byte[] encoded = SegmentCodec.encode(7L, 19_000L, sampleColumns());
+        encoded[encoded.length / 2] ^= 1;
+        
+        assertThatThrownBy(() -> SegmentCodec.read(direct(encoded)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checksum");
+    }
+    
+    /**
+     * One check a minute, with runs of failures and the odd missing latency and status code.
+     */
+    private static SegmentColumns sampleColumns() {
+        SegmentColumns columns = new SegmentColumns(4);
+        for (int i = 0; i < 100; i++) {
+            boolean failed = i % 17 >= 14;
+            Long latency = i % 23 == 5 ? null : 100L + (i * 37) % 250;
+            Integer statusCode = failed ? (i % 2 == 0 ? null : Integer.valueOf(503)) : Integer.valueOf(200);
+            FailureClass failureClass = failed ? (i % 2 == 0 ? FailureClass.TIMEOUT : FailureClass.UNEXPECTED_STATUS) : null;
+            String error = failed ? (i % 2 == 0 ? "Read timed out" : "Service unavailable") : null;
+            columns.add(START + i * 60_000L, latency, !failed, statusCode, failureClass, error);
+        }
+        return columns;
+    }
+    
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+}
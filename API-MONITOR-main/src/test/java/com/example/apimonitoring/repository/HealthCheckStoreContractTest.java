@@ -0,0 +1,210 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.dto.RetentionReport;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.FailureClass;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.ProbePhase;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every {@link HealthCheckStore} backend shares. Subclasses supply the store and
+ * create endpoints; each test works on fresh endpoints and only looks at their rows. Tests run
+ * in a transaction where there is a transaction manager, as callers of a JPA store do.
+ */
+@Transactional
+abstract class HealthCheckStoreContractTest {
+    
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 1, 1, 0, 0);
+    
+    protected abstract HealthCheckStore store();
+    
+    protected abstract ApiEndpoint newEndpoint();
+    
+    @Test
+    void saveAllAssignsIdsAndFindLatestReturnsTheNewestCheck() {
+        ApiEndpoint endpoint = newEndpoint();
+        List<HealthCheck> batch = List.of(success(endpoint, 0, 120L), success(endpoint, 2, 80L), success(endpoint, 1, 100L));
+        store().saveAll(batch);
+        
+        assertThat(batch).extracting(HealthCheck::getId).doesNotContainNull().doesNotHaveDuplicates();
+        HealthCheck latest = store().findLatest(endpoint.getId()).orElseThrow();
+        assertThat(latest.getCheckedAt()).isEqualTo(minutes(2));
+        assertThat(latest.getResponseTimeMs()).isEqualTo(80L);
+        assertThat(latest.getStatusCode()).isEqualTo(200);
+        assertThat(latest.getIsSuccessful()).isTrue();
+        assertThat(store().findLatest(newEndpoint().getId())).isEmpty();
+    }
+    
+    @Test
+    void findPageBeforeWalksNewestFirstFromTheCursor() {
+        ApiEndpoint endpoint = newEndpoint();
+        store().saveAll(List.of(success(endpoint, 0, 10L), success(endpoint, 1, 11L), success(endpoint, 2, 12L),
+                success(endpoint, 3, 13L), success(endpoint, 4, 14L)));
+        
+        List<HealthCheck> first = store().findPageBefore(endpoint.getId(), EPOCH, FAR_FUTURE, Long.MAX_VALUE, 2);
+        assertThat(first).extracting(HealthCheck::getResponseTimeMs).containsExactly(14L, 13L);
+        HealthCheck cursor = first.get(1);
+        List<HealthCheck> second = store().findPageBefore(endpoint.getId(), EPOCH, cursor.getCheckedAt(), cursor.getId(), 2);
+        assertThat(second).extracting(HealthCheck::getResponseTimeMs).containsExactly(12L, 11L);
+        
+        assertThat(store().findPageBefore(endpoint.getId(), minutes(2), FAR_FUTURE, Long.MAX_VALUE, 10))
+                .extracting(HealthCheck::getResponseTimeMs).containsExactly(14L, 13L, 12L);
+    }
+    
+    @Test
+    void rangeStreamsReturnHalfOpenRangesInTimeOrder() {
+        ApiEndpoint endpoint = newEndpoint();
+        store().saveAll(List.of(success(endpoint, 3, 13L), failure(endpoint, 1, FailureClass.TIMEOUT),
+                success(endpoint, 0, 10L), success(endpoint, 2, 12L), success(endpoint, 4, 14L)));
+        
+        try (Stream<Object[]> rows = store().streamHealthChecks(endpoint.getId(), minutes(1), minutes(4))) {
+            List<Object[]> checks = rows.toList();
+            assertThat(checks).extracting(row -> row[1]).containsExactly(minutes(1), minutes(2), minutes(3));
+            assertThat(checks.get(0)[2]).isEqualTo(false);
+            assertThat(checks.get(0)[5]).isEqualTo(FailureClass.TIMEOUT);
+            assertThat(((Number) checks.get(1)[3]).intValue()).isEqualTo(200);
+            assertThat(((Number) checks.get(1)[4]).longValue()).isEqualTo(12L);
+        }
+        try (Stream<Object[]> rows = store().streamSeriesSamples(endpoint.getId(), minutes(2), minutes(5))) {
+            assertThat(rows.toList()).extracting(row -> ((Number) row[2]).longValue()).containsExactly(12L, 13L, 14L);
+        }
+    }
+    
+    @Test
+    void countFailuresByClassCountsFailuresInRange() {
+        ApiEndpoint endpoint = newEndpoint();
+        store().saveAll(List.of(failure(endpoint, 0, FailureClass.TIMEOUT), failure(endpoint, 1, FailureClass.TIMEOUT),
+                failure(endpoint, 2, FailureClass.DNS), success(endpoint, 3, 10L), failure(endpoint, 10, FailureClass.DNS)));
+        
+        Map<Object, Long> counts = new HashMap<>();
+        for (Object[] row : store().countFailuresByClass(endpoint.getId(), minutes(0), minutes(5))) {
+            counts.put(row[0], ((Number) row[1]).longValue());
+        }
+        assertThat(counts).containsOnly(Map.entry(FailureClass.TIMEOUT, 2L), Map.entry(FailureClass.DNS, 1L));
+    }
+    
+    @Test
+    void summarizeByEndpointTotalsEveryCheckUpToTheMaxId() {
+        ApiEndpoint endpoint = newEndpoint();
+        HealthCheck reused = success(endpoint, 0, 100L);
+        reused.setConnectionReused(true);
+        reused.setDnsNanos(2_000_000L);
+        reused.setTotalNanos(100_000_000L);
+        HealthCheck fresh = success(endpoint, 1, 300L);
+        fresh.setConnectionReused(false);
+        fresh.setDnsNanos(6_000_000L);
+        HealthCheck unclassified = failure(endpoint, 3, null);
+        store().saveAll(List.of(reused, fresh, failure(endpoint, 2, FailureClass.TIMEOUT), unclassified));
+        long maxId = store().maxId();
+        // Stored after the bound was read, so left out even though one is older than the rest
+        store().saveAll(List.of(success(endpoint, 10, 900L), failure(endpoint, -1, FailureClass.DNS)));
+        
+        Object[] row = store().summarizeByEndpoint(maxId).stream()
+                .filter(summary -> ((Number) summary[0]).longValue() == endpoint.getId())
+                .findFirst().orElseThrow();
+        assertThat(longsOf(row, 1, 11)).containsExactly(4L, 2L, 400L, 100L, 300L, 1L, 1L, 1L, 100L, 1L, 300L);
+        assertThat(longsOf(row, 12 + 3 * ProbePhase.DNS.ordinal(), 3)).containsExactly(2L, 8_000_000L, 6_000_000L);
+        assertThat(longsOf(row, 12 + 3 * ProbePhase.TOTAL.ordinal(), 3)).containsExactly(1L, 100_000_000L, 100_000_000L);
+        assertThat(longsOf(row, 12 + 3 * ProbePhase.TLS.ordinal(), 3)).containsExactly(0L, null, null);
+        
+        Map<Object, Long> failures = new HashMap<>();
+        for (Object[] failure : store().countFailuresByEndpointAndClass(maxId)) {
+            if (((Number) failure[0]).longValue() == endpoint.getId()) {
+                failures.put(failure[1] != null ? failure[1] : "none", ((Number) failure[2]).longValue());
+            }
+        }
+        assertThat(failures).containsOnly(Map.entry(FailureClass.TIMEOUT, 1L), Map.entry("none", 1L));
+    }
+    
+    @Test
+    void orderedCheckSummariesListEachEndpointInTimeOrder() {
+        ApiEndpoint first = newEndpoint();
+        ApiEndpoint second = newEndpoint();
+        store().saveAll(List.of(success(second, 2, 22L), success(first, 1, 11L), success(second, 0, 20L),
+                success(first, 0, 10L), failure(second, 1, FailureClass.DNS)));
+        
+        long maxId = store().maxId();
+        store().saveAll(List.of(success(first, 2, 12L)));
+        
+        Map<Long, List<Object>> times = new HashMap<>();
+        try (Stream<Object[]> rows = store().streamOrderedCheckSummaries(maxId)) {
+            rows.filter(row -> row[0].equals(first.getId()) || row[0].equals(second.getId()))
+                .forEach(row -> times.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row[1]));
+        }
+        assertThat(times.get(first.getId())).containsExactly(minutes(0), minutes(1));
+        assertThat(times.get(second.getId())).containsExactly(minutes(0), minutes(1), minutes(2));
+    }
+    
+    @Test
+    void purgeExpiredDeletesOnlyChecksOlderThanTheRetention() {
+        ApiEndpoint endpoint = newEndpoint();
+        ApiEndpoint kept = newEndpoint();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        store().saveAll(List.of(check(endpoint, now.minusDays(3), true, 30L, null),
+                check(endpoint, now.minusMinutes(5), true, 5L, null),
+                check(kept, now.minusMinutes(5), true, 6L, null)));
+        
+        store().purgeExpired(Map.of(1, List.of(endpoint.getId())), new RetentionReport(now));
+        
+        assertThat(store().findPageBefore(endpoint.getId(), EPOCH, FAR_FUTURE, Long.MAX_VALUE, 10))
+                .extracting(HealthCheck::getResponseTimeMs).containsExactly(5L);
+        assertThat(store().findLatest(kept.getId())).isPresent();
+    }
+    
+    @Test
+    void deleteByEndpointRemovesOnlyThatEndpoint() {
+        ApiEndpoint deleted = newEndpoint();
+        ApiEndpoint kept = newEndpoint();
+        store().saveAll(List.of(success(deleted, 0, 10L), success(kept, 0, 20L)));
+        
+        store().deleteByEndpoint(deleted.getId());
+        
+        assertThat(store().findLatest(deleted.getId())).isEmpty();
+        assertThat(store().findLatest(kept.getId())).map(HealthCheck::getResponseTimeMs).contains(20L);
+    }
+    
+    private static LocalDateTime minutes(int offset) {
+        return BASE.plusMinutes(offset);
+    }
+    
+    private static HealthCheck success(ApiEndpoint endpoint, int minute, Long responseTimeMs) {
+        return check(endpoint, minutes(minute), true, responseTimeMs, null);
+    }
+    
+    private static HealthCheck failure(ApiEndpoint endpoint, int minute, FailureClass failureClass) {
+        return check(endpoint, minutes(minute), false, 5000L, failureClass);
+    }
+    
+    private static HealthCheck check(ApiEndpoint endpoint, LocalDateTime checkedAt, boolean successful,
+                                     Long responseTimeMs, FailureClass failureClass) {
+        HealthCheck healthCheck = new HealthCheck(endpoint);
+        healthCheck.setCheckedAt(checkedAt);
+        healthCheck.setIsSuccessful(successful);
+        healthCheck.setStatusCode(successful ? 200 : null);
+        healthCheck.setResponseTimeMs(responseTimeMs);
+        healthCheck.setFailureClass(failureClass);
+        return healthCheck;
+    }
+    
+    private static Long[] longsOf(Object[] row, int from, int count) {
+        Long[] values = new Long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = row[from + i] != null ? ((Number) row[from + i]).longValue() : null;
+        }
+        return values;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class InMemoryHealthCheckStoreTest extends HealthCheckStoreContractTest {
+    
+    private final InMemoryHealthCheckStore store = new InMemoryHealthCheckStore(1000);
+    private final AtomicLong endpointIds = new AtomicLong();
+    
+    @Override
+    protected HealthCheckStore store() {
+        return store;
+    }
+    
+    @Override
+    protected ApiEndpoint newEndpoint() {
+        ApiEndpoint endpoint = new ApiEndpoint("Contract " + endpointIds.incrementAndGet(), "http://localhost/health", "GET");
+        endpoint.setId(endpointIds.get());
+        return endpoint;
+    }
+}
\ No newline at end of file
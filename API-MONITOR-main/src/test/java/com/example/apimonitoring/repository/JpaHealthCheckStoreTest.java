@@ -0,0 +1,30 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the store contract against the Flyway-migrated schema on an embedded database.
+ */
+@DataJpaTest(showSql = false)
+@Import(JpaHealthCheckStore.class)
+class JpaHealthCheckStoreTest extends HealthCheckStoreContractTest {
+    
+    @Autowired
+    private JpaHealthCheckStore store;
+    
+    @Autowired
+    private ApiEndpointRepository apiEndpointRepository;
+    
+    @Override
+    protected HealthCheckStore store() {
+        return store;
+    }
+    
+    @Override
+    protected ApiEndpoint newEndpoint() {
+        return apiEndpointRepository.save(new ApiEndpoint("Contract", "http://localhost/health", "GET"));
+    }
+}
\ No newline at end of file
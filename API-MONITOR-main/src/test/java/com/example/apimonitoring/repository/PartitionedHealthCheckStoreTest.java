@@ -0,0 +1,64 @@
+package com.example.apimonitoring.repository;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The store contract with checks in daily partitions.
+ */
+@DataJpaTest(showSql = false)
+@Import(PartitionedHealthCheckStore.class)
+@TestPropertySource(properties = "monitoring.storage.partitioning=daily")
+class PartitionedHealthCheckStoreTest extends HealthCheckStoreContractTest {
+    
+    @Autowired
+    private PartitionedHealthCheckStore store;
+    
+    @Autowired
+    private ApiEndpointRepository apiEndpointRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    protected HealthCheckStore store() {
+        return store;
+    }
+    
+    @Override
+    protected ApiEndpoint newEndpoint() {
+        return apiEndpointRepository.save(new ApiEndpoint("Contract", "http://localhost/health", "GET"));
+    }
+    
+    @Test
+    void idsComeFromTheDatabaseSequence() {
+        ApiEndpoint endpoint = newEndpoint();
+        List<HealthCheck> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            HealthCheck healthCheck = new HealthCheck();
+            healthCheck.setApiEndpoint(endpoint);
+            healthCheck.setCheckedAt(LocalDateTime.now().minusSeconds(i));
+            healthCheck.setIsSuccessful(true);
+            batch.add(healthCheck);
+        }
+        
+        store.saveAll(batch);
+        
+        assertThat(batch).extracting(HealthCheck::getId).doesNotHaveDuplicates().doesNotContainNull();
+        // A second block was taken from the sequence after the first 50 ids
+        Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR health_check_partition_seq", Long.class);
+        assertThat(next).isGreaterThan(batch.get(batch.size() - 1).getId());
+    }
+}
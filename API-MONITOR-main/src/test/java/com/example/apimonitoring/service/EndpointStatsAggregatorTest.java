@@ -0,0 +1,132 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.MonitoringStats;
+import com.example.apimonitoring.dto.UptimeWindow;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.repository.InMemoryHealthCheckStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * A rebuild keeps checks that were recorded but not yet stored when it started, and checks
+ * recorded while it runs, counting each once whenever it is stored. Uptime windows count only
+ * their own checks and report a burn rate only when the SLA target leaves an error budget.
+ */
+class EndpointStatsAggregatorTest {
+    
+    private final InMemoryHealthCheckStore store = Mockito.spy(new InMemoryHealthCheckStore(1000));
+    private final HealthCheckWriteBehind writeBehind = Mockito.mock(HealthCheckWriteBehind.class);
+    private final ApiEndpoint endpoint = new ApiEndpoint();
+    
+    private EndpointStatsAggregator aggregator;
+    
+    @BeforeEach
+    void setUp() {
+        endpoint.setId(1L);
+        when(writeBehind.currentPosition()).thenAnswer(invocation -> new HealthCheckWriteBehind.WritePosition(store.maxId(), null));
+        aggregator = new EndpointStatsAggregator(store, writeBehind, Mockito.mock(ErrorMessageDictionary.class), 99.9, 1000);
+    }
+    
+    @Test
+    void rebuildMergesChecksRecordedWhileItRuns() throws InterruptedException {
+        HealthCheck stored = check(LocalDateTime.now().minusMinutes(5));
+        aggregator.record(stored);
+        store.saveAll(List.of(stored));
+        HealthCheck buffered = check(LocalDateTime.now().minusMinutes(1));
+        aggregator.record(buffered);
+        
+        when(writeBehind.awaitWritten(anyLong())).thenAnswer(invocation -> {
+            // The write-behind catches up while two probes complete; only one of them is stored in time
+            store.saveAll(List.of(buffered));
+            Thread.sleep(5);
+            HealthCheck storedMeanwhile = check(LocalDateTime.now());
+            aggregator.record(storedMeanwhile);
+            store.saveAll(List.of(storedMeanwhile));
+            aggregator.record(check(LocalDateTime.now()));
+            return true;
+        });
+        aggregator.rebuild();
+        
+        assertThat(aggregator.statsFor(endpoint).getTotalChecks()).isEqualTo(4);
+        
+        aggregator.record(check(LocalDateTime.now()));
+        assertThat(aggregator.statsFor(endpoint).getTotalChecks()).isEqualTo(5);
+    }
+    
+    @Test
+    void rebuildCountsAProbeStartedBeforeItButStoredDuringTheReadsOnce() throws InterruptedException {
+        HealthCheck stored = check(LocalDateTime.now().minusMinutes(5));
+        store.saveAll(List.of(stored));
+        when(writeBehind.awaitWritten(anyLong())).thenReturn(true);
+        HealthCheck late = check(LocalDateTime.now().minusSeconds(1));
+        late.setResponseTimeMs(900L);
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            // Started before the rebuild, recorded and stored between its reads
+            aggregator.record(late);
+            store.saveAll(List.of(late));
+            return result;
+        }).when(store).summarizeByEndpoint(anyLong());
+        
+        aggregator.rebuild();
+        
+        MonitoringStats stats = aggregator.statsFor(endpoint);
+        assertThat(stats.getTotalChecks()).isEqualTo(2);
+        assertThat(stats.getSuccessfulChecks()).isEqualTo(2);
+        assertThat(stats.getLatencyPercentiles().getSampleCount()).isEqualTo(2);
+        assertThat(stats.getMaxResponseTime()).isEqualTo(900L);
+    }
+    
+    @Test
+    void uptimeWindowsCountOnlyTheirOwnChecks() {
+        aggregator.record(check(LocalDateTime.now().minusMinutes(10)));
+        HealthCheck failed = check(LocalDateTime.now().minusMinutes(1));
+        failed.setIsSuccessful(false);
+        aggregator.record(failed);
+        aggregator.record(check(LocalDateTime.now()));
+        
+        List<UptimeWindow> windows = aggregator.getUptimeWindows(endpoint.getId());
+        assertThat(windows).extracting(UptimeWindow::getWindow).containsExactly("5m", "1h", "24h", "7d");
+        assertThat(windows.get(0).getTotalChecks()).isEqualTo(2);
+        assertThat(windows.get(0).getErrorBudgetBurnRate()).isCloseTo(500.0, within(1e-6));
+        assertThat(windows.get(1).getTotalChecks()).isEqualTo(3);
+        assertThat(windows.get(3).getTotalChecks()).isEqualTo(3);
+    }
+    
+    @Test
+    void aHundredPercentTargetHasNoBurnRate() {
+        aggregator = new EndpointStatsAggregator(store, writeBehind, Mockito.mock(ErrorMessageDictionary.class), 100.0, 1000);
+        HealthCheck failed = check(LocalDateTime.now());
+        failed.setIsSuccessful(false);
+        aggregator.record(failed);
+        
+        UptimeWindow window = aggregator.getUptimeWindows(endpoint.getId()).get(0);
+        assertThat(window.getUptime()).isZero();
+        assertThat(window.getErrorBudgetBurnRate()).isNull();
+        assertThatThrownBy(() -> new EndpointStatsAggregator(store, writeBehind,
+                Mockito.mock(ErrorMessageDictionary.class), 100.5, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private HealthCheck check(LocalDateTime checkedAt) {
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setApiEndpoint(endpoint);
+        healthCheck.setCheckedAt(checkedAt);
+        healthCheck.setIsSuccessful(true);
+        healthCheck.setStatusCode(200);
+        healthCheck.setResponseTimeMs(25L);
+        return healthCheck;
+    }
+}
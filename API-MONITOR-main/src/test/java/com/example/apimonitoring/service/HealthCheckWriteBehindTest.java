@@ -0,0 +1,114 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.repository.HealthCheckStore;
+import com.example.apimonitoring.repository.JournalCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffered mode against a store that fails: batches are retried with backoff and only dropped
+ * once the retries run out. Checks of deleted endpoints are skipped instead of failing the batch.
+ */
+class HealthCheckWriteBehindTest {
+    
+    private final HealthCheckStore store = Mockito.mock(HealthCheckStore.class);
+    private final ApiEndpointRepository endpointRepository = Mockito.mock(ApiEndpointRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<HealthCheck> written = new ArrayList<>();
+    
+    private HealthCheckWriteBehind writeBehind;
+    
+    @BeforeEach
+    void setUp() {
+        ProbeJournal journal = Mockito.mock(ProbeJournal.class);
+        when(journal.isEnabled()).thenReturn(false);
+        when(endpointRepository.findAllIds()).thenReturn(List.of(1L));
+        writeBehind = new HealthCheckWriteBehind(store, Mockito.mock(RollupService.class), journal,
+                Mockito.mock(JournalCheckpointRepository.class), endpointRepository,
+                Mockito.mock(ErrorMessageDictionary.class), Mockito.mock(PlatformTransactionManager.class),
+                meterRegistry, 100, 10, 10, 100, 1000, 10, 40, 2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+    }
+    
+    @Test
+    void retriesAFailedBatch() {
+        doAnswer(invocation -> {
+            invocation.<List<HealthCheck>>getArgument(0).forEach(healthCheck -> healthCheck.setId(1L));
+            throw new DataAccessResourceFailureException("database down");
+        }).doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(store).saveAll(anyList());
+        writeBehind.start();
+        
+        writeBehind.enqueue(healthCheck(1L));
+        
+        verify(store, timeout(5000).times(2)).saveAll(anyList());
+        assertThat(written).hasSize(1);
+        // Not the id handed out by the rolled back attempt
+        assertThat(written.get(0).getId()).isNull();
+        assertThat(meterRegistry.counter("monitoring.persistence.dropped").count()).isZero();
+    }
+    
+    @Test
+    void dropsABatchOnceTheRetriesRunOut() {
+        doAnswer(invocation -> {
+            invocation.<List<HealthCheck>>getArgument(0).forEach(healthCheck -> healthCheck.setId(1L));
+            throw new DataAccessResourceFailureException("database down");
+        }).when(store).saveAll(anyList());
+        writeBehind.start();
+        
+        writeBehind.enqueue(healthCheck(1L));
+        
+        // The first attempt and two retries
+        verify(store, timeout(5000).times(3)).saveAll(anyList());
+        writeBehind.stop();
+        assertThat(meterRegistry.counter("monitoring.persistence.dropped").count()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void skipsChecksOfEndpointsDeletedWhileTheyWereBuffered() throws InterruptedException {
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(store).saveAll(anyList());
+        writeBehind.start();
+        
+        // Endpoint 2 no longer exists
+        writeBehind.enqueue(healthCheck(2L));
+        writeBehind.enqueue(healthCheck(1L));
+        
+        assertThat(writeBehind.awaitWritten(5000)).isTrue();
+        assertThat(written).extracting(healthCheck -> healthCheck.getApiEndpoint().getId()).containsExactly(1L);
+        assertThat(meterRegistry.counter("monitoring.persistence.dropped").count()).isZero();
+    }
+    
+    private static HealthCheck healthCheck(Long endpointId) {
+        ApiEndpoint endpoint = new ApiEndpoint();
+        endpoint.setId(endpointId);
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setApiEndpoint(endpoint);
+        healthCheck.setCheckedAt(LocalDateTime.now());
+        healthCheck.setIsSuccessful(true);
+        healthCheck.setResponseTimeMs(20L);
+        return healthCheck;
+    }
+}
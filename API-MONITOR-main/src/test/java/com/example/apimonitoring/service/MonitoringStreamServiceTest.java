@@ -0,0 +1,62 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.MonitoringStats;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A check recorded while a new subscriber's snapshot is being built still reaches it as an update.
+ */
+class MonitoringStreamServiceTest {
+    
+    private final ApiEndpointService apiEndpointService = Mockito.mock(ApiEndpointService.class);
+    private final EndpointStatsAggregator aggregator = Mockito.mock(EndpointStatsAggregator.class);
+    private final AdaptiveIntervalPolicy adaptiveIntervalPolicy = Mockito.mock(AdaptiveIntervalPolicy.class);
+    
+    private MonitoringStreamService streamService;
+    
+    @BeforeEach
+    void setUp() {
+        streamService = new MonitoringStreamService(apiEndpointService, aggregator, adaptiveIntervalPolicy, new ObjectMapper(),
+                new SimpleMeterRegistry(), 60000, 60000, 10000, 1);
+        streamService.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        streamService.stop();
+    }
+    
+    @Test
+    void checksRecordedDuringTheSnapshotAreStreamed() {
+        ApiEndpoint endpoint = new ApiEndpoint();
+        endpoint.setId(1L);
+        HealthCheck healthCheck = new HealthCheck();
+        healthCheck.setApiEndpoint(endpoint);
+        when(aggregator.statsFor(any())).thenReturn(new MonitoringStats());
+        when(apiEndpointService.getAllEndpoints()).thenAnswer(invocation -> {
+            streamService.publish(healthCheck);
+            return List.of(endpoint);
+        });
+        
+        streamService.subscribe();
+        streamService.flush();
+        
+        // Once for the snapshot, once for the update, each with the interval the stats API reports
+        verify(aggregator, times(2)).statsFor(endpoint);
+        verify(adaptiveIntervalPolicy, times(2)).effectiveIntervalFor(endpoint);
+    }
+}
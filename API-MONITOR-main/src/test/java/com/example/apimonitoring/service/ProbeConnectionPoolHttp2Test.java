@@ -0,0 +1,138 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.ConnectionPoolStatus;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Probes a burst of endpoints on one local host over HTTP/1.1 and over HTTP/2, against a stub
+ * server that holds each response briefly, and compares the connections opened and the requests
+ * the pools count as multiplexed or fallen back.
+ */
+class ProbeConnectionPoolHttp2Test {
+    
+    private static final int PROBES = 48;
+    private static final Duration SERVER_DELAY = Duration.ofMillis(100);
+    private static final String STREAM_ID = HttpConversionUtil.ExtensionHeaderNames.STREAM_ID.text().toString();
+    
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Set<String> protocols = ConcurrentHashMap.newKeySet();
+    
+    private ProbeConnectionPool pool;
+    private DisposableServer server;
+    
+    @BeforeEach
+    void setUp() {
+        EndpointRegistry registry = new EndpointRegistry(Mockito.mock(ApiEndpointRepository.class));
+        pool = new ProbeConnectionPool(registry, new SimpleMeterRegistry(), 30000, 8, 256, 10000, 0, 55000,
+                600000, 5000, false, true, 1, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.disposeNow();
+        }
+        pool.close();
+    }
+    
+    @Test
+    void http2MultiplexesABurstOverOneConnection() {
+        server = startServer(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        String url = "http://localhost:" + server.port() + "/health";
+        
+        burst(pool.configure(HttpClient.create(pool.getConnectionProvider())), endpoint(url, ApiEndpoint.PROTOCOL_HTTP1));
+        int http1Connections = clientPorts.size();
+        
+        clientPorts.clear();
+        protocols.clear();
+        burst(pool.configureHttp2(HttpClient.create(pool.getHttp2ConnectionProvider())), endpoint(url, ApiEndpoint.PROTOCOL_HTTP2));
+        int http2Connections = clientPorts.size();
+        
+        assertThat(protocols).containsExactly("h2");
+        assertThat(http2Connections).isEqualTo(1);
+        assertThat(http1Connections).isGreaterThan(http2Connections);
+        
+        ConnectionPoolStatus http1Status = statusOf(ApiEndpoint.PROTOCOL_HTTP1);
+        assertThat(http1Status.getNewConnectionAcquires()).isEqualTo(http1Connections);
+        assertThat(http1Status.getReusedAcquires()).isEqualTo(PROBES - http1Connections);
+        ConnectionPoolStatus status = statusOf(ApiEndpoint.PROTOCOL_HTTP2);
+        assertThat(status.getMultiplexedRequests()).isEqualTo(PROBES);
+        assertThat(status.getFallbackRequests()).isZero();
+    }
+    
+    @Test
+    void http2FallsBackToHttp11WhenTheServerDeclines() {
+        server = startServer(HttpProtocol.HTTP11);
+        String url = "http://localhost:" + server.port() + "/health";
+        
+        burst(pool.configureHttp2(HttpClient.create(pool.getHttp2ConnectionProvider())), endpoint(url, ApiEndpoint.PROTOCOL_HTTP2));
+        
+        assertThat(protocols).containsExactly("http/1.1");
+        ConnectionPoolStatus status = statusOf(ApiEndpoint.PROTOCOL_HTTP2);
+        assertThat(status.getFallbackRequests()).isEqualTo(PROBES);
+        assertThat(status.getMultiplexedRequests()).isZero();
+    }
+    
+    private DisposableServer startServer(HttpProtocol... serverProtocols) {
+        return HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(serverProtocols)
+                .handle((request, response) -> {
+                    clientPorts.add(((InetSocketAddress) request.remoteAddress()).getPort());
+                    // Streams are converted to HTTP/1.1 objects, tagged with their HTTP/2 stream id
+                    protocols.add(request.requestHeaders().contains(STREAM_ID) ? "h2" : "http/1.1");
+                    return Mono.delay(SERVER_DELAY).then(response.status(200).send());
+                })
+                .bindNow();
+    }
+    
+    private void burst(HttpClient client, ApiEndpoint endpoint) {
+        List<Integer> statuses = Flux.range(0, PROBES)
+                .flatMap(i -> {
+                    ProbeTrace trace = pool.track(endpoint);
+                    return client.get().uri(endpoint.getUrl())
+                            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                            .contextWrite(trace.context());
+                }, PROBES)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        assertThat(statuses).hasSize(PROBES).containsOnly(200);
+    }
+    
+    private ConnectionPoolStatus statusOf(String protocol) {
+        return pool.getStatus().stream()
+                .filter(status -> protocol.equals(status.getProtocol()))
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    private static ApiEndpoint endpoint(String url, String protocol) {
+        ApiEndpoint endpoint = new ApiEndpoint();
+        endpoint.setId(1L);
+        endpoint.setUrl(url);
+        endpoint.setProbeProtocol(protocol);
+        return endpoint;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * The idle connection limit follows the active endpoints as they change, the way the registry
+ * and the pool see endpoint events in the application.
+ */
+class ProbeConnectionPoolTest {
+    
+    private final ApiEndpointRepository repository = Mockito.mock(ApiEndpointRepository.class);
+    
+    private EndpointRegistry registry;
+    private ProbeConnectionPool pool;
+    
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll()).thenReturn(List.of());
+        registry = new EndpointRegistry(repository);
+        registry.load();
+        pool = new ProbeConnectionPool(registry, new SimpleMeterRegistry(), 30000, 8, 256, 10000, 0, 55000,
+                600000, 5000, false, true, 1, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+    
+    @Test
+    void keepAliveIsRecomputedWhenEndpointsChange() {
+        assertThat(pool.getMaxIdleMs()).isEqualTo(37500);
+        
+        ApiEndpoint slow = endpoint(1L, 40000L);
+        changed(new EndpointChangedEvent(EndpointChangedEvent.Type.CREATED, 1L, slow));
+        assertThat(pool.getMaxIdleMs()).isEqualTo(50000);
+        
+        // Capped below common server keep-alive timeouts
+        changed(new EndpointChangedEvent(EndpointChangedEvent.Type.UPDATED, 1L, endpoint(1L, 120000L)));
+        assertThat(pool.getMaxIdleMs()).isEqualTo(55000);
+        
+        ApiEndpoint paused = endpoint(1L, 120000L);
+        paused.setIsActive(false);
+        changed(new EndpointChangedEvent(EndpointChangedEvent.Type.UPDATED, 1L, paused));
+        assertThat(pool.getMaxIdleMs()).isEqualTo(37500);
+        
+        changed(new EndpointChangedEvent(EndpointChangedEvent.Type.UPDATED, 1L, slow));
+        changed(new EndpointChangedEvent(EndpointChangedEvent.Type.DELETED, 1L, null));
+        assertThat(pool.getMaxIdleMs()).isEqualTo(37500);
+    }
+    
+    @Test
+    void aConfiguredKeepAliveIsLeftAlone() {
+        ProbeConnectionPool fixed = new ProbeConnectionPool(registry, new SimpleMeterRegistry(), 30000, 8, 256, 10000,
+                20000, 55000, 600000, 5000, false, true, 1, 100);
+        try {
+            changed(new EndpointChangedEvent(EndpointChangedEvent.Type.CREATED, 1L, endpoint(1L, 40000L)));
+            fixed.onEndpointChanged(new EndpointChangedEvent(EndpointChangedEvent.Type.CREATED, 1L, endpoint(1L, 40000L)));
+            assertThat(fixed.getMaxIdleMs()).isEqualTo(20000);
+        } finally {
+            fixed.close();
+        }
+    }
+    
+    // Registry first, as its listener runs at the highest precedence
+    private void changed(EndpointChangedEvent event) {
+        registry.onEndpointChanged(event);
+        pool.onEndpointChanged(event);
+    }
+    
+    private static ApiEndpoint endpoint(Long id, Long checkIntervalMs) {
+        ApiEndpoint endpoint = new ApiEndpoint("slow", "https://slow.example.com/health", "GET");
+        endpoint.setId(id);
+        endpoint.setCheckIntervalMs(checkIntervalMs);
+        endpoint.setIsActive(true);
+        return endpoint;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.DnsCacheStatus;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resolves through the probe DNS cache against a stub name server on localhost, which answers
+ * A queries for a few known names with a one second TTL and NXDOMAIN for anything else.
+ */
+class ProbeDnsResolverTest {
+    
+    private static final int TTL_SECONDS = 1;
+    private static final Set<String> KNOWN_HOSTS = Set.of("alpha.probe.test", "beta.probe.test", "gamma.probe.test");
+    
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+    
+    private NioEventLoopGroup serverLoop;
+    private Channel serverChannel;
+    private ProbeDnsResolver resolver;
+    
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        serverLoop = new NioEventLoopGroup(1);
+        serverChannel = new Bootstrap()
+                .group(serverLoop)
+                .channel(NioDatagramChannel.class)
+                .handler(new ChannelInitializer<DatagramChannel>() {
+                    @Override
+                    protected void initChannel(DatagramChannel channel) {
+                        channel.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(),
+                                new StubNameServer());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .sync()
+                .channel();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (resolver != null) {
+            resolver.close();
+        }
+        serverChannel.close().syncUninterruptibly();
+        serverLoop.shutdownGracefully().syncUninterruptibly();
+    }
+    
+    @Test
+    void answersFromCacheUntilTheTtlExpires() throws InterruptedException {
+        resolver = newResolver(16);
+        
+        assertThat(resolve("alpha.probe.test").isSuccess()).isTrue();
+        int firstQueries = queriesFor("alpha.probe.test");
+        assertThat(firstQueries).isPositive();
+        
+        Future<InetSocketAddress> cached = resolve("alpha.probe.test");
+        assertThat(cached.isSuccess()).isTrue();
+        assertThat(cached.getNow().getAddress().getHostAddress()).isEqualTo("127.0.0.1");
+        assertThat(queriesFor("alpha.probe.test")).isEqualTo(firstQueries);
+        DnsCacheStatus status = resolver.getStatus();
+        assertThat(status.getHits()).isPositive();
+        assertThat(status.getCachedHosts()).isEqualTo(1);
+        
+        Thread.sleep(TTL_SECONDS * 1000L + 500);
+        
+        // Expired hostnames stop counting before anything looks them up again
+        assertThat(resolver.getStatus().getCachedHosts()).isZero();
+        assertThat(resolve("alpha.probe.test").isSuccess()).isTrue();
+        assertThat(queriesFor("alpha.probe.test")).isGreaterThan(firstQueries);
+        assertThat(resolver.getStatus().getCachedHosts()).isEqualTo(1);
+    }
+    
+    @Test
+    void cachesFailedLookups() {
+        resolver = newResolver(16);
+        
+        assertThat(resolve("missing.probe.test").isSuccess()).isFalse();
+        int firstQueries = queriesFor("missing.probe.test");
+        assertThat(firstQueries).isPositive();
+        
+        assertThat(resolve("missing.probe.test").isSuccess()).isFalse();
+        assertThat(queriesFor("missing.probe.test")).isEqualTo(firstQueries);
+        assertThat(resolver.getStatus().getNegativeHits()).isPositive();
+    }
+    
+    @Test
+    void dropsTheLeastRecentlyUsedHostBeyondMaxHosts() {
+        resolver = newResolver(2);
+        
+        resolve("alpha.probe.test");
+        resolve("beta.probe.test");
+        resolve("gamma.probe.test");
+        int alphaQueries = queriesFor("alpha.probe.test");
+        
+        DnsCacheStatus status = resolver.getStatus();
+        assertThat(status.getCachedHosts()).isEqualTo(2);
+        assertThat(status.getEvictions()).isEqualTo(1);
+        
+        assertThat(resolve("alpha.probe.test").isSuccess()).isTrue();
+        assertThat(queriesFor("alpha.probe.test")).isGreaterThan(alphaQueries);
+    }
+    
+    private ProbeDnsResolver newResolver(int maxHosts) {
+        InetSocketAddress server = (InetSocketAddress) serverChannel.localAddress();
+        EndpointRegistry registry = new EndpointRegistry(Mockito.mock(ApiEndpointRepository.class));
+        return new ProbeDnsResolver(registry, new SimpleMeterRegistry(), true, false, maxHosts, 0, TTL_SECONDS,
+                TTL_SECONDS, 1000, List.of("127.0.0.1:" + server.getPort()));
+    }
+    
+    private Future<InetSocketAddress> resolve(String hostname) {
+        return resolver.resolve(InetSocketAddress.createUnresolved(hostname, 80)).awaitUninterruptibly();
+    }
+    
+    private int queriesFor(String hostname) {
+        AtomicInteger count = queries.get(hostname);
+        return count == null ? 0 : count.get();
+    }
+    
+    private final class StubNameServer extends SimpleChannelInboundHandler<DatagramDnsQuery> {
+        
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) {
+            DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+            String name = question.name().endsWith(".")
+                    ? question.name().substring(0, question.name().length() - 1)
+                    : question.name();
+            queries.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+            
+            DatagramDnsResponse response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+            response.addRecord(DnsSection.QUESTION, question);
+            if (!KNOWN_HOSTS.contains(name)) {
+                response.setCode(DnsResponseCode.NXDOMAIN);
+            } else if (question.type() == DnsRecordType.A) {
+                response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A,
+                        TTL_SECONDS, Unpooled.wrappedBuffer(new byte[] {127, 0, 0, 1})));
+            }
+            ctx.writeAndFlush(response);
+        }
+    }
+}
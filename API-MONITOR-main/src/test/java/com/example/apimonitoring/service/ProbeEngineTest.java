@@ -0,0 +1,121 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.dto.ProbeTickResult;
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the execution modes on one tick each against probes that take a fixed time and never
+ * leave the JVM: the concurrent modes overlap their probes, the sequential one does not. Also
+ * covers the built-in comparison, which uses its own simulated probes.
+ */
+class ProbeEngineTest {
+    
+    private static final int ENDPOINTS = 20;
+    private static final Duration PROBE_LATENCY = Duration.ofMillis(50);
+    
+    private final HealthCheckService healthCheckService = Mockito.mock(HealthCheckService.class);
+    private final AtomicInteger recorded = new AtomicInteger();
+    
+    private ProbeEngine probeEngine;
+    
+    @BeforeEach
+    void setUp() {
+        when(healthCheckService.probe(any())).thenAnswer(invocation -> {
+            HealthCheck healthCheck = new HealthCheck(invocation.getArgument(0));
+            healthCheck.setIsSuccessful(true);
+            return Mono.just(healthCheck).delayElement(PROBE_LATENCY);
+        });
+        when(healthCheckService.recordHealthCheck(any())).thenAnswer(invocation -> {
+            recorded.incrementAndGet();
+            return invocation.getArgument(0);
+        });
+        probeEngine = new ProbeEngine(healthCheckService, new SimpleMeterRegistry(), "reactive", 64, 1024, 4, true);
+        probeEngine.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        probeEngine.stop();
+    }
+    
+    @Test
+    void everyModeRecordsEachProbeAndOnlyTheConcurrentOnesOverlap() {
+        List<ApiEndpoint> endpoints = endpoints();
+        
+        ProbeTickResult sequential = probeEngine.runAll(endpoints, ProbeEngine.Mode.SEQUENTIAL);
+        ProbeTickResult virtual = probeEngine.runAll(endpoints, ProbeEngine.Mode.VIRTUAL);
+        ProbeTickResult reactive = probeEngine.runAll(endpoints, ProbeEngine.Mode.REACTIVE);
+        
+        assertThat(recorded.get()).isEqualTo(3 * ENDPOINTS);
+        for (ProbeTickResult result : List.of(sequential, virtual, reactive)) {
+            assertThat(result.getSuccessfulChecks()).isEqualTo(ENDPOINTS);
+            assertThat(result.getFailedChecks()).isZero();
+        }
+        assertThat(sequential.getPeakInFlight()).isEqualTo(1);
+        assertThat(sequential.getDurationMs()).isGreaterThanOrEqualTo(ENDPOINTS * PROBE_LATENCY.toMillis());
+        assertThat(virtual.getPeakInFlight()).isGreaterThan(1);
+        assertThat(virtual.getDurationMs()).isLessThan(sequential.getDurationMs() / 2);
+        assertThat(reactive.getPeakInFlight()).isGreaterThan(1);
+        assertThat(reactive.getDurationMs()).isLessThan(sequential.getDurationMs() / 2);
+    }
+    
+    @Test
+    void compareModesRunsEachModeOnSimulatedProbesWithoutTouchingTheService() {
+        List<ProbeTickResult> results = probeEngine.compareModes(ENDPOINTS, PROBE_LATENCY);
+        
+        assertThat(results).extracting(ProbeTickResult::getMode).containsExactly("sequential", "virtual", "reactive");
+        for (ProbeTickResult result : results) {
+            assertThat(result.getSuccessfulChecks()).isEqualTo(ENDPOINTS);
+            assertThat(result.getHeapUsedBeforeBytes()).isPositive();
+            assertThat(result.getHeapUsedAfterBytes()).isPositive();
+        }
+        assertThat(results.get(0).getPeakInFlight()).isEqualTo(1);
+        assertThat(results.get(1).getPeakInFlight()).isGreaterThan(1);
+        assertThat(results.get(2).getPeakInFlight()).isGreaterThan(1);
+        verify(healthCheckService, never()).probe(any());
+        verify(healthCheckService, never()).recordHealthCheck(any());
+        assertThat(probeEngine.getStatus().getLastTick()).isNull();
+    }
+    
+    @Test
+    void compareModesIsRefusedUnlessBenchmarksAreEnabled() {
+        ProbeEngine disabled = new ProbeEngine(healthCheckService, new SimpleMeterRegistry(), "reactive", 64, 1024, 4, false);
+        try {
+            assertThatThrownBy(() -> disabled.compareModes(ENDPOINTS, PROBE_LATENCY)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            disabled.stop();
+        }
+        assertThatThrownBy(() -> probeEngine.compareModes(ProbeEngine.MAX_COMPARISON_ENDPOINTS + 1, PROBE_LATENCY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static List<ApiEndpoint> endpoints() {
+        List<ApiEndpoint> endpoints = new ArrayList<>();
+        for (long id = 1; id <= ENDPOINTS; id++) {
+            ApiEndpoint endpoint = new ApiEndpoint();
+            endpoint.setId(id);
+            endpoint.setName("endpoint-" + id);
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.apimonitoring.service;
+
+import com.example.apimonitoring.model.ApiEndpoint;
+import com.example.apimonitoring.model.HealthCheck;
+import com.example.apimonitoring.model.HealthCheckRollup;
+import com.example.apimonitoring.model.RollupBackfill;
+import com.example.apimonitoring.model.RollupTier;
+import com.example.apimonitoring.repository.ApiEndpointRepository;
+import com.example.apimonitoring.repository.JpaHealthCheckStore;
+import com.example.apimonitoring.repository.RollupBackfillRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The rollup backfill on the Flyway-migrated schema: it runs until its completion is recorded,
+ * whatever the rollup table already holds, and only once.
+ */
+@DataJpaTest(showSql = false)
+@Import({RollupService.class, JpaHealthCheckStore.class})
+class RollupServiceTest {
+    
+    private static final LocalDateTime HOUR = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private JpaHealthCheckStore store;
+    
+    @Autowired
+    private ApiEndpointRepository apiEndpointRepository;
+    
+    @Autowired
+    private RollupBackfillRepository backfillRepository;
+    
+    @Test
+    void backfillRebuildsRollupsAppliedBeforeItRanAndThenNeverRunsAgain() {
+        // The context ran the backfill on an empty database at startup; start over as if it had failed
+        backfillRepository.deleteAll();
+        ApiEndpoint endpoint = apiEndpointRepository.save(new ApiEndpoint("Rollup", "http://localhost/health", "GET"));
+        // History from before the upgrade, then a batch rolled up live before the backfill got to run
+        store.saveAll(List.of(check(endpoint, 1, 100L), check(endpoint, 2, 200L)));
+        List<HealthCheck> live = List.of(check(endpoint, 3, 300L));
+        store.saveAll(live);
+        rollupService.apply(live);
+        
+        rollupService.backfill();
+        
+        assertThat(hourlyCheckCount(endpoint)).isEqualTo(3);
+        assertThat(rollupService.findRange(endpoint.getId(), RollupTier.MINUTE, HOUR, HOUR.plusHours(1)))
+                .extracting(HealthCheckRollup::getCheckCount).containsExactly(1L, 1L, 1L);
+        assertThat(backfillRepository.findById(RollupBackfill.SINGLETON_ID))
+                .map(RollupBackfill::getBackfilledRows).contains(5L);
+        
+        // Once recorded, the backfill leaves the rollups alone even if raw history is gone
+        store.deleteByEndpoint(endpoint.getId());
+        rollupService.backfill();
+        assertThat(hourlyCheckCount(endpoint)).isEqualTo(3);
+    }
+    
+    private long hourlyCheckCount(ApiEndpoint endpoint) {
+        return rollupService.findRange(endpoint.getId(), RollupTier.HOUR, HOUR, HOUR.plusHours(1)).stream()
+                .mapToLong(HealthCheckRollup::getCheckCount)
+                .sum();
+    }
+    
+    private static HealthCheck check(ApiEndpoint endpoint, int minute, Long responseTimeMs) {
+        HealthCheck healthCheck = new HealthCheck(endpoint);
+        healthCheck.setCheckedAt(HOUR.plusMinutes(minute));
+        healthCheck.setIsSuccessful(true);
+        healthCheck.setStatusCode(200);
+        healthCheck.setResponseTimeMs(responseTimeMs);
+        return healthCheck;
+    }
+}